@@ -0,0 +1,60 @@
+/*
+ * OpenEdge plugin for SonarQube
+ * Copyright (c) 2015-2018 Riverside Software
+ * contact AT riverside DASH software DOT fr
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package eu.rssw.openedge.benchmarks;
+
+import java.io.IOException;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Same command line as JMH, but allocation profiling (gc.alloc.rate.norm) is always enabled, and results are written
+ * in JSON format (jmh-result.json by default), so that they can be compared with a baseline.
+ */
+public final class BenchmarkMain {
+
+  private BenchmarkMain() {
+    // No constructor
+  }
+
+  public static void main(String[] args) throws CommandLineOptionException, RunnerException, IOException {
+    CommandLineOptions cmdOptions = new CommandLineOptions(args);
+    if (cmdOptions.shouldHelp() || cmdOptions.shouldList() || cmdOptions.shouldListProfilers()
+        || cmdOptions.shouldListResultFormats()) {
+      org.openjdk.jmh.Main.main(args);
+      return;
+    }
+    OptionsBuilder builder = new OptionsBuilder();
+    builder.parent(cmdOptions);
+    if (cmdOptions.getProfilers().stream().noneMatch(prof -> GCProfiler.class.getName().equals(prof.getKlass())
+        || "gc".equals(prof.getKlass())))
+      builder.addProfiler(GCProfiler.class);
+    if (!cmdOptions.getResultFormat().hasValue())
+      builder.resultFormat(ResultFormatType.JSON);
+    Options options = builder.build();
+    new Runner(options).run();
+  }
+}
@@ -0,0 +1,92 @@
+/*
+ * OpenEdge plugin for SonarQube
+ * Copyright (c) 2015-2018 Riverside Software
+ * contact AT riverside DASH software DOT fr
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package eu.rssw.openedge.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.prorefactor.refactor.RefactorSession;
+import org.prorefactor.treeparser.ParseUnit;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.fs.InputFile.Type;
+import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
+import org.sonar.api.batch.sensor.internal.SensorContextTester;
+import org.sonar.plugins.openedge.api.Constants;
+import org.sonar.plugins.openedge.foundation.CPDCallback;
+import org.sonar.plugins.openedge.foundation.OpenEdgeSettings;
+
+import antlr.ANTLRException;
+
+/**
+ * CPDCallback on the proparse corpus. Files are parsed once, and tokens are generated but not saved.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CPDBenchmark {
+  private SensorContextTester context;
+  private OpenEdgeSettings settings;
+  private final List<InputFile> files = new ArrayList<>();
+  private final List<ParseUnit> units = new ArrayList<>();
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException, ANTLRException {
+    File baseDir = ProparseCorpus.getResourcesDirectory();
+    RefactorSession session = ProparseCorpus.createSession();
+    context = SensorContextTester.create(baseDir);
+    settings = new OpenEdgeSettings(context.config(), context.fileSystem());
+    for (File file : ProparseCorpus.getFiles(session)) {
+      InputFile inputFile = TestInputFileBuilder.create("", baseDir, file).setLanguage(
+          Constants.LANGUAGE_KEY).setType(Type.MAIN).setCharset(session.getCharset()).setContents(
+              new String(TestResources.readFile(file), session.getCharset())).build();
+      ParseUnit unit = new ParseUnit(file, session);
+      unit.treeParser01();
+      files.add(inputFile);
+      units.add(unit);
+    }
+  }
+
+  @Benchmark
+  public void cpdTokens(Blackhole blackhole) {
+    for (int zz = 0; zz < files.size(); zz++) {
+      CPDCallback callback = new CPDCallback(context, files.get(zz), settings, units.get(zz));
+      units.get(zz).getTopNode().walk(callback);
+      blackhole.consume(callback.getResult());
+    }
+  }
+}
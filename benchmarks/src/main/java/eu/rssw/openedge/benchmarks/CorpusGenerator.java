@@ -0,0 +1,680 @@
+/*
+ * OpenEdge plugin for SonarQube
+ * Copyright (c) 2015-2018 Riverside Software
+ * contact AT riverside DASH software DOT fr
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package eu.rssw.openedge.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Reproducible synthetic OpenEdge project, for scale and soak testing: procedures, AppBuilder windows, classes and
+ * include files, with a matching dump file, class rcode, listing files and profiler sessions. The same seed and the
+ * same settings always generate the same project.
+ * <p>
+ * Layout of the generated project:
+ * <ul>
+ * <li><code>src</code>: source code (procedures, windows, classes and include files), also the propath</li>
+ * <li><code>db/synth.df</code>: schema of the <code>synth</code> database</li>
+ * <li><code>build</code>: rcode of classes and interfaces, and listing files in <code>build/.pct</code></li>
+ * <li><code>profiler</code>: profiler sessions, each one executing a random subset of the procedures and classes</li>
+ * </ul>
+ * Usage: <code>CorpusGenerator outputDir</code>, settings are read from <code>corpus.*</code> system properties
+ * (see {@link #fromProperties(Properties)}).
+ */
+public class CorpusGenerator {
+  public static final String SOURCE_DIR = "src";
+  public static final String BUILD_DIR = "build";
+  public static final String PROFILER_DIR = "profiler";
+  public static final String DUMP_FILE = "db/synth.df";
+
+  private static final String PACKAGE = "synth";
+  private static final String INTERFACE = PACKAGE + ".IService";
+  private static final String ROOT_CLASS = "Progress.Lang.Object";
+  private static final String PROPERTY_PREFIX = "corpus.";
+  private static final String DATE = "01/01/2020";
+  private static final String TIME = "10:00:00";
+  private static final int PROCEDURES_PER_DIR = 100;
+  private static final int WIDGETS_PER_FRAME = 40;
+  private static final int LINES_PER_WIDGET = 15;
+
+  private long seed = 1;
+  private int numProcedures = 200;
+  private int numWindows = 10;
+  private int numClasses = 100;
+  private int numTables = 200;
+  private int numProfilerSessions = 4;
+  private int includeDepth = 3;
+  private int preprocessorDensity = 20;
+  private int hierarchyDepth = 5;
+  private int fileSize = 500;
+  private int windowSize = 5000;
+
+  // Current generation
+  private Random random;
+  private File baseDir;
+  private final List<Module> modules = new ArrayList<>();
+  private int numFiles;
+  private long numLines;
+  private long numBytes;
+
+  public static void main(String[] args) throws IOException {
+    if (args.length == 0) {
+      System.err.println("Usage: CorpusGenerator outputDir");
+      System.exit(2);
+    }
+    CorpusGenerator generator = fromProperties(System.getProperties());
+    generator.generate(new File(args[0]));
+    System.out.println(generator.getNumFiles() + " source files, " + generator.getNumLines() + " lines, "
+        + generator.getNumBytes() + " bytes generated in " + args[0]);
+  }
+
+  /**
+   * Reads settings from properties <code>corpus.seed</code>, <code>corpus.procedures</code>,
+   * <code>corpus.windows</code>, <code>corpus.classes</code>, <code>corpus.tables</code>,
+   * <code>corpus.profilerSessions</code>, <code>corpus.includeDepth</code>, <code>corpus.preprocessorDensity</code>,
+   * <code>corpus.hierarchyDepth</code>, <code>corpus.fileSize</code> and <code>corpus.windowSize</code>. Default value
+   * is used for missing properties.
+   */
+  public static CorpusGenerator fromProperties(Properties props) {
+    CorpusGenerator generator = new CorpusGenerator();
+    generator.seed = Long.parseLong(props.getProperty(PROPERTY_PREFIX + "seed", Long.toString(generator.seed)));
+    generator.setNumProcedures(getInt(props, "procedures", generator.numProcedures));
+    generator.setNumWindows(getInt(props, "windows", generator.numWindows));
+    generator.setNumClasses(getInt(props, "classes", generator.numClasses));
+    generator.setNumTables(getInt(props, "tables", generator.numTables));
+    generator.setNumProfilerSessions(getInt(props, "profilerSessions", generator.numProfilerSessions));
+    generator.setIncludeDepth(getInt(props, "includeDepth", generator.includeDepth));
+    generator.setPreprocessorDensity(getInt(props, "preprocessorDensity", generator.preprocessorDensity));
+    generator.setHierarchyDepth(getInt(props, "hierarchyDepth", generator.hierarchyDepth));
+    generator.setFileSize(getInt(props, "fileSize", generator.fileSize));
+    generator.setWindowSize(getInt(props, "windowSize", generator.windowSize));
+    return generator;
+  }
+
+  private static int getInt(Properties props, String name, int defaultValue) {
+    return Integer.parseInt(props.getProperty(PROPERTY_PREFIX + name, Integer.toString(defaultValue)));
+  }
+
+  public CorpusGenerator setSeed(long seed) {
+    this.seed = seed;
+    return this;
+  }
+
+  public CorpusGenerator setNumProcedures(int numProcedures) {
+    this.numProcedures = checkRange("procedures", numProcedures, 0);
+    return this;
+  }
+
+  public CorpusGenerator setNumWindows(int numWindows) {
+    this.numWindows = checkRange("windows", numWindows, 0);
+    return this;
+  }
+
+  public CorpusGenerator setNumClasses(int numClasses) {
+    this.numClasses = checkRange("classes", numClasses, 0);
+    return this;
+  }
+
+  /**
+   * Number of tables in the schema, each one with 10 fields and 2 indexes
+   */
+  public CorpusGenerator setNumTables(int numTables) {
+    this.numTables = checkRange("tables", numTables, 1);
+    return this;
+  }
+
+  public CorpusGenerator setNumProfilerSessions(int numProfilerSessions) {
+    this.numProfilerSessions = checkRange("profilerSessions", numProfilerSessions, 0);
+    return this;
+  }
+
+  /**
+   * Each procedure includes a chain of includeDepth nested include files. 0 to disable include files.
+   */
+  public CorpusGenerator setIncludeDepth(int includeDepth) {
+    this.includeDepth = checkRange("includeDepth", includeDepth, 0);
+    return this;
+  }
+
+  /**
+   * Percentage of code chunks enclosed in preprocessor conditions
+   */
+  public CorpusGenerator setPreprocessorDensity(int preprocessorDensity) {
+    this.preprocessorDensity = checkRange("preprocessorDensity", preprocessorDensity, 0);
+    if (preprocessorDensity > 100)
+      throw new IllegalArgumentException("Invalid preprocessorDensity value " + preprocessorDensity);
+    return this;
+  }
+
+  /**
+   * Number of classes in each inheritance chain, the first one implementing an interface
+   */
+  public CorpusGenerator setHierarchyDepth(int hierarchyDepth) {
+    this.hierarchyDepth = checkRange("hierarchyDepth", hierarchyDepth, 1);
+    return this;
+  }
+
+  /**
+   * Approximate number of lines of procedures and classes
+   */
+  public CorpusGenerator setFileSize(int fileSize) {
+    this.fileSize = checkRange("fileSize", fileSize, 1);
+    return this;
+  }
+
+  /**
+   * Approximate number of lines of windows
+   */
+  public CorpusGenerator setWindowSize(int windowSize) {
+    this.windowSize = checkRange("windowSize", windowSize, 1);
+    return this;
+  }
+
+  private static int checkRange(String name, int value, int min) {
+    if (value < min)
+      throw new IllegalArgumentException("Invalid " + name + " value " + value);
+    return value;
+  }
+
+  /**
+   * Number of source files (procedures, windows, classes and include files) of last generated project
+   */
+  public int getNumFiles() {
+    return numFiles;
+  }
+
+  public long getNumLines() {
+    return numLines;
+  }
+
+  public long getNumBytes() {
+    return numBytes;
+  }
+
+  /**
+   * Generates project in baseDir. Existing files are overwritten.
+   */
+  public void generate(File baseDir) throws IOException {
+    this.baseDir = baseDir;
+    this.random = new Random(seed);
+    modules.clear();
+    numFiles = 0;
+    numLines = 0;
+    numBytes = 0;
+
+    writeFile(DUMP_FILE, SyntheticInputs.dumpFile(numTables).getBytes(StandardCharsets.UTF_8));
+    for (int chain = 0; chain < getNumIncludeChains(); chain++) {
+      for (int level = 0; level < includeDepth; level++) {
+        generateInclude(chain, level);
+      }
+    }
+    if (numClasses > 0)
+      generateInterface();
+    for (int zz = 0; zz < numClasses; zz++) {
+      generateClass(zz / hierarchyDepth, zz % hierarchyDepth);
+    }
+    for (int zz = 0; zz < numProcedures; zz++) {
+      generateProcedure(zz);
+    }
+    for (int zz = 0; zz < numWindows; zz++) {
+      generateWindow(zz);
+    }
+    for (int zz = 0; zz < numProfilerSessions; zz++) {
+      generateProfilerSession(zz);
+    }
+  }
+
+  private int getNumIncludeChains() {
+    return includeDepth == 0 ? 0 : Math.max(1, numProcedures / 10);
+  }
+
+  private static String getIncludeName(int chain, int level) {
+    return "inc/chain" + chain + "/level" + level + ".i";
+  }
+
+  private static String getClassName(int chain, int level) {
+    return PACKAGE + ".chain" + chain + ".Level" + level;
+  }
+
+  private String getTable() {
+    return "Table" + random.nextInt(numTables);
+  }
+
+  private void generateInclude(int chain, int level) throws IOException {
+    String guard = "INC_CHAIN" + chain + "_" + level;
+    Source src = new Source();
+    src.line("/* Generated include file - Chain " + chain + " - Level " + level + " */");
+    src.line("&IF DEFINED(" + guard + ") = 0 &THEN");
+    src.line("&GLOBAL-DEFINE " + guard + " {&LEVEL}");
+    src.line("DEFINE VARIABLE inc" + chain + "x" + level + " AS INTEGER NO-UNDO INITIAL {&LEVEL}.");
+    src.line("FUNCTION inc" + chain + "f" + level + " RETURNS INTEGER (INPUT prm AS INTEGER):");
+    src.line("  RETURN prm + {&LEVEL} + inc" + chain + "x" + level + ".");
+    src.line("END FUNCTION.");
+    src.line("FIND FIRST {&TABLE} NO-LOCK NO-ERROR.");
+    if (level + 1 < includeDepth) {
+      src.line("{" + getIncludeName(chain, level + 1) + " &LEVEL=" + (level + 1) + " &TABLE={&TABLE}}");
+    }
+    src.line("&ENDIF");
+    writeSource(getIncludeName(chain, level), src);
+  }
+
+  private void generateInterface() throws IOException {
+    Source src = new Source();
+    src.line("/* Generated interface */");
+    src.line("INTERFACE " + INTERFACE + ":");
+    src.line("  METHOD PUBLIC INTEGER Execute().");
+    src.line("END INTERFACE.");
+    writeSource(INTERFACE.replace('.', '/') + ".cls", src);
+    writeFile(BUILD_DIR + '/' + INTERFACE.replace('.', '/') + ".r", SyntheticRCode.classRCode(INTERFACE, ROOT_CLASS,
+        SyntheticRCode.IS_INTERFACE, Collections.emptyList(), Arrays.asList("Execute")));
+  }
+
+  private void generateClass(int chain, int level) throws IOException {
+    String className = getClassName(chain, level);
+    String parentName = level == 0 ? ROOT_CLASS : getClassName(chain, level - 1);
+    Source src = new Source();
+    src.line("/* Generated class - Chain " + chain + " - Level " + level + " */");
+    src.block("Class", false, "", "CLASS " + className + (level == 0 ? " IMPLEMENTS " + INTERFACE
+        : " INHERITS " + parentName) + ":");
+    src.line("  DEFINE PRIVATE VARIABLE total AS INTEGER NO-UNDO.");
+    src.line("  DEFINE PRIVATE TEMP-TABLE ttData NO-UNDO FIELD f1 AS INTEGER FIELD f2 AS CHARACTER INDEX pk IS PRIMARY f1.");
+    src.line("  DEFINE PUBLIC PROPERTY Name" + level + " AS CHARACTER NO-UNDO GET. SET.");
+
+    // Body of work methods, then Execute method calling all of them
+    Source body = new Source();
+    List<String> methods = new ArrayList<>();
+    while (src.numLines + body.numLines < fileSize) {
+      String name = "Work" + level + "x" + methods.size();
+      methods.add(name);
+      body.line("");
+      body.block("Method", false, "Method " + name, "  METHOD PUBLIC INTEGER " + name + "():");
+      for (int zz = 0; zz < 3; zz++) {
+        generateChunk(body, "    ", false);
+      }
+      body.statement("    RETURN total.");
+      body.line("  END METHOD.");
+    }
+    src.line("");
+    src.block("Method", false, "Method Execute", "  METHOD PUBLIC " + (level == 0 ? "" : "OVERRIDE ")
+        + "INTEGER Execute():");
+    src.statement("    total = 0.");
+    for (String name : methods) {
+      src.statement("    total = total + " + name + "().");
+    }
+    src.statement(level == 0 ? "    RETURN total." : "    RETURN SUPER:Execute() + total.");
+    src.line("  END METHOD.");
+    src.append(body);
+    src.line("END CLASS.");
+
+    String relPath = className.replace('.', '/') + ".cls";
+    writeSource(relPath, src);
+    writeListing(relPath, "Class", src);
+    methods.add(0, "Execute");
+    writeFile(BUILD_DIR + '/' + className.replace('.', '/') + ".r", SyntheticRCode.classRCode(className, parentName, 0,
+        level == 0 ? Arrays.asList(INTERFACE) : Collections.emptyList(), methods));
+    modules.add(new Module(className, src.statements));
+  }
+
+  private void generateProcedure(int num) throws IOException {
+    String relPath = "procedures/mod" + (num / PROCEDURES_PER_DIR) + "/p" + num + ".p";
+    Source src = new Source();
+    src.line("/* Generated procedure " + num + " */");
+    if (includeDepth > 0) {
+      src.line("{" + getIncludeName(num % getNumIncludeChains(), 0) + " &LEVEL=0 &TABLE=" + getTable() + "}");
+    }
+    src.line("DEFINE TEMP-TABLE ttData NO-UNDO FIELD f1 AS INTEGER FIELD f2 AS CHARACTER INDEX pk IS PRIMARY f1.");
+    src.line("DEFINE VARIABLE total AS INTEGER NO-UNDO.");
+    src.line("");
+    while (src.numLines < fileSize) {
+      generateChunk(src, "", true);
+    }
+    src.statement("RETURN STRING(total).");
+
+    writeSource(relPath, src);
+    writeListing(relPath, "Procedure", src);
+    modules.add(new Module(relPath, src.statements));
+  }
+
+  /**
+   * AppBuilder window, with one button and one fill-in per 15 lines, and a CHOOSE trigger on each button
+   */
+  private void generateWindow(int num) throws IOException {
+    String relPath = "windows/w" + num + ".w";
+    int numWidgets = Math.max(1, windowSize / LINES_PER_WIDGET);
+    int numFrames = (numWidgets + WIDGETS_PER_FRAME - 1) / WIDGETS_PER_FRAME;
+    Source src = new Source();
+    src.line("&ANALYZE-SUSPEND _VERSION-NUMBER AB_v10r12 GUI");
+    src.line("&ANALYZE-RESUME");
+    src.line("&Scoped-define WINDOW-NAME C-Win");
+    src.line("&ANALYZE-SUSPEND _UIB-CODE-BLOCK _CUSTOM _DEFINITIONS C-Win");
+    src.line("/* Generated window " + num + " */");
+    src.statement("CREATE WIDGET-POOL.");
+    src.line("DEFINE TEMP-TABLE ttData NO-UNDO FIELD f1 AS INTEGER FIELD f2 AS CHARACTER INDEX pk IS PRIMARY f1.");
+    src.line("DEFINE VARIABLE total AS INTEGER NO-UNDO.");
+    src.line("/* _UIB-CODE-BLOCK-END */");
+    src.line("&ANALYZE-RESUME");
+    src.line("&ANALYZE-SUSPEND _UIB-PREPROCESSOR-BLOCK");
+    src.line("&Scoped-define PROCEDURE-TYPE Window");
+    src.line("&Scoped-define DB-AWARE no");
+    src.line("&Scoped-define FRAME-NAME f0");
+    src.line("/* _UIB-PREPROCESSOR-BLOCK-END */");
+    src.line("&ANALYZE-RESUME");
+    src.line("DEFINE VAR C-Win AS WIDGET-HANDLE NO-UNDO.");
+    for (int zz = 0; zz < numWidgets; zz++) {
+      src.line("DEFINE BUTTON btn" + zz + " LABEL \"Button " + zz + "\" SIZE 15 BY 1.14.");
+      src.line("DEFINE VARIABLE fill" + zz + " AS CHARACTER FORMAT \"X(256)\":U LABEL \"Field " + zz
+          + "\" VIEW-AS FILL-IN SIZE 30 BY 1 NO-UNDO.");
+    }
+    for (int frame = 0; frame < numFrames; frame++) {
+      src.line("DEFINE FRAME f" + frame);
+      for (int zz = frame * WIDGETS_PER_FRAME; zz < Math.min(numWidgets, (frame + 1) * WIDGETS_PER_FRAME); zz++) {
+        int row = 1 + (zz % WIDGETS_PER_FRAME) * 2;
+        src.line("     btn" + zz + " AT ROW " + row + " COL 2");
+        src.line("     fill" + zz + " AT ROW " + row + " COL 30 COLON-ALIGNED");
+      }
+      src.line("    WITH 1 DOWN NO-BOX KEEP-TAB-ORDER OVERLAY SIDE-LABELS NO-UNDERLINE THREE-D AT COL 1 ROW 1 SIZE 80 BY "
+          + (WIDGETS_PER_FRAME * 2 + 1) + ".");
+    }
+    src.line("&ANALYZE-SUSPEND _CREATE-WINDOW");
+    src.statement("IF SESSION:DISPLAY-TYPE = \"GUI\":U THEN");
+    src.line("  CREATE WINDOW C-Win ASSIGN HIDDEN = YES TITLE = \"Window " + num
+        + "\" HEIGHT = 20 WIDTH = 80 SENSITIVE = YES.");
+    src.line("ELSE {&WINDOW-NAME} = CURRENT-WINDOW.");
+    src.line("&ANALYZE-RESUME");
+    for (int zz = 0; zz < numWidgets; zz++) {
+      String frame = "f" + (zz / WIDGETS_PER_FRAME);
+      src.line("&Scoped-define SELF-NAME btn" + zz);
+      src.line("&ANALYZE-SUSPEND _UIB-CODE-BLOCK _CONTROL btn" + zz + " C-Win");
+      src.block("Trigger", false, "", "ON CHOOSE OF btn" + zz + " IN FRAME " + frame + " DO:");
+      src.statement("  ASSIGN FRAME " + frame + " fill" + zz + ".");
+      generateChunk(src, "  ", false);
+      src.statement("  DISPLAY fill" + zz + " WITH FRAME " + frame + ".");
+      src.line("END.");
+      src.line("/* _UIB-CODE-BLOCK-END */");
+      src.line("&ANALYZE-RESUME");
+    }
+    src.line("&Scoped-define SELF-NAME C-Win");
+    src.line("&ANALYZE-SUSPEND _UIB-CODE-BLOCK _CUSTOM _MAIN-BLOCK C-Win");
+    src.statement("ASSIGN CURRENT-WINDOW = {&WINDOW-NAME} THIS-PROCEDURE:CURRENT-WINDOW = {&WINDOW-NAME}.");
+    src.statement("ON CLOSE OF THIS-PROCEDURE RUN disable_UI.");
+    src.statement("PAUSE 0 BEFORE-HIDE.");
+    src.line("MAIN-BLOCK:");
+    src.block("Do", false, "MAIN-BLOCK",
+        "DO ON ERROR UNDO MAIN-BLOCK, LEAVE MAIN-BLOCK ON END-KEY UNDO MAIN-BLOCK, LEAVE MAIN-BLOCK:");
+    src.statement("  RUN enable_UI.");
+    src.statement("  IF NOT THIS-PROCEDURE:PERSISTENT THEN WAIT-FOR CLOSE OF THIS-PROCEDURE.");
+    src.line("END.");
+    src.line("/* _UIB-CODE-BLOCK-END */");
+    src.line("&ANALYZE-RESUME");
+    src.block("Procedure", false, "Procedure disable_UI", "PROCEDURE disable_UI:");
+    src.statement("  IF SESSION:DISPLAY-TYPE = \"GUI\":U AND VALID-HANDLE(C-Win) THEN DELETE WIDGET C-Win.");
+    src.statement("  IF THIS-PROCEDURE:PERSISTENT THEN DELETE PROCEDURE THIS-PROCEDURE.");
+    src.line("END PROCEDURE.");
+    src.block("Procedure", false, "Procedure enable_UI", "PROCEDURE enable_UI:");
+    for (int zz = 0; zz < numWidgets; zz++) {
+      src.statement("  ENABLE btn" + zz + " fill" + zz + " WITH FRAME f" + (zz / WIDGETS_PER_FRAME)
+          + " IN WINDOW C-Win.");
+    }
+    src.statement("  VIEW C-Win.");
+    src.line("END PROCEDURE.");
+
+    writeSource(relPath, src);
+    writeListing(relPath, "Procedure", src);
+    modules.add(new Module(relPath, src.statements));
+  }
+
+  /**
+   * Random chunk of code, optionally enclosed in a preprocessor condition
+   *
+   * @param topLevel True if internal procedures and class instances can be generated
+   */
+  private void generateChunk(Source src, String indent, boolean topLevel) {
+    int id = src.nextId();
+    boolean preprocessor = random.nextInt(100) < preprocessorDensity;
+    if (preprocessor) {
+      src.line("&SCOPED-DEFINE CHUNK_ID " + id);
+      src.line("&IF {&PROCESS-ARCHITECTURE} >= 32 AND \"{&OPSYS}\" <> \"VMS\" AND {&CHUNK_ID} >= 0 &THEN");
+    }
+    String table = getTable();
+    switch (random.nextInt(topLevel ? (numClasses > 0 ? 6 : 5) : 4)) {
+      case 0:
+        src.buffers.add(table);
+        src.block("For", false, "", indent + "FOR EACH " + table + " NO-LOCK WHERE " + table + ".Field1 > " + id
+            + ":");
+        src.statement(indent + "  total = total + " + table + ".Field1.");
+        src.line(indent + "END.");
+        break;
+      case 1:
+        src.buffers.add(table);
+        src.block("Do", true, "", indent + "DO TRANSACTION:");
+        src.statement(indent + "  FIND FIRST " + table + " EXCLUSIVE-LOCK WHERE " + table + ".Field1 = " + id
+            + " NO-ERROR.");
+        src.statement(indent + "  IF AVAILABLE " + table + " THEN ASSIGN " + table + ".Field2 = \"chunk" + id
+            + "\".");
+        src.line(indent + "END.");
+        break;
+      case 2:
+        src.statement(indent + "CREATE ttData.");
+        src.statement(indent + "ASSIGN ttData.f1 = " + id + " ttData.f2 = STRING(total).");
+        src.statement(indent + "FIND FIRST ttData WHERE ttData.f1 = " + id + " NO-ERROR.");
+        break;
+      case 3:
+        src.line(indent + "DEFINE VARIABLE v" + id + " AS CHARACTER NO-UNDO.");
+        src.statement(indent + "v" + id + " = SUBSTRING(\"abcdef\", 1 + " + id + " MODULO 5, 2) + STRING(total).");
+        src.statement(indent + "IF LENGTH(v" + id + ") > 3 THEN total = total + 1. ELSE total = total - 1.");
+        break;
+      case 4:
+        src.block("Procedure", false, "Procedure proc" + id, "PROCEDURE proc" + id + ":");
+        src.line("  DEFINE INPUT PARAMETER prm AS INTEGER NO-UNDO.");
+        src.block("For", false, "", "  FOR EACH ttData WHERE ttData.f1 > prm:");
+        src.statement("    DELETE ttData.");
+        src.line("  END.");
+        src.line("END PROCEDURE.");
+        src.statement("RUN proc" + id + " (INPUT " + id + ").");
+        break;
+      default:
+        int classNum = random.nextInt(numClasses);
+        String className = getClassName(classNum / hierarchyDepth, classNum % hierarchyDepth);
+        src.line("DEFINE VARIABLE o" + id + " AS " + className + " NO-UNDO.");
+        src.statement("o" + id + " = NEW " + className + "().");
+        src.statement("total = total + o" + id + ":Execute().");
+        src.statement("DELETE OBJECT o" + id + ".");
+        break;
+    }
+    if (preprocessor) {
+      src.line("&ELSE");
+      src.statement(indent + "MESSAGE \"Chunk {&CHUNK_ID} skipped\".");
+      src.line("&ENDIF");
+    }
+  }
+
+  /**
+   * Listing file, with source code and blocks
+   *
+   * @param mainBlockType Procedure or Class
+   */
+  private void writeListing(String relPath, String mainBlockType, Source src) throws IOException {
+    String header = String.format("%-40s %s %s   PROGRESS(R) Page %d", relPath, DATE, TIME, 1);
+    StringBuilder sb = new StringBuilder(header).append("\n\n{} Line Blk\n-- ---- ---\n");
+    int lineNum = 1;
+    for (String line : src.text.toString().split("\n", -1)) {
+      if (lineNum <= src.numLines)
+        sb.append(String.format("%7d     %s\n", lineNum++, line));
+    }
+    sb.append('\f').append(String.format("%-40s %s %s   PROGRESS(R) Page %d", relPath, DATE, TIME, 2)).append(
+        "\n\n     File Name       Line Blk. Type   Tran            Blk. Label            \n");
+    sb.append("-------------------- ---- ----------- ---- --------------------------------\n");
+    List<Block> blocks = new ArrayList<>(src.blocks);
+    blocks.add(0, new Block(0, mainBlockType, false, ""));
+    for (Block block : blocks) {
+      sb.append(String.format("%s %4d %-11s %-4s %s\n", relPath, block.line, block.type,
+          block.transaction ? "Yes" : "No", block.label));
+      if (block.line == 0) {
+        String prefix = "    Buffers: ";
+        for (String buffer : src.buffers) {
+          sb.append(prefix).append("synth.").append(buffer).append('\n');
+          prefix = "             ";
+        }
+      }
+      sb.append('\n');
+    }
+    writeFile(BUILD_DIR + "/.pct/" + relPath, sb.toString().getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Profiler session executing about half of the modules. Module 1 is the startup procedure, which calls every other
+   * module.
+   */
+  private void generateProfilerSession(int num) throws IOException {
+    List<Module> executed = new ArrayList<>();
+    for (Module module : modules) {
+      if (random.nextBoolean())
+        executed.add(module);
+    }
+    StringBuilder sb = new StringBuilder();
+    sb.append("1 ").append(DATE).append(" \"Synthetic session ").append(num).append("\" ").append(TIME).append(
+        " \"generator\"\n.\n");
+    sb.append("1 \"startup.p\" \"\" 1000\n");
+    for (int zz = 0; zz < executed.size(); zz++) {
+      sb.append(zz + 2).append(" \"").append(executed.get(zz).name).append("\" \"\" ").append(
+          1000 + random.nextInt(100000)).append('\n');
+    }
+    sb.append(".\n");
+    for (int zz = 0; zz < executed.size(); zz++) {
+      sb.append("1 ").append(zz + 1).append(' ').append(zz + 2).append(" 1\n");
+    }
+    sb.append(".\n");
+    for (int zz = 0; zz < executed.size(); zz++) {
+      for (int line : executed.get(zz).lines) {
+        int execCount = 1 + random.nextInt(100);
+        double time = execCount * random.nextDouble() / 10000;
+        sb.append(String.format(Locale.ROOT, "%d %d %d %.6f %.6f\n", zz + 2, line, execCount, time, time * 2));
+      }
+    }
+    // Empty tracing data
+    sb.append(".\n.\n");
+    for (int zz = 0; zz < executed.size(); zz++) {
+      List<Integer> lines = executed.get(zz).lines;
+      sb.append(zz + 2).append(" \"\" ").append(lines.size()).append('\n');
+      for (int line : lines) {
+        sb.append(line).append('\n');
+      }
+      sb.append(".\n");
+    }
+    // End of coverage data, then empty user data
+    sb.append(".\n.\n");
+    writeFile(PROFILER_DIR + "/session" + num + ".out", sb.toString().getBytes(StandardCharsets.UTF_8));
+  }
+
+  private void writeSource(String relPath, Source src) throws IOException {
+    byte[] bytes = src.text.toString().getBytes(StandardCharsets.UTF_8);
+    writeFile(SOURCE_DIR + '/' + relPath, bytes);
+    numFiles++;
+    numLines += src.numLines;
+    numBytes += bytes.length;
+  }
+
+  private void writeFile(String relPath, byte[] content) throws IOException {
+    File file = new File(baseDir, relPath);
+    Files.createDirectories(file.getParentFile().toPath());
+    Files.write(file.toPath(), content);
+  }
+
+  /**
+   * Source code of a compilation unit, with blocks (for listing files) and executable lines (for profiler sessions)
+   */
+  private static class Source {
+    private final StringBuilder text = new StringBuilder();
+    private final List<Block> blocks = new ArrayList<>();
+    private final Set<String> buffers = new TreeSet<>();
+    private final List<Integer> statements = new ArrayList<>();
+    private int numLines;
+    private int lastId;
+
+    int nextId() {
+      return lastId++;
+    }
+
+    void line(String str) {
+      text.append(str).append('\n');
+      numLines++;
+    }
+
+    void statement(String str) {
+      statements.add(numLines + 1);
+      line(str);
+    }
+
+    void block(String type, boolean transaction, String label, String str) {
+      blocks.add(new Block(numLines + 1, type, transaction, label));
+      statement(str);
+    }
+
+    /**
+     * Appends another source, with blocks, buffers and statements moved to their new position
+     */
+    void append(Source src) {
+      for (Block block : src.blocks) {
+        blocks.add(new Block(block.line + numLines, block.type, block.transaction, block.label));
+      }
+      for (int line : src.statements) {
+        statements.add(line + numLines);
+      }
+      buffers.addAll(src.buffers);
+      text.append(src.text);
+      numLines += src.numLines;
+      lastId = Math.max(lastId, src.lastId);
+    }
+  }
+
+  private static class Block {
+    private final int line;
+    private final String type;
+    private final boolean transaction;
+    private final String label;
+
+    Block(int line, String type, boolean transaction, String label) {
+      this.line = line;
+      this.type = type;
+      this.transaction = transaction;
+      this.label = label;
+    }
+  }
+
+  private static class Module {
+    private final String name;
+    private final List<Integer> lines;
+
+    Module(String name, List<Integer> lines) {
+      this.name = name;
+      this.lines = lines;
+    }
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ * OpenEdge plugin for SonarQube
+ * Copyright (c) 2015-2018 Riverside Software
+ * contact AT riverside DASH software DOT fr
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package eu.rssw.openedge.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import eu.rssw.antlr.database.DumpFileUtils;
+
+/**
+ * DumpFileUtils on DF files from unit tests, and on generated DF files with a large number of tables
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DatabaseBenchmark {
+  private List<byte[]> dumpFiles;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    dumpFiles = TestResources.readFiles("database-parser", "", ".df");
+  }
+
+  @Benchmark
+  public void dumpFiles(Blackhole blackhole) throws IOException {
+    for (byte[] dumpFile : dumpFiles) {
+      blackhole.consume(
+          DumpFileUtils.getDatabaseDescription(new ByteArrayInputStream(dumpFile), StandardCharsets.UTF_8, "sp2k"));
+    }
+  }
+
+  @Benchmark
+  public Object syntheticDumpFile(Synthetic input) throws IOException {
+    return DumpFileUtils.getDatabaseDescription(new ByteArrayInputStream(input.dumpFile), StandardCharsets.UTF_8,
+        "synthetic");
+  }
+
+  @State(Scope.Benchmark)
+  public static class Synthetic {
+    @Param({"100", "4000"})
+    public int tables;
+
+    private byte[] dumpFile;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+      dumpFile = SyntheticInputs.dumpFile(tables).getBytes(StandardCharsets.UTF_8);
+    }
+  }
+}
@@ -0,0 +1,119 @@
+/*
+ * OpenEdge plugin for SonarQube
+ * Copyright (c) 2015-2018 Riverside Software
+ * contact AT riverside DASH software DOT fr
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package eu.rssw.openedge.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.prorefactor.refactor.RefactorSession;
+import org.prorefactor.treeparser.ParseUnit;
+
+/**
+ * ProgressLexer throughput: tokens only (no preprocessor), and with preprocessor (&amp;IF evaluation in PostLexer)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LexerBenchmark {
+  private RefactorSession session;
+  private List<byte[]> corpus = new ArrayList<>();
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    session = ProparseCorpus.createSession();
+    for (File file : ProparseCorpus.getFiles(session)) {
+      corpus.add(TestResources.readFile(file));
+    }
+  }
+
+  @Benchmark
+  public int lexCorpus() {
+    int count = 0;
+    for (byte[] file : corpus) {
+      count += countTokens(new ParseUnit(new ByteArrayInputStream(file), "corpus.p", session).lex4());
+    }
+    return count;
+  }
+
+  @Benchmark
+  public int preprocessCorpus() {
+    int count = 0;
+    for (byte[] file : corpus) {
+      count += countTokens(new ParseUnit(new ByteArrayInputStream(file), "corpus.p", session).preprocess4());
+    }
+    return count;
+  }
+
+  @Benchmark
+  public int lexSynthetic(Synthetic input) {
+    return countTokens(new ParseUnit(new ByteArrayInputStream(input.procedure), "synthetic.p", session).lex4());
+  }
+
+  @Benchmark
+  public int preprocessSynthetic(Synthetic input) {
+    return countTokens(
+        new ParseUnit(new ByteArrayInputStream(input.preprocessor), "synthetic.p", session).preprocess4());
+  }
+
+  static int countTokens(TokenSource source) {
+    int count = 0;
+    while (source.nextToken().getType() != Token.EOF) {
+      count++;
+    }
+    return count;
+  }
+
+  @State(Scope.Benchmark)
+  public static class Synthetic {
+    @Param({"1000", "10000"})
+    public int chunks;
+
+    private byte[] procedure;
+    private byte[] preprocessor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+      procedure = SyntheticInputs.procedure(chunks).getBytes(StandardCharsets.UTF_8);
+      preprocessor = SyntheticInputs.preprocessor(chunks).getBytes(StandardCharsets.UTF_8);
+    }
+  }
+}
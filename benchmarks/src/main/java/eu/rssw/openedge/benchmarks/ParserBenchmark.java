@@ -0,0 +1,127 @@
+/*
+ * OpenEdge plugin for SonarQube
+ * Copyright (c) 2015-2018 Riverside Software
+ * contact AT riverside DASH software DOT fr
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package eu.rssw.openedge.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.prorefactor.refactor.RefactorSession;
+import org.prorefactor.treeparser.ParseUnit;
+
+import antlr.ANTLRException;
+
+/**
+ * ProParser (ANTLR2) and Proparse (ANTLR4) parse, and TreeParser01 on the result of ProParser
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParserBenchmark {
+  private RefactorSession session;
+  private List<File> corpus;
+
+  @Param({"proparser", "antlr4"})
+  public String parser;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    session = ProparseCorpus.createSession();
+    corpus = ProparseCorpus.getFiles(session);
+  }
+
+  @Benchmark
+  public void parseCorpus(Blackhole blackhole) throws ANTLRException {
+    for (File file : corpus) {
+      ParseUnit unit = new ParseUnit(file, session);
+      unit.setANTLR4("antlr4".equals(parser));
+      unit.parse();
+      blackhole.consume(unit.getTopNode());
+    }
+  }
+
+  @Benchmark
+  public Object parseSynthetic(Synthetic input) throws ANTLRException {
+    ParseUnit unit = new ParseUnit(new ByteArrayInputStream(input.procedure), "synthetic.p", session);
+    unit.setANTLR4("antlr4".equals(parser));
+    unit.parse();
+    return unit.getTopNode();
+  }
+
+  /**
+   * TreeParser01 only, trees are generated before each invocation
+   */
+  @Benchmark
+  public void treeParser01(ParsedCorpus parsed, Blackhole blackhole) throws ANTLRException {
+    for (ParseUnit unit : parsed.units) {
+      unit.treeParser01();
+      blackhole.consume(unit.getRootScope());
+    }
+  }
+
+  @State(Scope.Benchmark)
+  public static class Synthetic {
+    @Param({"1000", "5000"})
+    public int chunks;
+
+    private byte[] procedure;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+      procedure = SyntheticInputs.procedure(chunks).getBytes(StandardCharsets.UTF_8);
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class ParsedCorpus {
+    private final List<ParseUnit> units = new ArrayList<>();
+
+    @Setup(Level.Invocation)
+    public void parse(ParserBenchmark benchmark) throws ANTLRException {
+      units.clear();
+      for (File file : benchmark.corpus) {
+        ParseUnit unit = new ParseUnit(file, benchmark.session);
+        unit.setANTLR4("antlr4".equals(benchmark.parser));
+        unit.parse();
+        units.add(unit);
+      }
+    }
+  }
+}
@@ -0,0 +1,147 @@
+/*
+ * OpenEdge plugin for SonarQube
+ * Copyright (c) 2015-2018 Riverside Software
+ * contact AT riverside DASH software DOT fr
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package eu.rssw.openedge.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.antlr.v4.runtime.atn.DecisionInfo;
+import org.prorefactor.proparse.antlr4.Proparse;
+import org.prorefactor.refactor.RefactorSession;
+import org.prorefactor.treeparser.ParseUnit;
+
+/**
+ * Prediction statistics of the ANTLR4 grammar on the proparse corpus, per decision: invocations, time spent in
+ * prediction, lookahead depth (SLL_MaxLook) and number of fallbacks to full LL prediction. Files are parsed in SLL
+ * mode, except those which have to be parsed again in LL mode (as in production), so LL_Fallback is only reported for
+ * those files. Files are parsed in the same order, starting with an empty DFA cache, so that everything except time is
+ * reproducible.
+ * <p>
+ * Usage: <code>PredictionReport output.csv [baseline.csv]</code>. When a baseline is given, exit code is 1 if max
+ * lookahead or LL fallbacks have increased for any decision.
+ */
+public class PredictionReport {
+  private static final String HEADER = "decision;rule;invocations;timeInPrediction;SLL_TotalLook;SLL_MaxLook;LL_Fallback;LL_MaxLook;ambiguities";
+  private static final int LOOKAHEAD_COL = 5;
+  private static final int FALLBACK_COL = 6;
+  private static final int LL_LOOKAHEAD_COL = 7;
+
+  private final Map<Integer, long[]> stats = new TreeMap<>();
+  private final List<String> llFiles = new ArrayList<>();
+  private int numFiles;
+
+  public static void main(String[] args) throws IOException {
+    if (args.length == 0) {
+      System.err.println("Usage: PredictionReport output.csv [baseline.csv]");
+      System.exit(2);
+    }
+    PredictionReport report = new PredictionReport();
+    report.run(ProparseCorpus.createSession());
+    report.write(new File(args[0]));
+    System.out.println(report.numFiles + " files parsed, " + report.stats.size() + " decisions");
+    report.llFiles.forEach(file -> System.out.println("Parsed in LL mode: " + file));
+
+    if (args.length > 1) {
+      List<String> regressions = report.compare(new File(args[1]));
+      regressions.forEach(System.out::println);
+      System.exit(regressions.isEmpty() ? 0 : 1);
+    }
+  }
+
+  public void run(RefactorSession session) throws IOException {
+    List<File> files = ProparseCorpus.getFiles(session);
+    ProparseCorpus.clearDFA();
+    for (File file : files) {
+      ParseUnit unit = new ParseUnit(file, session);
+      unit.setANTLR4(true);
+      unit.setANTLR4Profiler(true);
+      try {
+        unit.parse();
+      } catch (Exception uncaught) {
+        // Already filtered by the corpus
+        continue;
+      }
+      numFiles++;
+      if (unit.isLLFallback())
+        llFiles.add(file.getPath());
+      for (DecisionInfo info : unit.getParseInfo().getDecisionInfo()) {
+        if (info.invocations > 0)
+          add(info);
+      }
+    }
+  }
+
+  private void add(DecisionInfo info) {
+    long[] val = stats.computeIfAbsent(info.decision, key -> new long[7]);
+    val[0] += info.invocations;
+    val[1] += info.timeInPrediction;
+    val[2] += info.SLL_TotalLook;
+    val[3] = Math.max(val[3], info.SLL_MaxLook);
+    val[4] += info.LL_Fallback;
+    val[5] = Math.max(val[5], info.LL_MaxLook);
+    val[6] += info.ambiguities.size();
+  }
+
+  public void write(File output) throws IOException {
+    try (PrintWriter writer = new PrintWriter(output, StandardCharsets.UTF_8.name())) {
+      writer.println(HEADER);
+      for (Map.Entry<Integer, long[]> entry : stats.entrySet()) {
+        long[] val = entry.getValue();
+        writer.printf("%d;%s;%d;%d;%d;%d;%d;%d;%d%n", entry.getKey(),
+            Proparse.ruleNames[Proparse._ATN.getDecisionState(entry.getKey()).ruleIndex], val[0], val[1] / 1000000,
+            val[2], val[3], val[4], val[5], val[6]);
+      }
+    }
+  }
+
+  /**
+   * Time in prediction is not compared, as it's not reproducible
+   * 
+   * @return One line per regression
+   */
+  public List<String> compare(File baseline) throws IOException {
+    List<String> regressions = new ArrayList<>();
+    for (String line : Files.readAllLines(baseline.toPath(), StandardCharsets.UTF_8)) {
+      if (line.startsWith("decision"))
+        continue;
+      String[] cols = line.split(";");
+      long[] val = stats.get(Integer.parseInt(cols[0]));
+      if (val == null)
+        continue;
+      check(regressions, cols, "SLL_MaxLook", LOOKAHEAD_COL, val[3]);
+      check(regressions, cols, "LL_Fallback", FALLBACK_COL, val[4]);
+      check(regressions, cols, "LL_MaxLook", LL_LOOKAHEAD_COL, val[5]);
+    }
+    return regressions;
+  }
+
+  private static void check(List<String> regressions, String[] cols, String name, int col, long value) {
+    long ref = Long.parseLong(cols[col]);
+    if (value > ref)
+      regressions.add(String.format("Decision %s (rule %s) - %s: %d -> %d", cols[0], cols[1], name, ref, value));
+  }
+}
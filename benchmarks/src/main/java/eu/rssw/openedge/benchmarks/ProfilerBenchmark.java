@@ -0,0 +1,75 @@
+/*
+ * OpenEdge plugin for SonarQube
+ * Copyright (c) 2015-2018 Riverside Software
+ * contact AT riverside DASH software DOT fr
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package eu.rssw.openedge.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import eu.rssw.antlr.profiler.ProfilerReader.Section;
+import eu.rssw.antlr.profiler.ProfilerUtils;
+
+/**
+ * ProfilerUtils on profiler outputs from unit tests, with all sections and with coverage sections only
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProfilerBenchmark {
+  private List<byte[]> outputs;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    outputs = TestResources.readFiles("profiler-parser", "", ".out");
+  }
+
+  @Benchmark
+  public void profilerSession(Blackhole blackhole) throws IOException {
+    for (byte[] output : outputs) {
+      blackhole.consume(ProfilerUtils.getProfilerSession(new ByteArrayInputStream(output)));
+    }
+  }
+
+  @Benchmark
+  public void coverageOnly(Blackhole blackhole) throws IOException {
+    for (byte[] output : outputs) {
+      // Same sections as ProfilerUtils#getCoverageSession()
+      blackhole.consume(ProfilerUtils.getProfilerSession(new ByteArrayInputStream(output), Section.CALL_TREE_DATA,
+          Section.TRACING_DATA, Section.USER_DATA).getCoverage());
+    }
+  }
+}
@@ -0,0 +1,91 @@
+/*
+ * OpenEdge plugin for SonarQube
+ * Copyright (c) 2015-2018 Riverside Software
+ * contact AT riverside DASH software DOT fr
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package eu.rssw.openedge.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.prorefactor.refactor.RefactorSession;
+import org.prorefactor.treeparser.ParseUnit;
+
+import antlr.ANTLRException;
+
+/**
+ * Parse the whole proparse corpus with the ANTLR4 parser, either with an empty DFA cache (as in the first files of an
+ * analysis), or with a DFA cache populated by previous iterations. The difference is the cost of adaptive prediction
+ * that {@link org.prorefactor.proparse.antlr4.ProparseWarmup} tries to avoid.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProparseBenchmark {
+  private RefactorSession session;
+  private List<File> files;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    session = ProparseCorpus.createSession();
+    files = ProparseCorpus.getFiles(session);
+  }
+
+  @Benchmark
+  public void parseWarmDFA(Blackhole blackhole) throws ANTLRException {
+    parseAll(blackhole);
+  }
+
+  @Benchmark
+  public void parseColdDFA(ColdDFA state, Blackhole blackhole) throws ANTLRException {
+    parseAll(blackhole);
+  }
+
+  private void parseAll(Blackhole blackhole) throws ANTLRException {
+    for (File file : files) {
+      ParseUnit unit = new ParseUnit(file, session);
+      unit.setANTLR4(true);
+      unit.parse();
+      blackhole.consume(unit.getTopNode());
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class ColdDFA {
+    @Setup(Level.Invocation)
+    public void clear() {
+      ProparseCorpus.clearDFA();
+    }
+  }
+}
@@ -0,0 +1,103 @@
+/*
+ * OpenEdge plugin for SonarQube
+ * Copyright (c) 2015-2018 Riverside Software
+ * contact AT riverside DASH software DOT fr
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package eu.rssw.openedge.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.prorefactor.core.schema.Schema;
+import org.prorefactor.proparse.antlr4.Proparse;
+import org.prorefactor.refactor.RefactorSession;
+import org.prorefactor.refactor.settings.ProparseSettings;
+import org.prorefactor.treeparser.ParseUnit;
+
+/**
+ * Proparse unit tests resources, used as a corpus in benchmarks and reports
+ */
+public final class ProparseCorpus {
+  private static final String[] DIRECTORIES = {
+      "data/bugsfixed", "data/parser", "data/newsyntax", "data/rssw", "data/tp01ProcessTests", "treeparser01",
+      "treeparser02", "treeparser03", "treeparser04"};
+
+  private ProparseCorpus() {
+    // No constructor
+  }
+
+  public static File getResourcesDirectory() {
+    return TestResources.getDirectory("proparse");
+  }
+
+  /**
+   * Same configuration as proparse unit tests
+   */
+  public static RefactorSession createSession() throws IOException {
+    File resources = getResourcesDirectory();
+    String propath = resources.getAbsolutePath() + "," + new File(resources, "data").getAbsolutePath();
+    return new RefactorSession(new ProparseSettings(propath, false),
+        new Schema(new File(resources, "projects/sports2000/sports2000.cache").getPath(), true));
+  }
+
+  /**
+   * Procedures and classes from the corpus, only if they can be parsed by both ProParser and the ANTLR4 parser. Files
+   * are sorted, so that order (and prediction statistics) are always the same.
+   */
+  public static List<File> getFiles(RefactorSession session) throws IOException {
+    List<File> list = new ArrayList<>();
+    for (String dir : DIRECTORIES) {
+      try (Stream<Path> stream = Files.walk(new File(getResourcesDirectory(), dir).toPath())) {
+        for (Path path : stream.filter(ProparseCorpus::isMainFile).sorted().collect(Collectors.toList())) {
+          if (parse(path.toFile(), session))
+            list.add(path.toFile());
+        }
+      }
+    }
+    return list;
+  }
+
+  /**
+   * Discard content of the DFA cache, shared by all instances of the ANTLR4 parser
+   */
+  public static void clearDFA() {
+    new Proparse(null).getInterpreter().clearDFA();
+  }
+
+  private static boolean parse(File file, RefactorSession session) {
+    try {
+      new ParseUnit(file, session).treeParser01();
+      ParseUnit unit = new ParseUnit(file, session);
+      unit.setANTLR4(true);
+      unit.parse();
+      return true;
+    } catch (Exception uncaught) {
+      return false;
+    }
+  }
+
+  private static boolean isMainFile(Path path) {
+    String name = path.getFileName().toString().toLowerCase();
+    return name.endsWith(".p") || name.endsWith(".w") || name.endsWith(".cls");
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * OpenEdge plugin for SonarQube
+ * Copyright (c) 2015-2018 Riverside Software
+ * contact AT riverside DASH software DOT fr
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package eu.rssw.openedge.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import eu.rssw.pct.FileEntry;
+import eu.rssw.pct.PLReader;
+import eu.rssw.pct.RCodeInfo;
+import eu.rssw.pct.RCodeInfo.InvalidRCodeException;
+
+/**
+ * RCodeInfo on all rcode files, type info decoding of OpenEdge 11 and 12 classes, and procedure library reader
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RCodeBenchmark {
+  private static final String MODULE = "rcode-reader";
+
+  private List<byte[]> rcodes;
+  private byte[] classV11;
+  private byte[] classV12;
+  private File library;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    rcodes = TestResources.readFiles(MODULE, "rcode", ".r");
+    classV11 = TestResources.readFile(TestResources.getFile(MODULE, "rcode/WebRequestV11.r"));
+    classV12 = TestResources.readFile(TestResources.getFile(MODULE, "rcode/WebRequestV12.r"));
+    library = TestResources.getFile(MODULE, "ablunit.pl");
+  }
+
+  @Benchmark
+  public void rcodeInfo(Blackhole blackhole) throws InvalidRCodeException, IOException {
+    for (byte[] rcode : rcodes) {
+      blackhole.consume(new RCodeInfo(new ByteArrayInputStream(rcode)).getTypeInfo());
+    }
+  }
+
+  @Benchmark
+  public Object typeInfoV11() throws InvalidRCodeException, IOException {
+    return new RCodeInfo(new ByteArrayInputStream(classV11)).getTypeInfo();
+  }
+
+  @Benchmark
+  public Object typeInfoV12() throws InvalidRCodeException, IOException {
+    return new RCodeInfo(new ByteArrayInputStream(classV12)).getTypeInfo();
+  }
+
+  /**
+   * File list and content of every entry
+   */
+  @Benchmark
+  public long plReader() throws IOException {
+    PLReader reader = new PLReader(library);
+    long size = 0;
+    byte[] buffer = new byte[8192];
+    for (FileEntry entry : reader.getFileList()) {
+      try (InputStream input = reader.getInputStream(entry)) {
+        int read;
+        while ((read = input.read(buffer)) != -1) {
+          size += read;
+        }
+      }
+    }
+    return size;
+  }
+}
@@ -0,0 +1,178 @@
+/*
+ * OpenEdge plugin for SonarQube
+ * Copyright (c) 2015-2018 Riverside Software
+ * contact AT riverside DASH software DOT fr
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package eu.rssw.openedge.benchmarks;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.sonar.api.batch.fs.InputFile.Type;
+import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
+import org.sonar.api.batch.sensor.internal.SensorContextTester;
+import org.sonar.api.config.internal.MapSettings;
+import org.sonar.api.rule.RuleKey;
+import org.sonar.plugins.openedge.api.Constants;
+import org.sonar.plugins.openedge.foundation.OpenEdgeComponents;
+import org.sonar.plugins.openedge.foundation.OpenEdgeRulesDefinition;
+import org.sonar.plugins.openedge.foundation.OpenEdgeSettings;
+import org.sonar.plugins.openedge.foundation.ProparseSessionCache;
+import org.sonar.plugins.openedge.sensor.OpenEdgeProfilerSensor;
+import org.sonar.plugins.openedge.sensor.OpenEdgeProparseSensor;
+
+/**
+ * End-to-end execution of OpenEdgeProparseSensor (then OpenEdgeProfilerSensor) on a project generated by
+ * {@link CorpusGenerator}, recording throughput and peak heap usage. Each iteration runs the sensors again with a new
+ * sensor context, and heap usage after a full GC is reported at the end of each iteration, so that memory leaks show
+ * up as an increasing retained heap when running many iterations (soak test).
+ * <p>
+ * Usage: <code>SensorHarness projectDir [results.csv]</code>. The project is generated in projectDir (which has to be
+ * empty or non existent) according to the <code>corpus.*</code> system properties. Other system properties are
+ * <code>harness.iterations</code> (default 1), <code>harness.antlr4</code> (use ANTLR4 parser, default false) and
+ * <code>harness.shareSession</code> (reuse proparse session between iterations, default false). One line per
+ * iteration is appended to results.csv.
+ * <p>
+ * Peak heap is the sum of the peak usage of each heap memory pool since the beginning of the iteration, so it's an
+ * upper bound of the actual peak. Run with a fixed heap size (e.g. <code>-Xms2g -Xmx2g</code>) to get comparable
+ * results.
+ */
+public class SensorHarness {
+  private static final String HEADER = "iteration;files;lines;bytes;failures;proparseTime;filesPerSecond;linesPerSecond;profilerTime;peakHeapMB;retainedHeapMB";
+  private static final RuleKey PROPARSE_ERROR = RuleKey.of(Constants.STD_REPOSITORY_KEY,
+      OpenEdgeRulesDefinition.PROPARSE_ERROR_RULEKEY);
+  private static final long MB = 1024L * 1024L;
+
+  private final File projectDir;
+  private final CorpusGenerator generator;
+  private final boolean antlr4;
+  private final boolean shareSession;
+
+  public SensorHarness(File projectDir, CorpusGenerator generator, boolean antlr4, boolean shareSession) {
+    this.projectDir = projectDir;
+    this.generator = generator;
+    this.antlr4 = antlr4;
+    this.shareSession = shareSession;
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length == 0) {
+      System.err.println("Usage: SensorHarness projectDir [results.csv]");
+      System.exit(2);
+    }
+    File projectDir = new File(args[0]).getAbsoluteFile();
+    String[] existing = projectDir.list();
+    if ((existing != null) && (existing.length > 0)) {
+      System.err.println("Directory " + projectDir + " is not empty");
+      System.exit(2);
+    }
+    CorpusGenerator generator = CorpusGenerator.fromProperties(System.getProperties());
+    long startTime = System.currentTimeMillis();
+    generator.generate(projectDir);
+    System.out.println(generator.getNumFiles() + " source files, " + generator.getNumLines() + " lines generated in "
+        + (System.currentTimeMillis() - startTime) + " ms");
+
+    SensorHarness harness = new SensorHarness(projectDir, generator, Boolean.getBoolean("harness.antlr4"),
+        Boolean.getBoolean("harness.shareSession"));
+    File results = args.length > 1 ? new File(args[1]) : null;
+    System.out.println(HEADER);
+    for (int zz = 1; zz <= Integer.getInteger("harness.iterations", 1); zz++) {
+      String line = harness.run(zz);
+      System.out.println(line);
+      if (results != null) {
+        boolean writeHeader = !results.exists();
+        try (PrintWriter writer = new PrintWriter(new FileWriter(results, true))) {
+          if (writeHeader)
+            writer.println(HEADER);
+          writer.println(line);
+        }
+      }
+    }
+  }
+
+  /**
+   * Executes sensors once
+   * 
+   * @return Result line, in the format described by the CSV header
+   */
+  public String run(int iteration) throws IOException {
+    List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream().filter(
+        pool -> pool.getType() == MemoryType.HEAP).collect(Collectors.toList());
+    if (!shareSession)
+      ProparseSessionCache.clear();
+    System.gc();
+    heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+
+    SensorContextTester context = createContext();
+    OpenEdgeSettings settings = new OpenEdgeSettings(context.config(), context.fileSystem());
+    long startTime = System.nanoTime();
+    new OpenEdgeProparseSensor(settings, new OpenEdgeComponents(null, null)).execute(context);
+    long proparseTime = (System.nanoTime() - startTime) / 1000000;
+    startTime = System.nanoTime();
+    new OpenEdgeProfilerSensor(settings).execute(context);
+    long profilerTime = (System.nanoTime() - startTime) / 1000000;
+    settings.stop();
+
+    long peakHeap = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+    long failures = context.allIssues().stream().filter(issue -> PROPARSE_ERROR.equals(issue.ruleKey())).count();
+    context = null;
+    settings = null;
+    System.gc();
+    long retainedHeap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+
+    double seconds = Math.max(proparseTime, 1) / 1000d;
+    return String.format(Locale.ROOT, "%d;%d;%d;%d;%d;%d;%.1f;%.1f;%d;%d;%d", iteration, generator.getNumFiles(),
+        generator.getNumLines(), generator.getNumBytes(), failures, proparseTime, generator.getNumFiles() / seconds,
+        generator.getNumLines() / seconds, profilerTime, peakHeap / MB, retainedHeap / MB);
+  }
+
+  private SensorContextTester createContext() throws IOException {
+    File sourceDir = new File(projectDir, CorpusGenerator.SOURCE_DIR);
+    MapSettings settings = new MapSettings();
+    settings.setProperty("sonar.sources", CorpusGenerator.SOURCE_DIR);
+    settings.setProperty(Constants.PROPATH, sourceDir.getAbsolutePath());
+    settings.setProperty(Constants.BINARIES, CorpusGenerator.BUILD_DIR);
+    settings.setProperty(Constants.DATABASES, CorpusGenerator.DUMP_FILE);
+    settings.setProperty(Constants.PROFILER_DIRS, CorpusGenerator.PROFILER_DIR);
+    settings.setProperty(Constants.ANTLR4_PARSER, antlr4);
+    settings.setProperty(Constants.OE_ANALYTICS, false);
+
+    SensorContextTester context = SensorContextTester.create(projectDir);
+    context.setSettings(settings);
+    try (Stream<Path> stream = Files.walk(sourceDir.toPath())) {
+      for (Path path : stream.filter(Files::isRegularFile).sorted().collect(Collectors.toList())) {
+        String relPath = projectDir.toPath().relativize(path).toString().replace('\\', '/');
+        context.fileSystem().add(TestInputFileBuilder.create(projectDir.getPath(), relPath).setLanguage(
+            Constants.LANGUAGE_KEY).setType(Type.MAIN).setCharset(StandardCharsets.UTF_8).setContents(
+                new String(Files.readAllBytes(path), StandardCharsets.UTF_8)).build());
+      }
+    }
+    return context;
+  }
+}
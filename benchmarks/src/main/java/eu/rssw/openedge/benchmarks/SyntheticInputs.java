@@ -0,0 +1,116 @@
+/*
+ * OpenEdge plugin for SonarQube
+ * Copyright (c) 2015-2018 Riverside Software
+ * contact AT riverside DASH software DOT fr
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package eu.rssw.openedge.benchmarks;
+
+/**
+ * Generated inputs, when test resources are too small to show how performance scales with input size
+ */
+public final class SyntheticInputs {
+  private static final int NUM_TEMP_TABLES = 10;
+
+  private SyntheticInputs() {
+    // No constructor
+  }
+
+  /**
+   * Procedure with temp-tables, variables, blocks, functions and internal procedures. About 10 lines per chunk.
+   */
+  public static String procedure(int chunks) {
+    StringBuilder sb = new StringBuilder();
+    for (int zz = 0; zz < NUM_TEMP_TABLES; zz++) {
+      sb.append("DEFINE TEMP-TABLE tt").append(zz).append(
+          " NO-UNDO FIELD f1 AS INTEGER FIELD f2 AS CHARACTER INDEX pk IS PRIMARY f1.\n");
+    }
+    for (int zz = 0; zz < chunks; zz++) {
+      String var = "v" + zz;
+      String tt = "tt" + (zz % NUM_TEMP_TABLES);
+      sb.append("DEFINE VARIABLE ").append(var).append(" AS INTEGER NO-UNDO.\n");
+      sb.append("ASSIGN ").append(var).append(" = ").append(zz).append(" * 2 + LENGTH(\"abc\").\n");
+      sb.append("IF ").append(var).append(" > 10 THEN MESSAGE \"").append(var).append("\" ").append(var).append(
+          ".\n");
+      sb.append("FOR EACH ").append(tt).append(" WHERE ").append(tt).append(".f1 > ").append(var).append(":\n");
+      sb.append("  ").append(tt).append(".f2 = STRING(").append(var).append(").\n");
+      sb.append("END.\n");
+      if (zz % 10 == 0) {
+        sb.append("FUNCTION f").append(zz).append(" RETURNS INTEGER (INPUT p AS INTEGER):\n");
+        sb.append("  RETURN p * ").append(zz).append(" + INTEGER(SUBSTRING(STRING(p), 1, 1)).\n");
+        sb.append("END FUNCTION.\n");
+        sb.append("PROCEDURE p").append(zz).append(":\n");
+        sb.append("  DEFINE INPUT PARAMETER prm AS CHARACTER NO-UNDO.\n");
+        sb.append("  FIND FIRST ").append(tt).append(" WHERE ").append(tt).append(".f2 = prm NO-ERROR.\n");
+        sb.append("  IF AVAILABLE ").append(tt).append(" THEN DELETE ").append(tt).append(".\n");
+        sb.append("END PROCEDURE.\n");
+      }
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Procedure where most of the lines are preprocessor definitions and conditions
+   */
+  public static String preprocessor(int chunks) {
+    StringBuilder sb = new StringBuilder("&GLOBAL-DEFINE LEVEL 3\n");
+    for (int zz = 0; zz < chunks; zz++) {
+      String name = "VAL" + zz;
+      sb.append("&SCOPED-DEFINE ").append(name).append(' ').append(zz).append('\n');
+      sb.append("&IF DEFINED(").append(name).append(") > 0 AND {&LEVEL} >= 2 &THEN\n");
+      sb.append("DEFINE VARIABLE v").append(zz).append(" AS INTEGER NO-UNDO INITIAL {&").append(name).append("}.\n");
+      sb.append("&ELSEIF \"{&OPSYS}\" = \"UNIX\" &THEN\n");
+      sb.append("DEFINE VARIABLE v").append(zz).append(" AS CHARACTER NO-UNDO.\n");
+      sb.append("&ELSE\n");
+      sb.append("DEFINE VARIABLE v").append(zz).append(" AS DECIMAL NO-UNDO.\n");
+      sb.append("&ENDIF\n");
+      sb.append("&IF {&PROCESS-ARCHITECTURE} = 64 AND INTEGER(\"{&").append(name).append(
+          "}\") MODULO 2 = 0 &THEN\n");
+      sb.append("v").append(zz).append(" = v").append(zz).append(" + 1.\n");
+      sb.append("&ENDIF\n");
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Dump file with numTables tables, each one with 10 fields and 2 indexes
+   */
+  public static String dumpFile(int numTables) {
+    StringBuilder sb = new StringBuilder();
+    for (int zz = 0; zz < numTables; zz++) {
+      String table = "Table" + zz;
+      sb.append("ADD TABLE \"").append(table).append("\"\n  AREA \"Data\"\n  DESCRIPTION \"Generated table\"\n");
+      sb.append("  DUMP-NAME \"tbl").append(zz).append("\"\n\n");
+      for (int yy = 1; yy <= 10; yy++) {
+        boolean isChar = yy % 2 == 0;
+        sb.append("ADD FIELD \"Field").append(yy).append("\" OF \"").append(table).append("\" AS ").append(
+            isChar ? "character" : "integer").append(" \n");
+        sb.append("  FORMAT \"").append(isChar ? "x(8)" : "->,>>>,>>9").append("\"\n");
+        sb.append("  INITIAL \"").append(isChar ? "" : "0").append("\"\n");
+        sb.append("  LABEL \"Field ").append(yy).append("\"\n");
+        sb.append("  POSITION ").append(yy + 1).append("\n  MAX-WIDTH ").append(isChar ? 16 : 4).append('\n');
+        sb.append("  ORDER ").append(yy * 10).append("\n\n");
+      }
+      sb.append("ADD INDEX \"pk\" ON \"").append(table).append("\" \n  AREA \"Index\"\n  UNIQUE\n  PRIMARY\n");
+      sb.append("  INDEX-FIELD \"Field1\" ASCENDING \n\n");
+      sb.append("ADD INDEX \"byName\" ON \"").append(table).append("\" \n  AREA \"Index\"\n");
+      sb.append("  INDEX-FIELD \"Field2\" ASCENDING \n  INDEX-FIELD \"Field1\" ASCENDING \n\n");
+    }
+    sb.append(".\nPSC\ncpstream=UTF-8\n.\n");
+    sb.append(String.format("%010d%n", sb.length()));
+    return sb.toString();
+  }
+}
@@ -0,0 +1,139 @@
+/*
+ * OpenEdge plugin for SonarQube
+ * Copyright (c) 2015-2018 Riverside Software
+ * contact AT riverside DASH software DOT fr
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package eu.rssw.openedge.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Minimal OpenEdge 11 class rcode: header, empty signature block and segment table, and a type block with type name,
+ * parent type, interfaces and public methods without parameters. Enough for {@link eu.rssw.pct.RCodeInfo} to decode
+ * the type info, but not executable. Written in little-endian order, as method descriptors are always read in
+ * little-endian order.
+ */
+public final class SyntheticRCode {
+  private static final int MAGIC = 0x56CED309;
+  private static final int VERSION = 1100;
+  private static final int HEADER_SIZE = 68;
+  private static final int SIGNATURE_SIZE = 16;
+  private static final int SEGMENT_TABLE_SIZE = 40;
+  private static final int TYPE_HEADER_SIZE = 80;
+  private static final int ENTRY_SIZE = 16;
+  private static final int TYPE_REF_SIZE = 24;
+  private static final int METHOD_SIZE = 24;
+
+  // Type flags
+  public static final int IS_INTERFACE = 2;
+  // Element kind and access type
+  private static final int KIND_METHOD = 1;
+  private static final int ACCESS_PUBLIC = 1;
+  // Method flags and return type
+  private static final int PUBLIC_METHOD = 4;
+  private static final int FUNCTION_METHOD = 32;
+  private static final int TYPE_INTEGER = 4;
+
+  private SyntheticRCode() {
+    // No constructor
+  }
+
+  /**
+   * @param typeName Fully qualified type name
+   * @param parentTypeName Fully qualified name of parent type
+   * @param flags Type flags, 0 or {@link #IS_INTERFACE}
+   * @param interfaces Implemented interfaces
+   * @param methods Public methods, returning INTEGER, without parameters
+   */
+  public static byte[] classRCode(String typeName, String parentTypeName, int flags, List<String> interfaces,
+      List<String> methods) {
+    ByteArrayOutputStream text = new ByteArrayOutputStream();
+    // Offset 0 is the empty string, used as assembly name
+    text.write(0);
+    int nameOffset = appendText(text, typeName);
+    int parentOffset = appendText(text, parentTypeName);
+    int[] interfaceOffsets = new int[interfaces.size()];
+    for (int zz = 0; zz < interfaces.size(); zz++) {
+      interfaceOffsets[zz] = appendText(text, interfaces.get(zz));
+    }
+    int[] methodOffsets = new int[methods.size()];
+    for (int zz = 0; zz < methods.size(); zz++) {
+      methodOffsets[zz] = appendText(text, methods.get(zz));
+    }
+
+    int textAreaOffset = TYPE_HEADER_SIZE + ENTRY_SIZE * methods.size() + TYPE_REF_SIZE * (1 + interfaces.size())
+        + METHOD_SIZE * methods.size();
+    ByteBuffer typeBlock = ByteBuffer.allocate(textAreaOffset + text.size()).order(ByteOrder.LITTLE_ENDIAN);
+    typeBlock.putShort(8, (short) methods.size());
+    typeBlock.putShort(16, (short) interfaces.size());
+    typeBlock.putInt(20, flags);
+    typeBlock.putInt(32, nameOffset);
+    typeBlock.putInt(36, 0);
+    typeBlock.putInt(40, textAreaOffset);
+    int pos = TYPE_HEADER_SIZE;
+    for (int zz = 0; zz < methods.size(); zz++) {
+      typeBlock.putShort(pos, (short) zz);
+      typeBlock.putShort(pos + 2, (short) ACCESS_PUBLIC);
+      typeBlock.putShort(pos + 4, (short) KIND_METHOD);
+      typeBlock.putInt(pos + 12, methodOffsets[zz]);
+      pos += ENTRY_SIZE;
+    }
+    typeBlock.putInt(pos, parentOffset);
+    pos += TYPE_REF_SIZE;
+    for (int offset : interfaceOffsets) {
+      typeBlock.putInt(pos, offset);
+      pos += TYPE_REF_SIZE;
+    }
+    for (int zz = 0; zz < methods.size(); zz++) {
+      typeBlock.putShort(pos, (short) (PUBLIC_METHOD | FUNCTION_METHOD));
+      typeBlock.putShort(pos + 2, (short) TYPE_INTEGER);
+      // No parameter, no extent, name and return type name from entry
+      pos += METHOD_SIZE;
+    }
+    typeBlock.position(textAreaOffset);
+    typeBlock.put(text.toByteArray());
+
+    ByteBuffer rcode = ByteBuffer.allocate(HEADER_SIZE + SIGNATURE_SIZE + SEGMENT_TABLE_SIZE + typeBlock.capacity()).order(
+        ByteOrder.LITTLE_ENDIAN);
+    rcode.putInt(0, MAGIC);
+    rcode.putShort(14, (short) VERSION);
+    rcode.putShort(0x1E, (short) SEGMENT_TABLE_SIZE);
+    rcode.putInt(56, SIGNATURE_SIZE);
+    rcode.putInt(60, typeBlock.capacity());
+    // No segment, type block immediately follows segment table
+    rcode.putInt(64, 0);
+    rcode.position(HEADER_SIZE);
+    // Preamble size and number of elements, ASCII-encoded hexadecimal numbers
+    rcode.put("00100000".getBytes(StandardCharsets.US_ASCII));
+    rcode.position(HEADER_SIZE + SIGNATURE_SIZE + SEGMENT_TABLE_SIZE);
+    rcode.put(typeBlock.array());
+
+    return rcode.array();
+  }
+
+  private static int appendText(ByteArrayOutputStream text, String str) {
+    int offset = text.size();
+    byte[] bytes = str.getBytes(StandardCharsets.US_ASCII);
+    text.write(bytes, 0, bytes.length);
+    text.write(0);
+    return offset;
+  }
+}
@@ -0,0 +1,74 @@
+/*
+ * OpenEdge plugin for SonarQube
+ * Copyright (c) 2015-2018 Riverside Software
+ * contact AT riverside DASH software DOT fr
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package eu.rssw.openedge.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Unit tests resources of the other modules, used as benchmark inputs. Root directory of the project can be set with
+ * -Dproject.dir, and defaults to the parent directory (or the current directory when executed from the root
+ * directory).
+ */
+public final class TestResources {
+
+  private TestResources() {
+    // No constructor
+  }
+
+  public static File getDirectory(String module) {
+    String dir = System.getProperty("project.dir");
+    if (dir == null)
+      dir = new File("../" + module).isDirectory() ? ".." : ".";
+    return new File(dir, module + "/src/test/resources");
+  }
+
+  public static File getFile(String module, String fileName) {
+    return new File(getDirectory(module), fileName);
+  }
+
+  /**
+   * Content of files in a resources directory (not recursive), sorted by name
+   */
+  public static List<byte[]> readFiles(String module, String subDir, String suffix) {
+    File[] files = new File(getDirectory(module), subDir).listFiles((dir, name) -> name.endsWith(suffix));
+    if ((files == null) || (files.length == 0))
+      throw new IllegalStateException("No " + suffix + " file in " + module + "/" + subDir);
+    Arrays.sort(files);
+    List<byte[]> list = new ArrayList<>();
+    for (File file : files) {
+      list.add(readFile(file));
+    }
+    return list;
+  }
+
+  public static byte[] readFile(File file) {
+    try {
+      return Files.readAllBytes(file.toPath());
+    } catch (IOException caught) {
+      throw new UncheckedIOException(caught);
+    }
+  }
+}
@@ -20,72 +20,105 @@
 package eu.rssw.antlr.database;
 
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
-import java.nio.charset.IllegalCharsetNameException;
-import java.nio.charset.UnsupportedCharsetException;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
 
 import org.antlr.v4.runtime.ANTLRErrorListener;
+import org.antlr.v4.runtime.BailErrorStrategy;
+import org.antlr.v4.runtime.CharStream;
 import org.antlr.v4.runtime.CharStreams;
 import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.DefaultErrorStrategy;
+import org.antlr.v4.runtime.IntStream;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
 import org.antlr.v4.runtime.tree.ParseTree;
 
+import com.google.common.io.ByteStreams;
 import com.google.common.io.Files;
-import com.google.common.io.LineProcessor;
 
 import eu.rssw.antlr.database.objects.DatabaseDescription;
 
 public final class DumpFileUtils {
+  // Codepage is expected in the last bytes of the file
+  private static final int FOOTER_SIZE = 4096;
+  private static final String CPSTREAM = "cpstream=";
+  private static final int BUFFER_SIZE = 16384;
 
   private DumpFileUtils() {
     // Not instantiated
   }
 
   public static final ParseTree getDumpFileParseTree(File file) throws IOException {
-    return getDumpFileParseTree(new FileInputStream(file), null);
+    return getDumpFileParseTree(file, null);
   }
 
   /**
    * DF file encoding is stored at the end of the file. It's usually not expected that Sonar properties will hold the
-   * right value.
+   * right value. Footer is read first, then file content is decoded only once.
+   *
+   * @param defaultCharset Used if codepage is not found in footer. Null for platform default
    */
-  public static final ParseTree getDumpFileParseTree(InputStream stream, Charset defaultCharset) throws IOException {
-    // FileInputStream doesn't support mark for example, so we read the entire file in memory
-    ByteArrayOutputStream outStream = new ByteArrayOutputStream();
-    byte[] buffer = new byte[16384];
-    for (int len = stream.read(buffer); len != -1; len = stream.read(buffer)) {
-      outStream.write(buffer, 0, len);
+  public static final ParseTree getDumpFileParseTree(File file, Charset defaultCharset) throws IOException {
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      long size = channel.size();
+      ByteBuffer footer = ByteBuffer.allocate((int) Math.min(size, FOOTER_SIZE));
+      channel.position(size - footer.capacity());
+      while (footer.hasRemaining() && (channel.read(footer) != -1)) {
+        // Nothing
+      }
+      Charset charset = getCodePage(footer.array(), 0, footer.position(), defaultCharset);
+      channel.position(0);
+      return getDumpFileParseTree(
+          CharStreams.fromChannel(channel, charset, BUFFER_SIZE, CodingErrorAction.REPLACE, file.getPath(), size));
     }
-    ByteArrayInputStream buffdInput = new ByteArrayInputStream(outStream.toByteArray());
-
-    // Trying to read codepage from DF footer
-    LineProcessor<Charset> charsetReader = new DFCodePageProcessor(defaultCharset);
-    com.google.common.io.CharStreams.readLines(
-        new InputStreamReader(buffdInput, defaultCharset == null ? Charset.defaultCharset() : defaultCharset),
-        charsetReader);
-    buffdInput.reset();
-    return getDumpFileParseTree(new InputStreamReader(buffdInput, charsetReader.getResult()));
+  }
+
+  /**
+   * Same as {@link #getDumpFileParseTree(File, Charset)}, stream is read only once but entirely kept in memory.
+   */
+  public static final ParseTree getDumpFileParseTree(InputStream stream, Charset defaultCharset) throws IOException {
+    byte[] bytes = ByteStreams.toByteArray(stream);
+    int footerSize = Math.min(bytes.length, FOOTER_SIZE);
+    Charset charset = getCodePage(bytes, bytes.length - footerSize, footerSize, defaultCharset);
+    return getDumpFileParseTree(CharStreams.fromChannel(Channels.newChannel(new ByteArrayInputStream(bytes)), charset,
+        BUFFER_SIZE, CodingErrorAction.REPLACE, IntStream.UNKNOWN_SOURCE_NAME, bytes.length));
   }
 
   public static final ParseTree getDumpFileParseTree(Reader reader) throws IOException {
+    return getDumpFileParseTree(CharStreams.fromReader(reader));
+  }
+
+  private static ParseTree getDumpFileParseTree(CharStream input) {
     ANTLRErrorListener listener = new DescriptiveErrorListener();
-    DumpFileGrammarLexer lexer = new DumpFileGrammarLexer(CharStreams.fromReader(reader));
+    DumpFileGrammarLexer lexer = new DumpFileGrammarLexer(input);
     lexer.removeErrorListeners();
     lexer.addErrorListener(listener);
 
-    // Using SLL first proved not to be useful for the DF parser, so we directly parse with LL prediction mode
     CommonTokenStream tokens = new CommonTokenStream(lexer);
     DumpFileGrammarParser parser = new DumpFileGrammarParser(tokens);
     parser.removeErrorListeners();
-    parser.addErrorListener(listener);
-
-    return parser.dump();
+    // SLL prediction first, then LL only if SLL fails. Tokens are not lexed a second time
+    parser.setErrorHandler(new BailErrorStrategy());
+    parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+    try {
+      return parser.dump();
+    } catch (ParseCancellationException uncaught) {
+      parser.reset();
+      parser.addErrorListener(listener);
+      parser.setErrorHandler(new DefaultErrorStrategy());
+      parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+      return parser.dump();
+    }
   }
 
   public static final DatabaseDescription getDatabaseDescription(File file) throws IOException {
@@ -106,30 +139,25 @@ public final class DumpFileUtils {
     return visitor.getDatabase();
   }
 
-  private static class DFCodePageProcessor implements LineProcessor<Charset> {
-    private Charset charset = Charset.defaultCharset();
-
-    public DFCodePageProcessor(Charset charset) {
-      if (charset != null)
-        this.charset = charset;
-    }
-
-    @Override
-    public Charset getResult() {
-      return charset;
-    }
-
-    @Override
-    public boolean processLine(String arg0) throws IOException {
-      if (arg0.startsWith("cpstream=")) {
-        try {
-          charset = Charset.forName(arg0.substring(9));
-        } catch (IllegalCharsetNameException | UnsupportedCharsetException uncaught) {
-          // Undefined for example...
-        }
-        return false;
+  /**
+   * Read codepage from the 'cpstream=' line of the DF footer
+   */
+  static Charset getCodePage(byte[] footer, int offset, int length, Charset defaultCharset) {
+    // Footer is plain ASCII
+    String str = new String(footer, offset, length, StandardCharsets.ISO_8859_1);
+    int pos = str.startsWith(CPSTREAM) ? 0 : str.indexOf('\n' + CPSTREAM);
+    if (pos != -1) {
+      int start = str.indexOf(CPSTREAM, pos) + CPSTREAM.length();
+      int end = start;
+      while ((end < str.length()) && (str.charAt(end) != '\n') && (str.charAt(end) != '\r')) {
+        end++;
+      }
+      try {
+        return Charset.forName(str.substring(start, end));
+      } catch (IllegalArgumentException uncaught) {
+        // Undefined for example...
       }
-      return true;
     }
+    return defaultCharset == null ? Charset.defaultCharset() : defaultCharset;
   }
 }
@@ -19,20 +19,20 @@
  */
 package eu.rssw.antlr.database.objects;
 
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.io.OutputStream;
-import java.io.OutputStreamWriter;
-import java.nio.charset.Charset;
 import java.util.Collection;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
-import com.google.common.base.Splitter;
+import com.google.common.io.Files;
 
 public class DatabaseDescription {
   private String dbName;
@@ -71,70 +71,31 @@ public class DatabaseDescription {
     sequences.put(seq.getName(), seq);
   }
 
+  /**
+   * Write binary snapshot of this object, which can be read back with {@link #deserialize(InputStream, String)}
+   */
   public void serialize(OutputStream out) throws IOException {
-    try (OutputStreamWriter osw = new OutputStreamWriter(out, Charset.forName("utf-8"));
-        BufferedWriter writer = new BufferedWriter(osw)) {
-      for (Sequence s : sequences.values()) {
-        writer.write("S" + s.getName());
-        writer.newLine();
-      }
-      for (Table t : tables.values()) {
-        writer.write("T" + t.getName());
-        writer.newLine();
-        for (Field f : t.getFields()) {
-          writer.write("F" + f.getName() + ":" + f.getDataType() + ":" + f.getExtent());
-          writer.newLine();
-        }
-        for (Index i : t.getIndexes()) {
-          writer.write("I" + i.getName() + ":" + (i.isPrimary() ? "P" : "") + (i.isUnique() ? "U" : ""));
-          for (IndexField ifld : i.getFields()) {
-            writer.write(":" + (ifld.isAscending() ? 'A' : 'D') + ifld.getField().getName());
-          }
-          writer.newLine();
-        }
-      }
-    }
+    DataOutputStream dataOut = new DataOutputStream(new BufferedOutputStream(out));
+    DatabaseSnapshot.write(this, dataOut);
+    dataOut.flush();
   }
 
+  /**
+   * Read binary snapshot generated by {@link #serialize(OutputStream)}
+   * 
+   * @param name Logical database name
+   * @throws IOException If stream can't be read, or if snapshot was generated by another version
+   */
   public static DatabaseDescription deserialize(InputStream in, String name) throws IOException {
-    DatabaseDescription db = new DatabaseDescription(name);
-    try (InputStreamReader isr = new InputStreamReader(in); BufferedReader reader = new BufferedReader(isr)) {
-      String line = null;
-      Table currTbl = null;
-      while ((line = reader.readLine()) != null) {
-        if (line.startsWith("S")) {
-          db.addSequence(new Sequence(line.substring(1)));
-        } else if (line.startsWith("T")) {
-          currTbl = new Table(line.substring(1));
-          db.addTable(currTbl);
-        } else if (line.startsWith("F")) {
-          // FieldName:DataType:Extent
-          int ch1 = line.indexOf(':');
-          int ch2 = line.lastIndexOf(':');
-          if ((currTbl == null) || (ch1 == -1) || (ch2 == -1))
-            throw new IOException("Invalid file format: " + line);
-
-          Field f = new Field(line.substring(1, ch1), line.substring(ch1 + 1, ch2));
-          f.setExtent(Integer.parseInt(line.substring(ch2 + 1)));
-          currTbl.addField(f);
-        } else if (line.startsWith("I")) {
-          if (currTbl == null)
-            throw new IOException("No associated table for " + line);
-          // IndexName:Attributes:Field1:Field2:...
-          List<String> lst = Splitter.on(':').trimResults().splitToList(line);
-          if (lst.size() < 3)
-            throw new IOException("Invalid file format: " + line);
-          Index i = new Index(lst.get(0).substring(1));
-          i.setUnique(lst.get(1).indexOf('U') > -1);
-          i.setPrimary(lst.get(1).indexOf('P') > -1);
-          for (int zz = 2; zz < lst.size(); zz++) {
-            i.addField(new IndexField(currTbl.getField(lst.get(zz).substring(1)), lst.get(zz).charAt(0) == 'A'));
-          }
-          currTbl.addIndex(i);
-        }
-      }
-    }
+    return DatabaseSnapshot.read(new DataInputStream(new BufferedInputStream(in)), name);
+  }
 
-    return db;
+  /**
+   * Read binary snapshot from file, in one read operation
+   * 
+   * @see #deserialize(InputStream, String)
+   */
+  public static DatabaseDescription deserialize(File file, String name) throws IOException {
+    return DatabaseSnapshot.read(new DataInputStream(new ByteArrayInputStream(Files.toByteArray(file))), name);
   }
 }
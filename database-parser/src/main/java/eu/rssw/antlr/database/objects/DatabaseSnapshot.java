@@ -0,0 +1,270 @@
+/*
+ * OpenEdge plugin for SonarQube
+ * Copyright (c) 2015-2018 Riverside Software
+ * contact AT riverside DASH software DOT fr
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package eu.rssw.antlr.database.objects;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Binary format of {@link DatabaseDescription}, so that a database schema can be reloaded without parsing the dump
+ * file again. Objects are written in one sequential pass, strings as length-prefixed UTF-8 byte arrays, and index
+ * fields as positions in the field list of their table.
+ */
+final class DatabaseSnapshot {
+  // 'OEDB'
+  static final int MAGIC = 0x4F454442;
+  // Increment when format changes, older files are then rejected
+  static final int VERSION = 1;
+
+  private DatabaseSnapshot() {
+    // No constructor
+  }
+
+  static void write(DatabaseDescription db, DataOutputStream out) throws IOException {
+    out.writeInt(MAGIC);
+    out.writeInt(VERSION);
+    out.writeInt(db.getSequences().size());
+    for (Sequence seq : db.getSequences()) {
+      writeString(out, seq.getName());
+      writeLong(out, seq.getInitialValue());
+      writeLong(out, seq.getMinValue());
+      writeLong(out, seq.getMaxValue());
+      writeLong(out, seq.getIncrement());
+      out.writeBoolean(seq.isCycleOnLimit());
+      out.writeInt(seq.getFirstLine());
+      out.writeInt(seq.getLastLine());
+    }
+    out.writeInt(db.getTables().size());
+    for (Table tbl : db.getTables()) {
+      writeTable(out, tbl);
+    }
+  }
+
+  static DatabaseDescription read(DataInputStream in, String name) throws IOException {
+    if (in.readInt() != MAGIC)
+      throw new IOException("Invalid schema snapshot");
+    int version = in.readInt();
+    if (version != VERSION)
+      throw new IOException("Unsupported schema snapshot version " + version);
+
+    DatabaseDescription db = new DatabaseDescription(name);
+    int numSequences = in.readInt();
+    for (int zz = 0; zz < numSequences; zz++) {
+      Sequence seq = new Sequence(readString(in));
+      seq.setInitialValue(readLong(in));
+      seq.setMinValue(readLong(in));
+      seq.setMaxValue(readLong(in));
+      seq.setIncrement(readLong(in));
+      seq.setCycleOnLimit(in.readBoolean());
+      seq.setFirstLine(in.readInt());
+      seq.setLastLine(in.readInt());
+      db.addSequence(seq);
+    }
+    int numTables = in.readInt();
+    for (int zz = 0; zz < numTables; zz++) {
+      db.addTable(readTable(in));
+    }
+
+    return db;
+  }
+
+  private static void writeTable(DataOutputStream out, Table tbl) throws IOException {
+    writeString(out, tbl.getName());
+    writeString(out, tbl.getArea());
+    writeString(out, tbl.getLabel());
+    writeString(out, tbl.getDescription());
+    writeString(out, tbl.getDumpName());
+    writeString(out, tbl.getValMsg());
+    out.writeInt(tbl.getFirstLine());
+    out.writeInt(tbl.getLastLine());
+    writeTriggers(out, tbl.getTriggers());
+
+    List<Field> fields = new ArrayList<>(tbl.getFields());
+    out.writeInt(fields.size());
+    for (Field fld : fields) {
+      writeString(out, fld.getName());
+      writeString(out, fld.getDataType());
+      writeInteger(out, fld.getOrder());
+      writeInteger(out, fld.getExtent());
+      writeString(out, fld.getDescription());
+      writeString(out, fld.getLobArea());
+      writeString(out, fld.getFormat());
+      writeInteger(out, fld.getMaxWidth());
+      out.writeInt(fld.getFirstLine());
+      out.writeInt(fld.getLastLine());
+      writeTriggers(out, fld.getTriggers());
+    }
+
+    out.writeInt(tbl.getIndexes().size());
+    for (Index idx : tbl.getIndexes()) {
+      writeString(out, idx.getName());
+      writeString(out, idx.getArea());
+      out.writeBoolean(idx.isPrimary());
+      out.writeBoolean(idx.isUnique());
+      out.writeBoolean(idx.isWord());
+      writeString(out, idx.getBufferPool());
+      out.writeInt(idx.getFirstLine());
+      out.writeInt(idx.getLastLine());
+      out.writeInt(idx.getFields().size());
+      for (IndexField ifld : idx.getFields()) {
+        out.writeInt(indexOf(fields, ifld.getField()));
+        out.writeBoolean(ifld.isAscending());
+      }
+    }
+  }
+
+  private static Table readTable(DataInputStream in) throws IOException {
+    Table tbl = new Table(readString(in));
+    tbl.setArea(readString(in));
+    tbl.setLabel(readString(in));
+    tbl.setDescription(readString(in));
+    tbl.setDumpName(readString(in));
+    tbl.setValMsg(readString(in));
+    tbl.setFirstLine(in.readInt());
+    tbl.setLastLine(in.readInt());
+    for (Trigger trg : readTriggers(in)) {
+      tbl.addTrigger(trg);
+    }
+
+    int numFields = in.readInt();
+    List<Field> fields = new ArrayList<>(numFields);
+    for (int zz = 0; zz < numFields; zz++) {
+      Field fld = new Field(readString(in), readString(in));
+      fld.setOrder(readInteger(in));
+      fld.setExtent(readInteger(in));
+      fld.setDescription(readString(in));
+      fld.setLobArea(readString(in));
+      fld.setFormat(readString(in));
+      fld.setMaxWidth(readInteger(in));
+      fld.setFirstLine(in.readInt());
+      fld.setLastLine(in.readInt());
+      for (Trigger trg : readTriggers(in)) {
+        fld.addTrigger(trg);
+      }
+      fields.add(fld);
+    }
+    tbl.setFields(fields);
+
+    int numIndexes = in.readInt();
+    List<Index> indexes = new ArrayList<>(numIndexes);
+    for (int zz = 0; zz < numIndexes; zz++) {
+      Index idx = new Index(readString(in));
+      idx.setArea(readString(in));
+      idx.setPrimary(in.readBoolean());
+      idx.setUnique(in.readBoolean());
+      idx.setWord(in.readBoolean());
+      idx.setBufferPool(readString(in));
+      idx.setFirstLine(in.readInt());
+      idx.setLastLine(in.readInt());
+      int numIdxFields = in.readInt();
+      for (int yy = 0; yy < numIdxFields; yy++) {
+        int pos = in.readInt();
+        if ((pos < -1) || (pos >= fields.size()))
+          throw new IOException("Invalid field position " + pos + " in index " + idx.getName());
+        idx.addField(new IndexField(pos == -1 ? null : fields.get(pos), in.readBoolean()));
+      }
+      indexes.add(idx);
+    }
+    tbl.setIndexes(indexes);
+
+    return tbl;
+  }
+
+  private static void writeTriggers(DataOutputStream out, Collection<Trigger> triggers) throws IOException {
+    out.writeInt(triggers.size());
+    for (Trigger trg : triggers) {
+      out.writeInt(trg.getType() == null ? -1 : trg.getType().ordinal());
+      writeString(out, trg.getProcedure());
+      out.writeBoolean(trg.isNoOverride());
+      out.writeBoolean(trg.isOverride());
+      writeString(out, trg.getCrc());
+    }
+  }
+
+  private static List<Trigger> readTriggers(DataInputStream in) throws IOException {
+    int numTriggers = in.readInt();
+    List<Trigger> triggers = new ArrayList<>(numTriggers);
+    for (int zz = 0; zz < numTriggers; zz++) {
+      int type = in.readInt();
+      if ((type < -1) || (type >= TriggerType.values().length))
+        throw new IOException("Invalid trigger type " + type);
+      Trigger trg = new Trigger(type == -1 ? null : TriggerType.values()[type], readString(in));
+      trg.setNoOverride(in.readBoolean());
+      trg.setOverride(in.readBoolean());
+      trg.setCrc(readString(in));
+      triggers.add(trg);
+    }
+    return triggers;
+  }
+
+  private static int indexOf(List<Field> fields, Field field) {
+    for (int zz = 0; zz < fields.size(); zz++) {
+      if (fields.get(zz) == field)
+        return zz;
+    }
+    return -1;
+  }
+
+  private static void writeString(DataOutputStream out, String str) throws IOException {
+    if (str == null) {
+      out.writeInt(-1);
+    } else {
+      byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+      out.writeInt(bytes.length);
+      out.write(bytes);
+    }
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    int len = in.readInt();
+    if (len == -1)
+      return null;
+    if (len < 0)
+      throw new IOException("Invalid string length " + len);
+    byte[] bytes = new byte[len];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static void writeInteger(DataOutputStream out, Integer val) throws IOException {
+    out.writeBoolean(val != null);
+    if (val != null)
+      out.writeInt(val);
+  }
+
+  private static Integer readInteger(DataInputStream in) throws IOException {
+    return in.readBoolean() ? in.readInt() : null;
+  }
+
+  private static void writeLong(DataOutputStream out, Long val) throws IOException {
+    out.writeBoolean(val != null);
+    if (val != null)
+      out.writeLong(val);
+  }
+
+  private static Long readLong(DataInputStream in) throws IOException {
+    return in.readBoolean() ? in.readLong() : null;
+  }
+}
@@ -106,6 +106,10 @@ public class Index {
     return "alternate".equalsIgnoreCase(bufferPool);
   }
 
+  public String getBufferPool() {
+    return bufferPool;
+  }
+
   public void setBufferPool(String bp) {
     this.bufferPool = bp;
   }
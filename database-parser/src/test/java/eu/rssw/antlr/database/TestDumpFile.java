@@ -53,6 +53,27 @@ public class TestDumpFile {
     assertEquals(db2.getTable("Tbl1").getDescription(), "Ã©Ã§");
   }
 
+  @Test
+  public void testFileCodePage() throws IOException {
+    // Codepage read from footer, default charset is ignored
+    DatabaseDescription db = DumpFileUtils.getDatabaseDescription(new File("src/test/resources/sp3k.df"));
+    assertEquals(db.getTable("Tbl1").getDescription(), "éç");
+    DatabaseDescription db2 = DumpFileUtils.getDatabaseDescription(new File("src/test/resources/sp4k.df"));
+    assertEquals(db2.getTable("Tbl1").getDescription(), "Ã©Ã§");
+  }
+
+  @Test
+  public void testCodePage() {
+    Charset utf8 = Charset.forName("utf-8");
+    byte[] footer = ".\nPSC\ncpstream=ISO8859-15\n.\n0000006070\n".getBytes();
+    assertEquals(DumpFileUtils.getCodePage(footer, 0, footer.length, utf8), Charset.forName("ISO-8859-15"));
+    assertEquals(DumpFileUtils.getCodePage(footer, 6, footer.length - 6, utf8), Charset.forName("ISO-8859-15"));
+    byte[] footer2 = ".\nPSC\ncpstream=undefined\n.\n".getBytes();
+    assertEquals(DumpFileUtils.getCodePage(footer2, 0, footer2.length, utf8), utf8);
+    byte[] footer3 = "ADD TABLE \"cpstream=utf-8\"\n".getBytes();
+    assertEquals(DumpFileUtils.getCodePage(footer3, 0, footer3.length, null), Charset.defaultCharset());
+  }
+
   @Test
   public void testSports2000() throws IOException {
     DatabaseDescription db = DumpFileUtils.getDatabaseDescription(new File("src/test/resources/sp2k.df"));
@@ -118,6 +139,22 @@ public class TestDumpFile {
     assertEquals(db2.getTable("Order").getIndexes().size(), 5);
     assertNotNull(db2.getTable("Order").getIndex("CustOrder"));
     assertEquals(db2.getTable("Order").getIndex("CustOrder").getFields().size(), 2);
+    assertEquals(db2.getTable("Order").getIndex("CustOrder").getFields().get(0).getField(),
+        db2.getTable("Order").getField("CustNum"));
+    // Triggers and index metadata
+    Trigger trg = db2.getTable("Item").getTrigger(TriggerType.DELETE);
+    assertNotNull(trg);
+    assertEquals(trg.getProcedure(), "sports2000trgs/delitem.p");
+    assertEquals(trg.getCrc(), "32704");
+    assertTrue(db2.getTable("Warehouse").getIndex("warehousenum").isInAlternateBufferPool());
+    assertTrue(db2.getTable("BillTo").getIndex("custnumbillto").isUnique());
+    assertEquals(db2.getTable("Item").getDescription(), db.getTable("Item").getDescription());
+    assertEquals(db2.getTable("Item").getFirstLine(), db.getTable("Item").getFirstLine());
+  }
+
+  @Test(expectedExceptions = IOException.class)
+  public void testDeserializeInvalid() throws IOException {
+    DatabaseDescription.deserialize(new ByteArrayInputStream("TCustomer\nFName:character:0".getBytes()), "sp2k");
   }
 
 }
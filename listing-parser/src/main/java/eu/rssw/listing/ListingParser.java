@@ -20,9 +20,12 @@
 package eu.rssw.listing;
 
 import java.io.BufferedReader;
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
@@ -32,7 +35,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.base.Predicate;
-import com.google.common.base.Splitter;
 import com.google.common.collect.Collections2;
 import com.google.common.primitives.Ints;
 
@@ -63,6 +65,79 @@ public class ListingParser {
     parseFile(reader);
   }
 
+  private ListingParser(String relativeName) {
+    this.relativeName = relativeName;
+  }
+
+  /**
+   * Writes parsed blocks in compact binary form, to be read with {@link #read(DataInput, String)}
+   */
+  public void write(DataOutput out) throws IOException {
+    out.writeInt(blocks.size());
+    for (CodeBlock block : blocks) {
+      out.writeByte(block.getType().ordinal());
+      out.writeInt(block.getLineNumber());
+      out.writeBoolean(block.isTransaction());
+      writeString(out, block.getLabel());
+      writeStrings(out, block.getBuffers());
+      writeStrings(out, block.getFrames());
+    }
+  }
+
+  /**
+   * Restores blocks written by {@link #write(DataOutput)}, without reading the listing file
+   */
+  public static ListingParser read(DataInput in, String relativeName) throws IOException {
+    ListingParser parser = new ListingParser(relativeName);
+    int numBlocks = in.readInt();
+    BlockType[] types = BlockType.values();
+    for (int zz = 0; zz < numBlocks; zz++) {
+      int type = in.readByte();
+      if ((type < 0) || (type >= types.length))
+        throw new IOException("Invalid block type " + type);
+      CodeBlock block = new CodeBlock(types[type], in.readInt(), in.readBoolean(), readString(in));
+      int numBuffers = in.readInt();
+      for (int yy = 0; yy < numBuffers; yy++) {
+        block.appendBuffer(readString(in));
+      }
+      int numFrames = in.readInt();
+      for (int yy = 0; yy < numFrames; yy++) {
+        block.appendFrame(readString(in));
+      }
+      parser.blocks.add(block);
+    }
+    return parser;
+  }
+
+  private static void writeStrings(DataOutput out, Collection<String> strings) throws IOException {
+    if (strings == null) {
+      out.writeInt(0);
+    } else {
+      out.writeInt(strings.size());
+      for (String str : strings) {
+        writeString(out, str);
+      }
+    }
+  }
+
+  /**
+   * Length-prefixed UTF-8 string, as {@link DataOutput#writeUTF(String)} is limited to 64KB
+   */
+  private static void writeString(DataOutput out, String str) throws IOException {
+    byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static String readString(DataInput in) throws IOException {
+    int length = in.readInt();
+    if (length < 0)
+      throw new IOException("Invalid string length " + length);
+    byte[] bytes = new byte[length];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
   public Collection<CodeBlock> getBlocks() {
     return blocks;
   }
@@ -98,7 +173,42 @@ public class ListingParser {
     return null;
   }
 
+  /**
+   * Splits line on space characters, in at most tokens.length elements. Last element contains the remaining part of
+   * the line, without leading and trailing spaces.
+   * 
+   * @return Number of tokens
+   */
+  static int split(String str, String[] tokens) {
+    int len = str.length();
+    int pos = 0;
+    int num = 0;
+    while (num < tokens.length) {
+      while ((pos < len) && (str.charAt(pos) == ' ')) {
+        pos++;
+      }
+      if (pos == len)
+        break;
+      int end;
+      if (num == tokens.length - 1) {
+        end = len;
+        while (str.charAt(end - 1) == ' ') {
+          end--;
+        }
+      } else {
+        end = str.indexOf(' ', pos);
+        if (end == -1)
+          end = len;
+      }
+      tokens[num++] = str.substring(pos, end);
+      pos = end;
+    }
+    return num;
+  }
+
   private void parseFile(BufferedReader reader) throws IOException {
+    // File name, line number, block type, transaction and label
+    String[] tokens = new String[5];
     boolean sourceDone = false;
     boolean newPage = true;
     boolean frames = false;
@@ -146,17 +256,17 @@ public class ListingParser {
               blocks.get(blocks.size() - 1).appendBuffer(str.substring(13));
           }
         } else {
-          List<String> splitter = Splitter.on(' ').trimResults().omitEmptyStrings().limit(5).splitToList(str);
-          if (splitter.size() < 4)
+          int size = split(str, tokens);
+          if (size < 4)
             return;
-          Integer lineNumber = Ints.tryParse(splitter.get(1));
-          BlockType type = BlockType.getBlockType(splitter.get(2).toUpperCase());
-          boolean transaction = "Yes".equals(splitter.get(3));
+          Integer lineNumber = Ints.tryParse(tokens[1]);
+          BlockType type = BlockType.getBlockType(tokens[2]);
+          boolean transaction = "Yes".equals(tokens[3]);
           frames = false;
           if (type != null) {
-            blocks.add(new CodeBlock(type, lineNumber == null ? -1 : lineNumber, transaction, (splitter.size() == 5 ? splitter.get(4) : "")));
+            blocks.add(new CodeBlock(type, lineNumber == null ? -1 : lineNumber, transaction, (size == 5 ? tokens[4] : "")));
           } else {
-            LOG.error("Unknown block type {} in {} at line {}, please report issue", splitter.get(2).toUpperCase(), relativeName, fileLineNumber);
+            LOG.error("Unknown block type {} in {} at line {}, please report issue", tokens[2].toUpperCase(), relativeName, fileLineNumber);
           }
         }
       }
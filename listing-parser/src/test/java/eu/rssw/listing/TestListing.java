@@ -19,8 +19,14 @@
  */
 package eu.rssw.listing;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
 
 import org.testng.Assert;
 import org.testng.annotations.Test;
@@ -77,4 +83,78 @@ public class TestListing {
   public static void testListing4() throws IOException {
     new ListingParser(new File("src/test/resources/listing4.txt"), "listing4.txt");
   }
+
+  @Test
+  public static void testSplit() {
+    String[] tokens = new String[5];
+    Assert.assertEquals(ListingParser.split("...es\\sample\\test3.p    8 Procedure   No   Procedure foo    ", tokens), 5);
+    Assert.assertEquals(tokens[0], "...es\\sample\\test3.p");
+    Assert.assertEquals(tokens[1], "8");
+    Assert.assertEquals(tokens[2], "Procedure");
+    Assert.assertEquals(tokens[3], "No");
+    Assert.assertEquals(tokens[4], "Procedure foo");
+    Assert.assertEquals(ListingParser.split("  test3.p   13 For         No         ", tokens), 4);
+    Assert.assertEquals(tokens[3], "No");
+    Assert.assertEquals(ListingParser.split("   ", tokens), 0);
+  }
+
+  @Test
+  public static void testSerialization() throws IOException {
+    for (String name : new String[] {"listing1.txt", "listing2.txt", "listing4.txt"}) {
+      ListingParser parser = new ListingParser(new File("src/test/resources/" + name), name);
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      parser.write(new DataOutputStream(bytes));
+      ListingParser parser2 = ListingParser.read(
+          new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), name);
+      Assert.assertEquals(parser2.getBlocks().size(), parser.getBlocks().size());
+      Assert.assertEquals(parser2.getTransactionBlocks().size(), parser.getTransactionBlocks().size());
+      Iterator<CodeBlock> iter = parser2.getBlocks().iterator();
+      for (CodeBlock block : parser.getBlocks()) {
+        CodeBlock block2 = iter.next();
+        Assert.assertEquals(block2.toString(), block.toString());
+        Assert.assertEquals(block2.getBuffers(), block.getBuffers());
+        Assert.assertEquals(block2.getFrames(), block.getFrames());
+      }
+    }
+  }
+
+  @Test
+  public static void testLongStrings() throws IOException {
+    // More than 64KB, which is the limit of DataOutput.writeUTF()
+    StringBuilder sb = new StringBuilder();
+    for (int zz = 0; zz < 70000; zz++) {
+      sb.append('\u00e9');
+    }
+    String longStr = sb.toString();
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    out.writeInt(1);
+    out.writeByte(BlockType.PROCEDURE.ordinal());
+    out.writeInt(12);
+    out.writeBoolean(true);
+    writeString(out, longStr);
+    out.writeInt(1);
+    writeString(out, longStr + "b");
+    out.writeInt(1);
+    writeString(out, longStr + "f");
+
+    ListingParser parser = ListingParser.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())),
+        "test.p");
+    // Written again in the same format
+    ByteArrayOutputStream bytes2 = new ByteArrayOutputStream();
+    parser.write(new DataOutputStream(bytes2));
+    Assert.assertEquals(bytes2.toByteArray(), bytes.toByteArray());
+
+    CodeBlock block = parser.getBlocks().iterator().next();
+    Assert.assertEquals(block.getLineNumber(), 12);
+    Assert.assertEquals(block.getLabel(), longStr);
+    Assert.assertEquals(block.getBuffers().iterator().next(), longStr + "b");
+    Assert.assertEquals(block.getFrames().iterator().next(), longStr + "f");
+  }
+
+  private static void writeString(DataOutputStream out, String str) throws IOException {
+    byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
 }
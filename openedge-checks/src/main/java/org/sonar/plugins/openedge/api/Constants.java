@@ -38,6 +38,8 @@ public class Constants {
   public static final String PROPATH_DLC = "sonar.oe.propath.dlc";
   public static final String DATABASES = "sonar.oe.databases";
   public static final String ALIASES = "sonar.oe.aliases";
+  public static final String SCHEMA_CACHE = "sonar.oe.schema.cache";
+  public static final String ARTIFACTS_CACHE = "sonar.oe.artifacts.cache";
   public static final String CPD_ANNOTATIONS = "sonar.oe.cpd.annotations";
   public static final String CPD_METHODS = "sonar.oe.cpd.skip_methods";
   public static final String CPD_PROCEDURES = "sonar.oe.cpd.skip_procedures";
@@ -49,8 +51,12 @@ public class Constants {
   public static final String OE_ANALYTICS = "sonar.oe.analytics";
   public static final String SKIP_RCODE = "sonar.oe.rcode.skip";
   public static final String ANTLR4_TEST = "sonar.oe.antlr4";
+  public static final String ANTLR4_PARSER = "sonar.oe.antlr4.parser";
   public static final String ANTLR4_PROFILER = "sonar.oe.antlr4.profiler";
+  public static final String ANTLR4_WARMUP = "sonar.oe.antlr4.warmup";
   public static final String SKIP_XCODE = "sonar.oe.xcode.skip";
+  public static final String COVERAGE_PROFILER_DIRS = "sonar.oe.coverage.profiler.dirs";
+  public static final String PROFILER_DIRS = "sonar.oe.profiler.dirs";
 
   private Constants() {
     
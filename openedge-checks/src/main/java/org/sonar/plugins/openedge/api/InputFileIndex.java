@@ -0,0 +1,86 @@
+/*
+ * OpenEdge plugin for SonarQube
+ * Copyright (c) 2015-2018 Riverside Software
+ * contact AT riverside DASH software DOT fr
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.openedge.api;
+
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.sonar.api.batch.fs.FileSystem;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.utils.PathUtils;
+
+/**
+ * Index of InputFile objects by relative and absolute path, built on first use and shared by all rules during an
+ * analysis. Lookups return the same result as {@link FileSystem#inputFile(org.sonar.api.batch.fs.FilePredicate)} with
+ * relative or absolute path predicates, without iterating over all files of the project.
+ */
+public class InputFileIndex {
+  private final FileSystem fileSystem;
+  private Map<String, InputFile> relativePaths;
+  private Map<String, InputFile> absolutePaths;
+
+  public InputFileIndex(FileSystem fileSystem) {
+    this.fileSystem = fileSystem;
+  }
+
+  /**
+   * @return Null if not found
+   */
+  public InputFile getByRelativePath(String path) {
+    initialize();
+    InputFile file = relativePaths.get(path);
+    if (file == null) {
+      String str = PathUtils.sanitize(path);
+      file = str == null ? null : relativePaths.get(str);
+    }
+    return file;
+  }
+
+  /**
+   * @return Null if not found
+   */
+  public InputFile getByAbsolutePath(String path) {
+    initialize();
+    String str = PathUtils.sanitize(path);
+    return str == null ? null : absolutePaths.get(str);
+  }
+
+  /**
+   * Same as {@link #getByRelativePath(String)}, then {@link #getByAbsolutePath(String)}
+   */
+  public InputFile getByPath(String path) {
+    InputFile file = getByRelativePath(path);
+    return file == null ? getByAbsolutePath(path) : file;
+  }
+
+  private synchronized void initialize() {
+    if (relativePaths != null)
+      return;
+    Map<String, InputFile> map1 = new HashMap<>();
+    Map<String, InputFile> map2 = new HashMap<>();
+    for (InputFile file : fileSystem.inputFiles(fileSystem.predicates().all())) {
+      map1.putIfAbsent(file.relativePath(), file);
+      map2.putIfAbsent(PathUtils.sanitize(Paths.get(file.uri()).toString()), file);
+    }
+    absolutePaths = map2;
+    relativePaths = map1;
+  }
+}
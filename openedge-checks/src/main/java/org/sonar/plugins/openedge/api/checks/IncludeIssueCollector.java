@@ -0,0 +1,190 @@
+/*
+ * OpenEdge plugin for SonarQube
+ * Copyright (c) 2015-2018 Riverside Software
+ * contact AT riverside DASH software DOT fr
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.openedge.api.checks;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.sensor.SensorContext;
+import org.sonar.api.batch.sensor.issue.NewIssue;
+import org.sonar.api.batch.sensor.issue.NewIssueLocation;
+import org.sonar.api.rule.RuleKey;
+
+/**
+ * Issues reported on include files, deduplicated by rule, include file, location and message. The same include file
+ * is usually analyzed once per main file referencing it, so issues are kept in memory and only saved once in
+ * {@link #save(SensorContext)}, with the name of the first main files where they were found.
+ */
+public class IncludeIssueCollector {
+  private static final Logger LOG = LoggerFactory.getLogger(IncludeIssueCollector.class);
+
+  /**
+   * Number of main file names kept in issue message
+   */
+  public static final int MAX_ORIGINS = 3;
+
+  private final Map<Key, Origins> issues = new LinkedHashMap<>();
+  private int duplicates;
+
+  /**
+   * Registers issue
+   * 
+   * @param column Zero-based, or -1 for the entire line
+   * @param origin Relative path of main file
+   * @return False if this issue has already been reported from another main file
+   */
+  public synchronized boolean add(RuleKey ruleKey, InputFile target, int line, int column, int endLine,
+      int endColumn, String origin, String msg) {
+    Key key = new Key(ruleKey, target, line, column, endLine, endColumn, msg);
+    Origins origins = issues.get(key);
+    if (origins == null) {
+      issues.put(key, new Origins(origin));
+      return true;
+    }
+    origins.add(origin);
+    duplicates++;
+    return false;
+  }
+
+  /**
+   * Number of issues not saved as they were already reported from another main file
+   */
+  public synchronized int getDuplicates() {
+    return duplicates;
+  }
+
+  public synchronized int size() {
+    return issues.size();
+  }
+
+  /**
+   * Removes all registered issues and resets duplicates counter. To be called at the beginning of each analysis, as the
+   * same instance is kept between analysis in SonarLint.
+   */
+  public synchronized void clear() {
+    issues.clear();
+    duplicates = 0;
+  }
+
+  /**
+   * Saves and removes all registered issues
+   * 
+   * @return Number of issues saved
+   */
+  public synchronized int save(SensorContext context) {
+    int num = 0;
+    for (Map.Entry<Key, Origins> entry : issues.entrySet()) {
+      Key key = entry.getKey();
+      NewIssue issue = context.newIssue().forRule(key.ruleKey);
+      NewIssueLocation location = issue.newLocation().on(key.target);
+      try {
+        if (key.line > 0) {
+          if (key.column >= 0) {
+            location.at(key.target.newRange(key.line, key.column, key.endLine, key.endColumn));
+          } else {
+            location.at(OpenEdgeProparseCheck.selectLine(context, key.target, key.line));
+          }
+        }
+      } catch (IllegalArgumentException caught) {
+        LOG.error("Unable to report issue " + key.ruleKey + " on " + key.target, caught);
+        continue;
+      }
+      location.message(getMessage(entry.getValue().files, entry.getValue().count, key.msg));
+      issue.at(location).save();
+      num++;
+    }
+    issues.clear();
+
+    return num;
+  }
+
+  /**
+   * @param count Number of times the issue was reported, can be greater than the number of origins if the same include
+   *          file is referenced more than once from a main file
+   */
+  static String getMessage(List<String> origins, int count, String msg) {
+    StringBuilder sb = new StringBuilder("From ").append(String.join(", ", origins));
+    if (count > origins.size()) {
+      sb.append(" (and ").append(count - origins.size()).append(" other occurrences)");
+    }
+    return sb.append(" - ").append(msg).toString();
+  }
+
+  private static class Origins {
+    private final List<String> files = new ArrayList<>(1);
+    private int count;
+
+    Origins(String file) {
+      add(file);
+    }
+
+    void add(String file) {
+      if ((files.size() < MAX_ORIGINS) && !files.contains(file)) {
+        files.add(file);
+      }
+      count++;
+    }
+  }
+
+  private static class Key {
+    private final RuleKey ruleKey;
+    private final InputFile target;
+    private final int line;
+    private final int column;
+    private final int endLine;
+    private final int endColumn;
+    private final String msg;
+    private final int hashCode;
+
+    Key(RuleKey ruleKey, InputFile target, int line, int column, int endLine, int endColumn, String msg) {
+      this.ruleKey = ruleKey;
+      this.target = target;
+      this.line = line;
+      this.column = column;
+      this.endLine = endLine;
+      this.endColumn = endColumn;
+      this.msg = msg;
+      this.hashCode = Objects.hash(ruleKey, target.key(), line, column, endLine, endColumn, msg);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj)
+        return true;
+      if ((obj == null) || (obj.getClass() != this.getClass()))
+        return false;
+      Key other = (Key) obj;
+      return (line == other.line) && (column == other.column) && (endLine == other.endLine)
+          && (endColumn == other.endColumn) && ruleKey.equals(other.ruleKey) && target.key().equals(other.target.key())
+          && msg.equals(other.msg);
+    }
+  }
+}
@@ -20,10 +20,14 @@
 package org.sonar.plugins.openedge.api.checks;
 
 import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.ParseTreeListener;
+import org.antlr.v4.runtime.tree.ParseTreeWalker;
 import org.sonar.api.batch.fs.InputFile;
 
 /**
- * Extend this class to implement an DumpFile check
+ * Extend this class to implement an DumpFile check. Either override {@link #execute(InputFile, ParseTree)} to receive
+ * the entire parse tree, or {@link #getListener(InputFile)} to receive events from a single parse tree walk shared by
+ * all checks.
  */
 public abstract class OpenEdgeDumpFileCheck extends OpenEdgeCheck<ParseTree> {
 
@@ -32,6 +36,27 @@ public abstract class OpenEdgeDumpFileCheck extends OpenEdgeCheck<ParseTree> {
     execute(file, unit);
   }
 
+  /**
+   * Walks the parse tree with the listener returned by {@link #getListener(InputFile)}
+   */
+  @Override
+  public void execute(InputFile file, ParseTree unit) {
+    ParseTreeListener listener = getListener(file);
+    if (listener != null)
+      ParseTreeWalker.DEFAULT.walk(listener, unit);
+  }
+
+  /**
+   * Listener (usually a subclass of DumpFileGrammarBaseListener) receiving events for this file. Rule contexts can be
+   * found in the DumpFileGrammarParser class: AddTableContext, AddFieldContext, AddIndexContext, AddSequenceContext,
+   * TableTriggerContext, FieldTriggerContext...
+   * 
+   * @return Null if check implements {@link #execute(InputFile, ParseTree)}
+   */
+  public ParseTreeListener getListener(InputFile file) {
+    return null;
+  }
+
   @Override
   public OpenEdgeCheck.CheckType getCheckType() {
     return CheckType.DUMP_FILE;
@@ -22,14 +22,17 @@ package org.sonar.plugins.openedge.api.checks;
 import java.text.MessageFormat;
 
 import org.prorefactor.core.JPNode;
+import org.prorefactor.core.ProparseDirectives;
 import org.prorefactor.treeparser.ParseUnit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.sonar.api.SonarProduct;
 import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.batch.fs.TextRange;
+import org.sonar.api.batch.sensor.SensorContext;
 import org.sonar.api.batch.sensor.issue.NewIssue;
 import org.sonar.api.batch.sensor.issue.NewIssueLocation;
+import org.sonar.plugins.openedge.api.InputFileIndex;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
@@ -40,6 +43,8 @@ public abstract class OpenEdgeProparseCheck extends OpenEdgeCheck<ParseUnit> {
   private static final String INC_MESSAGE = "From {0} - {1}";
 
   private ParseUnit unit;
+  private InputFileIndex inputFileIndex;
+  private IncludeIssueCollector includeIssues;
 
   @Override
   public final void sensorExecute(InputFile file, ParseUnit unit) {
@@ -47,6 +52,28 @@ public abstract class OpenEdgeProparseCheck extends OpenEdgeCheck<ParseUnit> {
     execute(file, unit);
   }
 
+  /**
+   * Internal method, index shared by all rules of an analysis
+   */
+  public void setInputFileIndex(InputFileIndex index) {
+    this.inputFileIndex = index;
+  }
+
+  /**
+   * Internal method, collector shared by all rules of an analysis. Issues on include files are reported immediately
+   * if not set.
+   */
+  public void setIncludeIssueCollector(IncludeIssueCollector collector) {
+    this.includeIssues = collector;
+  }
+
+  protected InputFileIndex getInputFileIndex() {
+    if (inputFileIndex == null) {
+      inputFileIndex = new InputFileIndex(getContext().fileSystem());
+    }
+    return inputFileIndex;
+  }
+
   @Override
   public OpenEdgeCheck.CheckType getCheckType() {
     return CheckType.PROPARSE;
@@ -70,23 +97,32 @@ public abstract class OpenEdgeProparseCheck extends OpenEdgeCheck<ParseUnit> {
     if (node.getFileIndex() == 0) {
       return file;
     } else {
-      return getContext().fileSystem().inputFile(
-          getContext().fileSystem().predicates().hasRelativePath(node.getFilename()));
+      return getInputFileIndex().getByRelativePath(node.getFilename());
     }
   }
 
   protected NewIssue createIssue(InputFile file, JPNode node, String msg, boolean exactLocation) {
+    InputFile targetFile = getIssueTarget(file, node);
+    if (targetFile == null) {
+      return null;
+    }
+    return createIssue(file, targetFile, node, msg, exactLocation);
+  }
+
+  /**
+   * @return InputFile where issue has to be reported, or null if issue has to be skipped
+   */
+  private InputFile getIssueTarget(InputFile file, JPNode node) {
     if (!"".equals(getNoSonarKeyword()) && skipIssue(node)) {
       return null;
     }
     if (unit.isAppBuilderCode() && !reportIssueOnAppBuilderCode() && !node.isEditableInAB())
       return null;
 
-    InputFile targetFile = getInputFile(file, node);
-    if (targetFile == null) {
-      return null;
-    }
+    return getInputFile(file, node);
+  }
 
+  private NewIssue createIssue(InputFile file, InputFile targetFile, JPNode node, String msg, boolean exactLocation) {
     int lineNumber = node.getLine();
     LOG.trace("Adding issue {} to {} line {}", getRuleKey(), targetFile, lineNumber);
     NewIssue issue = getContext().newIssue().forRule(getRuleKey());
@@ -95,12 +131,7 @@ public abstract class OpenEdgeProparseCheck extends OpenEdgeCheck<ParseUnit> {
       if (exactLocation) {
         location.at(targetFile.newRange(node.getLine(), node.getColumn() - 1, node.getEndLine(), node.getEndColumn()));
       } else {
-        TextRange range = targetFile.selectLine(lineNumber);
-        if (IS_WINDOWS && (getContext().runtime().getProduct() == SonarProduct.SONARLINT) && (range.end().lineOffset() > 1)) {
-          location.at(targetFile.newRange(lineNumber, 0, lineNumber, range.end().lineOffset() - 1));
-        } else {
-          location.at(range);
-        }
+        location.at(selectLine(getContext(), targetFile, lineNumber));
       }
     }
     if (targetFile == file) {
@@ -113,6 +144,14 @@ public abstract class OpenEdgeProparseCheck extends OpenEdgeCheck<ParseUnit> {
     return issue;
   }
 
+  static TextRange selectLine(SensorContext context, InputFile file, int lineNumber) {
+    TextRange range = file.selectLine(lineNumber);
+    if (IS_WINDOWS && (context.runtime().getProduct() == SonarProduct.SONARLINT) && (range.end().lineOffset() > 1)) {
+      return file.newRange(lineNumber, 0, lineNumber, range.end().lineOffset() - 1);
+    }
+    return range;
+  }
+
   protected void reportIssue(InputFile file, JPNode node, String msg) {
     reportIssue(file, node, msg, false);
   }
@@ -125,10 +164,21 @@ public abstract class OpenEdgeProparseCheck extends OpenEdgeCheck<ParseUnit> {
    * @param msg Additional message
    */
   protected void reportIssue(InputFile file, JPNode node, String msg, boolean exactLocation) {
-    NewIssue issue = createIssue(file, node, msg, exactLocation);
-    if (issue == null)
+    InputFile targetFile = getIssueTarget(file, node);
+    if (targetFile == null)
+      return;
+    if ((targetFile != file) && (includeIssues != null)) {
+      // Same include file is analyzed from many main files, issue only saved once
+      int line = node.getLine();
+      if (exactLocation && (line > 0)) {
+        includeIssues.add(getRuleKey(), targetFile, line, node.getColumn() - 1, node.getEndLine(),
+            node.getEndColumn(), file.relativePath(), msg);
+      } else {
+        includeIssues.add(getRuleKey(), targetFile, line, -1, line, -1, file.relativePath(), msg);
+      }
       return;
-    issue.save();
+    }
+    createIssue(file, targetFile, node, msg, exactLocation).save();
   }
 
   /**
@@ -139,15 +189,14 @@ public abstract class OpenEdgeProparseCheck extends OpenEdgeCheck<ParseUnit> {
    * @param msg
    */
   protected void reportIssue(InputFile file, String fileName, int lineNumber, String msg) {
-    NewIssue issue = getContext().newIssue();
-    InputFile targetFile = getContext().fileSystem().inputFile(
-        getContext().fileSystem().predicates().hasRelativePath(fileName));
-    if (targetFile == null) {
-      targetFile = getContext().fileSystem().inputFile(
-          getContext().fileSystem().predicates().hasAbsolutePath(fileName));
-      if (targetFile == null)
-        return;
+    InputFile targetFile = getInputFileIndex().getByPath(fileName);
+    if (targetFile == null)
+      return;
+    if ((targetFile != file) && (includeIssues != null)) {
+      includeIssues.add(getRuleKey(), targetFile, lineNumber, -1, lineNumber, -1, file.relativePath(), msg);
+      return;
     }
+    NewIssue issue = getContext().newIssue();
     NewIssueLocation location = issue.newLocation().on(targetFile);
     if (targetFile == file) {
       location.message(msg);
@@ -161,6 +210,15 @@ public abstract class OpenEdgeProparseCheck extends OpenEdgeCheck<ParseUnit> {
   }
 
   private boolean skipIssue(JPNode node) {
+    ProparseDirectives directives = unit.getProparseDirectives();
+    if (directives != null) {
+      if (directives.isEmpty())
+        return false;
+      JPNode stmt = node.getStatement();
+      return directives.hasDirective(node, getNoSonarKeyword())
+          || ((stmt != null) && directives.hasDirective(stmt, getNoSonarKeyword()));
+    }
+
     // Look on node itself
     if (node.hasProparseDirective(getNoSonarKeyword()))
       return true;
@@ -193,6 +251,13 @@ public abstract class OpenEdgeProparseCheck extends OpenEdgeCheck<ParseUnit> {
     int lineNumber = Integer.parseInt(getChildNodeValue(element, "Line-num"));
     if (file2 == null) {
       return;
+    } else if ((file2 != file) && (includeIssues != null)) {
+      if (lineNumber > file2.lines()) {
+        LOG.error("Invalid line number {} in XREF file {} (base file {})", lineNumber, file2.relativePath(),
+            file.relativePath());
+        lineNumber = 0;
+      }
+      includeIssues.add(getRuleKey(), file2, lineNumber, -1, lineNumber, -1, file.relativePath(), msg);
     } else {
       NewIssue issue = getContext().newIssue().forRule(getRuleKey());
       NewIssueLocation location = issue.newLocation().on(file2);
@@ -219,8 +284,7 @@ public abstract class OpenEdgeProparseCheck extends OpenEdgeCheck<ParseUnit> {
     if ("1".equals(fileNum)) {
       return file;
     } else {
-      return getContext().fileSystem().inputFile(
-          getContext().fileSystem().predicates().hasRelativePath(parentNode.getAttribute("File-name")));
+      return getInputFileIndex().getByRelativePath(parentNode.getAttribute("File-name"));
     }
   }
 }
@@ -31,6 +31,7 @@ import org.prorefactor.core.schema.IDatabase;
 import org.prorefactor.core.schema.IField;
 import org.prorefactor.core.schema.IIndex;
 import org.prorefactor.core.schema.ITable;
+import org.prorefactor.core.schema.NameIndex;
 
 import eu.rssw.antlr.database.objects.Field;
 import eu.rssw.antlr.database.objects.Index;
@@ -43,23 +44,53 @@ public class TableWrapper implements ITable {
   private final IDatabase db;
   private final Table table;
 
-  private final List<IField> fields = new ArrayList<>();
-  private final List<IIndex> indexes = new ArrayList<>();
-  private final SortedSet<IField> sortedFields = new TreeSet<>(Constants.FIELD_NAME_ORDER);
+  // Wrappers are created on first access, as most tables of a schema are never referenced
+  private List<IField> fields;
+  private List<IIndex> indexes;
+  private SortedSet<IField> sortedFields;
+  private NameIndex<IField> fieldIndex;
 
   public TableWrapper(IDatabase db, Table t) {
     this.db = db;
     this.table = t;
+  }
 
-    for (Field fld : table.getFields()) {
-      IField iFld = new FieldWrapper(this, fld);
-      fields.add(iFld);
-      sortedFields.add(iFld);
+  private synchronized List<IField> fields() {
+    if (fields == null) {
+      List<IField> list = new ArrayList<>(table.getFields().size());
+      for (Field fld : table.getFields()) {
+        list.add(new FieldWrapper(this, fld));
+      }
+      fields = Collections.unmodifiableList(list);
     }
-    for (Index idx : table.getIndexes()) {
-      IIndex iIdx = new IndexWrapper(this, idx);
-      indexes.add(iIdx);
+    return fields;
+  }
+
+  private synchronized SortedSet<IField> sortedFields() {
+    if (sortedFields == null) {
+      SortedSet<IField> set = new TreeSet<>(Constants.FIELD_NAME_ORDER);
+      set.addAll(fields());
+      sortedFields = Collections.unmodifiableSortedSet(set);
     }
+    return sortedFields;
+  }
+
+  private synchronized NameIndex<IField> fieldIndex() {
+    if (fieldIndex == null) {
+      fieldIndex = new NameIndex<>(fields(), IField::getName);
+    }
+    return fieldIndex;
+  }
+
+  private synchronized List<IIndex> indexes() {
+    if (indexes == null) {
+      List<IIndex> list = new ArrayList<>(table.getIndexes().size());
+      for (Index idx : table.getIndexes()) {
+        list.add(new IndexWrapper(this, idx));
+      }
+      indexes = Collections.unmodifiableList(list);
+    }
+    return indexes;
   }
 
   public Table getBackingObject() {
@@ -88,31 +119,37 @@ public class TableWrapper implements ITable {
 
   @Override
   public IField lookupField(String lookupName) {
-    for (IField fld : fields) {
-      if (fld.getName().toLowerCase().startsWith(lookupName.toLowerCase()))
-        return fld;
-    }
-    return null;
+    return fieldIndex().lookup(lookupName.toLowerCase());
   }
 
   @Override
   public SortedSet<IField> getFieldSet() {
-    return Collections.unmodifiableSortedSet(sortedFields);
+    return sortedFields();
   }
 
   @Override
   public List<IField> getFieldPosOrder() {
-    return Collections.unmodifiableList(fields);
+    return fields();
+  }
+
+  @Override
+  public List<String> getFieldNames() {
+    // Read from backing object, field wrappers are not created
+    List<String> list = new ArrayList<>(table.getFields().size());
+    for (Field fld : table.getFields()) {
+      list.add(fld.getName());
+    }
+    return list;
   }
 
   @Override
   public List<IIndex> getIndexes() {
-    return Collections.unmodifiableList(indexes);
+    return indexes();
   }
 
   @Override
   public IIndex lookupIndex(String name) {
-    for (IIndex idx : indexes) {
+    for (IIndex idx : indexes()) {
       if (idx.getName().equalsIgnoreCase(name))
         return idx;
     }
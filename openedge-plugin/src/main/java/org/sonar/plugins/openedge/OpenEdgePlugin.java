@@ -37,9 +37,11 @@ import org.sonar.plugins.openedge.foundation.OpenEdgeRulesDefinition;
 import org.sonar.plugins.openedge.foundation.BasicChecksRegistration;
 import org.sonar.plugins.openedge.foundation.OpenEdgeSettings;
 import org.sonar.plugins.openedge.sensor.OpenEdgeCodeColorizer;
+import org.sonar.plugins.openedge.sensor.OpenEdgeCodeCoverageSensor;
 import org.sonar.plugins.openedge.sensor.OpenEdgeDBColorizer;
 import org.sonar.plugins.openedge.sensor.OpenEdgeDBRulesSensor;
 import org.sonar.plugins.openedge.sensor.OpenEdgeDBSensor;
+import org.sonar.plugins.openedge.sensor.OpenEdgeProfilerSensor;
 import org.sonar.plugins.openedge.sensor.OpenEdgeProparseSensor;
 import org.sonar.plugins.openedge.sensor.OpenEdgeSensor;
 import org.sonar.plugins.openedge.sensor.OpenEdgeWarningsSensor;
@@ -67,7 +69,8 @@ public class OpenEdgePlugin implements Plugin {
 
     // Sensors
     context.addExtensions(OpenEdgeSensor.class, OpenEdgeDBSensor.class, OpenEdgeWarningsSensor.class,
-        OpenEdgeProparseSensor.class, OpenEdgeDBRulesSensor.class);
+        OpenEdgeProparseSensor.class, OpenEdgeDBRulesSensor.class, OpenEdgeCodeCoverageSensor.class,
+        OpenEdgeProfilerSensor.class);
 
     // Decorators
     context.addExtensions(CommonMetricsDecorator.class, CommonDBMetricsDecorator.class);
@@ -89,6 +92,11 @@ public class OpenEdgePlugin implements Plugin {
         "Generate JPNodeLister debug file in .proparse directory").type(PropertyType.BOOLEAN).category(
             CATEGORY_OPENEDGE).subCategory(SUBCATEGORY_DEBUG).defaultValue(Boolean.FALSE.toString()).onQualifiers(
                 Qualifiers.MODULE, Qualifiers.PROJECT).build());
+    context.addExtension(PropertyDefinition.builder(Constants.ANTLR4_PARSER).name("ANTLR4 parser").description(
+        "Parse source code with the ANTLR4 grammar instead of ProParser. Files which can't be parsed with ANTLR4 are "
+            + "parsed again with ProParser").type(PropertyType.BOOLEAN).category(CATEGORY_OPENEDGE).subCategory(
+                SUBCATEGORY_DEBUG).defaultValue(Boolean.FALSE.toString()).onQualifiers(Qualifiers.MODULE,
+                    Qualifiers.PROJECT).build());
     context.addExtension(PropertyDefinition.builder(Constants.SUFFIXES).name("File suffixes").description(
         "Comma-separated list of suffixes of OpenEdge files to analyze, e.g. 'p,w,t'").type(PropertyType.STRING).defaultValue(
             "").category(CATEGORY_OPENEDGE).subCategory(SUBCATEGORY_GENERAL).onQualifiers(Qualifiers.MODULE,
@@ -115,6 +123,16 @@ public class OpenEdgePlugin implements Plugin {
             "Does backslash escape next character on Windows ?").type(PropertyType.BOOLEAN).defaultValue(Boolean.FALSE.toString()).category(
                 CATEGORY_OPENEDGE).subCategory(SUBCATEGORY_GENERAL).onQualifiers(Qualifiers.MODULE,
                     Qualifiers.PROJECT).build());
+    context.addExtension(
+        PropertyDefinition.builder(Constants.COVERAGE_PROFILER_DIRS).name("Profiler output directories").description(
+            "Comma-separated list of directories containing profiler output files (*.out) used for code coverage").type(
+                PropertyType.STRING).defaultValue("").category(CATEGORY_OPENEDGE).subCategory(
+                    SUBCATEGORY_GENERAL).onQualifiers(Qualifiers.MODULE, Qualifiers.PROJECT).build());
+    context.addExtension(
+        PropertyDefinition.builder(Constants.PROFILER_DIRS).name("Performance profiler output directories").description(
+            "Comma-separated list of directories containing profiler output files (*.out) used for execution time metrics").type(
+                PropertyType.STRING).defaultValue("").category(CATEGORY_OPENEDGE).subCategory(
+                    SUBCATEGORY_GENERAL).onQualifiers(Qualifiers.MODULE, Qualifiers.PROJECT).build());
   }
 
 }
@@ -19,17 +19,17 @@
  */
 package org.sonar.plugins.openedge.foundation;
 
+import java.util.Arrays;
 import java.util.List;
-import java.util.Locale;
 import java.util.UUID;
 
 import org.prorefactor.core.ABLNodeType;
 import org.prorefactor.core.ICallback;
 import org.prorefactor.core.JPNode;
 import org.prorefactor.core.ProToken;
+import org.prorefactor.proparse.StringPool;
 import org.prorefactor.treeparser.ParseUnit;
 import org.sonar.api.batch.fs.InputFile;
-import org.sonar.api.batch.fs.TextRange;
 import org.sonar.api.batch.sensor.SensorContext;
 import org.sonar.api.batch.sensor.cpd.NewCpdTokens;
 import org.sonar.api.utils.log.Logger;
@@ -38,6 +38,9 @@ import org.sonar.api.utils.log.Loggers;
 /**
  * This class generates CPD tokens for the CPD engine, by skipping tokens within annotated code blocks and also by
  * reverting preprocessor, as CPD engine doesn't want tokens to overlap.
+ * <p>
+ * Main file tokens and skipped code blocks are collected in one pass over the AST, then sorted by position and sent
+ * to the CPD engine when {@link #getResult()} is called. Skipped code blocks are replaced by one placeholder token.
  */
 public class CPDCallback implements ICallback<NewCpdTokens> {
   private static final Logger LOG = Loggers.get(CPDCallback.class);
@@ -45,17 +48,35 @@ public class CPDCallback implements ICallback<NewCpdTokens> {
   private final NewCpdTokens cpdTokens;
   private final OpenEdgeSettings settings;
   private final InputFile file;
-  private final ParseUnit unit;
+  private final StringPool names;
+
+  // Token positions and images, in visit order
+  private int size;
+  private int[] positions = new int[4 * 256];
+  private String[] images = new String[256];
+
+  // Last skipped annotation, or last annotation following a skipped annotation
+  private JPNode skippedAnnotation;
+  // Length of each line of the main file, computed on demand. -1 if not yet computed.
+  private int[] lineLengths;
+  private boolean done;
 
   public CPDCallback(SensorContext context, InputFile file, OpenEdgeSettings settings, ParseUnit unit) {
     this.cpdTokens = context.newCpdTokens().onFile(file);
     this.file = file;
     this.settings = settings;
-    this.unit = unit;
+    this.names = unit.getSession().getTokenTextPool();
   }
 
+  /**
+   * Send tokens to the CPD engine (only on first call), and return {@link NewCpdTokens} object
+   */
   @Override
   public NewCpdTokens getResult() {
+    if (!done) {
+      done = true;
+      addTokens();
+    }
     return cpdTokens;
   }
 
@@ -66,29 +87,27 @@ public class CPDCallback implements ICallback<NewCpdTokens> {
 
     // CPD annotations not taken into account
     if ((node.getNodeType() == ABLNodeType.ANNOTATION) && settings.skipCPD(node.getAnnotationName())) {
-        return false;
+      skippedAnnotation = node;
+      return false;
     }
     if (preprocessorLookup(node)) {
       return false;
     }
 
     // Skip code blocks following parameterized annotations
-    JPNode prevSibling = node.getPreviousSibling();
-    while ((prevSibling != null) && (prevSibling.getNodeType() == ABLNodeType.ANNOTATION)) {
-      if (settings.skipCPD(prevSibling.getAnnotationName())) {
-        // Skipping nodes is not enough, as the content of the method would be considered blank lines.
-        // So if this method is between two 'duplicate' methods, then all those blank lines would be
-        // considered duplicates
-        insertFakeNode(node);
-        return false;
-      }
-      prevSibling = prevSibling.getPreviousSibling();
+    if (isAfterSkippedAnnotation(node)) {
+      // Skipping nodes is not enough, as the content of the method would be considered blank lines.
+      // So if this method is between two 'duplicate' methods, then all those blank lines would be
+      // considered duplicates
+      skippedAnnotation = node.getNodeType() == ABLNodeType.ANNOTATION ? node : null;
+      addPlaceholder(node);
+      return false;
     }
     // Skip method matching parameterized names
     if (node.getNodeType() == ABLNodeType.METHOD) {
       JPNode methodName = node.findDirectChild(ABLNodeType.ID);
       if ((methodName != null) && (settings.skipMethod(methodName.getText()))) {
-        insertFakeNode(node);
+        addPlaceholder(node);
         return false;
       }
     }
@@ -96,7 +115,7 @@ public class CPDCallback implements ICallback<NewCpdTokens> {
     if ((node.getNodeType() == ABLNodeType.PROCEDURE) || (node.getNodeType() == ABLNodeType.FUNCTION)) {
       JPNode procName = node.findDirectChild(ABLNodeType.ID);
       if ((procName != null) && (settings.skipProcedure(procName.getText()))) {
-        insertFakeNode(node);
+        addPlaceholder(node);
         return false;
       }
     }
@@ -105,11 +124,15 @@ public class CPDCallback implements ICallback<NewCpdTokens> {
     return true;
   }
 
+  private boolean isAfterSkippedAnnotation(JPNode node) {
+    return (skippedAnnotation != null) && (skippedAnnotation.getNextSibling() == node);
+  }
+
   /**
    * @return True if token is right after ANALYZE-SUSPEND _CREATE-WINDOW, meaning that block of code has to be skipped
    */
-  private boolean preprocessorLookup(JPNode node) {
-    for (ProToken n : node.getHiddenTokens()) {
+  private static boolean preprocessorLookup(JPNode node) {
+    for (ProToken n = node.getHiddenBefore(); n != null; n = n.getPrev()) {
       if ((n.getNodeType() == ABLNodeType.AMPANALYZESUSPEND) && (n.getText().startsWith("&ANALYZE-SUSPEND _CREATE-WINDOW")
           || n.getText().startsWith("&ANALYZE-SUSPEND _UIB-CODE-BLOCK _PROCEDURE adm-create-objects"))) {
         return true;
@@ -125,32 +148,101 @@ public class CPDCallback implements ICallback<NewCpdTokens> {
     }
     String str = node.getNodeType() == ABLNodeType.NUMBER ? node.getText() : node.getNodeType().getText();
     // Identifiers are also using the same case
-    if ((str == null) || (str.trim().length() == 0)) {
+    if ((str == null) || str.trim().isEmpty()) {
       if (node.getNodeType() == ABLNodeType.ID) {
-        str = node.getText().toLowerCase(Locale.ENGLISH);
+        str = names.toLowerCase(node.getText());
       } else {
         str = node.getText().trim();
       }
     }
-
-    try {
-      TextRange range = file.newRange(node.getLine(), node.getColumn() - 1, node.getEndLine(), node.getEndColumn());
-      cpdTokens.addToken(range, str);
-    } catch (IllegalArgumentException uncaught) {
-      LOG.debug("Unable to create CPD token at position {}:{} to {}:{} - Cause {}", node.getLine(), node.getColumn(),
-          node.getEndLine(), node.getEndColumn(), uncaught.getMessage());
-    }
+    add(node.getLine(), node.getColumn() - 1, node.getEndLine(), node.getEndColumn(), str);
   }
 
-  private void insertFakeNode(JPNode node) {
+  private void addPlaceholder(JPNode node) {
     List<JPNode> children = node.getDirectChildren();
     JPNode lastSibling = children.isEmpty() ? node : children.get(children.size() - 1);
-    try {
-      TextRange range = file.newRange(node.getLine(), node.getColumn() - 1, lastSibling.getEndLine(), lastSibling.getEndColumn() - 1);
-      cpdTokens.addToken(range, UUID.randomUUID().toString());
-    } catch (IllegalArgumentException uncaught) {
-      LOG.debug("Unable to create CPD token at position {}:{} to {}:{} - Cause {}", node.getLine(), node.getColumn(),
-          lastSibling.getEndLine(), lastSibling.getEndColumn(), uncaught.getMessage());
+    add(node.getLine(), node.getColumn() - 1, lastSibling.getEndLine(), lastSibling.getEndColumn() - 1,
+        UUID.randomUUID().toString());
+  }
+
+  /**
+   * Register token, sent to the CPD engine by {@link #getResult()}. Column numbers are 0-based, end column is
+   * exclusive.
+   */
+  void add(int line, int column, int endLine, int endColumn, String image) {
+    if (size == images.length) {
+      images = Arrays.copyOf(images, size * 2);
+      positions = Arrays.copyOf(positions, size * 8);
+    }
+    positions[4 * size] = line;
+    positions[4 * size + 1] = column;
+    positions[4 * size + 2] = endLine;
+    positions[4 * size + 3] = endColumn;
+    images[size++] = image;
+  }
+
+  private void addTokens() {
+    int[] order = sortByPosition();
+    int prevLine = 0;
+    int prevColumn = 0;
+    for (int zz = 0; zz < size; zz++) {
+      int pos = 4 * order[zz];
+      int line = positions[pos];
+      int column = positions[pos + 1];
+      int endLine = positions[pos + 2];
+      int endColumn = positions[pos + 3];
+      // Tokens can't overlap, can't be empty, and have to be within the file
+      if ((line < prevLine) || ((line == prevLine) && (column < prevColumn)) || !isValidPosition(line, column)
+          || !isValidPosition(endLine, endColumn) || (endLine < line) || ((endLine == line) && (endColumn <= column))) {
+        LOG.debug("Unable to create CPD token at position {}:{} to {}:{}", line, column + 1, endLine, endColumn);
+        continue;
+      }
+      try {
+        cpdTokens.addToken(line, column, endLine, endColumn, images[order[zz]]);
+        prevLine = endLine;
+        prevColumn = endColumn;
+      } catch (IllegalArgumentException uncaught) {
+        LOG.debug("Unable to create CPD token at position {}:{} to {}:{} - Cause {}", line, column + 1, endLine,
+            endColumn, uncaught.getMessage());
+      }
+    }
+  }
+
+  /**
+   * Tokens are visited in tree order, which is nearly always source order. Tokens are only sorted when that's not the
+   * case, as the CPD engine rejects tokens out of order.
+   * 
+   * @return Token indexes sorted by start position
+   */
+  private int[] sortByPosition() {
+    int[] order = new int[size];
+    boolean sorted = true;
+    for (int zz = 0; zz < size; zz++) {
+      order[zz] = zz;
+      if ((zz > 0) && (compare(zz - 1, zz) > 0))
+        sorted = false;
+    }
+    if (!sorted) {
+      order = Arrays.stream(order).boxed().sorted(this::compare).mapToInt(Integer::intValue).toArray();
+    }
+    return order;
+  }
+
+  private int compare(int idx1, int idx2) {
+    int diff = Integer.compare(positions[4 * idx1], positions[4 * idx2]);
+    return diff != 0 ? diff : Integer.compare(positions[4 * idx1 + 1], positions[4 * idx2 + 1]);
+  }
+
+  private boolean isValidPosition(int line, int column) {
+    if ((line < 1) || (line > file.lines()) || (column < 0))
+      return false;
+    if (lineLengths == null) {
+      lineLengths = new int[file.lines()];
+      Arrays.fill(lineLengths, -1);
+    }
+    if (lineLengths[line - 1] == -1) {
+      lineLengths[line - 1] = file.selectLine(line).end().lineOffset();
     }
+    return column <= lineLengths[line - 1];
   }
 }
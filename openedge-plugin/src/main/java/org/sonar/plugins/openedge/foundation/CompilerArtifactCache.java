@@ -0,0 +1,252 @@
+/*
+ * OpenEdge plugin for SonarQube
+ * Copyright (c) 2015-2018 Riverside Software
+ * contact AT riverside DASH software DOT fr
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.openedge.foundation;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.io.FileUtils;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+
+import eu.rssw.listing.ListingParser;
+
+/**
+ * Compact results of listing and warnings files generated by the compiler. Entries are keyed by path, size and
+ * modification time of the compiler artifact, so files are only read again when the source code has been recompiled.
+ * Entries are persisted between analysis in the cache file. Without cache file, artifacts are read once per analysis
+ * anyway, so nothing is kept.
+ */
+public class CompilerArtifactCache {
+  private static final Logger LOG = Loggers.get(CompilerArtifactCache.class);
+
+  private static final int MAGIC = 0x4F454341;
+  private static final int VERSION = 3;
+  private static final byte LISTING = 0;
+  private static final byte WARNINGS = 1;
+
+  private final File cacheFile;
+  private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+  private boolean loaded;
+  private volatile boolean dirty;
+
+  /**
+   * @param cacheFile Null if nothing has to be cached
+   */
+  public CompilerArtifactCache(File cacheFile) {
+    this.cacheFile = cacheFile;
+  }
+
+  /**
+   * Returns listing file content, from cache if listing file hasn't changed
+   * 
+   * @param relativeName Used in log messages
+   */
+  public ListingParser getListing(File listingFile, String relativeName) throws IOException {
+    if (cacheFile == null)
+      return new ListingParser(listingFile, relativeName);
+    Entry entry = getEntry(LISTING, listingFile);
+    if (entry != null) {
+      return ListingParser.read(entry.input(), relativeName);
+    }
+    // Read before parsing, so that entry is considered stale if file is modified in the meantime
+    long size = listingFile.length();
+    long lastModified = listingFile.lastModified();
+    ListingParser parser = new ListingParser(listingFile, relativeName);
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    parser.write(new DataOutputStream(bytes));
+    putEntry(LISTING, listingFile, size, lastModified, bytes.toByteArray());
+
+    return parser;
+  }
+
+  /**
+   * Returns warnings from compiler warnings file, from cache if file hasn't changed
+   */
+  public List<CompilerWarning> getWarnings(File warningsFile) throws IOException {
+    if (cacheFile == null)
+      return CompilerWarning.parse(warningsFile);
+    Entry entry = getEntry(WARNINGS, warningsFile);
+    if (entry != null) {
+      return CompilerWarning.read(entry.input());
+    }
+    long size = warningsFile.length();
+    long lastModified = warningsFile.lastModified();
+    List<CompilerWarning> warnings = CompilerWarning.parse(warningsFile);
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    CompilerWarning.write(new DataOutputStream(bytes), warnings);
+    putEntry(WARNINGS, warningsFile, size, lastModified, bytes.toByteArray());
+
+    return warnings;
+  }
+
+  /**
+   * Writes cache file if entries have been added. Entries of deleted or modified artifacts are discarded.
+   */
+  public synchronized void save() {
+    if ((cacheFile == null) || !dirty)
+      return;
+    File tmpFile = null;
+    try {
+      cacheFile.getParentFile().mkdirs();
+      // Write to temporary file first, as other analysis may read the same file
+      tmpFile = File.createTempFile("artifacts", ".tmp", cacheFile.getParentFile());
+      int count = 0;
+      try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)))) {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        for (Entry entry : entries.values()) {
+          if (entry.isValid()) {
+            out.writeBoolean(true);
+            entry.write(out);
+            count++;
+          }
+        }
+        out.writeBoolean(false);
+      }
+      java.nio.file.Files.move(tmpFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      dirty = false;
+      LOG.debug("{} entries written to compiler artifacts cache {}", count, cacheFile);
+    } catch (IOException caught) {
+      LOG.error("Unable to write compiler artifacts cache " + cacheFile, caught);
+      FileUtils.deleteQuietly(tmpFile);
+    }
+  }
+
+  private Entry getEntry(byte kind, File file) {
+    load();
+    Entry entry = entries.get(getKey(kind, file));
+    return (entry != null) && entry.isValid() ? entry : null;
+  }
+
+  private void putEntry(byte kind, File file, long size, long lastModified, byte[] payload) {
+    entries.put(getKey(kind, file), new Entry(kind, file.getAbsolutePath(), size, lastModified, payload));
+    dirty = true;
+  }
+
+  private synchronized void load() {
+    if (loaded)
+      return;
+    loaded = true;
+    if ((cacheFile == null) || !cacheFile.exists())
+      return;
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(cacheFile)))) {
+      if ((in.readInt() != MAGIC) || (in.readInt() != VERSION)) {
+        LOG.info("Ignoring compiler artifacts cache {} from another version", cacheFile);
+        return;
+      }
+      while (in.readBoolean()) {
+        Entry entry = Entry.read(in);
+        entries.put(getKey(entry.kind, new File(entry.path)), entry);
+      }
+      LOG.debug("{} entries read from compiler artifacts cache {}", entries.size(), cacheFile);
+    } catch (IOException caught) {
+      LOG.error("Unable to read compiler artifacts cache " + cacheFile + ", ignoring content", caught);
+      entries.clear();
+    }
+  }
+
+  private static String getKey(byte kind, File file) {
+    return kind + file.getAbsolutePath();
+  }
+
+  /**
+   * Length-prefixed UTF-8 string, as {@link DataOutput#writeUTF(String)} is limited to 64KB
+   */
+  static void writeString(DataOutput out, String str) throws IOException {
+    byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  /**
+   * Reads string written by {@link #writeString(DataOutput, String)}
+   */
+  static String readString(DataInput in) throws IOException {
+    int length = in.readInt();
+    if (length < 0)
+      throw new IOException("Invalid string length " + length);
+    byte[] bytes = new byte[length];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static class Entry {
+    private final byte kind;
+    private final String path;
+    private final long size;
+    private final long lastModified;
+    private final byte[] payload;
+
+    Entry(byte kind, String path, long size, long lastModified, byte[] payload) {
+      this.kind = kind;
+      this.path = path;
+      this.size = size;
+      this.lastModified = lastModified;
+      this.payload = payload;
+    }
+
+    /**
+     * True if artifact hasn't been modified since entry creation
+     */
+    boolean isValid() {
+      File file = new File(path);
+      return (file.length() == size) && (file.lastModified() == lastModified) && file.exists();
+    }
+
+    DataInputStream input() {
+      return new DataInputStream(new ByteArrayInputStream(payload));
+    }
+
+    void write(DataOutputStream out) throws IOException {
+      out.writeByte(kind);
+      writeString(out, path);
+      out.writeLong(size);
+      out.writeLong(lastModified);
+      out.writeInt(payload.length);
+      out.write(payload);
+    }
+
+    static Entry read(DataInputStream in) throws IOException {
+      byte kind = in.readByte();
+      String path = readString(in);
+      long size = in.readLong();
+      long lastModified = in.readLong();
+      byte[] payload = new byte[in.readInt()];
+      in.readFully(payload);
+      return new Entry(kind, path, size, lastModified, payload);
+    }
+  }
+}
@@ -0,0 +1,130 @@
+/*
+ * OpenEdge plugin for SonarQube
+ * Copyright (c) 2015-2018 Riverside Software
+ * contact AT riverside DASH software DOT fr
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.openedge.foundation;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.common.io.Files;
+import com.google.common.io.LineProcessor;
+import com.google.common.primitives.Ints;
+
+/**
+ * One line of a compiler warnings file, as generated by PCT
+ */
+public class CompilerWarning {
+  private final String file;
+  private final int line;
+  private final String msg;
+  private final int msgNum;
+
+  public CompilerWarning(String file, int line, String msg, int msgNum) {
+    this.file = file;
+    this.line = line;
+    this.msg = msg;
+    this.msgNum = msgNum;
+  }
+
+  /**
+   * File name, relative to the compiler working directory
+   */
+  public String getFile() {
+    return file;
+  }
+
+  public int getLine() {
+    return line;
+  }
+
+  public String getMessage() {
+    return msg;
+  }
+
+  /**
+   * Progress message number, -1 if not available
+   */
+  public int getMessageNumber() {
+    return msgNum;
+  }
+
+  public static List<CompilerWarning> parse(File warningsFile) throws IOException {
+    return Files.asCharSource(warningsFile, StandardCharsets.UTF_8).readLines(new WarningsProcessor());
+  }
+
+  static void write(DataOutput out, List<CompilerWarning> warnings) throws IOException {
+    out.writeInt(warnings.size());
+    for (CompilerWarning w : warnings) {
+      CompilerArtifactCache.writeString(out, w.file);
+      out.writeInt(w.line);
+      CompilerArtifactCache.writeString(out, w.msg);
+      out.writeInt(w.msgNum);
+    }
+  }
+
+  static List<CompilerWarning> read(DataInput in) throws IOException {
+    int size = in.readInt();
+    List<CompilerWarning> list = new ArrayList<>(size);
+    for (int zz = 0; zz < size; zz++) {
+      String file = CompilerArtifactCache.readString(in);
+      int line = in.readInt();
+      String msg = CompilerArtifactCache.readString(in);
+      list.add(new CompilerWarning(file, line, msg, in.readInt()));
+    }
+    return list;
+  }
+
+  private static class WarningsProcessor implements LineProcessor<List<CompilerWarning>> {
+    private final List<CompilerWarning> results = new ArrayList<>();
+
+    @Override
+    public boolean processLine(String line) throws IOException {
+      // Closing bracket after line number
+      int pos1 = line.indexOf(']', 1);
+      if (pos1 == -1)
+        return true;
+      // Closing bracket after file name
+      int pos2 = line.indexOf(']', pos1 + 2);
+      // Line number
+      Integer lineNumber = Ints.tryParse(line.substring(1, pos1));
+      // Trying to get Progress message number
+      int lastOpeningParen = line.lastIndexOf('(');
+      int lastClosingParen = line.lastIndexOf(')');
+      Integer msgNum = -1;
+      if ((lastOpeningParen > -1) && (lastClosingParen > -1)) {
+        msgNum = Ints.tryParse(line.substring(lastOpeningParen + 1, lastClosingParen));
+      }
+      String fileName = line.substring(pos1 + 3, pos2);
+      results.add(new CompilerWarning(fileName, lineNumber == null ? 0 : lineNumber, line.substring(pos2 + 2),
+          msgNum == null ? -1 : msgNum));
+
+      return true;
+    }
+
+    @Override
+    public List<CompilerWarning> getResult() {
+      return results;
+    }
+  }
+}
@@ -0,0 +1,144 @@
+/*
+ * OpenEdge plugin for SonarQube
+ * Copyright (c) 2015-2018 Riverside Software
+ * contact AT riverside DASH software DOT fr
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.openedge.foundation;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+
+import eu.rssw.antlr.database.DumpFileUtils;
+import eu.rssw.antlr.database.DumpFileVisitor;
+import eu.rssw.antlr.database.objects.DatabaseDescription;
+
+/**
+ * Parse trees and database descriptions of dump files, shared by the schema loader and the DB sensors, so that each
+ * dump file is parsed only once per analysis. Parse trees are softly referenced as they can be large, and are parsed
+ * again if they have been garbage collected.
+ */
+public class DumpFileCache {
+  private static final Logger LOG = Loggers.get(DumpFileCache.class);
+
+  private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+  private final AtomicInteger parseCount = new AtomicInteger();
+
+  /**
+   * @param charset Used only if codepage can't be read from dump file footer
+   */
+  public ParseTree getParseTree(File file, Charset charset) throws IOException {
+    return getEntry(file, charset).getParseTree();
+  }
+
+  /**
+   * @param charset Used only if codepage can't be read from dump file footer
+   * @param dbName Logical database name
+   */
+  public DatabaseDescription getDatabaseDescription(File file, Charset charset, String dbName) throws IOException {
+    return getEntry(file, charset).getDatabaseDescription(dbName);
+  }
+
+  /**
+   * Parse dump files concurrently, so that subsequent calls to {@link #getParseTree(File, Charset)} return immediately.
+   * Errors are reported when parse tree is requested.
+   */
+  public void parseAll(Map<File, Charset> files) {
+    if (files.size() < 2)
+      return;
+    ExecutorService service = Executors.newFixedThreadPool(
+        Math.max(1, Math.min(files.size(), Runtime.getRuntime().availableProcessors())));
+    try {
+      for (Map.Entry<File, Charset> entry : files.entrySet()) {
+        service.submit(() -> {
+          try {
+            getParseTree(entry.getKey(), entry.getValue());
+          } catch (IOException | RuntimeException uncaught) {
+            LOG.debug("Unable to parse " + entry.getKey(), uncaught);
+          }
+        });
+      }
+      service.shutdown();
+      service.awaitTermination(1, TimeUnit.HOURS);
+    } catch (InterruptedException caught) {
+      LOG.error("Unable to finish parsing dump files", caught);
+      Thread.currentThread().interrupt();
+    } finally {
+      service.shutdownNow();
+    }
+  }
+
+  /**
+   * Number of times a dump file has been parsed by this cache
+   */
+  int getParseCount() {
+    return parseCount.get();
+  }
+
+  private Entry getEntry(File file, Charset charset) {
+    Charset cs = charset == null ? Charset.defaultCharset() : charset;
+    // Entry is discarded if file is modified
+    String key = file.getAbsolutePath() + '|' + file.length() + '|' + file.lastModified() + '|' + cs.name();
+    return entries.computeIfAbsent(key, k -> new Entry(file, cs));
+  }
+
+  private class Entry {
+    private final File file;
+    private final Charset charset;
+    private final Map<String, DatabaseDescription> descriptions = new HashMap<>();
+    private SoftReference<ParseTree> tree = new SoftReference<>(null);
+
+    Entry(File file, Charset charset) {
+      this.file = file;
+      this.charset = charset;
+    }
+
+    synchronized ParseTree getParseTree() throws IOException {
+      ParseTree parseTree = tree.get();
+      if (parseTree == null) {
+        LOG.debug("Generating ParseTree for dump file {}", file);
+        parseTree = DumpFileUtils.getDumpFileParseTree(file, charset);
+        parseCount.incrementAndGet();
+        tree = new SoftReference<>(parseTree);
+      }
+      return parseTree;
+    }
+
+    synchronized DatabaseDescription getDatabaseDescription(String dbName) throws IOException {
+      DatabaseDescription desc = descriptions.get(dbName);
+      if (desc == null) {
+        DumpFileVisitor visitor = new DumpFileVisitor(dbName);
+        visitor.visit(getParseTree());
+        desc = visitor.getDatabase();
+        descriptions.put(dbName, desc);
+      }
+      return desc;
+    }
+  }
+}
@@ -23,7 +23,10 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
 import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import org.sonar.api.batch.fs.FileSystem;
 import org.sonar.api.batch.fs.InputFile;
@@ -54,6 +57,17 @@ public class InputFileUtils {
     return Paths.get(file.uri()).toFile();
   }
 
+  /**
+   * @return Matching File objects and charsets of InputFiles, in iteration order
+   */
+  public static Map<File, Charset> getFilesWithCharset(Iterable<InputFile> files) {
+    Map<File, Charset> map = new LinkedHashMap<>();
+    for (InputFile file : files) {
+      map.put(getFile(file), file.charset());
+    }
+    return map;
+  }
+
   /**
    * @return Absolute path of InputFile
    */
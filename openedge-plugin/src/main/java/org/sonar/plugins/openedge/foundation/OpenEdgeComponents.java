@@ -44,11 +44,13 @@ import org.sonar.api.utils.log.Loggers;
 import org.sonar.check.RuleProperty;
 import org.sonar.plugins.openedge.api.CheckRegistration;
 import org.sonar.plugins.openedge.api.Constants;
+import org.sonar.plugins.openedge.api.InputFileIndex;
 import org.sonar.plugins.openedge.api.InvalidLicenseException;
 import org.sonar.plugins.openedge.api.LicenseRegistration;
 import org.sonar.plugins.openedge.api.LicenseRegistration.License;
 import org.sonar.plugins.openedge.api.checks.OpenEdgeCheck;
 import org.sonar.plugins.openedge.api.checks.OpenEdgeCheck.CheckType;
+import org.sonar.plugins.openedge.api.checks.IncludeIssueCollector;
 import org.sonar.plugins.openedge.api.checks.OpenEdgeDumpFileCheck;
 import org.sonar.plugins.openedge.api.checks.OpenEdgeProparseCheck;
 import org.sonarsource.api.sonarlint.SonarLintSide;
@@ -66,6 +68,7 @@ public class OpenEdgeComponents {
 
   private final CheckRegistrar checkRegistrar = new CheckRegistrar();
   private final LicenseRegistrar licenseRegistrar = new LicenseRegistrar();
+  private final IncludeIssueCollector includeIssues = new IncludeIssueCollector();
   private boolean initialized = false;
 
   public OpenEdgeComponents() {
@@ -130,9 +133,12 @@ public class OpenEdgeComponents {
         + OpenEdgeProjectHelper.getServerId(context);
 
     // Proparse and XREF rules
+    InputFileIndex inputFileIndex = new InputFileIndex(context.fileSystem());
     for (ActiveRule rule : context.activeRules().findByLanguage(Constants.LANGUAGE_KEY)) {
       OpenEdgeCheck<?> lint = initializeCheck(context, rule, permId);
       if ((lint != null) && (lint.getCheckType() == CheckType.PROPARSE)) {
+        ((OpenEdgeProparseCheck) lint).setInputFileIndex(inputFileIndex);
+        ((OpenEdgeProparseCheck) lint).setIncludeIssueCollector(includeIssues);
         ppChecksMap.put(rule, (OpenEdgeProparseCheck) lint);
       }
     }
@@ -147,6 +153,13 @@ public class OpenEdgeComponents {
     initialized = true;
   }
 
+  /**
+   * Issues reported by proparse rules on include files, to be saved at the end of the analysis
+   */
+  public IncludeIssueCollector getIncludeIssueCollector() {
+    return includeIssues;
+  }
+
   public Map<ActiveRule, OpenEdgeProparseCheck> getProparseRules() { 
     return Collections.unmodifiableMap(ppChecksMap);  
   }
@@ -147,9 +147,33 @@ public class OpenEdgeMetrics implements Metrics {
       Metric.ValueType.INT).setDescription("Complexity (w/ include files content)").setDirection(Metric.DIRECTION_WORST).setQualitative(
           false).setDomain(CoreMetrics.DOMAIN_COMPLEXITY).create();
 
+  public static final String PROFILER_TIME_KEY = "OE_PROFILER_TIME";
+  public static final Metric<Long> PROFILER_TIME = new Metric.Builder(PROFILER_TIME_KEY, "Profiler time",
+      Metric.ValueType.MILLISEC).setDescription("Time spent in this file in profiler sessions").setDirection(
+          Metric.DIRECTION_WORST).setQualitative(false).setDomain(DOMAIN_OPENEDGE).create();
+
+  public static final String PROFILER_EXEC_COUNT_KEY = "OE_PROFILER_EXEC_COUNT";
+  public static final Metric<Integer> PROFILER_EXEC_COUNT = new Metric.Builder(PROFILER_EXEC_COUNT_KEY,
+      "Profiler executed statements", Metric.ValueType.INT).setDescription(
+          "Number of statements executed in profiler sessions").setDirection(Metric.DIRECTION_NONE).setQualitative(
+              false).setDomain(DOMAIN_OPENEDGE).create();
+
+  public static final String PROFILER_HOT_LINES_KEY = "OE_PROFILER_HOT_LINES";
+  public static final Metric<String> PROFILER_HOT_LINES = new Metric.Builder(PROFILER_HOT_LINES_KEY,
+      "Profiler hot lines", Metric.ValueType.DATA).setDescription(
+          "Most time-consuming lines (line=count,milliseconds)").setDirection(Metric.DIRECTION_NONE).setQualitative(
+              false).setDomain(DOMAIN_OPENEDGE).create();
+
+  public static final String PROFILER_ROUTINES_KEY = "OE_PROFILER_ROUTINES";
+  public static final Metric<String> PROFILER_ROUTINES = new Metric.Builder(PROFILER_ROUTINES_KEY,
+      "Profiler routines", Metric.ValueType.DATA).setDescription(
+          "Most time-consuming routines (name=calls,milliseconds)").setDirection(Metric.DIRECTION_NONE).setQualitative(
+              false).setDomain(DOMAIN_OPENEDGE).create();
+
   private static final List<Metric> METRICS = ImmutableList.<Metric> builder().add(PACKAGES, CLASSES, PROCEDURES,
       INCLUDES, WINDOWS, TRANSACTIONS, NUM_TRANSACTIONS, SHR_DS, SHR_TT, SHR_VAR, NUM_TABLES, NUM_SEQUENCES, NUM_INDEXES,
-      NUM_FIELDS, NUM_TRIGGERS, INTERNAL_PROCEDURES, INTERNAL_FUNCTIONS, METHODS, COMPLEXITY).build();
+      NUM_FIELDS, NUM_TRIGGERS, INTERNAL_PROCEDURES, INTERNAL_FUNCTIONS, METHODS, COMPLEXITY, PROFILER_TIME,
+      PROFILER_EXEC_COUNT, PROFILER_HOT_LINES, PROFILER_ROUTINES).build();
 
   @Override
   public List<Metric> getMetrics() {
@@ -23,23 +23,29 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import org.apache.commons.io.FileUtils;
@@ -49,6 +55,7 @@ import org.prorefactor.core.schema.Schema;
 import org.prorefactor.refactor.RefactorSession;
 import org.prorefactor.refactor.settings.ProparseSettings;
 import org.sonar.api.CoreProperties;
+import org.sonar.api.Startable;
 import org.sonar.api.batch.ScannerSide;
 import org.sonar.api.batch.bootstrap.ProjectDefinition;
 import org.sonar.api.batch.fs.FileSystem;
@@ -64,10 +71,11 @@ import com.google.common.base.Joiner;
 import com.google.common.base.Splitter;
 import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 import com.google.common.io.Files;
 import com.google.common.primitives.Ints;
 
-import eu.rssw.antlr.database.DumpFileUtils;
 import eu.rssw.antlr.database.objects.DatabaseDescription;
 import eu.rssw.pct.FileEntry;
 import eu.rssw.pct.PLReader;
@@ -78,8 +86,10 @@ import eu.rssw.pct.elements.ITypeInfo;
 
 @ScannerSide
 @SonarLintSide
-public class OpenEdgeSettings {
+public class OpenEdgeSettings implements Startable {
   private static final Logger LOG = Loggers.get(OpenEdgeSettings.class);
+  private static final String SCHEMA_CACHE_PREFIX = "schema-";
+  private static final String ARTIFACTS_CACHE_FILE = "artifacts.bin";
 
   // IoC
   private final Configuration config;
@@ -95,7 +105,11 @@ public class OpenEdgeSettings {
   private final Set<String> cpdProcedures = new HashSet<>();
   private final Set<Integer> xrefBytes = new HashSet<>();
 
+  private final DumpFileCache dumpFileCache = new DumpFileCache();
+  private CompilerArtifactCache artifactCache;
+
   private RefactorSession proparseSession;
+  private ProparseSessionCache.Entry sessionEntry;
 
   public OpenEdgeSettings(Configuration config, FileSystem fileSystem) {
     this.config = config;
@@ -219,7 +233,7 @@ public class OpenEdgeSettings {
     File rcd = getRCode(relPath);
     LOG.debug("  RCode found: '{}'", rcd);
     if ((rcd != null) && rcd.exists()) {
-      ITypeInfo info = parseRCode(rcd);
+      ITypeInfo info = readRCode(rcd);
       if (info != null) {
         parseHierarchy(info);
       }
@@ -232,7 +246,7 @@ public class OpenEdgeSettings {
     if (info.getParentTypeName() != null) {
       File rcd = getRCode(info.getParentTypeName());
       if (rcd != null) {
-        ITypeInfo inf = parseRCode(rcd);
+        ITypeInfo inf = readRCode(rcd);
         if (inf != null) {
           parseHierarchy(inf);
         }
@@ -241,7 +255,7 @@ public class OpenEdgeSettings {
     for (String str : info.getInterfaces()) {
       File rcd = getRCode(str);
       if (rcd != null) {
-        ITypeInfo inf = parseRCode(rcd);
+        ITypeInfo inf = readRCode(rcd);
         if (inf != null) {
           parseHierarchy(inf);
         }
@@ -249,7 +263,16 @@ public class OpenEdgeSettings {
     }
   }
 
-  public final void parseBuildDirectory() {
+  /**
+   * Read rcode, or get type info from SonarLint session cache
+   */
+  private ITypeInfo readRCode(File rcd) {
+    if (sessionEntry == null)
+      return parseRCode(rcd);
+    return sessionEntry.getTypeInfo(rcd, this::parseRCode);
+  }
+
+  private void parseBuildDirectory(RefactorSession session) {
     if (config.getBoolean(Constants.SKIP_RCODE).orElse(false))
       return;
 
@@ -270,7 +293,7 @@ public class OpenEdgeSettings {
               numClasses.incrementAndGet();
               numMethods.addAndGet(info.getMethods().size());
               numProperties.addAndGet(info.getProperties().size());
-              proparseSession.injectTypeInfo(info);
+              session.injectTypeInfo(info);
             }
           });
         }
@@ -285,7 +308,7 @@ public class OpenEdgeSettings {
 
       Files.fileTraverser().depthFirstPreOrder(new File(dlc, "gui")).forEach(f -> {
         if (f.getName().endsWith(".pl")) {
-          service.submit(() -> parseLibrary(f));
+          service.submit(() -> parseLibrary(f, session));
         }
       });
     }
@@ -314,7 +337,7 @@ public class OpenEdgeSettings {
     return null;
   }
 
-  private void parseLibrary(File lib) {
+  private void parseLibrary(File lib, RefactorSession session) {
     LOG.debug("Parsing PL " + lib.getAbsolutePath());
     PLReader pl = new PLReader(lib);
     for (FileEntry entry : pl.getFileList()) {
@@ -322,7 +345,7 @@ public class OpenEdgeSettings {
         try {
           RCodeInfo rci = new RCodeInfo(pl.getInputStream(entry));
           if (rci.isClass()) {
-            proparseSession.injectTypeInfo(rci.getTypeInfo());
+            session.injectTypeInfo(rci.getTypeInfo());
           }
         } catch (InvalidRCodeException | IOException caught) {
           LOG.error("Unable to open file " + entry.getFileName() + " in PL " + lib.getAbsolutePath(), caught);
@@ -469,14 +492,28 @@ public class OpenEdgeSettings {
     return config.getBoolean(Constants.XREF_FILTER).orElse(false);
   }
 
+  /**
+   * ANTLR4 parse is executed side by side with ProParser, and both trees are written to .proparse directory
+   */
   public boolean useANTLR4() {
     return config.getBoolean(Constants.ANTLR4_TEST).orElse(false);
   }
 
+  /**
+   * ANTLR4 parser is used instead of ProParser, with fallback to ProParser in case of failure
+   */
+  public boolean useANTLR4Parser() {
+    return config.getBoolean(Constants.ANTLR4_PARSER).orElse(false);
+  }
+
   public boolean useANTLR4Profiler() {
     return config.getBoolean(Constants.ANTLR4_PROFILER).orElse(false);
   }
 
+  public boolean useANTLR4Warmup() {
+    return config.getBoolean(Constants.ANTLR4_WARMUP).orElse(false);
+  }
+
   /**
    * @return False only if property is present and set to false
    */
@@ -508,49 +545,167 @@ public class OpenEdgeSettings {
     return Joiner.on(',').skipNulls().join(propath);
   }
 
-  public RefactorSession getProparseSession(boolean sonarLintSession) {
+  /**
+   * Dump files parsed during this analysis
+   */
+  public DumpFileCache getDumpFileCache() {
+    return dumpFileCache;
+  }
+
+  /**
+   * Listing and warnings files content. Persisted in the directory set by sonar.oe.artifacts.cache, not cached
+   * otherwise.
+   */
+  public synchronized CompilerArtifactCache getCompilerArtifactCache() {
+    if (artifactCache == null) {
+      Optional<String> dir = config.get(Constants.ARTIFACTS_CACHE);
+      artifactCache = new CompilerArtifactCache(
+          dir.isPresent() ? new File(fileSystem.resolvePath(dir.get()), ARTIFACTS_CACHE_FILE) : null);
+    }
+    return artifactCache;
+  }
+
+  public synchronized RefactorSession getProparseSession(boolean sonarLintSession) {
     if (proparseSession == null) {
-      Schema sch = readSchema(config, fileSystem, sonarLintSession);
-      ProparseSettings ppSettings = new ProparseSettings(getPropathAsString(),
-          config.getBoolean(Constants.BACKSLASH_ESCAPE).orElse(false));
-
-      // Some preprocessor values can be overridden at the project level
-      Optional<String> opsys = config.get("sonar.oe.preprocessor.opsys");
-      if (opsys.isPresent())
-        ppSettings.setCustomOpsys(opsys.get());
-
-      Optional<String> windowSystem = config.get("sonar.oe.preprocessor.window-system");
-      if (windowSystem.isPresent())
-        ppSettings.setCustomWindowSystem(windowSystem.get());
-
-      Optional<String> proVersion = config.get("sonar.oe.preprocessor.proversion");
-      if (proVersion.isPresent())
-        ppSettings.setCustomProversion(proVersion.get());
-
-      Optional<Boolean> batchMode = config.getBoolean("sonar.oe.preprocessor.batch-mode");
-      if (batchMode.isPresent())
-        ppSettings.setCustomBatchMode(batchMode.get());
-
-      Optional<String> processArch = config.get("sonar.oe.preprocessor.process-architecture");
-      Integer processArchInt = processArch.isPresent() ? Ints.tryParse(processArch.get()) : null;
-      if (processArchInt != null)
-        ppSettings.setCustomProcessArchitecture(processArchInt);
-
-      Optional<Boolean> skipXCode = config.getBoolean(Constants.SKIP_XCODE);
-      if (skipXCode.isPresent())
-        ppSettings.setCustomSkipXCode(skipXCode.get());
-
-      proparseSession = new RefactorSession(ppSettings, sch, encoding());
-      proparseSession.injectTypeInfoCollection(ProgressClasses.getProgressClasses());
-      if (!sonarLintSession) {
-        // Parse entire build directory if not in SonarLint
-        parseBuildDirectory();
-      }
+      // Sessions are shared between modules and SonarLint analysis with the same configuration
+      sessionEntry = ProparseSessionCache.acquire(getSessionKey(sonarLintSession),
+          () -> createProparseSession(sonarLintSession), getDumpFiles(), getBinariesSignature(sonarLintSession));
+      proparseSession = sessionEntry.getSession();
     }
 
     return proparseSession;
   }
 
+  /**
+   * Release proparse session at the end of the module analysis. Idle sessions are discarded if dump files or rcode
+   * have been modified in the meantime.
+   */
+  @Override
+  public synchronized void stop() {
+    if (sessionEntry != null) {
+      ProparseSessionCache.release(sessionEntry);
+      sessionEntry = null;
+      proparseSession = null;
+    }
+  }
+
+  @Override
+  public void start() {
+    // Nothing
+  }
+
+  private RefactorSession createProparseSession(boolean sonarLintSession) {
+    Schema sch = readSchema(config, fileSystem, sonarLintSession);
+    ProparseSettings ppSettings = new ProparseSettings(getPropathAsString(),
+        config.getBoolean(Constants.BACKSLASH_ESCAPE).orElse(false));
+
+    // Some preprocessor values can be overridden at the project level
+    Optional<String> opsys = config.get("sonar.oe.preprocessor.opsys");
+    if (opsys.isPresent())
+      ppSettings.setCustomOpsys(opsys.get());
+
+    Optional<String> windowSystem = config.get("sonar.oe.preprocessor.window-system");
+    if (windowSystem.isPresent())
+      ppSettings.setCustomWindowSystem(windowSystem.get());
+
+    Optional<String> proVersion = config.get("sonar.oe.preprocessor.proversion");
+    if (proVersion.isPresent())
+      ppSettings.setCustomProversion(proVersion.get());
+
+    Optional<Boolean> batchMode = config.getBoolean("sonar.oe.preprocessor.batch-mode");
+    if (batchMode.isPresent())
+      ppSettings.setCustomBatchMode(batchMode.get());
+
+    Optional<String> processArch = config.get("sonar.oe.preprocessor.process-architecture");
+    Integer processArchInt = processArch.isPresent() ? Ints.tryParse(processArch.get()) : null;
+    if (processArchInt != null)
+      ppSettings.setCustomProcessArchitecture(processArchInt);
+
+    Optional<Boolean> skipXCode = config.getBoolean(Constants.SKIP_XCODE);
+    if (skipXCode.isPresent())
+      ppSettings.setCustomSkipXCode(skipXCode.get());
+
+    RefactorSession session = new RefactorSession(ppSettings, sch, encoding());
+    session.injectTypeInfoCollection(ProgressClasses.getProgressClasses());
+    // Parse entire build directory if not in SonarLint
+    if (!sonarLintSession)
+      parseBuildDirectory(session);
+    return session;
+  }
+
+  /**
+   * All settings used to create the proparse session. Paths are resolved, so that modules with different base
+   * directories can share the same session.
+   */
+  private String getSessionKey(boolean sonarLintSession) {
+    StringBuilder sb = new StringBuilder(sonarLintSession ? "sonarlint" : "scanner");
+    for (String str : Splitter.on(',').trimResults().omitEmptyStrings().split(
+        config.get(Constants.DATABASES).orElse(""))) {
+      int colonPos = str.lastIndexOf(':');
+      sb.append('|').append(colonPos <= 1 ? fileSystem.resolvePath(str).getAbsolutePath()
+          : fileSystem.resolvePath(str.substring(0, colonPos)).getAbsolutePath() + str.substring(colonPos));
+    }
+    for (String prop : new String[] {
+        Constants.ALIASES, Constants.BACKSLASH_ESCAPE, Constants.SKIP_XCODE, Constants.SKIP_RCODE, Constants.DLC,
+        Constants.PROPATH_DLC, CoreProperties.ENCODING_PROPERTY, "sonar.oe.preprocessor.opsys",
+        "sonar.oe.preprocessor.window-system", "sonar.oe.preprocessor.proversion", "sonar.oe.preprocessor.batch-mode",
+        "sonar.oe.preprocessor.process-architecture"}) {
+      sb.append('|').append(config.get(prop).orElse(""));
+    }
+    sb.append('|').append(getPropathAsString());
+    // RCode are only read from binaries directories outside of SonarLint
+    if (!sonarLintSession)
+      sb.append('|').append(Joiner.on(',').join(binariesDirs));
+    return sb.toString();
+  }
+
+  /**
+   * Signature of the rcode and PL files read by {@link #parseBuildDirectory(RefactorSession)}, so that the session is
+   * discarded once code is recompiled. Only captures the list of directories, not this object.
+   */
+  private Supplier<String> getBinariesSignature(boolean sonarLintSession) {
+    // RCode is read on demand in SonarLint, and each file is checked by the session cache
+    if (sonarLintSession || config.getBoolean(Constants.SKIP_RCODE).orElse(false))
+      return () -> "";
+    List<File> dirs = binariesDirs.stream().map(Path::toFile).collect(Collectors.toList());
+    String dlcInstallDir = config.get(Constants.DLC).orElse(null);
+    File dlcGui = config.getBoolean(Constants.PROPATH_DLC).orElse(false) && !Strings.isNullOrEmpty(dlcInstallDir)
+        ? new File(dlcInstallDir, "gui") : null;
+    return () -> computeBinariesSignature(dirs, dlcGui);
+  }
+
+  private static String computeBinariesSignature(List<File> dirs, File dlcGui) {
+    List<String> list = new ArrayList<>();
+    for (File dir : dirs) {
+      addFileSignatures(list, dir, ".r");
+    }
+    if (dlcGui != null)
+      addFileSignatures(list, dlcGui, ".pl");
+    Collections.sort(list);
+    Hasher hasher = Hashing.murmur3_128().newHasher();
+    for (String str : list) {
+      hasher.putString(str, StandardCharsets.UTF_8);
+    }
+    return list.size() + "-" + hasher.hash().toString();
+  }
+
+  private static void addFileSignatures(List<String> list, File dir, String extension) {
+    Files.fileTraverser().depthFirstPreOrder(dir).forEach(f -> {
+      if (f.getName().endsWith(extension))
+        list.add(f.getAbsolutePath() + '|' + f.length() + '|' + f.lastModified());
+    });
+  }
+
+  private List<File> getDumpFiles() {
+    List<File> list = new ArrayList<>();
+    for (String str : Splitter.on(',').trimResults().omitEmptyStrings().split(
+        config.get(Constants.DATABASES).orElse(""))) {
+      int colonPos = str.lastIndexOf(':');
+      list.add(fileSystem.resolvePath(colonPos <= 1 ? str : str.substring(0, colonPos)));
+    }
+    return list;
+  }
+
   /**
    * Force usage of sonar.sourceEncoding property as SonarLint doesn't set correctly encoding
    */
@@ -563,11 +718,15 @@ public class OpenEdgeSettings {
     }
   }
 
-  private Schema readSchema(Configuration config, FileSystem fileSystem, boolean useCache) {
+  private Schema readSchema(Configuration config, FileSystem fileSystem, boolean sonarLintSession) {
     String dbList = config.get(Constants.DATABASES).orElse("");
     LOG.info("Using schema : {}", dbList);
     Collection<IDatabase> dbs = new ArrayList<>();
+    File cacheDir = getSchemaCacheDirectory(config, fileSystem, sonarLintSession);
+    Charset charset = encoding();
 
+    // Dump files are independent, so they're loaded in parallel
+    List<Supplier<DatabaseDescription>> tasks = new ArrayList<>();
     for (String str : Splitter.on(',').trimResults().omitEmptyStrings().split(dbList)) {
       String dbName;
       int colonPos = str.lastIndexOf(':');
@@ -578,36 +737,14 @@ public class OpenEdgeSettings {
         str = str.substring(0, colonPos);
       }
 
-      LOG.debug("Parsing {} with alias {}", fileSystem.resolvePath(str), dbName);
       File dfFile = fileSystem.resolvePath(str);
-      File serFile = new File(fileSystem.baseDir(), ".sonarlint/" + str.replace(':', '_').replace('\\', '_').replace('/', '_') + ".bin");
-      serFile.getParentFile().mkdir();
-      DatabaseDescription desc = null;
-      if (useCache && (dfFile.lastModified() < serFile.lastModified())) {
-        LOG.debug("SonarLint side, using serialized file");
-        try (InputStream is = new FileInputStream(serFile)) {
-          desc = DatabaseDescription.deserialize(is, dbName);
-        } catch (IOException caught) {
-          LOG.error("Unable to deserialize from '" + serFile + "', deleting file", caught);
-          FileUtils.deleteQuietly(serFile);
-        }
-      } else {
-        try {
-          desc = DumpFileUtils.getDatabaseDescription(fileSystem.resolvePath(str), dbName);
-        } catch (IOException caught) {
-          LOG.error("Unable to parse " + str, caught);
-        }
-        if ((desc != null) && useCache) {
-          try (OutputStream os = new FileOutputStream(serFile)) {
-            desc.serialize(os);
-          } catch (IOException caught) {
-            LOG.error("Unable to serialize to '" + serFile + "'", caught);
-          }
-        }
-      }
-      if (desc != null) {
-        dbs.add(new DatabaseWrapper(desc));
-      }
+      // Snapshot name used by previous versions in SonarLint
+      File legacySnapshot = new File(fileSystem.baseDir(),
+          ".sonarlint/" + str.replace(':', '_').replace('\\', '_').replace('/', '_') + ".bin");
+      tasks.add(() -> getDatabaseDescription(dfFile, charset, dbName, cacheDir, legacySnapshot));
+    }
+    for (DatabaseDescription desc : getDatabaseDescriptions(tasks)) {
+      dbs.add(new DatabaseWrapper(desc));
     }
 
     Schema sch = new Schema(dbs.toArray(new IDatabase[] {}));
@@ -625,4 +762,145 @@ public class OpenEdgeSettings {
 
     return sch;
   }
+
+  /**
+   * Execute tasks with at most one thread per CPU, or in the current thread if there's only one task. Errors are
+   * logged, and failed or null results are skipped.
+   * 
+   * @return Results in the same order as tasks
+   */
+  private static List<DatabaseDescription> getDatabaseDescriptions(List<Supplier<DatabaseDescription>> tasks) {
+    List<DatabaseDescription> list = new ArrayList<>();
+    if (tasks.size() == 1) {
+      try {
+        addIfNotNull(list, tasks.get(0).get());
+      } catch (RuntimeException caught) {
+        LOG.error("Unable to read schema", caught);
+      }
+      return list;
+    }
+
+    ExecutorService service = Executors.newFixedThreadPool(
+        Math.max(1, Math.min(tasks.size(), Runtime.getRuntime().availableProcessors())));
+    try {
+      List<Future<DatabaseDescription>> futures = new ArrayList<>();
+      for (Supplier<DatabaseDescription> task : tasks) {
+        futures.add(service.submit(task::get));
+      }
+      for (Future<DatabaseDescription> future : futures) {
+        try {
+          addIfNotNull(list, future.get());
+        } catch (ExecutionException caught) {
+          LOG.error("Unable to read schema", caught.getCause());
+        }
+      }
+    } catch (InterruptedException caught) {
+      LOG.error("Unable to read schema", caught);
+      Thread.currentThread().interrupt();
+    } finally {
+      service.shutdown();
+    }
+    return list;
+  }
+
+  private static void addIfNotNull(List<DatabaseDescription> list, DatabaseDescription desc) {
+    if (desc != null)
+      list.add(desc);
+  }
+
+  /**
+   * Schema snapshots are kept in the directory set by sonar.oe.schema.cache, or by default in .sonarlint in SonarLint.
+   * SonarQube working directory is cleaned before each analysis, so snapshots are not used by default in SonarQube.
+   * 
+   * @return Null if snapshots are not used
+   */
+  private static File getSchemaCacheDirectory(Configuration config, FileSystem fileSystem, boolean sonarLintSession) {
+    Optional<String> dir = config.get(Constants.SCHEMA_CACHE);
+    if (dir.isPresent())
+      return fileSystem.resolvePath(dir.get());
+    else if (sonarLintSession)
+      return new File(fileSystem.baseDir(), ".sonarlint");
+    else
+      return null;
+  }
+
+  /**
+   * Read database description from binary snapshot if available, or parse dump file and generate snapshot. Snapshot is
+   * keyed by logical name, path and content hash of the dump file, so it can be shared between analysis. Older snapshots
+   * of the same dump file are deleted when a new one is generated, snapshots of other projects using the same cache
+   * directory and logical name are kept.
+   * 
+   * @return Null if dump file can't be read or parsed
+   */
+  private DatabaseDescription getDatabaseDescription(File dfFile, Charset charset, String dbName, File cacheDir,
+      File legacySnapshot) {
+    if (cacheDir == null) {
+      return parseDumpFile(dfFile, charset, dbName);
+    }
+    String hash;
+    try {
+      hash = Files.asByteSource(dfFile).hash(Hashing.murmur3_128()).toString();
+    } catch (IOException caught) {
+      LOG.error("Unable to read " + dfFile, caught);
+      return null;
+    }
+    String prefix = SCHEMA_CACHE_PREFIX + dbName + '-'
+        + Hashing.murmur3_32().hashString(dfFile.getAbsolutePath(), StandardCharsets.UTF_8) + '-';
+    File serFile = new File(cacheDir, prefix + hash + ".bin");
+    if (serFile.exists()) {
+      LOG.debug("Loading {} from schema snapshot {}", dbName, serFile);
+      try {
+        return DatabaseDescription.deserialize(serFile, dbName);
+      } catch (IOException caught) {
+        LOG.error("Unable to deserialize from '" + serFile + "', deleting file", caught);
+        FileUtils.deleteQuietly(serFile);
+      }
+    }
+
+    DatabaseDescription desc = parseDumpFile(dfFile, charset, dbName);
+    if (desc == null)
+      return null;
+    // Write to temporary file first, as other analysis may read the same snapshot
+    File tmpFile = null;
+    try {
+      cacheDir.mkdirs();
+      tmpFile = File.createTempFile(SCHEMA_CACHE_PREFIX, ".tmp", cacheDir);
+      try (OutputStream os = new FileOutputStream(tmpFile)) {
+        desc.serialize(os);
+      }
+      java.nio.file.Files.move(tmpFile.toPath(), serFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      deleteStaleSnapshots(cacheDir, prefix, serFile);
+      FileUtils.deleteQuietly(legacySnapshot);
+    } catch (IOException caught) {
+      LOG.error("Unable to serialize to '" + serFile + "'", caught);
+      FileUtils.deleteQuietly(tmpFile);
+    }
+
+    return desc;
+  }
+
+  /**
+   * Delete snapshots of previous versions of this dump file
+   */
+  private static void deleteStaleSnapshots(File cacheDir, String prefix, File serFile) {
+    Pattern pattern = Pattern.compile(Pattern.quote(prefix) + "\\p{XDigit}+\\.bin");
+    File[] staleFiles = cacheDir.listFiles(
+        f -> !f.getName().equals(serFile.getName()) && pattern.matcher(f.getName()).matches());
+    if (staleFiles == null)
+      return;
+    for (File f : staleFiles) {
+      LOG.debug("Deleting stale schema snapshot {}", f);
+      FileUtils.deleteQuietly(f);
+    }
+  }
+
+  private DatabaseDescription parseDumpFile(File dfFile, Charset charset, String dbName) {
+    LOG.debug("Parsing {} with alias {}", dfFile, dbName);
+    try {
+      return dumpFileCache.getDatabaseDescription(dfFile, charset, dbName);
+    } catch (IOException caught) {
+      LOG.error("Unable to parse " + dfFile, caught);
+      return null;
+    }
+  }
 }
@@ -0,0 +1,254 @@
+/*
+ * OpenEdge plugin for SonarQube
+ * Copyright (c) 2015-2018 Riverside Software
+ * contact AT riverside DASH software DOT fr
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.openedge.foundation;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.prorefactor.refactor.RefactorSession;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+
+import eu.rssw.pct.elements.ITypeInfo;
+
+/**
+ * JVM-wide registry of proparse sessions, so that schema, built-in classes and rcode are only loaded once for all
+ * modules (or SonarLint analysis) sharing the same configuration. Sessions are keyed by the configuration used to
+ * create them, and are not modified once created (except in SonarLint, where class hierarchy is read on demand).
+ * 
+ * Entries are reference-counted: a session is acquired when a module needs it, and released at the end of the module
+ * analysis. Released sessions are kept (up to {@link #MAX_IDLE_ENTRIES}) so that next modules can reuse them, and
+ * discarded when acquired again after one of the dump files or rcode has been modified. Signatures of dump files and
+ * rcode are computed outside of any lock, as reading binaries directories can be slow.
+ */
+public final class ProparseSessionCache {
+  private static final Logger LOG = Loggers.get(ProparseSessionCache.class);
+  private static final int MAX_IDLE_ENTRIES = 4;
+
+  // Access order, so that least recently used sessions are discarded first
+  private static final Map<String, Entry> ENTRIES = new LinkedHashMap<>(16, 0.75f, true);
+
+  private ProparseSessionCache() {
+    // Not instantiated
+  }
+
+  /**
+   * Same as {@link #acquire(String, Supplier, List, Supplier)}, for sessions not reading rcode from binaries
+   * directories
+   */
+  public static Entry acquire(String key, Supplier<RefactorSession> factory, List<File> dumpFiles) {
+    return acquire(key, factory, dumpFiles, () -> "");
+  }
+
+  /**
+   * Return session associated to this key, or create a new one if not available or if dump files or rcode have been
+   * modified. Entry has to be released with {@link #release(Entry)} once not used anymore.
+   * 
+   * @param key Configuration used to create the session
+   * @param factory Session is created outside of any lock, and only if not available
+   * @param dumpFiles Used to discard session when schema is modified
+   * @param binariesSignature Signature of rcode read when creating the session (names, sizes and modification dates),
+   *          used to discard session when source code is recompiled
+   */
+  public static Entry acquire(String key, Supplier<RefactorSession> factory, List<File> dumpFiles,
+      Supplier<String> binariesSignature) {
+    // Signatures are computed before reading dump files and rcode, so that any change during creation discards the
+    // session
+    Map<File, FileSignature> signatures = new HashMap<>();
+    for (File f : dumpFiles) {
+      signatures.put(f, new FileSignature(f));
+    }
+    String signature = binariesSignature.get();
+    Entry entry = acquireExisting(key, signatures, signature);
+    if (entry != null)
+      return entry;
+
+    Entry newEntry = new Entry(factory.get(), signatures, signature);
+    synchronized (ENTRIES) {
+      // Same session may have been created by another thread in the meantime
+      entry = acquireExisting(key, signatures, signature);
+      if (entry != null)
+        return entry;
+      newEntry.refCount = 1;
+      ENTRIES.put(key, newEntry);
+      evictIdleEntries();
+    }
+    return newEntry;
+  }
+
+  /**
+   * Decrement reference count. Entry is kept in the registry for future use, unless it has already been removed.
+   * Staleness is not checked here, but when the session is acquired again.
+   */
+  public static void release(Entry entry) {
+    synchronized (ENTRIES) {
+      if (entry.refCount > 0)
+        entry.refCount--;
+      if ((entry.refCount == 0) && !ENTRIES.containsValue(entry)) {
+        // Removed from registry while in use, memory can now be released
+        discard(entry);
+      }
+      evictIdleEntries();
+    }
+  }
+
+  /**
+   * Remove all entries from the registry. Sessions still in use are only discarded when released.
+   */
+  public static void clear() {
+    synchronized (ENTRIES) {
+      ENTRIES.values().forEach(ProparseSessionCache::discard);
+      ENTRIES.clear();
+    }
+  }
+
+  private static Entry acquireExisting(String key, Map<File, FileSignature> dumpFiles, String signature) {
+    synchronized (ENTRIES) {
+      Entry entry = ENTRIES.get(key);
+      if (entry == null)
+        return null;
+      if (!entry.isUpToDate(dumpFiles, signature)) {
+        // Sessions still in use stay valid for their current users, and are discarded when released
+        LOG.info("Dump files or rcode modified, proparse session discarded");
+        ENTRIES.remove(key);
+        discard(entry);
+        return null;
+      }
+      entry.refCount++;
+      LOG.info("Reusing proparse session - {} module(s) currently sharing this session", entry.refCount);
+      return entry;
+    }
+  }
+
+  private static void evictIdleEntries() {
+    int numIdle = (int) ENTRIES.values().stream().filter(e -> e.refCount == 0).count();
+    Iterator<Entry> iter = ENTRIES.values().iterator();
+    while ((numIdle > MAX_IDLE_ENTRIES) && iter.hasNext()) {
+      Entry entry = iter.next();
+      if (entry.refCount == 0) {
+        iter.remove();
+        discard(entry);
+        numIdle--;
+      }
+    }
+  }
+
+  /**
+   * Release memory held by a session removed from the registry. Nothing is done if the session is still used by a
+   * module, as string pool is shared with its parse units.
+   */
+  private static void discard(Entry entry) {
+    if (entry.refCount == 0)
+      entry.session.getTokenTextPool().clear();
+  }
+
+  public static class Entry {
+    private final RefactorSession session;
+    private final Map<File, FileSignature> dumpFiles;
+    private final String signature;
+    private final Map<File, TypeInfoEntry> rcodes = new HashMap<>();
+    // Guarded by ENTRIES
+    private int refCount;
+
+    private Entry(RefactorSession session, Map<File, FileSignature> dumpFiles, String signature) {
+      this.session = session;
+      this.dumpFiles = dumpFiles;
+      this.signature = signature;
+    }
+
+    public RefactorSession getSession() {
+      return session;
+    }
+
+    int getRefCount() {
+      synchronized (ENTRIES) {
+        return refCount;
+      }
+    }
+
+    /**
+     * @param currentDumpFiles Current signature of dump files
+     * @param currentSignature Current signature of rcode
+     */
+    boolean isUpToDate(Map<File, FileSignature> currentDumpFiles, String currentSignature) {
+      return dumpFiles.equals(currentDumpFiles) && signature.equals(currentSignature);
+    }
+
+    /**
+     * Return type info from rcode, only parsed if rcode has been modified since last call. Type info is injected in
+     * the session when rcode is parsed.
+     */
+    public synchronized ITypeInfo getTypeInfo(File rcode, Function<File, ITypeInfo> parser) {
+      TypeInfoEntry entry = rcodes.get(rcode);
+      if ((entry != null) && entry.signature.matches(rcode))
+        return entry.info;
+      FileSignature signature = new FileSignature(rcode);
+      ITypeInfo info = parser.apply(rcode);
+      session.injectTypeInfo(info);
+      rcodes.put(rcode, new TypeInfoEntry(signature, info));
+      return info;
+    }
+  }
+
+  private static class TypeInfoEntry {
+    private final FileSignature signature;
+    private final ITypeInfo info;
+
+    TypeInfoEntry(FileSignature signature, ITypeInfo info) {
+      this.signature = signature;
+      this.info = info;
+    }
+  }
+
+  private static class FileSignature {
+    private final long lastModified;
+    private final long length;
+
+    FileSignature(File file) {
+      this.lastModified = file.lastModified();
+      this.length = file.length();
+    }
+
+    boolean matches(File file) {
+      return (file.lastModified() == lastModified) && (file.length() == length);
+    }
+
+    @Override
+    public int hashCode() {
+      return Long.hashCode(lastModified) * 31 + Long.hashCode(length);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj)
+        return true;
+      if ((obj == null) || (obj.getClass() != this.getClass()))
+        return false;
+      FileSignature other = (FileSignature) obj;
+      return (lastModified == other.lastModified) && (length == other.length);
+    }
+  }
+}
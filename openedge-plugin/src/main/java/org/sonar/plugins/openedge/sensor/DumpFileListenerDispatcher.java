@@ -0,0 +1,118 @@
+/*
+ * OpenEdge plugin for SonarQube
+ * Copyright (c) 2015-2018 Riverside Software
+ * contact AT riverside DASH software DOT fr
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.openedge.sensor;
+
+import java.util.List;
+
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.tree.ErrorNode;
+import org.antlr.v4.runtime.tree.ParseTreeListener;
+import org.antlr.v4.runtime.tree.TerminalNode;
+
+/**
+ * Forwards events of a single parse tree walk to every dump file check listener, in registration order. Typed
+ * callbacks (enterAddTable, exitAddField...) are dispatched through {@link ParserRuleContext#enterRule} and
+ * {@link ParserRuleContext#exitRule}, exactly as ParseTreeWalker does for a single listener. Time spent in each
+ * listener can optionally be measured, so that it can be reported per rule. As this requires two calls to
+ * {@link System#nanoTime()} per listener and per event, this should only be enabled for troubleshooting.
+ */
+class DumpFileListenerDispatcher implements ParseTreeListener {
+  private final ParseTreeListener[] listeners;
+  // Null if time is not measured
+  private final long[] elapsed;
+
+  DumpFileListenerDispatcher(List<ParseTreeListener> listeners, boolean measureTime) {
+    this.listeners = listeners.toArray(new ParseTreeListener[listeners.size()]);
+    this.elapsed = measureTime ? new long[this.listeners.length] : null;
+  }
+
+  /**
+   * Time spent in listener, in nanoseconds. Always 0 if time is not measured.
+   * 
+   * @param index Position of listener in the list passed to the constructor
+   */
+  long getElapsedTime(int index) {
+    return elapsed == null ? 0L : elapsed[index];
+  }
+
+  @Override
+  public void enterEveryRule(ParserRuleContext ctx) {
+    if (elapsed == null) {
+      for (ParseTreeListener listener : listeners) {
+        listener.enterEveryRule(ctx);
+        ctx.enterRule(listener);
+      }
+      return;
+    }
+    for (int zz = 0; zz < listeners.length; zz++) {
+      long startTime = System.nanoTime();
+      listeners[zz].enterEveryRule(ctx);
+      ctx.enterRule(listeners[zz]);
+      elapsed[zz] += System.nanoTime() - startTime;
+    }
+  }
+
+  @Override
+  public void exitEveryRule(ParserRuleContext ctx) {
+    if (elapsed == null) {
+      for (ParseTreeListener listener : listeners) {
+        ctx.exitRule(listener);
+        listener.exitEveryRule(ctx);
+      }
+      return;
+    }
+    for (int zz = 0; zz < listeners.length; zz++) {
+      long startTime = System.nanoTime();
+      ctx.exitRule(listeners[zz]);
+      listeners[zz].exitEveryRule(ctx);
+      elapsed[zz] += System.nanoTime() - startTime;
+    }
+  }
+
+  @Override
+  public void visitTerminal(TerminalNode node) {
+    if (elapsed == null) {
+      for (ParseTreeListener listener : listeners) {
+        listener.visitTerminal(node);
+      }
+      return;
+    }
+    for (int zz = 0; zz < listeners.length; zz++) {
+      long startTime = System.nanoTime();
+      listeners[zz].visitTerminal(node);
+      elapsed[zz] += System.nanoTime() - startTime;
+    }
+  }
+
+  @Override
+  public void visitErrorNode(ErrorNode node) {
+    if (elapsed == null) {
+      for (ParseTreeListener listener : listeners) {
+        listener.visitErrorNode(node);
+      }
+      return;
+    }
+    for (int zz = 0; zz < listeners.length; zz++) {
+      long startTime = System.nanoTime();
+      listeners[zz].visitErrorNode(node);
+      elapsed[zz] += System.nanoTime() - startTime;
+    }
+  }
+}
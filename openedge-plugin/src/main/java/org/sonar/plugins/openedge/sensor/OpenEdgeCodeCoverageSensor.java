@@ -0,0 +1,108 @@
+/*
+ * OpenEdge plugin for SonarQube
+ * Copyright (c) 2015-2018 Riverside Software
+ * contact AT riverside DASH software DOT fr
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.openedge.sensor;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import org.sonar.api.SonarProduct;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.sensor.Sensor;
+import org.sonar.api.batch.sensor.SensorContext;
+import org.sonar.api.batch.sensor.SensorDescriptor;
+import org.sonar.api.batch.sensor.coverage.NewCoverage;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+import org.sonar.plugins.openedge.api.Constants;
+import org.sonar.plugins.openedge.foundation.OpenEdgeSettings;
+
+import com.google.common.base.Strings;
+
+import eu.rssw.antlr.profiler.CoverageSession;
+import eu.rssw.antlr.profiler.FileCoverage;
+import eu.rssw.antlr.profiler.ProfilerUtils;
+
+/**
+ * Imports line coverage from profiler output files (*.out) found in the directories listed in
+ * {@link Constants#COVERAGE_PROFILER_DIRS}. All files are parsed in parallel and merged before being saved.
+ */
+public class OpenEdgeCodeCoverageSensor implements Sensor {
+  private static final Logger LOG = Loggers.get(OpenEdgeCodeCoverageSensor.class);
+
+  // IoC
+  private final OpenEdgeSettings settings;
+
+  public OpenEdgeCodeCoverageSensor(OpenEdgeSettings settings) {
+    this.settings = settings;
+  }
+
+  @Override
+  public void describe(SensorDescriptor descriptor) {
+    descriptor.onlyOnLanguage(Constants.LANGUAGE_KEY).name(getClass().getSimpleName());
+  }
+
+  @Override
+  public void execute(SensorContext context) {
+    if (context.runtime().getProduct() == SonarProduct.SONARLINT)
+      return;
+    String dirs = context.config().get(Constants.COVERAGE_PROFILER_DIRS).orElse("");
+    if (Strings.isNullOrEmpty(dirs))
+      return;
+
+    List<File> files = ProfilerModuleIndex.getProfilerFiles(context.fileSystem(), dirs);
+    if (files.isEmpty())
+      return;
+
+    long time = System.currentTimeMillis();
+    CoverageSession session;
+    try {
+      // Invalid files are skipped, coverage data of other files is still imported
+      session = ProfilerUtils.getCoverageSession(files, Runtime.getRuntime().availableProcessors(),
+          (file, caught) -> LOG.error("Unable to read profiler output file " + file, caught));
+    } catch (IOException caught) {
+      LOG.error("Unable to read profiler output files", caught);
+      return;
+    }
+    LOG.info("{} profiler output files parsed and merged in {} ms", files.size(), System.currentTimeMillis() - time);
+
+    ProfilerModuleIndex index = new ProfilerModuleIndex(context.fileSystem(), settings);
+    int numFiles = 0;
+    for (FileCoverage coverage : session.getFiles()) {
+      InputFile file = index.getInputFile(coverage.getFileName());
+      if (file == null) {
+        LOG.debug("Profiler module {} not found in project", coverage.getFileName());
+      } else {
+        saveCoverage(context, file, coverage);
+        numFiles++;
+      }
+    }
+    LOG.info("Coverage data imported on {} files", numFiles);
+  }
+
+  private static void saveCoverage(SensorContext context, InputFile file, FileCoverage coverage) {
+    NewCoverage newCoverage = context.newCoverage().onFile(file);
+    for (int line = 1; line <= file.lines(); line++) {
+      if (coverage.isLineToCover(line))
+        newCoverage.lineHits(line, coverage.isCovered(line) ? 1 : 0);
+    }
+    newCoverage.save();
+  }
+}
@@ -20,11 +20,16 @@
 package org.sonar.plugins.openedge.sensor;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
 
 import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.ParseTreeListener;
+import org.antlr.v4.runtime.tree.ParseTreeWalker;
 import org.sonar.api.batch.fs.FilePredicates;
 import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.batch.fs.InputFile.Type;
@@ -36,17 +41,21 @@ import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
 import org.sonar.plugins.openedge.api.Constants;
 import org.sonar.plugins.openedge.api.checks.OpenEdgeDumpFileCheck;
+import org.sonar.plugins.openedge.foundation.DumpFileCache;
+import org.sonar.plugins.openedge.foundation.InputFileUtils;
 import org.sonar.plugins.openedge.foundation.OpenEdgeComponents;
-
-import eu.rssw.antlr.database.DumpFileUtils;
+import org.sonar.plugins.openedge.foundation.OpenEdgeSettings;
 
 public class OpenEdgeDBRulesSensor implements Sensor {
   private static final Logger LOG = Loggers.get(OpenEdgeDBRulesSensor.class);
+  private static final String SHARED_WALK = "Shared parse tree walk overhead";
 
   // IoC
+  private final OpenEdgeSettings settings;
   private final OpenEdgeComponents components;
 
-  public OpenEdgeDBRulesSensor(OpenEdgeComponents components) {
+  public OpenEdgeDBRulesSensor(OpenEdgeSettings settings, OpenEdgeComponents components) {
+    this.settings = settings;
     this.components = components;
   }
 
@@ -59,28 +68,58 @@ public class OpenEdgeDBRulesSensor implements Sensor {
   public void execute(SensorContext context) {
     Map<String, Long> ruleTime = new HashMap<>();
     long parseTime = 0L;
+    // Time spent in listeners is only measured in debug mode, otherwise rule time doesn't include the parse tree walk
+    boolean measureWalk = LOG.isDebugEnabled();
     components.initializeChecks(context);
 
     for (Map.Entry<ActiveRule, OpenEdgeDumpFileCheck> entry : components.getDumpFileRules().entrySet()) {
       ruleTime.put(entry.getKey().ruleKey().toString(), 0L);
     }
+    if (measureWalk)
+      ruleTime.put(SHARED_WALK, 0L);
 
     FilePredicates predicates = context.fileSystem().predicates();
-    for (InputFile file : context.fileSystem().inputFiles(
-        predicates.and(predicates.hasLanguage(Constants.DB_LANGUAGE_KEY), predicates.hasType(Type.MAIN)))) {
+    Iterable<InputFile> files = context.fileSystem().inputFiles(
+        predicates.and(predicates.hasLanguage(Constants.DB_LANGUAGE_KEY), predicates.hasType(Type.MAIN)));
+    DumpFileCache cache = settings.getDumpFileCache();
+    long time = System.currentTimeMillis();
+    cache.parseAll(InputFileUtils.getFilesWithCharset(files));
+    parseTime += (System.currentTimeMillis() - time);
+    for (InputFile file : files) {
       try {
-        LOG.debug("Generating ParseTree for dump file {}", file);
-        long time = System.currentTimeMillis();
-        ParseTree tree = DumpFileUtils.getDumpFileParseTree(file.inputStream(), file.charset());
+        time = System.currentTimeMillis();
+        ParseTree tree = cache.getParseTree(InputFileUtils.getFile(file), file.charset());
         parseTime += (System.currentTimeMillis() - time);
 
+        // Listener-based checks are fed by a single walk, other checks receive the whole tree
+        List<ParseTreeListener> listeners = new ArrayList<>();
+        List<String> listenerRules = new ArrayList<>();
         for (Map.Entry<ActiveRule, OpenEdgeDumpFileCheck> entry : components.getDumpFileRules().entrySet()) {
           LOG.debug("ActiveRule - Internal key {} - Repository {} - Rule {}", entry.getKey().internalKey(),
               entry.getKey().ruleKey().repository(), entry.getKey().ruleKey().rule());
-          long startTime = System.currentTimeMillis();
-          entry.getValue().execute(file, tree);
-          ruleTime.put(entry.getKey().ruleKey().toString(),
-              ruleTime.get(entry.getKey().ruleKey().toString()) + System.currentTimeMillis() - startTime);
+          long startTime = System.nanoTime();
+          ParseTreeListener listener = entry.getValue().getListener(file);
+          if (listener == null) {
+            entry.getValue().execute(file, tree);
+          } else {
+            listeners.add(listener);
+            listenerRules.add(entry.getKey().ruleKey().toString());
+          }
+          ruleTime.merge(entry.getKey().ruleKey().toString(), System.nanoTime() - startTime, Long::sum);
+        }
+        if (!listeners.isEmpty()) {
+          DumpFileListenerDispatcher dispatcher = new DumpFileListenerDispatcher(listeners, measureWalk);
+          long startTime = measureWalk ? System.nanoTime() : 0L;
+          ParseTreeWalker.DEFAULT.walk(dispatcher, tree);
+          if (measureWalk) {
+            // Time spent in listeners is attributed to their rule, only walk overhead is left in the shared entry
+            long walkTime = System.nanoTime() - startTime;
+            for (int zz = 0; zz < listeners.size(); zz++) {
+              ruleTime.merge(listenerRules.get(zz), dispatcher.getElapsedTime(zz), Long::sum);
+              walkTime -= dispatcher.getElapsedTime(zz);
+            }
+            ruleTime.merge(SHARED_WALK, Math.max(0L, walkTime), Long::sum);
+          }
         }
 
       } catch (IOException caught) {
@@ -90,7 +129,7 @@ public class OpenEdgeDBRulesSensor implements Sensor {
 
     LOG.info("AST Generation | time={} ms", parseTime);
     for (Entry<String, Long> entry : ruleTime.entrySet()) {
-      LOG.info("Rule {} | time={} ms", entry.getKey(), entry.getValue());
+      LOG.info("Rule {} | time={} ms", entry.getKey(), TimeUnit.NANOSECONDS.toMillis(entry.getValue()));
     }
   }
 
@@ -31,11 +31,13 @@ import org.sonar.api.batch.sensor.SensorDescriptor;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
 import org.sonar.plugins.openedge.api.Constants;
+import org.sonar.plugins.openedge.foundation.DumpFileCache;
+import org.sonar.plugins.openedge.foundation.InputFileUtils;
 import org.sonar.plugins.openedge.foundation.OpenEdgeMetrics;
+import org.sonar.plugins.openedge.foundation.OpenEdgeSettings;
 
 import com.google.common.io.Files;
 
-import eu.rssw.antlr.database.DumpFileUtils;
 import eu.rssw.antlr.database.objects.DatabaseDescription;
 import eu.rssw.antlr.database.objects.Field;
 import eu.rssw.antlr.database.objects.Table;
@@ -43,6 +45,13 @@ import eu.rssw.antlr.database.objects.Table;
 public class OpenEdgeDBSensor implements Sensor {
   private static final Logger LOG = Loggers.get(OpenEdgeDBSensor.class);
 
+  // IoC
+  private final OpenEdgeSettings settings;
+
+  public OpenEdgeDBSensor(OpenEdgeSettings settings) {
+    this.settings = settings;
+  }
+
   @Override
   public void describe(SensorDescriptor descriptor) {
     descriptor.onlyOnLanguage(Constants.DB_LANGUAGE_KEY).name(getClass().getSimpleName());
@@ -56,12 +65,15 @@ public class OpenEdgeDBSensor implements Sensor {
   @SuppressWarnings({"unchecked", "rawtypes"})
   private void computeBaseMetrics(SensorContext sensorContext) {
     FilePredicates predicates = sensorContext.fileSystem().predicates();
-    for (InputFile file : sensorContext.fileSystem().inputFiles(
-        predicates.and(predicates.hasLanguage(Constants.DB_LANGUAGE_KEY), predicates.hasType(Type.MAIN)))) {
+    Iterable<InputFile> files = sensorContext.fileSystem().inputFiles(
+        predicates.and(predicates.hasLanguage(Constants.DB_LANGUAGE_KEY), predicates.hasType(Type.MAIN)));
+    DumpFileCache cache = settings.getDumpFileCache();
+    cache.parseAll(InputFileUtils.getFilesWithCharset(files));
+    for (InputFile file : files) {
       try {
         LOG.info("Analyzing {}", file);
 
-        DatabaseDescription desc = DumpFileUtils.getDatabaseDescription(file.inputStream(), file.charset(),
+        DatabaseDescription desc = cache.getDatabaseDescription(InputFileUtils.getFile(file), file.charset(),
             Files.getNameWithoutExtension(file.filename()));
         sensorContext.newMeasure().on(file).forMetric((Metric) OpenEdgeMetrics.NUM_TABLES).withValue(
             desc.getTables().size()).save();
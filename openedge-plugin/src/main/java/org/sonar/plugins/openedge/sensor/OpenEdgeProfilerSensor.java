@@ -0,0 +1,149 @@
+/*
+ * OpenEdge plugin for SonarQube
+ * Copyright (c) 2015-2018 Riverside Software
+ * contact AT riverside DASH software DOT fr
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.openedge.sensor;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.sonar.api.SonarProduct;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.measure.Metric;
+import org.sonar.api.batch.sensor.Sensor;
+import org.sonar.api.batch.sensor.SensorContext;
+import org.sonar.api.batch.sensor.SensorDescriptor;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+import org.sonar.plugins.openedge.api.Constants;
+import org.sonar.plugins.openedge.foundation.OpenEdgeMetrics;
+import org.sonar.plugins.openedge.foundation.OpenEdgeSettings;
+
+import com.google.common.base.Strings;
+import com.google.common.primitives.Ints;
+
+import eu.rssw.antlr.profiler.FileStatistics;
+import eu.rssw.antlr.profiler.FileStatistics.RoutineStatistics;
+import eu.rssw.antlr.profiler.ProfilerStatistics;
+
+/**
+ * Imports execution time metrics from profiler output files (*.out) found in the directories listed in
+ * {@link Constants#PROFILER_DIRS}. Sessions are aggregated one by one, so the number of files doesn't change memory
+ * usage.
+ */
+public class OpenEdgeProfilerSensor implements Sensor {
+  private static final Logger LOG = Loggers.get(OpenEdgeProfilerSensor.class);
+  private static final int HOT_LINES = 10;
+  private static final int HOT_ROUTINES = 10;
+
+  // IoC
+  private final OpenEdgeSettings settings;
+
+  public OpenEdgeProfilerSensor(OpenEdgeSettings settings) {
+    this.settings = settings;
+  }
+
+  @Override
+  public void describe(SensorDescriptor descriptor) {
+    descriptor.onlyOnLanguage(Constants.LANGUAGE_KEY).name(getClass().getSimpleName());
+  }
+
+  @Override
+  public void execute(SensorContext context) {
+    if (context.runtime().getProduct() == SonarProduct.SONARLINT)
+      return;
+    String dirs = context.config().get(Constants.PROFILER_DIRS).orElse("");
+    if (Strings.isNullOrEmpty(dirs))
+      return;
+
+    long time = System.currentTimeMillis();
+    ProfilerStatistics stats = new ProfilerStatistics();
+    int numSessions = 0;
+    for (File file : ProfilerModuleIndex.getProfilerFiles(context.fileSystem(), dirs)) {
+      try {
+        stats.addSession(file);
+        numSessions++;
+      } catch (IOException caught) {
+        LOG.error("Unable to read profiler output file {}", file, caught);
+      }
+    }
+    LOG.info("{} profiler sessions aggregated in {} ms", numSessions, System.currentTimeMillis() - time);
+    if (numSessions == 0)
+      return;
+
+    ProfilerModuleIndex index = new ProfilerModuleIndex(context.fileSystem(), settings);
+    int numFiles = 0;
+    for (FileStatistics fileStats : stats.getFiles()) {
+      InputFile file = index.getInputFile(fileStats.getFileName());
+      if (file == null) {
+        LOG.debug("Profiler module {} not found in project", fileStats.getFileName());
+      } else {
+        saveMeasures(context, file, fileStats);
+        numFiles++;
+      }
+    }
+    LOG.info("Profiler metrics imported on {} files", numFiles);
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private static void saveMeasures(SensorContext context, InputFile file, FileStatistics stats) {
+    context.newMeasure().on(file).forMetric((Metric) OpenEdgeMetrics.PROFILER_TIME).withValue(
+        toMillis(stats.getTotalTime())).save();
+    context.newMeasure().on(file).forMetric((Metric) OpenEdgeMetrics.PROFILER_EXEC_COUNT).withValue(
+        Ints.saturatedCast(stats.getTotalExecCount())).save();
+    context.newMeasure().on(file).forMetric((Metric) OpenEdgeMetrics.PROFILER_HOT_LINES).withValue(
+        getHotLines(stats)).save();
+    context.newMeasure().on(file).forMetric((Metric) OpenEdgeMetrics.PROFILER_ROUTINES).withValue(
+        getHotRoutines(stats)).save();
+  }
+
+  /**
+   * Format is line=execCount,milliseconds;...
+   */
+  static String getHotLines(FileStatistics stats) {
+    StringBuilder sb = new StringBuilder();
+    for (int line : stats.getHotLines(HOT_LINES)) {
+      if (sb.length() > 0)
+        sb.append(';');
+      sb.append(line).append('=').append(stats.getExecCount(line)).append(',').append(toMillis(stats.getTime(line)));
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Format is name=calls,milliseconds;... Main block is named 'main'.
+   */
+  static String getHotRoutines(FileStatistics stats) {
+    List<RoutineStatistics> routines = new ArrayList<>(stats.getRoutines());
+    routines.sort((r1, r2) -> Double.compare(r2.getTime(), r1.getTime()));
+    StringBuilder sb = new StringBuilder();
+    for (RoutineStatistics routine : routines.subList(0, Math.min(HOT_ROUTINES, routines.size()))) {
+      if (sb.length() > 0)
+        sb.append(';');
+      sb.append(routine.getName().isEmpty() ? "main" : routine.getName()).append('=').append(
+          routine.getCalls()).append(',').append(toMillis(routine.getTime()));
+    }
+    return sb.toString();
+  }
+
+  private static long toMillis(double seconds) {
+    return Math.round(seconds * 1000);
+  }
+}
@@ -41,27 +41,16 @@ import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 
-import org.antlr.v4.runtime.BailErrorStrategy;
-import org.antlr.v4.runtime.BufferedTokenStream;
-import org.antlr.v4.runtime.CommonTokenStream;
 import org.antlr.v4.runtime.atn.ParseInfo;
-import org.antlr.v4.runtime.atn.PredictionMode;
-import org.antlr.v4.runtime.misc.ParseCancellationException;
-import org.antlr.v4.runtime.tree.ParseTree;
 import org.prorefactor.core.ABLNodeType;
 import org.prorefactor.core.JPNode;
 import org.prorefactor.core.JsonNodeLister;
 import org.prorefactor.core.ProparseRuntimeException;
 import org.prorefactor.core.TreeNodeLister;
-import org.prorefactor.core.nodetypes.ProgramRootNode;
-import org.prorefactor.proparse.ParserSupport;
 import org.prorefactor.proparse.ProParserTokenTypes;
-import org.prorefactor.proparse.antlr4.DescriptiveErrorListener;
 import org.prorefactor.proparse.antlr4.IncludeFileNotFoundException;
-import org.prorefactor.proparse.antlr4.JPNodeVisitor;
-import org.prorefactor.proparse.antlr4.ProgressLexer;
 import org.prorefactor.proparse.antlr4.Proparse;
-import org.prorefactor.proparse.antlr4.ProparseErrorStrategy;
+import org.prorefactor.proparse.antlr4.ProparseWarmup;
 import org.prorefactor.proparse.antlr4.XCodedFileException;
 import org.prorefactor.refactor.RefactorSession;
 import org.prorefactor.treeparser.ParseUnit;
@@ -84,6 +73,7 @@ import org.sonar.api.rule.RuleKey;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
 import org.sonar.plugins.openedge.api.Constants;
+import org.sonar.plugins.openedge.api.checks.IncludeIssueCollector;
 import org.sonar.plugins.openedge.api.checks.OpenEdgeProparseCheck;
 import org.sonar.plugins.openedge.foundation.CPDCallback;
 import org.sonar.plugins.openedge.foundation.InputFileUtils;
@@ -120,15 +110,16 @@ public class OpenEdgeProparseSensor implements Sensor {
   private int numXREF;
   private int numListings;
   private int numFailures;
+  private int numANTLR4Fallbacks;
   private int ncLocs;
 
   // Timing statistics
   private Map<String, Long> ruleTime = new HashMap<>();
   private long parseTime = 0L;
-  private long parse4Time = 0L;
-  private long parse4Tree = 0L;
+  private long cpdTime = 0L;
   private long xmlParseTime = 0L;
   private long maxParseTime = 0L;
+  private long parse4Time = 0L;
   private Map<Integer, Long> decisionTime = new HashMap<>();
   private Map<Integer, Long> maxK = new HashMap<>();
 
@@ -159,10 +150,17 @@ public class OpenEdgeProparseSensor implements Sensor {
 
     components.initializeLicense(context);
     components.initializeChecks(context);
+    IncludeIssueCollector includeIssues = components.getIncludeIssueCollector();
+    includeIssues.clear();
     for (Map.Entry<ActiveRule, OpenEdgeProparseCheck> entry : components.getProparseRules().entrySet()) {
       ruleTime.put(entry.getKey().ruleKey().toString(), 0L);
     }
     RefactorSession session = settings.getProparseSession(context.runtime().getProduct() == SonarProduct.SONARLINT);
+    if ((settings.useANTLR4() || settings.useANTLR4Parser()) && settings.useANTLR4Warmup()) {
+      long startTime = System.currentTimeMillis();
+      if (ProparseWarmup.run(session))
+        LOG.info("ANTLR4 parser warm-up done in {} ms", System.currentTimeMillis() - startTime);
+    }
 
     FilePredicates predicates = context.fileSystem().predicates();
     for (InputFile file : context.fileSystem().inputFiles(
@@ -174,11 +172,14 @@ public class OpenEdgeProparseSensor implements Sensor {
         parseIncludeFile(context, file, session);
       } else {
         parseMainFile(context, file, session);
-        if (settings.useANTLR4())
+        if (settings.useANTLR4() && !settings.useANTLR4Parser())
           testAntlr4(context, file, session);
       }
     }
 
+    int numIncludeIssues = includeIssues.save(context);
+    LOG.info("{} issues reported on include files, {} duplicates", numIncludeIssues, includeIssues.getDuplicates());
+    settings.getCompilerArtifactCache().save();
     executeAnalytics(context);
     logStatistics();
     generateProparseDebugIndex();
@@ -235,22 +236,8 @@ public class OpenEdgeProparseSensor implements Sensor {
       settings.parseHierarchy(file);
     }
 
-    File listingFile = settings.getListingFile(file);
-    List<Integer> trxBlocks = new ArrayList<>();
-    if ((listingFile != null) && listingFile.exists() && (listingFile.getAbsolutePath().indexOf(' ') == -1)) {
-      try {
-        ListingParser parser = new ListingParser(listingFile, InputFileUtils.getRelativePath(file, context.fileSystem()));
-        for (CodeBlock block : parser.getTransactionBlocks()) {
-          trxBlocks.add(block.getLineNumber());
-        }
-        numListings++;
-      } catch (IOException caught) {
-        LOG.error("Unable to parse listing file for " + file, caught);
-      }
-    } else {
-      LOG.debug("Listing file for '{}' not found or contains space character - Was looking for '{}'", file,
-          listingFile);
-    }
+    // Always read, as transaction measures are saved for every file
+    List<Integer> trxBlocks = getTransactionBlocks(context, file);
     context.newMeasure().on(file).forMetric((Metric) OpenEdgeMetrics.TRANSACTIONS).withValue(
         Joiner.on(",").join(trxBlocks)).save();
     context.newMeasure().on(file).forMetric((Metric) OpenEdgeMetrics.NUM_TRANSACTIONS).withValue(
@@ -260,8 +247,7 @@ public class OpenEdgeProparseSensor implements Sensor {
     long startTime = System.currentTimeMillis();
 
     try {
-      unit = new ParseUnit(InputFileUtils.getInputStream(file), InputFileUtils.getRelativePath(file, context.fileSystem()), session);
-      unit.treeParser01();
+      unit = parse(file, InputFileUtils.getRelativePath(file, context.fileSystem()), session);
       unit.attachXref(doc);
       unit.attachTransactionBlocks(trxBlocks);
       unit.attachTypeInfo(session.getTypeInfo(unit.getRootScope().getClassName()));
@@ -322,8 +308,10 @@ public class OpenEdgeProparseSensor implements Sensor {
           issue.newLocation().on(file).message(Strings.nullToEmpty(caught.getMessage()))).save();
       return;
     }
-    if (settings.useANTLR4())
-      generateProparseFlatFiles(unit.getTopNode(), unit.getSupport(), false, InputFileUtils.getRelativePath(file, context.fileSystem()));
+    if (unit.getParseInfo() != null)
+      generateAntlr4Stats(InputFileUtils.getRelativePath(file, context.fileSystem()), unit.getParseInfo());
+    if (settings.useANTLR4() && !settings.useANTLR4Parser())
+      generateProparseFlatFile(".proparse/antlr2/", unit, InputFileUtils.getRelativePath(file, context.fileSystem()));
 
     if (context.runtime().getProduct() == SonarProduct.SONARQUBE) {
       computeCpd(context, file, unit);
@@ -388,13 +376,40 @@ public class OpenEdgeProparseSensor implements Sensor {
     }
   }
 
+  /**
+   * Line numbers of transaction blocks from listing file, read from compiler artifacts cache when available
+   */
+  private List<Integer> getTransactionBlocks(SensorContext context, InputFile file) {
+    File listingFile = settings.getListingFile(file);
+    List<Integer> trxBlocks = new ArrayList<>();
+    if ((listingFile != null) && listingFile.exists() && (listingFile.getAbsolutePath().indexOf(' ') == -1)) {
+      try {
+        ListingParser parser = settings.getCompilerArtifactCache().getListing(listingFile,
+            InputFileUtils.getRelativePath(file, context.fileSystem()));
+        for (CodeBlock block : parser.getTransactionBlocks()) {
+          trxBlocks.add(block.getLineNumber());
+        }
+        numListings++;
+      } catch (IOException caught) {
+        LOG.error("Unable to parse listing file for " + file, caught);
+      }
+    } else {
+      LOG.debug("Listing file for '{}' not found or contains space character - Was looking for '{}'", file,
+          listingFile);
+    }
+    return trxBlocks;
+  }
+
   private void logStatistics() {
     LOG.info("{} files proparse'd, {} XML files, {} listing files, {} failure(s), {} NCLOCs", numFiles, numXREF,
         numListings, numFailures, ncLocs);
     LOG.info("AST Generation | time={} ms", parseTime);
     LOG.info("XML Parsing    | time={} ms", xmlParseTime);
-    LOG.info("AST4Generation | time={} ms", parse4Time);
-    LOG.info("AST4Tree       | time={} ms", parse4Tree);
+    LOG.info("CPD Tokens     | time={} ms", cpdTime);
+    if (settings.useANTLR4() && !settings.useANTLR4Parser())
+      LOG.info("AST4Generation | time={} ms", parse4Time);
+    if (settings.useANTLR4Parser())
+      LOG.info("{} file(s) parsed again with ProParser after ANTLR4 failure", numANTLR4Fallbacks);
     // Sort entries by rule name
     ruleTime.entrySet().stream().sorted(
         (Entry<String, Long> obj1, Entry<String, Long> obj2) -> obj1.getKey().compareTo(obj2.getKey())).forEach(
@@ -415,95 +430,75 @@ public class OpenEdgeProparseSensor implements Sensor {
     }
   }
 
-  // TEMP-ANTLR4
-  private void testAntlr4(SensorContext context, InputFile file, RefactorSession session) {
-    long startTime = System.currentTimeMillis();
-    try {
-      ProgressLexer lexer = new ProgressLexer(session, InputFileUtils.getInputStream(file), InputFileUtils.getRelativePath(file, context.fileSystem()), false);
-      lexer.setMergeNameDotInId(true);
-      Proparse parser = new Proparse(new CommonTokenStream(lexer));
-      parser.initAntlr4(session, lexer.getFilenameList());
-      if (settings.useANTLR4Profiler())
-        parser.setProfile(true);
-      parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
-      parser.setErrorHandler(new BailErrorStrategy());
-
-      ParseTree tree;
+  /**
+   * Parse and execute TreeParser01. With ANTLR4 parser, files which can't be parsed (or whose tree can't be processed)
+   * are parsed again with ProParser, as a few grammar differences remain.
+   */
+  private ParseUnit parse(InputFile file, String relativeName, RefactorSession session) throws ANTLRException {
+    if (settings.useANTLR4Parser()) {
+      ParseUnit unit = new ParseUnit(InputFileUtils.getInputStream(file), relativeName, session);
+      unit.setANTLR4(true);
+      unit.setANTLR4Profiler(settings.useANTLR4Profiler());
       try {
-        tree = parser.program();
-      } catch (ParseCancellationException caught) {
-        LOG.warn("Parser switching to LL prediction mode for {}", InputFileUtils.getRelativePath(file, context.fileSystem()));
-        parser.getInterpreter().setPredictionMode(PredictionMode.LL);
-        parser.setErrorHandler(new ProparseErrorStrategy());
-        parser.removeErrorListeners();
-        parser.addErrorListener(new DescriptiveErrorListener());
-        tree = parser.program();
+        unit.treeParser01();
+        return unit;
+      } catch (UncheckedIOException caught) {
+        // Missing include file or xcode'd file, same error with ProParser
+        throw caught;
+      } catch (ANTLRException | RuntimeException caught) {
+        numANTLR4Fallbacks++;
+        LOG.warn("ANTLR4 parser failed on {}, switching to ProParser - {}", relativeName,
+            Strings.nullToEmpty(caught.getMessage()));
+        LOG.debug("ANTLR4 parser failure", caught);
       }
-
-      long time1 = System.currentTimeMillis() - startTime;
-      parse4Time += time1;
-      JPNodeVisitor visitor = new JPNodeVisitor(parser.getParserSupport(), (BufferedTokenStream) parser.getInputStream());
-      org.prorefactor.proparse.antlr4.nodetypes.ProgramRootNode root4 = (org.prorefactor.proparse.antlr4.nodetypes.ProgramRootNode) visitor.visit(tree).build(parser.getParserSupport());
-      long time2 = System.currentTimeMillis() - startTime - time1;
-      parse4Tree += time2;
-
-      generateProparseFlatFiles(root4, parser.getParserSupport(), true, InputFileUtils.getRelativePath(file, context.fileSystem()));
-      generateAntlr4Stats(InputFileUtils.getRelativePath(file, context.fileSystem()), time1, time2, parser.getParseInfo());
-
-      LOG.info("File {} - {} ms ANTLR4 - {} ms visitor",InputFileUtils.getRelativePath(file, context.fileSystem()), time1, time2);
-    } catch (UncheckedIOException caught) {
-      if ((caught.getCause() != null) && (caught.getCause() instanceof XCodedFileException)) {
-        XCodedFileException cause = (XCodedFileException) caught.getCause();
-        LOG.error("Unable to parse {} - Can't read xcode'd file {}", file, cause.getFileName());
-      } else if ((caught.getCause() != null) && (caught.getCause() instanceof IncludeFileNotFoundException)) {
-        IncludeFileNotFoundException cause = (IncludeFileNotFoundException) caught.getCause();
-        LOG.error("Unable to parse {} - Can't find include file '{}' from '{}'", file, cause.getIncludeName(), cause.getFileName());
-      } else {
-        LOG.error("Unable to parse " + file + " - IOException was caught - Please report this issue", caught);
-      }
-      return;
-    } catch (Throwable caught) {
-      LOG.error("Error during code parsing for " + InputFileUtils.getRelativePath(file, context.fileSystem()), caught);
     }
+    ParseUnit unit = new ParseUnit(InputFileUtils.getInputStream(file), relativeName, session);
+    unit.treeParser01();
+    return unit;
   }
 
   // TEMP-ANTLR4
-  private void generateProparseFlatFiles(ProgramRootNode rootNode, ParserSupport support, boolean version,
-      String fileName) {
-    File f = new File(".proparse/antlr2/" + fileName.replace('\\', '_').replace('/', '_').replace(':', '_'));
-    f.getParentFile().mkdirs();
-
-    try (PrintWriter writer = new PrintWriter(f)) {
-      TreeNodeLister nodeLister = new TreeNodeLister(rootNode, support, writer, ABLNodeType.INVALID_NODE,
-          ABLNodeType.ANNOTATION);
-      nodeLister.print();
-    } catch (IOException caught) {
-      LOG.error("Unable to write proparse debug file", caught);
+  private void testAntlr4(SensorContext context, InputFile file, RefactorSession session) {
+    String relativeName = InputFileUtils.getRelativePath(file, context.fileSystem());
+    long startTime = System.currentTimeMillis();
+    try {
+      ParseUnit unit = new ParseUnit(InputFileUtils.getInputStream(file), relativeName, session);
+      unit.setANTLR4(true);
+      unit.setANTLR4Profiler(settings.useANTLR4Profiler());
+      unit.parse();
+      long time = System.currentTimeMillis() - startTime;
+      parse4Time += time;
+      generateProparseFlatFile(".proparse/antlr4/", unit, relativeName);
+      if (unit.getParseInfo() != null)
+        generateAntlr4Stats(relativeName, unit.getParseInfo());
+      LOG.info("File {} - {} ms ANTLR4", relativeName, time);
+    } catch (UncheckedIOException caught) {
+      LOG.error("Unable to parse {} with ANTLR4 - {}", relativeName, caught.getMessage());
+    } catch (ANTLRException | RuntimeException caught) {
+      LOG.error("Error during ANTLR4 code parsing for " + relativeName, caught);
     }
   }
 
   // TEMP-ANTLR4
-  private void generateProparseFlatFiles(org.prorefactor.proparse.antlr4.nodetypes.ProgramRootNode rootNode,
-      ParserSupport support, boolean version, String fileName) {
-    File f = new File(".proparse/antlr4/" + fileName.replace('\\', '_').replace('/', '_').replace(':', '_'));
+  private void generateProparseFlatFile(String dir, ParseUnit unit, String fileName) {
+    File f = new File(dir + fileName.replace('\\', '_').replace('/', '_').replace(':', '_'));
     f.getParentFile().mkdirs();
 
     try (PrintWriter writer = new PrintWriter(f)) {
-      org.prorefactor.proparse.antlr4.TreeNodeLister nodeLister = new org.prorefactor.proparse.antlr4.TreeNodeLister(
-          rootNode, support, writer, ABLNodeType.INVALID_NODE, ABLNodeType.ANNOTATION);
+      TreeNodeLister nodeLister = new TreeNodeLister(unit.getTopNode(), unit.getSupport(), writer,
+          ABLNodeType.INVALID_NODE, ABLNodeType.ANNOTATION);
       nodeLister.print();
     } catch (IOException caught) {
       LOG.error("Unable to write proparse debug file", caught);
     }
   }
 
-  // TEMP-ANTLR4
-  private void generateAntlr4Stats(String fileName, long parseTree, long treeVisitor, ParseInfo info) {
+  private void generateAntlr4Stats(String fileName, ParseInfo info) {
     File f = new File(".proparse/antlr4-timings/" + fileName.replace('\\', '_').replace('/', '_').replace(':', '_'));
     f.getParentFile().mkdirs();
     try (PrintWriter writer = new PrintWriter(f)) {
-      writer.println(fileName.replace(':', '_') + " : " + parseTree + " : " + treeVisitor);
-      if ((info != null) && (info.getDecisionInfo() != null)) {
+      writer.println(fileName.replace(':', '_'));
+      if (info.getDecisionInfo() != null) {
         Arrays.stream(info.getDecisionInfo()).filter(decision -> decision.SLL_MaxLook > 0).sorted(
             (d1, d2) -> Long.compare(d2.SLL_MaxLook, d1.SLL_MaxLook)).forEach(
                 decision -> writer.println(String.format(
@@ -567,9 +562,11 @@ public class OpenEdgeProparseSensor implements Sensor {
   }
 
   private void computeCpd(SensorContext context, InputFile file, ParseUnit unit) {
+    long startTime = System.currentTimeMillis();
     CPDCallback cpdCallback = new CPDCallback(context, file, settings, unit);
     unit.getTopNode().walk(cpdCallback);
     cpdCallback.getResult().save();
+    cpdTime += System.currentTimeMillis() - startTime;
   }
 
   @SuppressWarnings({"unchecked", "rawtypes"})
@@ -21,9 +21,6 @@ package org.sonar.plugins.openedge.sensor;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
-import java.util.List;
 
 import org.sonar.api.SonarProduct;
 import org.sonar.api.batch.fs.FilePredicate;
@@ -39,14 +36,11 @@ import org.sonar.api.rule.RuleKey;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
 import org.sonar.plugins.openedge.api.Constants;
+import org.sonar.plugins.openedge.foundation.CompilerWarning;
 import org.sonar.plugins.openedge.foundation.InputFileUtils;
 import org.sonar.plugins.openedge.foundation.OpenEdgeRulesDefinition;
 import org.sonar.plugins.openedge.foundation.OpenEdgeSettings;
 
-import com.google.common.io.Files;
-import com.google.common.io.LineProcessor;
-import com.google.common.primitives.Ints;
-
 public class OpenEdgeWarningsSensor implements Sensor {
   private static final Logger LOG = Loggers.get(OpenEdgeWarningsSensor.class);
 
@@ -86,14 +80,12 @@ public class OpenEdgeWarningsSensor implements Sensor {
         LOG.debug("Import warnings for {}", file);
 
         try {
-          WarningsProcessor processor = new WarningsProcessor();
-          Files.asCharSource(listingFile, StandardCharsets.UTF_8).readLines(processor);
-          for (Warning w : processor.getResult()) {
-            RuleKey ruleKey = RuleKey.of(Constants.STD_REPOSITORY_KEY, OpenEdgeRulesDefinition.COMPILER_WARNING_RULEKEY + "." + w.msgNum);
+          for (CompilerWarning w : settings.getCompilerArtifactCache().getWarnings(listingFile)) {
+            RuleKey ruleKey = RuleKey.of(Constants.STD_REPOSITORY_KEY, OpenEdgeRulesDefinition.COMPILER_WARNING_RULEKEY + "." + w.getMessageNumber());
 
-            FilePredicate fp1 = predicates.hasRelativePath(w.file);
+            FilePredicate fp1 = predicates.hasRelativePath(w.getFile());
             FilePredicate fp2 = predicates.hasAbsolutePath(
-                context.fileSystem().baseDir().toPath().resolve(w.file).normalize().toString());
+                context.fileSystem().baseDir().toPath().resolve(w.getFile()).normalize().toString());
 
             // XXX FilePredicate.or() doesn't work...
             InputFile target = context.fileSystem().inputFile(fp1);
@@ -102,20 +94,20 @@ public class OpenEdgeWarningsSensor implements Sensor {
             }
 
             if (target != null) {
-              LOG.debug("Warning File {} - Line {} - Message {}", target, w.line, w.msg);
+              LOG.debug("Warning File {} - Line {} - Message {}", target, w.getLine(), w.getMessage());
               NewIssue issue = context.newIssue().forRule(context.activeRules().find(ruleKey) == null ? defaultWarningRuleKey : ruleKey);
               NewIssueLocation location = issue.newLocation().on(target);
-              if (w.line > 0) {
-                location.at(target.selectLine(w.line));
+              if (w.getLine() > 0) {
+                location.at(target.selectLine(w.getLine()));
               }
               if (target == file) {
-                location.message(w.msg);
+                location.message(w.getMessage());
               } else {
-                location.message("From " + InputFileUtils.getRelativePath(file, context.fileSystem()) + " - " + w.msg);
+                location.message("From " + InputFileUtils.getRelativePath(file, context.fileSystem()) + " - " + w.getMessage());
               }
               issue.at(location).save();
             } else {
-              LOG.info("Found warning on non-existing file {}", w.file);
+              LOG.info("Found warning on non-existing file {}", w.getFile());
             }
           }
 
@@ -125,53 +117,7 @@ public class OpenEdgeWarningsSensor implements Sensor {
         }
       }
     }
+    settings.getCompilerArtifactCache().save();
     LOG.info("{} warning files imported", warningsImportNum);
   }
-
-  private class WarningsProcessor implements LineProcessor<List<Warning>> {
-    private List<Warning> results = new ArrayList<>();
-
-    @Override
-    public boolean processLine(String line) throws IOException {
-      // Closing bracket after line number
-      int pos1 = line.indexOf(']', 1);
-      if (pos1 == -1)
-        return true;
-      // Closing bracket after file name
-      int pos2 = line.indexOf(']', pos1 + 2);
-      // Line number
-      Integer lineNumber = Ints.tryParse(line.substring(1, pos1));
-      // Trying to get Progress message number
-      int lastOpeningParen = line.lastIndexOf('(');
-      int lastClosingParen = line.lastIndexOf(')');
-      Integer msgNum = -1;
-      if ((lastOpeningParen > -1) && (lastClosingParen > -1)) {
-        msgNum = Ints.tryParse(line.substring(lastOpeningParen + 1, lastClosingParen));
-      }
-      String fileName = line.substring(pos1 + 3, pos2);
-      results.add(new Warning(fileName, lineNumber == null ? 0 : lineNumber, line.substring(pos2 + 2), msgNum == null ? -1 : msgNum));
-
-      return true;
-    }
-
-    @Override
-    public List<Warning> getResult() {
-      return results;
-    }
-  }
-
-  private class Warning {
-    private String file;
-    private int line;
-    private String msg;
-    private int msgNum;
-
-    public Warning(String file, int line, String msg, int msgNum) {
-      this.file = file;
-      this.line = line;
-      this.msg = msg;
-      this.msgNum = msgNum;
-    }
-  }
-
 }
@@ -0,0 +1,97 @@
+/*
+ * OpenEdge plugin for SonarQube
+ * Copyright (c) 2015-2018 Riverside Software
+ * contact AT riverside DASH software DOT fr
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.openedge.sensor;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.sonar.api.batch.fs.FilePredicates;
+import org.sonar.api.batch.fs.FileSystem;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.fs.InputFile.Type;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+import org.sonar.plugins.openedge.api.Constants;
+import org.sonar.plugins.openedge.foundation.OpenEdgeSettings;
+
+import com.google.common.base.Strings;
+
+/**
+ * Maps names as written by the profiler (relative path for procedures, package and class name for classes, or
+ * absolute path) to InputFile objects. Lookups are case-insensitive.
+ */
+class ProfilerModuleIndex {
+  private static final Logger LOG = Loggers.get(ProfilerModuleIndex.class);
+
+  private final Map<String, InputFile> index = new HashMap<>();
+
+  ProfilerModuleIndex(FileSystem fileSystem, OpenEdgeSettings settings) {
+    FilePredicates predicates = fileSystem.predicates();
+    for (InputFile file : fileSystem.inputFiles(
+        predicates.and(predicates.hasLanguage(Constants.LANGUAGE_KEY), predicates.hasType(Type.MAIN)))) {
+      String relPath = settings.getRelativePathToSourceDirs(file);
+      if (!Strings.isNullOrEmpty(relPath)) {
+        index.putIfAbsent(getKey(relPath), file);
+        if (relPath.toLowerCase(Locale.ENGLISH).endsWith(".cls")) {
+          index.putIfAbsent(getKey(relPath.substring(0, relPath.length() - 4).replace('/', '.').replace('\\', '.')),
+              file);
+        }
+      }
+      index.putIfAbsent(getKey(file.uri().getPath()), file);
+    }
+  }
+
+  /**
+   * @param name File name from profiler
+   * @return Null if not found
+   */
+  InputFile getInputFile(String name) {
+    return index.get(getKey(name));
+  }
+
+  /**
+   * Returns profiler output files (*.out) from a comma-separated list of directories
+   */
+  static List<File> getProfilerFiles(FileSystem fileSystem, String dirs) {
+    List<File> files = new ArrayList<>();
+    for (String str : dirs.split(",")) {
+      File dir = fileSystem.resolvePath(str.trim());
+      File[] list = dir.listFiles((d, name) -> name.endsWith(".out"));
+      if (list == null) {
+        LOG.warn("Profiler directory {} doesn't exist", dir);
+      } else {
+        Arrays.sort(list);
+        files.addAll(Arrays.asList(list));
+      }
+    }
+    return files;
+  }
+
+  private static String getKey(String name) {
+    String key = name.replace('\\', '/').toLowerCase(Locale.ENGLISH);
+    // Windows absolute path in URI
+    return key.startsWith("/") && (key.length() > 2) && (key.charAt(2) == ':') ? key.substring(1) : key;
+  }
+}
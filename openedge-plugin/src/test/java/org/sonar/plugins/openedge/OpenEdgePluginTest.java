@@ -35,7 +35,7 @@ public class OpenEdgePluginTest {
     SonarRuntime runtime = SonarRuntimeImpl.forSonarLint(Version.parse("6.2"));
     Plugin.Context context = new Plugin.Context(runtime);
     new OpenEdgePlugin().define(context);
-    assertThat(context.getExtensions()).hasSize(25);
+    assertThat(context.getExtensions()).hasSize(30);
   }
 
   @Test
@@ -43,7 +43,7 @@ public class OpenEdgePluginTest {
     SonarRuntime runtime = SonarRuntimeImpl.forSonarQube(Version.parse("6.2"), SonarQubeSide.SCANNER);
     Plugin.Context context = new Plugin.Context(runtime);
     new OpenEdgePlugin().define(context);
-    assertThat(context.getExtensions()).hasSize(28);
+    assertThat(context.getExtensions()).hasSize(33);
   }
 
 }
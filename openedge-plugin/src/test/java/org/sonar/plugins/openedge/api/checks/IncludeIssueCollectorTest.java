@@ -0,0 +1,96 @@
+/*
+ * OpenEdge plugin for SonarQube
+ * Copyright (c) 2015-2018 Riverside Software
+ * contact AT riverside DASH software DOT fr
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.openedge.api.checks;
+
+import static org.sonar.plugins.openedge.utils.TestProjectSensorContext.BASEDIR;
+import static org.sonar.plugins.openedge.utils.TestProjectSensorContext.CLASS1;
+import static org.sonar.plugins.openedge.utils.TestProjectSensorContext.FILE1;
+import static org.sonar.plugins.openedge.utils.TestProjectSensorContext.FILE2;
+import static org.sonar.plugins.openedge.utils.TestProjectSensorContext.FILE3;
+import static org.sonar.plugins.openedge.utils.TestProjectSensorContext.FILE4;
+
+import java.io.IOException;
+import java.util.Iterator;
+
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.sensor.internal.SensorContextTester;
+import org.sonar.api.batch.sensor.issue.Issue;
+import org.sonar.api.rule.RuleKey;
+import org.sonar.plugins.openedge.api.InputFileIndex;
+import org.sonar.plugins.openedge.utils.TestProjectSensorContext;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class IncludeIssueCollectorTest {
+  private static final RuleKey RULE1 = RuleKey.of("repo", "rule1");
+  private static final RuleKey RULE2 = RuleKey.of("repo", "rule2");
+
+  @Test
+  public void testDeduplication() throws IOException {
+    SensorContextTester context = TestProjectSensorContext.createContext();
+    InputFile inc = new InputFileIndex(context.fileSystem()).getByRelativePath(FILE4);
+    IncludeIssueCollector collector = new IncludeIssueCollector();
+
+    Assert.assertTrue(collector.add(RULE1, inc, 2, -1, 2, -1, FILE1, "msg"));
+    Assert.assertFalse(collector.add(RULE1, inc, 2, -1, 2, -1, FILE2, "msg"));
+    Assert.assertFalse(collector.add(RULE1, inc, 2, -1, 2, -1, FILE2, "msg"));
+    Assert.assertFalse(collector.add(RULE1, inc, 2, -1, 2, -1, FILE3, "msg"));
+    Assert.assertFalse(collector.add(RULE1, inc, 2, -1, 2, -1, CLASS1, "msg"));
+    // Different rule, line or message
+    Assert.assertTrue(collector.add(RULE2, inc, 2, -1, 2, -1, FILE1, "msg"));
+    Assert.assertTrue(collector.add(RULE1, inc, 3, -1, 3, -1, FILE1, "msg"));
+    Assert.assertTrue(collector.add(RULE1, inc, 2, -1, 2, -1, FILE1, "msg2"));
+    Assert.assertEquals(collector.size(), 4);
+    Assert.assertEquals(collector.getDuplicates(), 4);
+
+    Assert.assertEquals(collector.save(context), 4);
+    Assert.assertEquals(collector.size(), 0);
+    Assert.assertEquals(context.allIssues().size(), 4);
+    Iterator<Issue> issues = context.allIssues().iterator();
+    Issue issue = issues.next();
+    Assert.assertEquals(issue.ruleKey(), RULE1);
+    Assert.assertEquals(issue.primaryLocation().inputComponent().key(), BASEDIR + ":" + FILE4);
+    Assert.assertEquals(issue.primaryLocation().textRange().start().line(), 2);
+    Assert.assertEquals(issue.primaryLocation().message(),
+        "From " + FILE1 + ", " + FILE2 + ", " + FILE3 + " (and 2 other occurrences) - msg");
+    issue = issues.next();
+    Assert.assertEquals(issue.primaryLocation().message(), "From " + FILE1 + " - msg");
+  }
+
+  @Test
+  public void testClear() throws IOException {
+    SensorContextTester context = TestProjectSensorContext.createContext();
+    InputFile inc = new InputFileIndex(context.fileSystem()).getByRelativePath(FILE4);
+    IncludeIssueCollector collector = new IncludeIssueCollector();
+
+    Assert.assertTrue(collector.add(RULE1, inc, 2, -1, 2, -1, FILE1, "msg"));
+    Assert.assertFalse(collector.add(RULE1, inc, 2, -1, 2, -1, FILE2, "msg"));
+    Assert.assertEquals(collector.getDuplicates(), 1);
+    collector.save(context);
+
+    // Next analysis starts from scratch
+    collector.clear();
+    Assert.assertEquals(collector.getDuplicates(), 0);
+    Assert.assertTrue(collector.add(RULE1, inc, 2, -1, 2, -1, FILE1, "msg"));
+    Assert.assertEquals(collector.size(), 1);
+    collector.clear();
+    Assert.assertEquals(collector.size(), 0);
+  }
+}
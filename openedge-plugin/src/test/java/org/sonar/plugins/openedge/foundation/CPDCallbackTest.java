@@ -20,6 +20,7 @@
 package org.sonar.plugins.openedge.foundation;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
 
 import java.io.File;
 import java.io.IOException;
@@ -109,6 +110,22 @@ public class CPDCallbackTest {
     assertEquals(lines.get(1).getValue(), "fieldbarxxxbarascharacter.");
   }
 
+  @Test
+  public void testOperators() {
+    SensorContextTester context = SensorContextTester.create(new File(BASEDIR));
+    InputFile inputFile = getInputFile(context, "cpd05.p");
+    ParseUnit unit = getParseUnit(inputFile);
+    ICallback<NewCpdTokens> callback = new CPDCallback(context, inputFile, new OpenEdgeSettings(context.config(), context.fileSystem()), unit);
+    unit.getTopNode().walk(callback);
+    callback.getResult().save();
+
+    List<TokensLine> lines = context.cpdTokens(inputFile.key());
+    assertEquals(lines.size(), 3);
+    assertEquals(lines.get(1).getValue(), "xx=xx+1.");
+    // Canonical text, so > and GT are equivalent
+    assertEquals(lines.get(2).getValue(), "ifxxgt2thenmessagexx.");
+  }
+
   @Test
   public void testNoProperties() {
     SensorContextTester context = SensorContextTester.create(new File(BASEDIR));
@@ -135,6 +152,56 @@ public class CPDCallbackTest {
     List<TokensLine> lines = context.cpdTokens(inputFile.key());
     // 4 lines per procedure + one placeholder
     assertEquals(lines.size(), 9);
+    // Annotation is skipped, and procedure p2 replaced by one placeholder token
+    assertEquals(lines.stream().mapToInt(TokensLine::getStartLine).toArray(),
+        new int[] {1, 2, 3, 4, 7, 12, 13, 14, 15});
+    assertEquals(lines.get(4).getValue().length(), 36);
+    assertNotEquals(lines.get(4).getValue(), "procedurep2:");
+  }
+
+  @Test
+  public void testOutOfOrderTokens() {
+    SensorContextTester context = SensorContextTester.create(new File(BASEDIR));
+    InputFile inputFile = getInputFile(context, "cpd01.p");
+    CPDCallback callback = new CPDCallback(context, inputFile,
+        new OpenEdgeSettings(context.config(), context.fileSystem()), getParseUnit(inputFile));
+    callback.add(2, 0, 2, 6, "assign");
+    callback.add(1, 4, 1, 7, "variable");
+    callback.add(1, 0, 1, 3, "define");
+    callback.getResult().save();
+
+    // Tokens are sorted by position
+    List<TokensLine> lines = context.cpdTokens(inputFile.key());
+    assertEquals(lines.size(), 2);
+    assertEquals(lines.get(0).getValue(), "definevariable");
+    assertEquals(lines.get(1).getValue(), "assign");
+  }
+
+  @Test
+  public void testInvalidTokens() {
+    SensorContextTester context = SensorContextTester.create(new File(BASEDIR));
+    InputFile inputFile = getInputFile(context, "cpd01.p");
+    CPDCallback callback = new CPDCallback(context, inputFile,
+        new OpenEdgeSettings(context.config(), context.fileSystem()), getParseUnit(inputFile));
+    callback.add(1, 0, 1, 7, "defvar");
+    // Overlapping previous token
+    callback.add(1, 4, 1, 10, "overlap");
+    callback.add(1, 8, 1, 10, "xx");
+    // Zero-length token
+    callback.add(1, 11, 1, 11, "empty");
+    // Ending before start
+    callback.add(1, 14, 1, 12, "reversed");
+    // Beyond end of line, and beyond end of file
+    callback.add(2, 10, 2, 40, "eol");
+    callback.add(10, 0, 10, 2, "eof");
+    callback.add(3, 7, 3, 9, "xx");
+    callback.getResult().save();
+
+    List<TokensLine> lines = context.cpdTokens(inputFile.key());
+    assertEquals(lines.size(), 2);
+    assertEquals(lines.get(0).getValue(), "defvarxx");
+    assertEquals(lines.get(1).getStartLine(), 3);
+    assertEquals(lines.get(1).getValue(), "xx");
   }
 
   @Test
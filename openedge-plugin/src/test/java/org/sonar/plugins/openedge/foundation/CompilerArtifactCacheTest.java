@@ -0,0 +1,126 @@
+/*
+ * OpenEdge plugin for SonarQube
+ * Copyright (c) 2015-2018 Riverside Software
+ * contact AT riverside DASH software DOT fr
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.openedge.foundation;
+
+import static org.sonar.plugins.openedge.utils.TestProjectSensorContext.BASEDIR;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Strings;
+
+public class CompilerArtifactCacheTest {
+
+  @Test
+  public void testWarnings() throws IOException {
+    File tmpDir = Files.createTempDirectory("artifacts").toFile();
+    try {
+      File warnings = new File(tmpDir, "test1.p.warnings");
+      FileUtils.copyFile(new File(BASEDIR, "build/.pct/procedures/test1.p.warnings"), warnings);
+      File cacheFile = new File(tmpDir, "cache/artifacts.bin");
+
+      CompilerArtifactCache cache1 = new CompilerArtifactCache(cacheFile);
+      List<CompilerWarning> list1 = cache1.getWarnings(warnings);
+      Assert.assertEquals(list1.size(), 1);
+      Assert.assertEquals(list1.get(0).getLine(), 1);
+      Assert.assertEquals(list1.get(0).getMessageNumber(), 12115);
+      Assert.assertEquals(list1.get(0).getFile(), "src\\procedures\\test1.p");
+      cache1.save();
+      Assert.assertTrue(cacheFile.exists());
+
+      // Read from cache file, even if original file content is not available anymore
+      long lastModified = warnings.lastModified();
+      byte[] blank = new byte[(int) warnings.length()];
+      Files.write(warnings.toPath(), blank);
+      Assert.assertTrue(warnings.setLastModified(lastModified));
+      CompilerArtifactCache cache2 = new CompilerArtifactCache(cacheFile);
+      List<CompilerWarning> list2 = cache2.getWarnings(warnings);
+      Assert.assertEquals(list2.size(), 1);
+      Assert.assertEquals(list2.get(0).getMessage(), list1.get(0).getMessage());
+
+      // Modified file is parsed again
+      Assert.assertTrue(warnings.setLastModified(lastModified - 10000));
+      Assert.assertEquals(new CompilerArtifactCache(cacheFile).getWarnings(warnings).size(), 0);
+    } finally {
+      FileUtils.deleteQuietly(tmpDir);
+    }
+  }
+
+  @Test
+  public void testNoCacheFile() throws IOException {
+    File tmpDir = Files.createTempDirectory("artifacts").toFile();
+    try {
+      File warnings = new File(tmpDir, "test1.p.warnings");
+      FileUtils.copyFile(new File(BASEDIR, "build/.pct/procedures/test1.p.warnings"), warnings);
+      CompilerArtifactCache cache = new CompilerArtifactCache(null);
+      Assert.assertEquals(cache.getWarnings(warnings).size(), 1);
+
+      // Nothing kept in memory, file is always parsed
+      long lastModified = warnings.lastModified();
+      Files.write(warnings.toPath(), new byte[(int) warnings.length()]);
+      Assert.assertTrue(warnings.setLastModified(lastModified));
+      Assert.assertEquals(cache.getWarnings(warnings).size(), 0);
+    } finally {
+      FileUtils.deleteQuietly(tmpDir);
+    }
+  }
+
+  @Test
+  public void testLongStrings() throws IOException {
+    // More than 64KB, which is the limit of DataOutput.writeUTF()
+    String longStr = Strings.repeat("\u00e9", 70000);
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    CompilerWarning.write(new DataOutputStream(bytes),
+        Collections.singletonList(new CompilerWarning(longStr, 12, longStr + "x", 345)));
+    List<CompilerWarning> list = CompilerWarning.read(
+        new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+    Assert.assertEquals(list.size(), 1);
+    Assert.assertEquals(list.get(0).getFile(), longStr);
+    Assert.assertEquals(list.get(0).getLine(), 12);
+    Assert.assertEquals(list.get(0).getMessage(), longStr + "x");
+    Assert.assertEquals(list.get(0).getMessageNumber(), 345);
+  }
+
+  @Test
+  public void testInvalidCacheFile() throws IOException {
+    File tmpDir = Files.createTempDirectory("artifacts").toFile();
+    try {
+      File cacheFile = new File(tmpDir, "artifacts.bin");
+      Files.write(cacheFile.toPath(), new byte[] {1, 2, 3});
+      CompilerArtifactCache cache = new CompilerArtifactCache(cacheFile);
+      Assert.assertEquals(cache.getWarnings(new File(BASEDIR, "build/.pct/procedures/test1.p.warnings")).size(), 1);
+      // Nothing written without cache file
+      new CompilerArtifactCache(null).save();
+    } finally {
+      FileUtils.deleteQuietly(tmpDir);
+    }
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ * OpenEdge plugin for SonarQube
+ * Copyright (c) 2015-2018 Riverside Software
+ * contact AT riverside DASH software DOT fr
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.openedge.foundation;
+
+import static org.sonar.plugins.openedge.utils.TestProjectSensorContext.BASEDIR;
+import static org.sonar.plugins.openedge.utils.TestProjectSensorContext.DF1;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.apache.commons.io.FileUtils;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import eu.rssw.antlr.database.objects.DatabaseDescription;
+
+public class DumpFileCacheTest {
+
+  @Test
+  public void testSharedParse() throws Exception {
+    File df = new File(BASEDIR, DF1);
+    DumpFileCache cache = new DumpFileCache();
+    Map<File, Charset> files = new LinkedHashMap<>();
+    files.put(df, Charset.defaultCharset());
+    // Same file, different path: parsed only once
+    files.put(df.getAbsoluteFile(), Charset.defaultCharset());
+    cache.parseAll(files);
+    Assert.assertEquals(cache.getParseCount(), 1);
+
+    Assert.assertSame(cache.getParseTree(df, Charset.defaultCharset()), cache.getParseTree(df, null));
+    DatabaseDescription desc1 = cache.getDatabaseDescription(df, Charset.defaultCharset(), "sp2k");
+    DatabaseDescription desc2 = cache.getDatabaseDescription(df, Charset.defaultCharset(), "alias");
+    Assert.assertSame(cache.getDatabaseDescription(df, Charset.defaultCharset(), "sp2k"), desc1);
+    Assert.assertEquals(desc1.getDbName(), "sp2k");
+    Assert.assertEquals(desc2.getDbName(), "alias");
+    Assert.assertEquals(desc2.getTables().size(), 25);
+    // Parse tree and descriptions are served from the cache
+    Assert.assertEquals(cache.getParseCount(), 1);
+  }
+
+  @Test
+  public void testModifiedFile() throws Exception {
+    File tmpDir = Files.createTempDirectory("dfcache").toFile();
+    try {
+      File df = new File(tmpDir, "sp2k.df");
+      FileUtils.copyFile(new File(BASEDIR, DF1), df);
+      DumpFileCache cache = new DumpFileCache();
+      // Single file, parsed in current thread
+      cache.parseAll(Collections.singletonMap(df, Charset.defaultCharset()));
+      Assert.assertEquals(cache.getParseCount(), 0);
+      ParseTree tree = cache.getParseTree(df, Charset.defaultCharset());
+      Assert.assertSame(cache.getParseTree(df, Charset.defaultCharset()), tree);
+      Assert.assertEquals(cache.getParseCount(), 1);
+
+      Assert.assertTrue(df.setLastModified(df.lastModified() - 10000));
+      Assert.assertNotSame(cache.getParseTree(df, Charset.defaultCharset()), tree);
+      Assert.assertEquals(cache.getParseCount(), 2);
+    } finally {
+      FileUtils.deleteQuietly(tmpDir);
+    }
+  }
+}
@@ -0,0 +1,54 @@
+/*
+ * OpenEdge plugin for SonarQube
+ * Copyright (c) 2015-2018 Riverside Software
+ * contact AT riverside DASH software DOT fr
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.openedge.foundation;
+
+import static org.sonar.plugins.openedge.utils.TestProjectSensorContext.BASEDIR;
+import static org.sonar.plugins.openedge.utils.TestProjectSensorContext.FILE3;
+import static org.sonar.plugins.openedge.utils.TestProjectSensorContext.FILE4;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.sonar.api.batch.fs.FileSystem;
+import org.sonar.api.batch.sensor.internal.SensorContextTester;
+import org.sonar.plugins.openedge.api.InputFileIndex;
+import org.sonar.plugins.openedge.utils.TestProjectSensorContext;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class InputFileIndexTest {
+
+  @Test
+  public void testLookup() throws IOException {
+    SensorContextTester context = TestProjectSensorContext.createContext();
+    FileSystem fs = context.fileSystem();
+    InputFileIndex index = new InputFileIndex(fs);
+
+    for (String str : new String[] {
+        FILE3, FILE4, "src\\procedures\\test3.i", "src/procedures/../procedures/test3.p", "src/procedures/none.p",
+        "../test3.p"}) {
+      Assert.assertSame(index.getByRelativePath(str), fs.inputFile(fs.predicates().hasRelativePath(str)), str);
+    }
+    String abs = new File(BASEDIR, FILE4).getAbsolutePath();
+    Assert.assertNotNull(index.getByAbsolutePath(abs));
+    Assert.assertSame(index.getByPath(abs), index.getByRelativePath(FILE4));
+    Assert.assertNull(index.getByPath("src/procedures/none.p"));
+  }
+}
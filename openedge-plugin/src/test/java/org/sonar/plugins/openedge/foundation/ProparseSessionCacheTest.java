@@ -0,0 +1,254 @@
+/*
+ * OpenEdge plugin for SonarQube
+ * Copyright (c) 2015-2018 Riverside Software
+ * contact AT riverside DASH software DOT fr
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.openedge.foundation;
+
+import static org.sonar.plugins.openedge.utils.TestProjectSensorContext.BASEDIR;
+import static org.sonar.plugins.openedge.utils.TestProjectSensorContext.DF1;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.io.FileUtils;
+import org.prorefactor.core.schema.Schema;
+import org.prorefactor.refactor.RefactorSession;
+import org.prorefactor.refactor.settings.ProparseSettings;
+import org.sonar.api.batch.sensor.internal.SensorContextTester;
+import org.sonar.plugins.openedge.api.Constants;
+import org.sonar.plugins.openedge.utils.TestProjectSensorContext;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import eu.rssw.pct.RCodeInfo;
+import eu.rssw.pct.elements.ITypeInfo;
+
+public class ProparseSessionCacheTest {
+
+  @Test
+  public void testSessionReuse() throws IOException {
+    File tmpDir = Files.createTempDirectory("session").toFile();
+    try {
+      File df = new File(tmpDir, "sp2k.df");
+      FileUtils.copyFile(new File(BASEDIR, DF1), df);
+      ProparseSessionCache.clear();
+
+      RefactorSession session1 = createSettings(tmpDir, df).getProparseSession(true);
+      RefactorSession session2 = createSettings(tmpDir, df).getProparseSession(true);
+      Assert.assertSame(session1, session2);
+      Assert.assertNotNull(session1.getSchema().lookupTable("customer"));
+      // SonarLint sessions are not shared with SonarQube modules
+      Assert.assertNotSame(createSettings(tmpDir, df).getProparseSession(false), session1);
+
+      // Dump file modified
+      Assert.assertTrue(df.setLastModified(df.lastModified() - 10000));
+      RefactorSession session3 = createSettings(tmpDir, df).getProparseSession(true);
+      Assert.assertNotSame(session3, session1);
+      Assert.assertSame(createSettings(tmpDir, df).getProparseSession(true), session3);
+    } finally {
+      ProparseSessionCache.clear();
+      FileUtils.deleteQuietly(tmpDir);
+    }
+  }
+
+  @Test
+  public void testSharedModules() throws IOException {
+    File tmpDir = Files.createTempDirectory("session").toFile();
+    try {
+      File df = new File(tmpDir, "sp2k.df");
+      FileUtils.copyFile(new File(BASEDIR, DF1), df);
+      ProparseSessionCache.clear();
+
+      OpenEdgeSettings module1 = createSettings(tmpDir, df, false);
+      OpenEdgeSettings module2 = createSettings(tmpDir, df, false);
+      RefactorSession session = module1.getProparseSession(false);
+      Assert.assertSame(module2.getProparseSession(false), session);
+      Assert.assertNotNull(session.getTypeInfo("rssw.testclass"));
+      module1.stop();
+      module2.stop();
+
+      // Released sessions are kept for next modules
+      OpenEdgeSettings module3 = createSettings(tmpDir, df, false);
+      Assert.assertSame(module3.getProparseSession(false), session);
+      module3.stop();
+
+      // Different configuration
+      SensorContextTester context = TestProjectSensorContext.createContext();
+      context.settings().setProperty(Constants.DATABASES, df.getAbsolutePath() + ":otherdb");
+      context.settings().setProperty(Constants.SKIP_RCODE, false);
+      Assert.assertNotSame(new OpenEdgeSettings(context.config(), context.fileSystem()).getProparseSession(false),
+          session);
+    } finally {
+      ProparseSessionCache.clear();
+      FileUtils.deleteQuietly(tmpDir);
+    }
+  }
+
+  @Test
+  public void testRecompiledRCode() throws IOException {
+    File tmpDir = Files.createTempDirectory("session").toFile();
+    try {
+      File df = new File(tmpDir, "sp2k.df");
+      FileUtils.copyFile(new File(BASEDIR, DF1), df);
+      File buildDir = new File(tmpDir, "build");
+      File rcode = new File(buildDir, "rssw/testclass.r");
+      FileUtils.copyFile(new File(BASEDIR, "build/rssw/testclass.r"), rcode);
+      ProparseSessionCache.clear();
+
+      OpenEdgeSettings module1 = createSettings(tmpDir, df, buildDir);
+      RefactorSession session1 = module1.getProparseSession(false);
+      Assert.assertNotNull(session1.getTypeInfo("rssw.testclass"));
+      session1.getTokenTextPool().intern("foobar");
+      module1.stop();
+
+      // Nothing recompiled, session is reused
+      OpenEdgeSettings module2 = createSettings(tmpDir, df, buildDir);
+      Assert.assertSame(module2.getProparseSession(false), session1);
+
+      // RCode recompiled, idle session is kept until acquired again
+      Assert.assertTrue(rcode.setLastModified(rcode.lastModified() - 10000));
+      module2.stop();
+      Assert.assertEquals(session1.getTokenTextPool().size(), 1);
+
+      OpenEdgeSettings module3 = createSettings(tmpDir, df, buildDir);
+      RefactorSession session3 = module3.getProparseSession(false);
+      Assert.assertNotSame(session3, session1);
+      Assert.assertEquals(session1.getTokenTextPool().size(), 0);
+      Assert.assertNotNull(session3.getTypeInfo("rssw.testclass"));
+
+      // New rcode, discarded when acquired again
+      FileUtils.copyFile(rcode, new File(buildDir, "rssw/testclass2.r"));
+      Assert.assertNotSame(createSettings(tmpDir, df, buildDir).getProparseSession(false), session3);
+      module3.stop();
+    } finally {
+      ProparseSessionCache.clear();
+      FileUtils.deleteQuietly(tmpDir);
+    }
+  }
+
+  @Test
+  public void testRCodeCache() throws IOException {
+    File tmpDir = Files.createTempDirectory("session").toFile();
+    try {
+      File rcode = new File(tmpDir, "testclass.r");
+      FileUtils.copyFile(new File(BASEDIR, "build/rssw/testclass.r"), rcode);
+      RefactorSession session = new RefactorSession(new ProparseSettings(""), new Schema(), StandardCharsets.UTF_8);
+      ProparseSessionCache.Entry entry = ProparseSessionCache.acquire("testRCodeCache", () -> session,
+          Collections.emptyList());
+      AtomicInteger numParse = new AtomicInteger();
+
+      ITypeInfo info1 = entry.getTypeInfo(rcode, f -> parse(f, numParse));
+      Assert.assertNotNull(session.getTypeInfo(info1.getTypeName()));
+      Assert.assertSame(entry.getTypeInfo(rcode, f -> parse(f, numParse)), info1);
+      Assert.assertEquals(numParse.get(), 1);
+      Assert.assertTrue(rcode.setLastModified(rcode.lastModified() - 10000));
+      Assert.assertNotSame(entry.getTypeInfo(rcode, f -> parse(f, numParse)), info1);
+      Assert.assertEquals(numParse.get(), 2);
+
+      Assert.assertEquals(entry.getRefCount(), 1);
+      Assert.assertSame(ProparseSessionCache.acquire("testRCodeCache", () -> null, Collections.emptyList()), entry);
+      Assert.assertEquals(entry.getRefCount(), 2);
+      ProparseSessionCache.release(entry);
+      ProparseSessionCache.release(entry);
+      Assert.assertEquals(entry.getRefCount(), 0);
+    } finally {
+      ProparseSessionCache.clear();
+      FileUtils.deleteQuietly(tmpDir);
+    }
+  }
+
+  @Test
+  public void testClearSessionInUse() {
+    RefactorSession session = new RefactorSession(new ProparseSettings(""), new Schema(), StandardCharsets.UTF_8);
+    ProparseSessionCache.Entry entry = ProparseSessionCache.acquire("testClearSessionInUse", () -> session,
+        Collections.emptyList());
+    try {
+      session.getTokenTextPool().intern("foobar");
+      // Removed from registry, but string pool is kept while in use
+      ProparseSessionCache.clear();
+      Assert.assertEquals(session.getTokenTextPool().size(), 1);
+      Assert.assertNotSame(ProparseSessionCache.acquire("testClearSessionInUse", () -> new RefactorSession(
+          new ProparseSettings(""), new Schema(), StandardCharsets.UTF_8), Collections.emptyList()).getSession(),
+          session);
+      ProparseSessionCache.release(entry);
+      Assert.assertEquals(session.getTokenTextPool().size(), 0);
+    } finally {
+      ProparseSessionCache.clear();
+    }
+  }
+
+  @Test
+  public void testDiscardedSession() throws IOException {
+    File tmpDir = Files.createTempDirectory("session").toFile();
+    try {
+      File df = new File(tmpDir, "sp2k.df");
+      FileUtils.copyFile(new File(BASEDIR, DF1), df);
+      RefactorSession session = new RefactorSession(new ProparseSettings(""), new Schema(), StandardCharsets.UTF_8);
+      ProparseSessionCache.Entry entry = ProparseSessionCache.acquire("testDiscardedSession", () -> session,
+          Collections.singletonList(df));
+      session.getTokenTextPool().intern("foobar");
+      ProparseSessionCache.release(entry);
+      // Idle session is kept with its string pool
+      Assert.assertEquals(session.getTokenTextPool().size(), 1);
+
+      // Dump file modified, string pool of the idle session is released
+      Assert.assertTrue(df.setLastModified(df.lastModified() - 10000));
+      RefactorSession session2 = new RefactorSession(new ProparseSettings(""), new Schema(), StandardCharsets.UTF_8);
+      Assert.assertSame(ProparseSessionCache.acquire("testDiscardedSession", () -> session2,
+          Collections.singletonList(df)).getSession(), session2);
+      Assert.assertEquals(session.getTokenTextPool().size(), 0);
+    } finally {
+      ProparseSessionCache.clear();
+      FileUtils.deleteQuietly(tmpDir);
+    }
+  }
+
+  private static ITypeInfo parse(File f, AtomicInteger counter) {
+    counter.incrementAndGet();
+    try {
+      return new RCodeInfo(Files.newInputStream(f.toPath())).getTypeInfo();
+    } catch (IOException | RCodeInfo.InvalidRCodeException caught) {
+      throw new IllegalStateException(caught);
+    }
+  }
+
+  private static OpenEdgeSettings createSettings(File tmpDir, File df) throws IOException {
+    return createSettings(tmpDir, df, true);
+  }
+
+  private static OpenEdgeSettings createSettings(File tmpDir, File df, boolean skipRCode) throws IOException {
+    SensorContextTester context = TestProjectSensorContext.createContext();
+    context.settings().setProperty(Constants.SKIP_RCODE, skipRCode);
+    context.settings().setProperty(Constants.DATABASES, df.getAbsolutePath());
+    context.settings().setProperty(Constants.SCHEMA_CACHE, tmpDir.getAbsolutePath());
+    return new OpenEdgeSettings(context.config(), context.fileSystem());
+  }
+
+  private static OpenEdgeSettings createSettings(File tmpDir, File df, File binariesDir) throws IOException {
+    SensorContextTester context = TestProjectSensorContext.createContext();
+    context.settings().setProperty(Constants.SKIP_RCODE, false);
+    context.settings().setProperty(Constants.DATABASES, df.getAbsolutePath());
+    context.settings().setProperty(Constants.SCHEMA_CACHE, tmpDir.getAbsolutePath());
+    context.settings().setProperty(Constants.BINARIES, binariesDir.getAbsolutePath());
+    return new OpenEdgeSettings(context.config(), context.fileSystem());
+  }
+}
@@ -0,0 +1,116 @@
+/*
+ * OpenEdge plugin for SonarQube
+ * Copyright (c) 2015-2018 Riverside Software
+ * contact AT riverside DASH software DOT fr
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.openedge.foundation;
+
+import static org.sonar.plugins.openedge.utils.TestProjectSensorContext.BASEDIR;
+import static org.sonar.plugins.openedge.utils.TestProjectSensorContext.DF1;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.apache.commons.io.FileUtils;
+import org.prorefactor.refactor.RefactorSession;
+import org.sonar.api.batch.sensor.internal.SensorContextTester;
+import org.sonar.plugins.openedge.api.Constants;
+import org.sonar.plugins.openedge.utils.TestProjectSensorContext;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class SchemaSnapshotTest {
+
+  @Test
+  public void testSchemaSnapshots() throws IOException {
+    File tmpDir = Files.createTempDirectory("snapshot").toFile();
+    File df = new File(tmpDir, "sp2k.df");
+    // Snapshot name used by previous versions in SonarLint
+    File legacySnapshot = new File(BASEDIR,
+        ".sonarlint/" + df.getAbsolutePath().replace(':', '_').replace('\\', '_').replace('/', '_') + ".bin");
+    try {
+      FileUtils.copyFile(new File(BASEDIR, DF1), df);
+      FileUtils.touch(legacySnapshot);
+      File otherDb = new File(tmpDir, "schema-sp2k2-01234567-0123456789abcdef.bin");
+      FileUtils.touch(otherDb);
+      ProparseSessionCache.clear();
+
+      createSettings(tmpDir, df).getProparseSession(true);
+      File[] snapshots1 = tmpDir.listFiles((dir, name) -> name.startsWith("schema-sp2k-"));
+      Assert.assertEquals(snapshots1.length, 1);
+      Assert.assertFalse(legacySnapshot.exists());
+
+      // New version of the dump file, previous snapshot is deleted
+      FileUtils.write(df, "\n", StandardCharsets.UTF_8, true);
+      ProparseSessionCache.clear();
+      RefactorSession session = createSettings(tmpDir, df).getProparseSession(true);
+      Assert.assertNotNull(session.getSchema().lookupTable("customer"));
+      File[] snapshots2 = tmpDir.listFiles((dir, name) -> name.startsWith("schema-sp2k-"));
+      Assert.assertEquals(snapshots2.length, 1);
+      Assert.assertNotEquals(snapshots2[0].getName(), snapshots1[0].getName());
+      // Other databases are not impacted
+      Assert.assertTrue(otherDb.exists());
+    } finally {
+      ProparseSessionCache.clear();
+      FileUtils.deleteQuietly(legacySnapshot);
+      FileUtils.deleteQuietly(tmpDir);
+    }
+  }
+
+  @Test
+  public void testSharedCacheDirectory() throws IOException {
+    File tmpDir = Files.createTempDirectory("snapshot").toFile();
+    File cacheDir = new File(tmpDir, "cache");
+    // Two projects with the same logical database name, sharing the same cache directory
+    File df1 = new File(tmpDir, "project1/sp2k.df");
+    File df2 = new File(tmpDir, "project2/sp2k.df");
+    try {
+      FileUtils.copyFile(new File(BASEDIR, DF1), df1);
+      FileUtils.copyFile(new File(BASEDIR, DF1), df2);
+      FileUtils.write(df2, "\n", StandardCharsets.UTF_8, true);
+      ProparseSessionCache.clear();
+
+      createSettings(cacheDir, df1).getProparseSession(true);
+      createSettings(cacheDir, df2).getProparseSession(true);
+      File[] snapshots1 = cacheDir.listFiles((dir, name) -> name.startsWith("schema-sp2k-"));
+      Assert.assertEquals(snapshots1.length, 2);
+
+      // New version of the second dump file, snapshot of the first one is kept
+      FileUtils.write(df2, "\n", StandardCharsets.UTF_8, true);
+      ProparseSessionCache.clear();
+      createSettings(cacheDir, df2).getProparseSession(true);
+      File[] snapshots2 = cacheDir.listFiles((dir, name) -> name.startsWith("schema-sp2k-"));
+      Assert.assertEquals(snapshots2.length, 2);
+      ProparseSessionCache.clear();
+      Assert.assertNotNull(createSettings(cacheDir, df1).getProparseSession(true).getSchema().lookupTable("customer"));
+      Assert.assertEquals(cacheDir.listFiles((dir, name) -> name.startsWith("schema-sp2k-")).length, 2);
+    } finally {
+      ProparseSessionCache.clear();
+      FileUtils.deleteQuietly(tmpDir);
+    }
+  }
+
+  private static OpenEdgeSettings createSettings(File cacheDir, File df) throws IOException {
+    SensorContextTester context = TestProjectSensorContext.createContext();
+    context.settings().setProperty(Constants.SKIP_RCODE, true);
+    context.settings().setProperty(Constants.DATABASES, df.getAbsolutePath());
+    context.settings().setProperty(Constants.SCHEMA_CACHE, cacheDir.getAbsolutePath());
+    return new OpenEdgeSettings(context.config(), context.fileSystem());
+  }
+}
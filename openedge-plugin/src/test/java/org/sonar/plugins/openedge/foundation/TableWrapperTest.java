@@ -69,4 +69,17 @@ public class TableWrapperTest {
     Assert.assertNotNull(tbl2);
   }
 
+  @Test
+  public void testLookupField() throws IOException {
+    DatabaseDescription dbDesc = DumpFileUtils.getDatabaseDescription(new File("src/test/resources/project1/src/schema/sp2k.df"));
+    Schema sch = new Schema(new DatabaseWrapper(dbDesc));
+    ITable tbl = sch.lookupTable("customer");
+    Assert.assertEquals(tbl.lookupField("custnum").getName(), "CustNum");
+    Assert.assertEquals(tbl.lookupField("CUSTN").getName(), "CustNum");
+    Assert.assertEquals(tbl.lookupField("address").getName(), "Address");
+    Assert.assertEquals(tbl.lookupField("address2").getName(), "Address2");
+    Assert.assertEquals(tbl.lookupField("emailaddr").getName(), "EmailAddress");
+    Assert.assertNull(tbl.lookupField("xyz"));
+  }
+
 }
@@ -0,0 +1,123 @@
+/*
+ * OpenEdge plugin for SonarQube
+ * Copyright (c) 2015-2018 Riverside Software
+ * contact AT riverside DASH software DOT fr
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.openedge.sensor;
+
+import static org.sonar.plugins.openedge.utils.TestProjectSensorContext.BASEDIR;
+import static org.sonar.plugins.openedge.utils.TestProjectSensorContext.DF1;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.ParseTreeWalker;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import eu.rssw.antlr.database.DumpFileGrammarBaseListener;
+import eu.rssw.antlr.database.DumpFileGrammarParser.AddFieldContext;
+import eu.rssw.antlr.database.DumpFileGrammarParser.AddTableContext;
+import eu.rssw.antlr.database.DumpFileUtils;
+
+public class DumpFileListenerDispatcherTest {
+
+  @Test
+  public void testSingleWalk() throws Exception {
+    ParseTree tree = DumpFileUtils.getDumpFileParseTree(new File(BASEDIR, DF1));
+    CountListener expected = new CountListener();
+    ParseTreeWalker.DEFAULT.walk(expected, tree);
+    Assert.assertEquals(expected.tables, 25);
+
+    // Same events with and without time measurement
+    for (boolean measureTime : new boolean[] {false, true}) {
+      CountListener listener1 = new CountListener();
+      CountListener listener2 = new CountListener();
+      ParseTreeWalker.DEFAULT.walk(
+          new DumpFileListenerDispatcher(Arrays.asList(listener1, listener2), measureTime), tree);
+      for (CountListener listener : new CountListener[] {listener1, listener2}) {
+        Assert.assertEquals(listener.tables, expected.tables);
+        Assert.assertEquals(listener.fields, expected.fields);
+        Assert.assertEquals(listener.rules, expected.rules);
+        Assert.assertEquals(listener.depth, 0);
+      }
+    }
+  }
+
+  @Test
+  public void testElapsedTime() throws Exception {
+    ParseTree tree = DumpFileUtils.getDumpFileParseTree(new File(BASEDIR, DF1));
+    CountListener fastListener = new CountListener();
+    CountListener slowListener = new CountListener() {
+      @Override
+      public void enterAddTable(AddTableContext ctx) {
+        super.enterAddTable(ctx);
+        try {
+          Thread.sleep(2);
+        } catch (InterruptedException caught) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    };
+    DumpFileListenerDispatcher dispatcher = new DumpFileListenerDispatcher(Arrays.asList(fastListener, slowListener),
+        true);
+    ParseTreeWalker.DEFAULT.walk(dispatcher, tree);
+
+    // Time is measured per listener: 25 tables * 2 ms only in the second one
+    Assert.assertTrue(dispatcher.getElapsedTime(1) >= TimeUnit.MILLISECONDS.toNanos(50));
+    Assert.assertTrue(dispatcher.getElapsedTime(0) > 0);
+    Assert.assertTrue(dispatcher.getElapsedTime(0) < dispatcher.getElapsedTime(1));
+
+    // Not measured by default
+    DumpFileListenerDispatcher dispatcher2 = new DumpFileListenerDispatcher(Arrays.asList(new CountListener()), false);
+    ParseTreeWalker.DEFAULT.walk(dispatcher2, tree);
+    Assert.assertEquals(dispatcher2.getElapsedTime(0), 0L);
+  }
+
+  private static class CountListener extends DumpFileGrammarBaseListener {
+    private int tables;
+    private int fields;
+    private int rules;
+    private int depth;
+
+    @Override
+    public void enterAddTable(AddTableContext ctx) {
+      tables++;
+    }
+
+    @Override
+    public void enterAddField(AddFieldContext ctx) {
+      // Enclosing rules have already been entered
+      Assert.assertTrue(depth > 0);
+      fields++;
+    }
+
+    @Override
+    public void enterEveryRule(ParserRuleContext ctx) {
+      rules++;
+      depth++;
+    }
+
+    @Override
+    public void exitEveryRule(ParserRuleContext ctx) {
+      depth--;
+    }
+  }
+}
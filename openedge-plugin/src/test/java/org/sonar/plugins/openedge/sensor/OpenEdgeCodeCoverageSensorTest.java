@@ -0,0 +1,67 @@
+/*
+ * OpenEdge plugin for SonarQube
+ * Copyright (c) 2015-2018 Riverside Software
+ * contact AT riverside DASH software DOT fr
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.openedge.sensor;
+
+import java.io.IOException;
+
+import org.sonar.api.batch.sensor.internal.SensorContextTester;
+import org.sonar.api.config.internal.MapSettings;
+import org.sonar.plugins.openedge.api.Constants;
+import org.sonar.plugins.openedge.foundation.OpenEdgeSettings;
+import org.sonar.plugins.openedge.utils.TestProjectSensorContext;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class OpenEdgeCodeCoverageSensorTest {
+  private static final String FILE3 = TestProjectSensorContext.BASEDIR + ":" + TestProjectSensorContext.FILE3;
+  private static final String CLASS1 = TestProjectSensorContext.BASEDIR + ":" + TestProjectSensorContext.CLASS1;
+
+  @Test
+  public void testCoverage() throws IOException {
+    SensorContextTester context = TestProjectSensorContext.createContext();
+    MapSettings settings = new MapSettings(context.settings().getDefinitions());
+    settings.addProperties(context.settings().getProperties());
+    settings.setProperty(Constants.COVERAGE_PROFILER_DIRS, "profiler");
+    context.setSettings(settings);
+    OpenEdgeSettings oeSettings = new OpenEdgeSettings(context.config(), context.fileSystem());
+    OpenEdgeCodeCoverageSensor sensor = new OpenEdgeCodeCoverageSensor(oeSettings);
+    sensor.execute(context);
+
+    // Both shards merged on test3.p
+    Assert.assertEquals(context.lineHits(FILE3, 1).intValue(), 1);
+    Assert.assertEquals(context.lineHits(FILE3, 2).intValue(), 1);
+    Assert.assertEquals(context.lineHits(FILE3, 3).intValue(), 1);
+    Assert.assertEquals(context.lineHits(FILE3, 4).intValue(), 0);
+    Assert.assertNull(context.lineHits(FILE3, 5));
+    Assert.assertEquals(context.lineHits(FILE3, 10).intValue(), 1);
+    // Class name resolved to file
+    Assert.assertEquals(context.lineHits(CLASS1, 4).intValue(), 1);
+    Assert.assertEquals(context.lineHits(CLASS1, 8).intValue(), 0);
+  }
+
+  @Test
+  public void testNoProperty() throws IOException {
+    SensorContextTester context = TestProjectSensorContext.createContext();
+    OpenEdgeSettings oeSettings = new OpenEdgeSettings(context.config(), context.fileSystem());
+    OpenEdgeCodeCoverageSensor sensor = new OpenEdgeCodeCoverageSensor(oeSettings);
+    sensor.execute(context);
+    Assert.assertNull(context.lineHits(FILE3, 1));
+  }
+}
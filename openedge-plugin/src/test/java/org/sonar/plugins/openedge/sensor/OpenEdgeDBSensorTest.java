@@ -24,6 +24,7 @@ import static org.sonar.plugins.openedge.utils.TestProjectSensorContext.DF1;
 
 import org.sonar.api.batch.sensor.internal.SensorContextTester;
 import org.sonar.plugins.openedge.foundation.OpenEdgeMetrics;
+import org.sonar.plugins.openedge.foundation.OpenEdgeSettings;
 import org.sonar.plugins.openedge.utils.TestProjectSensorContext;
 import org.testng.Assert;
 import org.testng.annotations.Test;
@@ -33,7 +34,8 @@ public class OpenEdgeDBSensorTest {
   @Test
   public void testSp2k() throws Exception {
     SensorContextTester context = TestProjectSensorContext.createContext();
-    OpenEdgeDBSensor sensor = new OpenEdgeDBSensor();
+    OpenEdgeSettings settings = new OpenEdgeSettings(context.config(), context.fileSystem());
+    OpenEdgeDBSensor sensor = new OpenEdgeDBSensor(settings);
     sensor.execute(context);
 
     Assert.assertEquals(context.measure(BASEDIR + ":" + DF1, OpenEdgeMetrics.NUM_TABLES_KEY).value(), 25,
@@ -0,0 +1,62 @@
+/*
+ * OpenEdge plugin for SonarQube
+ * Copyright (c) 2015-2018 Riverside Software
+ * contact AT riverside DASH software DOT fr
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.openedge.sensor;
+
+import java.io.IOException;
+
+import org.sonar.api.batch.sensor.internal.SensorContextTester;
+import org.sonar.api.config.internal.MapSettings;
+import org.sonar.plugins.openedge.api.Constants;
+import org.sonar.plugins.openedge.foundation.OpenEdgeMetrics;
+import org.sonar.plugins.openedge.foundation.OpenEdgeSettings;
+import org.sonar.plugins.openedge.utils.TestProjectSensorContext;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class OpenEdgeProfilerSensorTest {
+  private static final String FILE3 = TestProjectSensorContext.BASEDIR + ":" + TestProjectSensorContext.FILE3;
+  private static final String CLASS1 = TestProjectSensorContext.BASEDIR + ":" + TestProjectSensorContext.CLASS1;
+
+  @Test
+  public void testMetrics() throws IOException {
+    SensorContextTester context = TestProjectSensorContext.createContext();
+    MapSettings settings = new MapSettings(context.settings().getDefinitions());
+    settings.addProperties(context.settings().getProperties());
+    settings.setProperty(Constants.PROFILER_DIRS, "perf");
+    context.setSettings(settings);
+    OpenEdgeSettings oeSettings = new OpenEdgeSettings(context.config(), context.fileSystem());
+    new OpenEdgeProfilerSensor(oeSettings).execute(context);
+
+    Assert.assertEquals(context.measure(FILE3, OpenEdgeMetrics.PROFILER_TIME).value().longValue(), 1002L);
+    Assert.assertEquals(context.measure(FILE3, OpenEdgeMetrics.PROFILER_EXEC_COUNT).value().intValue(), 42);
+    Assert.assertEquals(context.measure(FILE3, OpenEdgeMetrics.PROFILER_HOT_LINES).value(),
+        "12=20,900;13=20,45;5=1,40;6=1,2");
+    Assert.assertEquals(context.measure(FILE3, OpenEdgeMetrics.PROFILER_ROUTINES).value(), "foo=20,950;main=1,52");
+    Assert.assertEquals(context.measure(CLASS1, OpenEdgeMetrics.PROFILER_TIME).value().longValue(), 250L);
+  }
+
+  @Test
+  public void testNoProperty() throws IOException {
+    SensorContextTester context = TestProjectSensorContext.createContext();
+    OpenEdgeSettings oeSettings = new OpenEdgeSettings(context.config(), context.fileSystem());
+    new OpenEdgeProfilerSensor(oeSettings).execute(context);
+    Assert.assertNull(context.measure(FILE3, OpenEdgeMetrics.PROFILER_TIME));
+  }
+}
@@ -94,6 +94,23 @@ public class OpenEdgeProparseSensorTest {
         "Wrong number of transactions");
   }
 
+  @SuppressWarnings("deprecation")
+  @Test
+  public void testANTLR4Parser() throws Exception {
+    SensorContextTester context = TestProjectSensorContext.createContext();
+    context.settings().setProperty(Constants.ANTLR4_PARSER, true);
+    OpenEdgeSettings oeSettings = new OpenEdgeSettings(context.config(), context.fileSystem());
+    OpenEdgeComponents components = new OpenEdgeComponents(null, null);
+    OpenEdgeProparseSensor sensor = new OpenEdgeProparseSensor(oeSettings, components);
+    sensor.execute(context);
+
+    // Same results as ProParser
+    assertEquals(context.measure(BASEDIR + ":" + FILE1, OpenEdgeMetrics.NUM_TRANSACTIONS_KEY).value(), 1,
+        "Wrong number of transactions");
+    assertNotNull(context.cpdTokens(BASEDIR + ":" + FILE3));
+    assertNotNull(context.cpdTokens(BASEDIR + ":" + CLASS1));
+  }
+
   @SuppressWarnings("deprecation")
   @Test
   public void testPreprocessorSettings01() throws Exception {
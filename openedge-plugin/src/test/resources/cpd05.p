@@ -0,0 +1,3 @@
+define variable xx as integer no-undo.
+xx = xx + 1.
+if xx > 2 then message xx.
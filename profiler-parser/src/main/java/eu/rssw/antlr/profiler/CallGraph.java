@@ -0,0 +1,272 @@
+/*
+ * OpenEdge plugin for SonarQube
+ * Copyright (c) 2015-2018 Riverside Software
+ * contact AT riverside DASH software DOT fr
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package eu.rssw.antlr.profiler;
+
+import java.util.Arrays;
+
+/**
+ * Call tree of a profiler session, stored as a sparse graph. Edges are appended to flat arrays while the profiler output
+ * is read, then {@link #freeze() frozen} into compressed sparse row arrays (one for callees, one for callers), so that
+ * memory usage is proportional to the number of distinct edges and not to the square of the number of modules.
+ * Multiple calls between the same pair of modules (from different lines of the caller) are summed.
+ */
+public class CallGraph {
+  private static final int[] EMPTY = new int[0];
+
+  // Build phase
+  private int[] edgeCallers = new int[64];
+  private int[] edgeCallees = new int[64];
+  private int[] edgeCounts = new int[64];
+  private int numEdges;
+  private boolean frozen;
+
+  // Frozen state. Row i of callees is calleeIds[calleeRows[i]..calleeRows[i+1]-1], sorted by module ID
+  private int[] calleeRows = EMPTY;
+  private int[] calleeIds = EMPTY;
+  private int[] calleeCounts = EMPTY;
+  private int[] callerRows = EMPTY;
+  private int[] callerIds = EMPTY;
+  private int[] callerCounts = EMPTY;
+
+  @FunctionalInterface
+  public interface EdgeConsumer {
+    /**
+     * @param moduleId Caller or callee module ID
+     * @param count Number of calls
+     */
+    void accept(int moduleId, int count);
+  }
+
+  public void addCall(int callerId, int calleeId, int count) {
+    if (frozen)
+      throw new IllegalStateException("Call graph already frozen");
+    if ((callerId < 0) || (calleeId < 0))
+      throw new IllegalArgumentException("Invalid module ID: " + callerId + " -> " + calleeId);
+    if (numEdges == edgeCallers.length) {
+      int newSize = numEdges << 1;
+      edgeCallers = Arrays.copyOf(edgeCallers, newSize);
+      edgeCallees = Arrays.copyOf(edgeCallees, newSize);
+      edgeCounts = Arrays.copyOf(edgeCounts, newSize);
+    }
+    edgeCallers[numEdges] = callerId;
+    edgeCallees[numEdges] = calleeId;
+    edgeCounts[numEdges++] = count;
+  }
+
+  public boolean isFrozen() {
+    return frozen;
+  }
+
+  /**
+   * Builds CSR arrays and releases edge lists. No more calls can be added after this method has been executed.
+   */
+  public void freeze() {
+    if (frozen)
+      return;
+    int maxId = -1;
+    for (int zz = 0; zz < numEdges; zz++) {
+      maxId = Math.max(maxId, Math.max(edgeCallers[zz], edgeCallees[zz]));
+    }
+
+    // Sort edges by caller (counting sort), then by callee within each row, and merge duplicates
+    int[] rows = new int[maxId + 2];
+    int[] ids = new int[numEdges];
+    int[] counts = new int[numEdges];
+    bucket(edgeCallers, edgeCallees, edgeCounts, numEdges, rows, ids, counts);
+    int distinct = mergeRows(rows, ids, counts);
+    calleeRows = rows;
+    calleeIds = Arrays.copyOf(ids, distinct);
+    calleeCounts = Arrays.copyOf(counts, distinct);
+
+    // Transpose: rows sorted by callee, built from the merged callee rows so callers are already sorted in each row
+    int[] sources = new int[distinct];
+    for (int row = 0; row < calleeRows.length - 1; row++) {
+      Arrays.fill(sources, calleeRows[row], calleeRows[row + 1], row);
+    }
+    callerRows = new int[maxId + 2];
+    callerIds = new int[distinct];
+    callerCounts = new int[distinct];
+    bucket(calleeIds, sources, calleeCounts, distinct, callerRows, callerIds, callerCounts);
+
+    edgeCallers = EMPTY;
+    edgeCallees = EMPTY;
+    edgeCounts = EMPTY;
+    numEdges = 0;
+    frozen = true;
+  }
+
+  /**
+   * Number of distinct (caller, callee) pairs
+   */
+  public int getEdgeCount() {
+    checkFrozen();
+    return calleeIds.length;
+  }
+
+  /**
+   * Highest module ID referenced in the call graph, or -1 if empty
+   */
+  public int getHighestModuleId() {
+    checkFrozen();
+    return calleeRows.length - 2;
+  }
+
+  /**
+   * Number of calls from callerId to calleeId
+   */
+  public int getCallCount(int callerId, int calleeId) {
+    checkFrozen();
+    if ((callerId < 0) || (callerId >= calleeRows.length - 1))
+      return 0;
+    int pos = Arrays.binarySearch(calleeIds, calleeRows[callerId], calleeRows[callerId + 1], calleeId);
+    return pos < 0 ? 0 : calleeCounts[pos];
+  }
+
+  /**
+   * Iterates over modules called by callerId, in increasing module ID order
+   */
+  public void forEachCallee(int callerId, EdgeConsumer consumer) {
+    checkFrozen();
+    forEach(calleeRows, calleeIds, calleeCounts, callerId, consumer);
+  }
+
+  /**
+   * Iterates over modules calling calleeId, in increasing module ID order
+   */
+  public void forEachCaller(int calleeId, EdgeConsumer consumer) {
+    checkFrozen();
+    forEach(callerRows, callerIds, callerCounts, calleeId, consumer);
+  }
+
+  public int getCalleeCount(int callerId) {
+    checkFrozen();
+    return rowLength(calleeRows, callerId);
+  }
+
+  public int getCallerCount(int calleeId) {
+    checkFrozen();
+    return rowLength(callerRows, calleeId);
+  }
+
+  /**
+   * Total number of calls made by callerId
+   */
+  public long getOutgoingCalls(int callerId) {
+    checkFrozen();
+    return sum(calleeRows, calleeCounts, callerId);
+  }
+
+  /**
+   * Total number of calls received by calleeId
+   */
+  public long getIncomingCalls(int calleeId) {
+    checkFrozen();
+    return sum(callerRows, callerCounts, calleeId);
+  }
+
+  private void checkFrozen() {
+    if (!frozen)
+      throw new IllegalStateException("Call graph not frozen");
+  }
+
+  /**
+   * Distributes edges (src[i], dest[i], count[i]) in rows indexed by src. Order of edges in a row is the input order.
+   */
+  private static void bucket(int[] src, int[] dest, int[] count, int size, int[] rows, int[] outIds,
+      int[] outCounts) {
+    for (int zz = 0; zz < size; zz++) {
+      rows[src[zz] + 1]++;
+    }
+    for (int zz = 1; zz < rows.length; zz++) {
+      rows[zz] += rows[zz - 1];
+    }
+    int[] next = Arrays.copyOf(rows, rows.length - 1);
+    for (int zz = 0; zz < size; zz++) {
+      int pos = next[src[zz]]++;
+      outIds[pos] = dest[zz];
+      outCounts[pos] = count[zz];
+    }
+  }
+
+  /**
+   * Sorts each row by ID, merges duplicate IDs and compacts arrays. Returns the number of remaining elements.
+   */
+  private static int mergeRows(int[] rows, int[] ids, int[] counts) {
+    int out = 0;
+    for (int row = 0; row < rows.length - 1; row++) {
+      int start = rows[row];
+      int end = rows[row + 1];
+      sortRow(ids, counts, start, end);
+      rows[row] = out;
+      for (int zz = start; zz < end; zz++) {
+        if ((out > rows[row]) && (ids[out - 1] == ids[zz])) {
+          counts[out - 1] += counts[zz];
+        } else {
+          ids[out] = ids[zz];
+          counts[out++] = counts[zz];
+        }
+      }
+    }
+    rows[rows.length - 1] = out;
+    return out;
+  }
+
+  /**
+   * Insertion sort, rows are usually very short
+   */
+  private static void sortRow(int[] ids, int[] counts, int start, int end) {
+    for (int zz = start + 1; zz < end; zz++) {
+      int id = ids[zz];
+      int count = counts[zz];
+      int yy = zz - 1;
+      while ((yy >= start) && (ids[yy] > id)) {
+        ids[yy + 1] = ids[yy];
+        counts[yy + 1] = counts[yy];
+        yy--;
+      }
+      ids[yy + 1] = id;
+      counts[yy + 1] = count;
+    }
+  }
+
+  private static void forEach(int[] rows, int[] ids, int[] counts, int row, EdgeConsumer consumer) {
+    if ((row < 0) || (row >= rows.length - 1))
+      return;
+    for (int zz = rows[row]; zz < rows[row + 1]; zz++) {
+      consumer.accept(ids[zz], counts[zz]);
+    }
+  }
+
+  private static int rowLength(int[] rows, int row) {
+    if ((row < 0) || (row >= rows.length - 1))
+      return 0;
+    return rows[row + 1] - rows[row];
+  }
+
+  private static long sum(int[] rows, int[] counts, int row) {
+    long total = 0;
+    if ((row < 0) || (row >= rows.length - 1))
+      return total;
+    for (int zz = rows[row]; zz < rows[row + 1]; zz++) {
+      total += counts[zz];
+    }
+    return total;
+  }
+}
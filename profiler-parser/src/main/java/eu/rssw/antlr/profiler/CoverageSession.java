@@ -19,46 +19,43 @@
  */
 package eu.rssw.antlr.profiler;
 
-import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 public class CoverageSession {
-  // Collection of files being covered
-  private final Collection<FileCoverage> files = new ArrayList<>();
-  
+  // Files being covered, indexed by file name
+  private final Map<String, FileCoverage> files = new LinkedHashMap<>();
+
   public void addCoverage(Module module) {
-    FileCoverage file = getFile(module.getModuleObject());
-    if (file == null) {
-      file = new FileCoverage(module.getModuleObject());
-      files.add(file);
+    FileCoverage file = getOrCreateFile(module.getModuleObject());
+    for (LineData line : module.getLineData()) {
+      if (line.getExecCount() > 0)
+        file.addCoveredLine(line.getLineNumber());
+      else
+        file.addLineToCover(line.getLineNumber());
     }
-    file.addLinesToCover(module.getLinesToCover());
-    file.addCoveredLines(module.getCoveredLines());
   }
 
   public Collection<FileCoverage> getFiles() {
-    return files;
+    return files.values();
+  }
+
+  /**
+   * @return Null if file is not in this session
+   */
+  public FileCoverage getFile(String name) {
+    return files.get(name);
   }
 
   public void mergeWith(CoverageSession session) {
     for (FileCoverage f : session.getFiles()) {
-      FileCoverage file = getFile(f.getFileName()); 
-      if (file == null) {
-        file = new FileCoverage(f.getFileName());
-        files.add(file);
-      }
-      file.addLinesToCover(f.getLinesToCover());
-      file.addCoveredLines(f.getCoveredLines());
+      getOrCreateFile(f.getFileName()).mergeWith(f);
     }
   }
 
-  private FileCoverage getFile(String name) {
-    for (FileCoverage file : files) {
-      if (file.getFileName().equals(name))
-        return file;
-    }
-
-    return null;
+  private FileCoverage getOrCreateFile(String name) {
+    return files.computeIfAbsent(name, FileCoverage::new);
   }
 
 }
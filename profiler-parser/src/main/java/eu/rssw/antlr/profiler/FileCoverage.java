@@ -19,26 +19,58 @@
  */
 package eu.rssw.antlr.profiler;
 
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
 
+/**
+ * Line coverage of one file. Line numbers are stored in bit sets, so that merging coverage from many sessions is a
+ * simple OR operation.
+ */
 public class FileCoverage {
-  private String fileName;
-  private SortedSet<Integer> linesToCover = new TreeSet<>();
-  private SortedSet<Integer> coveredLines = new TreeSet<>();
+  private final String fileName;
+  private final BitSet linesToCover = new BitSet();
+  private final BitSet coveredLines = new BitSet();
 
   public FileCoverage(String fileName) {
     this.fileName = fileName;
   }
 
   public void addLinesToCover(Collection<Integer> linesToCover) {
-    this.linesToCover.addAll(linesToCover);
+    for (Integer line : linesToCover) {
+      addLineToCover(line);
+    }
   }
 
   public void addCoveredLines(Collection<Integer> coveredLines) {
-    this.coveredLines.addAll(coveredLines);
+    for (Integer line : coveredLines) {
+      addCoveredLine(line);
+    }
+  }
+
+  public void addLineToCover(int lineNumber) {
+    if (lineNumber > 0)
+      linesToCover.set(lineNumber);
+  }
+
+  /**
+   * Line is also marked as line to cover
+   */
+  public void addCoveredLine(int lineNumber) {
+    if (lineNumber > 0) {
+      linesToCover.set(lineNumber);
+      coveredLines.set(lineNumber);
+    }
+  }
+
+  /**
+   * Adds lines from another FileCoverage object to this one
+   */
+  public void mergeWith(FileCoverage file) {
+    linesToCover.or(file.linesToCover);
+    coveredLines.or(file.coveredLines);
   }
 
   /**
@@ -51,15 +83,65 @@ public class FileCoverage {
 
   /**
    * Executable line numbers in the given file
+   * 
+   * @return A new set on each call
+   * @deprecated Use {@link #getSortedLinesToCover()}, as updating this set doesn't modify this object anymore
    */
+  @Deprecated
   public Set<Integer> getLinesToCover() {
-    return linesToCover;
+    return getSortedLinesToCover();
+  }
+
+  /**
+   * Executable line numbers in the given file
+   * 
+   * @return A new set on each call
+   */
+  public SortedSet<Integer> getSortedLinesToCover() {
+    return toSet(linesToCover);
   }
 
   /**
    * Lines which have been executed in the given file
+   * 
+   * @return A new set on each call
+   * @deprecated Use {@link #getSortedCoveredLines()}, as updating this set doesn't modify this object anymore
    */
+  @Deprecated
   public Set<Integer> getCoveredLines() {
-    return coveredLines;
+    return getSortedCoveredLines();
+  }
+
+  /**
+   * Lines which have been executed in the given file
+   * 
+   * @return A new set on each call
+   */
+  public SortedSet<Integer> getSortedCoveredLines() {
+    return toSet(coveredLines);
+  }
+
+  public boolean isLineToCover(int lineNumber) {
+    return (lineNumber > 0) && linesToCover.get(lineNumber);
+  }
+
+  public boolean isCovered(int lineNumber) {
+    return (lineNumber > 0) && coveredLines.get(lineNumber);
+  }
+
+  public int getLinesToCoverCount() {
+    return linesToCover.cardinality();
+  }
+
+  public int getCoveredLinesCount() {
+    return coveredLines.cardinality();
+  }
+
+  private static SortedSet<Integer> toSet(BitSet bits) {
+    SortedSet<Integer> set = new TreeSet<>();
+    for (int zz = bits.nextSetBit(0); zz >= 0; zz = bits.nextSetBit(zz + 1)) {
+      set.add(zz);
+    }
+    return set;
   }
 }
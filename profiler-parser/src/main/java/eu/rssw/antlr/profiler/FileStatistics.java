@@ -0,0 +1,179 @@
+/*
+ * OpenEdge plugin for SonarQube
+ * Copyright (c) 2015-2018 Riverside Software
+ * contact AT riverside DASH software DOT fr
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package eu.rssw.antlr.profiler;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Execution statistics of one file, aggregated over any number of profiler sessions. Per-line data is kept in
+ * primitive arrays indexed by line number, so memory usage only depends on the size of the file.
+ */
+public class FileStatistics {
+  private final String fileName;
+  private final Map<String, RoutineStatistics> routines = new LinkedHashMap<>();
+  private long[] execCount = new long[16];
+  private double[] actualTime = new double[16];
+  private int maxLine;
+  private double totalTime;
+
+  public FileStatistics(String fileName) {
+    this.fileName = fileName;
+  }
+
+  /**
+   * File name, as written in the profiler output
+   */
+  public String getFileName() {
+    return fileName;
+  }
+
+  /**
+   * Total time spent in this file, in seconds
+   */
+  public double getTotalTime() {
+    return totalTime;
+  }
+
+  /**
+   * Number of executed lines (a line executed 10 times counts for 10)
+   */
+  public long getTotalExecCount() {
+    long total = 0;
+    for (int zz = 1; zz <= maxLine; zz++) {
+      total += execCount[zz];
+    }
+    return total;
+  }
+
+  /**
+   * Highest line number with statistics, or 0
+   */
+  public int getMaxLine() {
+    return maxLine;
+  }
+
+  public long getExecCount(int line) {
+    return (line > 0) && (line <= maxLine) ? execCount[line] : 0;
+  }
+
+  /**
+   * Time spent on this line, in seconds
+   */
+  public double getTime(int line) {
+    return (line > 0) && (line <= maxLine) ? actualTime[line] : 0;
+  }
+
+  /**
+   * Internal procedures, functions and methods of this file. Main block is returned with an empty name.
+   */
+  public Collection<RoutineStatistics> getRoutines() {
+    return routines.values();
+  }
+
+  /**
+   * @return Null if routine was never executed
+   */
+  public RoutineStatistics getRoutine(String name) {
+    return routines.get(name);
+  }
+
+  /**
+   * Returns line numbers of the num most time-consuming lines, most expensive first. Lines with the same time are
+   * sorted by line number.
+   */
+  public int[] getHotLines(int num) {
+    int[] lines = new int[Math.min(num, maxLine)];
+    int size = 0;
+    for (int line = 1; line <= maxLine; line++) {
+      if (execCount[line] == 0 && actualTime[line] == 0)
+        continue;
+      // Insertion in a bounded array, sorted by decreasing time
+      int pos = size;
+      while ((pos > 0) && (actualTime[lines[pos - 1]] < actualTime[line])) {
+        pos--;
+      }
+      if (pos < lines.length) {
+        int last = Math.min(size, lines.length - 1);
+        System.arraycopy(lines, pos, lines, pos + 1, last - pos);
+        lines[pos] = line;
+        if (size < lines.length)
+          size++;
+      }
+    }
+    return Arrays.copyOf(lines, size);
+  }
+
+  void addLine(int line, long count, double time) {
+    totalTime += time;
+    if (line <= 0)
+      return;
+    if (line >= execCount.length) {
+      int newSize = Math.max(line + 1, execCount.length << 1);
+      execCount = Arrays.copyOf(execCount, newSize);
+      actualTime = Arrays.copyOf(actualTime, newSize);
+    }
+    execCount[line] += count;
+    actualTime[line] += time;
+    maxLine = Math.max(maxLine, line);
+  }
+
+  RoutineStatistics getOrCreateRoutine(String name) {
+    return routines.computeIfAbsent(name, RoutineStatistics::new);
+  }
+
+  /**
+   * Aggregated data of one internal procedure, function or method
+   */
+  public static class RoutineStatistics {
+    private final String name;
+    private long calls;
+    private double time;
+
+    RoutineStatistics(String name) {
+      this.name = name;
+    }
+
+    /**
+     * Empty string for main block
+     */
+    public String getName() {
+      return name;
+    }
+
+    public long getCalls() {
+      return calls;
+    }
+
+    /**
+     * Time spent in this routine, in seconds, excluding called routines
+     */
+    public double getTime() {
+      return time;
+    }
+
+    void add(long calls, double time) {
+      this.calls += calls;
+      this.time += time;
+    }
+  }
+}
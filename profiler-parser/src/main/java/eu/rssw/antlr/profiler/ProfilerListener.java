@@ -0,0 +1,80 @@
+/*
+ * OpenEdge plugin for SonarQube
+ * Copyright (c) 2015-2018 Riverside Software
+ * contact AT riverside DASH software DOT fr
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package eu.rssw.antlr.profiler;
+
+import eu.rssw.antlr.profiler.ProfilerReader.Section;
+
+/**
+ * Receives data from {@link ProfilerReader}, one callback per line of profiler output. All methods are no-op by
+ * default, so that implementations only have to override the sections they are interested in.
+ */
+public interface ProfilerListener {
+
+  /**
+   * Called before reading each section
+   * 
+   * @return False if section has to be skipped, in which case no callback is executed for this section
+   */
+  default boolean startSection(Section section) {
+    return true;
+  }
+
+  /**
+   * Called after each section, even if skipped
+   */
+  default void endSection(Section section) {
+    // No-op
+  }
+
+  default void description(String description, String date, String time, String user) {
+    // No-op
+  }
+
+  default void moduleData(int id, String name, String debugListingFile, int crc) {
+    // No-op
+  }
+
+  default void callTreeData(int callerId, int callerLineNum, int calleeId, int callCount) {
+    // No-op
+  }
+
+  default void lineSummary(int moduleId, int lineNumber, int execCount, float actualTime, float cumulativeTime) {
+    // No-op
+  }
+
+  default void tracingData(int moduleId, int lineNumber, float execTime, float timestamp) {
+    // No-op
+  }
+
+  /**
+   * Start of coverage data for one module, followed by {@link #coverageLine(int)} calls
+   */
+  default void coverageSection(int moduleId, String name, int lineCount) {
+    // No-op
+  }
+
+  default void coverageLine(int lineNumber) {
+    // No-op
+  }
+
+  default void userData(String time, String data) {
+    // No-op
+  }
+}
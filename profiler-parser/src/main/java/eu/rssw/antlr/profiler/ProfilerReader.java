@@ -0,0 +1,352 @@
+/*
+ * OpenEdge plugin for SonarQube
+ * Copyright (c) 2015-2018 Riverside Software
+ * contact AT riverside DASH software DOT fr
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package eu.rssw.antlr.profiler;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Streaming reader of profiler output files. Lines are parsed directly from the byte stream into primitive values,
+ * and sent to a {@link ProfilerListener}, so that memory usage doesn't depend on the size of the file. Sections
+ * rejected by the listener are skipped without being parsed.
+ */
+public class ProfilerReader {
+  private static final int BUFFER_SIZE = 65536;
+  private static final double[] POWERS_OF_TEN = {
+      1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18};
+
+  public enum Section {
+    DESCRIPTION, MODULE_DATA, CALL_TREE_DATA, LINE_SUMMARY, TRACING_DATA, COVERAGE_DATA, USER_DATA;
+  }
+
+  private final InputStream input;
+  private final byte[] buffer = new byte[BUFFER_SIZE];
+  private int pos;
+  private int limit;
+  private int line = 1;
+  // Content of quoted strings
+  private byte[] text = new byte[256];
+
+  public ProfilerReader(InputStream input) {
+    this.input = input;
+  }
+
+  /**
+   * Reads all sections from the input stream. Stream is not closed.
+   * 
+   * @throws IOException If stream can't be read or is not a valid profiler output
+   */
+  public void read(ProfilerListener listener) throws IOException {
+    for (Section section : Section.values()) {
+      if (listener.startSection(section)) {
+        readSection(section, listener);
+      } else {
+        skipSection(section);
+      }
+      listener.endSection(section);
+    }
+  }
+
+  private void readSection(Section section, ProfilerListener listener) throws IOException {
+    switch (section) {
+      case DESCRIPTION:
+        readDescription(listener);
+        break;
+      case MODULE_DATA:
+        while (!endOfSection()) {
+          readModuleData(listener);
+        }
+        break;
+      case CALL_TREE_DATA:
+        while (!endOfSection()) {
+          readCallTreeData(listener);
+        }
+        break;
+      case LINE_SUMMARY:
+        while (!endOfSection()) {
+          readLineSummary(listener);
+        }
+        break;
+      case TRACING_DATA:
+        while (!endOfSection()) {
+          readTracingData(listener);
+        }
+        break;
+      case COVERAGE_DATA:
+        while (!endOfSection()) {
+          readCoverageSection(listener);
+        }
+        break;
+      case USER_DATA:
+        while (!endOfSection()) {
+          readUserData(listener);
+        }
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown section " + section);
+    }
+  }
+
+  private void readDescription(ProfilerListener listener) throws IOException {
+    // Version number
+    readInt();
+    String date = readWord();
+    String description = readString();
+    String time = readWord();
+    listener.description(description, date, time, readString());
+    endLine();
+    expectEndOfSection();
+  }
+
+  private void readModuleData(ProfilerListener listener) throws IOException {
+    int id = readInt();
+    String name = readString();
+    String listingFile = readString();
+    listener.moduleData(id, name, listingFile, readInt());
+    // Additional columns since 11.7.4
+    endLine();
+  }
+
+  private void readCallTreeData(ProfilerListener listener) throws IOException {
+    int callerId = readInt();
+    int callerLineNum = readInt();
+    int calleeId = readInt();
+    listener.callTreeData(callerId, callerLineNum, calleeId, readInt());
+    endLine();
+  }
+
+  private void readLineSummary(ProfilerListener listener) throws IOException {
+    int moduleId = readInt();
+    int lineNumber = readInt();
+    int execCount = readInt();
+    float actualTime = readFloat();
+    listener.lineSummary(moduleId, lineNumber, execCount, actualTime, readFloat());
+    endLine();
+  }
+
+  private void readTracingData(ProfilerListener listener) throws IOException {
+    int moduleId = readInt();
+    int lineNumber = readInt();
+    float execTime = readFloat();
+    listener.tracingData(moduleId, lineNumber, execTime, readFloat());
+    endLine();
+  }
+
+  private void readCoverageSection(ProfilerListener listener) throws IOException {
+    int moduleId = readInt();
+    String name = readString();
+    listener.coverageSection(moduleId, name, readInt());
+    endLine();
+    while (!endOfSection()) {
+      listener.coverageLine(readInt());
+      endLine();
+    }
+  }
+
+  private void readUserData(ProfilerListener listener) throws IOException {
+    String time = readWord();
+    listener.userData(time, readString());
+    endLine();
+  }
+
+  private void skipSection(Section section) throws IOException {
+    if (section == Section.DESCRIPTION) {
+      endLine();
+      expectEndOfSection();
+    } else if (section == Section.COVERAGE_DATA) {
+      // Each module has its own terminating line
+      while (!endOfSection()) {
+        skipLines();
+      }
+    } else {
+      skipLines();
+    }
+  }
+
+  /**
+   * Skips lines up to and including the next end of section
+   */
+  private void skipLines() throws IOException {
+    while (!endOfSection()) {
+      endLine();
+    }
+  }
+
+  /**
+   * Skips blank lines, then consumes the end of section line if available
+   * 
+   * @return True if a single dot was found
+   */
+  private boolean endOfSection() throws IOException {
+    int ch = peek();
+    while ((ch == ' ') || (ch == '\t') || (ch == '\r') || (ch == '\n')) {
+      next();
+      ch = peek();
+    }
+    if (ch == -1)
+      throw error("Unexpected end of file");
+    if (ch != '.')
+      return false;
+    next();
+    endLine();
+    return true;
+  }
+
+  private void expectEndOfSection() throws IOException {
+    if (!endOfSection())
+      throw error("End of section expected");
+  }
+
+  /**
+   * Skips any remaining character up to and including the end of line
+   */
+  private void endLine() throws IOException {
+    int ch;
+    while (((ch = next()) != '\n') && (ch != -1)) {
+      // Nothing
+    }
+  }
+
+  private int readInt() throws IOException {
+    skipSpaces();
+    boolean negative = peek() == '-';
+    if (negative)
+      next();
+    int ch = peek();
+    if ((ch < '0') || (ch > '9'))
+      throw error("Number expected");
+    int value = 0;
+    while ((ch >= '0') && (ch <= '9')) {
+      value = value * 10 + (ch - '0');
+      next();
+      ch = peek();
+    }
+    return negative ? -value : value;
+  }
+
+  /**
+   * Reads decimal numbers without exponent, as written by the profiler (e.g. 0.000123). Digits after the 18th
+   * significant digit are ignored.
+   */
+  private float readFloat() throws IOException {
+    skipSpaces();
+    boolean negative = peek() == '-';
+    if (negative)
+      next();
+    long mantissa = 0;
+    int digits = 0;
+    // Power of ten to be applied to mantissa
+    int exponent = 0;
+    boolean decimalPart = false;
+    int ch = peek();
+    while (((ch >= '0') && (ch <= '9')) || ((ch == '.') && !decimalPart)) {
+      if (ch == '.') {
+        decimalPart = true;
+      } else if (digits < POWERS_OF_TEN.length - 1) {
+        mantissa = mantissa * 10 + (ch - '0');
+        digits++;
+        if (decimalPart)
+          exponent--;
+      } else if (!decimalPart) {
+        exponent++;
+      }
+      next();
+      ch = peek();
+    }
+    if (digits == 0)
+      throw error("Number expected");
+    double value = exponent < 0 ? mantissa / POWERS_OF_TEN[-exponent] : mantissa * Math.pow(10, exponent);
+    return (float) (negative ? -value : value);
+  }
+
+  /**
+   * Reads content of a quoted string
+   */
+  private String readString() throws IOException {
+    skipSpaces();
+    if (next() != '"')
+      throw error("String expected");
+    int len = 0;
+    int ch;
+    while ((ch = next()) != '"') {
+      if (ch == -1)
+        throw error("Unterminated string");
+      if (len == text.length)
+        text = Arrays.copyOf(text, len << 1);
+      text[len++] = (byte) ch;
+    }
+    return new String(text, 0, len, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Reads a sequence of non-blank characters (date or time)
+   */
+  private String readWord() throws IOException {
+    skipSpaces();
+    StringBuilder sb = new StringBuilder(10);
+    int ch = peek();
+    while ((ch != -1) && (ch != ' ') && (ch != '\t') && (ch != '\r') && (ch != '\n')) {
+      sb.append((char) ch);
+      next();
+      ch = peek();
+    }
+    if (sb.length() == 0)
+      throw error("Value expected");
+    return sb.toString();
+  }
+
+  private void skipSpaces() throws IOException {
+    int ch = peek();
+    while ((ch == ' ') || (ch == '\t')) {
+      next();
+      ch = peek();
+    }
+  }
+
+  private int peek() throws IOException {
+    if ((pos == limit) && !fill())
+      return -1;
+    return buffer[pos] & 0xFF;
+  }
+
+  private int next() throws IOException {
+    if ((pos == limit) && !fill())
+      return -1;
+    int ch = buffer[pos++] & 0xFF;
+    if (ch == '\n')
+      line++;
+    return ch;
+  }
+
+  private boolean fill() throws IOException {
+    int num = input.read(buffer, 0, buffer.length);
+    if (num <= 0)
+      return false;
+    pos = 0;
+    limit = num;
+    return true;
+  }
+
+  private IOException error(String message) {
+    return new IOException(message + " at line " + line);
+  }
+}
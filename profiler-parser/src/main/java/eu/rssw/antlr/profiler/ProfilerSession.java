@@ -20,18 +20,21 @@
 package eu.rssw.antlr.profiler;
 
 import java.io.PrintStream;
-import java.text.DateFormat;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 
 public class ProfilerSession {
-  private static final DateFormat DATE_FORMATTER = new SimpleDateFormat("MM/dd/yyyy HH:mm:ss");
+  // Immutable and thread-safe, unlike SimpleDateFormat
+  private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("MM/dd/yyyy HH:mm:ss");
 
   // Description
   private final String description;
@@ -43,7 +46,7 @@ public class ProfilerSession {
   private Map<Integer, Module> allModules = new HashMap<>();
   private Map<Integer, Module> modules = new HashMap<>();
   private Map<String, Module> modulesLookup = new HashMap<>();
-  private int[][] adjMatrix = null;
+  private CallGraph callGraph = null;
 
   // Internal use
   private int highestModuleId = -1;
@@ -52,8 +55,9 @@ public class ProfilerSession {
     this.description = description;
     this.user = user;
     try {
-      this.timestamp = DATE_FORMATTER.parse(timestamp);
-    } catch (ParseException caught) {
+      this.timestamp = Date.from(
+          LocalDateTime.parse(timestamp, DATE_FORMATTER).atZone(ZoneId.systemDefault()).toInstant());
+    } catch (DateTimeParseException caught) {
       this.timestamp = new Date(System.currentTimeMillis());
     }
   }
@@ -81,21 +85,28 @@ public class ProfilerSession {
   }
 
   public void addCall(int callerId, int calleeId, int count) {
-    adjMatrix[callerId][calleeId] += count;
+    callGraph.addCall(callerId, calleeId, count);
   }
 
-  public void initializeCallTreeMatrix() {
-    if (adjMatrix != null)
-      throw new RuntimeException("Matrix already initialized");
-    adjMatrix = new int[highestModuleId + 1][highestModuleId + 1];
+  public void initializeCallTree() {
+    if (callGraph != null)
+      throw new IllegalStateException("Call tree already initialized");
+    callGraph = new CallGraph();
   }
 
   public boolean isCallTreeInitialized() {
-    return adjMatrix != null;
+    return callGraph != null;
   }
 
-  public int[][] getCallTreeData() {
-    return adjMatrix;
+  /**
+   * Returns call tree of this session. Call tree can't be modified anymore once this method has been called.
+   * 
+   * @return Null if call tree data is not initialized
+   */
+  public CallGraph getCallGraph() {
+    if (callGraph != null)
+      callGraph.freeze();
+    return callGraph;
   }
 
   /**
@@ -154,26 +165,26 @@ public class ProfilerSession {
   }
   
   public void printCallTree(PrintStream out) {
-    for (int zz = 0; zz < adjMatrix.length; zz ++) {
-      for (int yy = 0; yy < adjMatrix.length; yy++) {
-        out.print(adjMatrix[zz][yy] + " ");
-      }
-      out.println();
+    CallGraph graph = getCallGraph();
+    for (int zz = 0; zz <= graph.getHighestModuleId(); zz++) {
+      int callerId = zz;
+      graph.forEachCallee(callerId, (calleeId, count) -> out.println(callerId + " " + calleeId + " " + count));
     }
-    
+
     out.println("SESSION : ");
-    printCallTreeLine(out, 0, 2);
-  }
-  
-  private void printCallTreeLine(PrintStream out, int moduleId, int tabs) {
-    for (int zz = 0; zz < moduleList.size(); zz++) {
-      int calleeId = adjMatrix[moduleId][zz];
-      if (calleeId != 0) {
-        for (int kk = 0 ; kk < tabs; kk++)
-          out.print(" ");
-        out.println(moduleId + " -- " + modules.get(zz).toString());
-        printCallTreeLine(out, zz, tabs + 1);
-      }
-    }
+    printCallTreeLine(out, graph, 0, 2, new HashSet<>());
+  }
+
+  private void printCallTreeLine(PrintStream out, CallGraph graph, int moduleId, int tabs, Set<Integer> stack) {
+    // Recursive calls are only printed once
+    if (!stack.add(moduleId))
+      return;
+    graph.forEachCallee(moduleId, (calleeId, count) -> {
+      for (int kk = 0; kk < tabs; kk++)
+        out.print(" ");
+      out.println(moduleId + " -- " + allModules.get(calleeId));
+      printCallTreeLine(out, graph, calleeId, tabs + 1, stack);
+    });
+    stack.remove(moduleId);
   }
 }
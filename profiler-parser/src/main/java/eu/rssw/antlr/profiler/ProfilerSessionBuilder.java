@@ -0,0 +1,97 @@
+/*
+ * OpenEdge plugin for SonarQube
+ * Copyright (c) 2015-2018 Riverside Software
+ * contact AT riverside DASH software DOT fr
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package eu.rssw.antlr.profiler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import eu.rssw.antlr.profiler.ProfilerReader.Section;
+
+/**
+ * Builds a {@link ProfilerSession} from {@link ProfilerReader} callbacks
+ */
+class ProfilerSessionBuilder implements ProfilerListener {
+  private final Set<Section> skippedSections;
+  private final List<Module> modules = new ArrayList<>();
+  private ProfilerSession session;
+  private Module lastModule;
+
+  ProfilerSessionBuilder(Set<Section> skippedSections) {
+    this.skippedSections = skippedSections;
+  }
+
+  public ProfilerSession getSession() {
+    return session;
+  }
+
+  @Override
+  public boolean startSection(Section section) {
+    if (section == Section.CALL_TREE_DATA && !skippedSections.contains(section))
+      session.initializeCallTree();
+    return !skippedSections.contains(section);
+  }
+
+  @Override
+  public void endSection(Section section) {
+    if (section == Section.MODULE_DATA) {
+      Collections.sort(modules);
+      for (Module m : modules) {
+        session.addModule(m);
+      }
+    } else if ((section == Section.CALL_TREE_DATA) && session.isCallTreeInitialized()) {
+      session.getCallGraph().freeze();
+    }
+  }
+
+  @Override
+  public void description(String description, String date, String time, String user) {
+    session = new ProfilerSession(description, user, date + " " + time);
+  }
+
+  @Override
+  public void moduleData(int id, String name, String debugListingFile, int crc) {
+    modules.add(new Module(id, name, debugListingFile, crc));
+  }
+
+  @Override
+  public void callTreeData(int callerId, int callerLineNum, int calleeId, int callCount) {
+    session.addCall(callerId, calleeId, callCount);
+  }
+
+  @Override
+  public void lineSummary(int moduleId, int lineNumber, int execCount, float actualTime, float cumulativeTime) {
+    Module module = session.getModuleById(moduleId);
+    if (module != null)
+      module.addLineSummary(new LineData(lineNumber, execCount, actualTime, cumulativeTime));
+  }
+
+  @Override
+  public void coverageSection(int moduleId, String name, int lineCount) {
+    lastModule = session.getModuleById(moduleId);
+  }
+
+  @Override
+  public void coverageLine(int lineNumber) {
+    if (lastModule != null)
+      lastModule.addLineToCover(lineNumber);
+  }
+}
@@ -0,0 +1,94 @@
+/*
+ * OpenEdge plugin for SonarQube
+ * Copyright (c) 2015-2018 Riverside Software
+ * contact AT riverside DASH software DOT fr
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package eu.rssw.antlr.profiler;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import eu.rssw.antlr.profiler.FileStatistics.RoutineStatistics;
+import eu.rssw.antlr.profiler.ProfilerReader.Section;
+
+/**
+ * Aggregates line summary data (execution count and time) of profiler sessions per file and per routine. Sessions
+ * are read one at a time with {@link ProfilerReader}, and only the aggregated values are kept in memory. Call tree,
+ * tracing, coverage and user data are skipped.
+ * 
+ * Not thread-safe
+ */
+public class ProfilerStatistics {
+  private final Map<String, FileStatistics> files = new LinkedHashMap<>();
+
+  public void addSession(File file) throws IOException {
+    try (InputStream input = new FileInputStream(file)) {
+      addSession(input);
+    }
+  }
+
+  public void addSession(InputStream input) throws IOException {
+    new ProfilerReader(input).read(new SessionListener());
+  }
+
+  public Collection<FileStatistics> getFiles() {
+    return files.values();
+  }
+
+  /**
+   * @return Null if file was never executed
+   */
+  public FileStatistics getFile(String name) {
+    return files.get(name);
+  }
+
+  private class SessionListener implements ProfilerListener {
+    // Module IDs are only valid in one session
+    private final Map<Integer, FileStatistics> moduleFiles = new HashMap<>();
+    private final Map<Integer, RoutineStatistics> moduleRoutines = new HashMap<>();
+
+    @Override
+    public boolean startSection(Section section) {
+      return (section == Section.DESCRIPTION) || (section == Section.MODULE_DATA)
+          || (section == Section.LINE_SUMMARY);
+    }
+
+    @Override
+    public void moduleData(int id, String name, String debugListingFile, int crc) {
+      Module module = new Module(id, name, debugListingFile, crc);
+      FileStatistics file = files.computeIfAbsent(module.getModuleObject(), FileStatistics::new);
+      moduleFiles.put(id, file);
+      moduleRoutines.put(id, file.getOrCreateRoutine(module.getProcName()));
+    }
+
+    @Override
+    public void lineSummary(int moduleId, int lineNumber, int execCount, float actualTime, float cumulativeTime) {
+      FileStatistics file = moduleFiles.get(moduleId);
+      if (file == null)
+        return;
+      file.addLine(lineNumber, execCount, actualTime);
+      // Line 0 is the entry point of the routine
+      moduleRoutines.get(moduleId).add(lineNumber == 0 ? execCount : 0, actualTime);
+    }
+  }
+}
@@ -24,7 +24,16 @@ import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
 
 import javax.xml.XMLConstants;
 import javax.xml.parsers.DocumentBuilderFactory;
@@ -36,32 +45,103 @@ import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
 
-import org.antlr.v4.runtime.CharStreams;
-import org.antlr.v4.runtime.CommonTokenStream;
-import org.antlr.v4.runtime.tree.ParseTree;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 
+import eu.rssw.antlr.profiler.ProfilerReader.Section;
+
 public final class ProfilerUtils {
 
   private ProfilerUtils() {
     // No-op
   }
 
-  public static final ProfilerSession getProfilerSession(File file) throws IOException {
-    return getProfilerSession(new FileInputStream(file));
+  public static final ProfilerSession getProfilerSession(File file, Section... skippedSections) throws IOException {
+    try (InputStream input = new FileInputStream(file)) {
+      return getProfilerSession(input, skippedSections);
+    }
+  }
+
+  /**
+   * Reads profiler output from a stream
+   * 
+   * @param skippedSections Sections which are not read. Call tree is not available if CALL_TREE_DATA is skipped.
+   */
+  public static final ProfilerSession getProfilerSession(InputStream input, Section... skippedSections)
+      throws IOException {
+    EnumSet<Section> skipped = EnumSet.noneOf(Section.class);
+    skipped.addAll(Arrays.asList(skippedSections));
+    if (skipped.contains(Section.DESCRIPTION))
+      throw new IllegalArgumentException("Description section can't be skipped");
+    ProfilerSessionBuilder builder = new ProfilerSessionBuilder(skipped);
+    new ProfilerReader(input).read(builder);
+
+    return builder.getSession();
+  }
+
+  /**
+   * Only reads sections required to compute coverage, tracing data and call tree are skipped
+   */
+  public static final CoverageSession getCoverageSession(File file) throws IOException {
+    return getProfilerSession(file, Section.CALL_TREE_DATA, Section.TRACING_DATA, Section.USER_DATA).getCoverage();
+  }
+
+  /**
+   * Reads coverage data from many profiler output files in parallel, and merges them in one session. Files are merged
+   * in iteration order, so result doesn't depend on the number of threads.
+   * 
+   * @param threads Number of parsing threads
+   * @throws IOException If any file can't be read
+   */
+  public static final CoverageSession getCoverageSession(Collection<File> files, int threads) throws IOException {
+    return getCoverageSession(files, threads, null);
   }
 
-  public static final ProfilerSession getProfilerSession(InputStream input) throws IOException {
-    ProfilerGrammarLexer lexer = new ProfilerGrammarLexer(CharStreams.fromStream(input));
-    CommonTokenStream tokens = new CommonTokenStream(lexer);
-    ProfilerGrammarParser parser = new ProfilerGrammarParser(tokens);
-    ParseTree tree = parser.profiler();
+  /**
+   * Same as {@link #getCoverageSession(Collection, int)}, except that files which can't be read or parsed are sent to
+   * errorHandler and skipped, coverage data of the other files is still merged.
+   * 
+   * @param threads Number of parsing threads
+   * @param errorHandler Receives file name and reading error. If null, first error is thrown.
+   * @throws IOException If any file can't be read and errorHandler is null, or if interrupted
+   */
+  public static final CoverageSession getCoverageSession(Collection<File> files, int threads,
+      BiConsumer<File, IOException> errorHandler) throws IOException {
+    CoverageSession session = new CoverageSession();
+    if (files.isEmpty())
+      return session;
+    ExecutorService service = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, files.size())));
+    try {
+      List<Future<CoverageSession>> futures = new ArrayList<>();
+      for (File file : files) {
+        futures.add(service.submit(() -> getCoverageSession(file)));
+      }
+      int zz = 0;
+      for (File file : files) {
+        try {
+          session.mergeWith(getResult(futures.get(zz++), file));
+        } catch (ExecutionException caught) {
+          IOException ioe = new IOException("Unable to read " + file, caught.getCause());
+          if (errorHandler == null)
+            throw ioe;
+          errorHandler.accept(file, ioe);
+        }
+      }
+    } finally {
+      service.shutdownNow();
+    }
 
-    ProfilerSessionVisitor visitor = new ProfilerSessionVisitor();
-    visitor.visit(tree);
+    return session;
+  }
 
-    return visitor.getSession();
+  private static final CoverageSession getResult(Future<CoverageSession> future, File file)
+      throws IOException, ExecutionException {
+    try {
+      return future.get();
+    } catch (InterruptedException caught) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while reading " + file, caught);
+    }
   }
 
   public static final void dumpCoverageAsXml(CoverageSession session, Collection<File> propath, File xmlFile) throws IOException {
@@ -78,10 +158,10 @@ public final class ProfilerUtils {
         fileElement.setAttribute("path", getFilePath(propath, profiledFile.getFileName()));
         root.appendChild(fileElement);
 
-        for (Integer lineNumber : profiledFile.getLinesToCover()) {
+        for (Integer lineNumber : profiledFile.getSortedLinesToCover()) {
           Element lineElement = document.createElement("lineToCover");
           lineElement.setAttribute("lineNumber", lineNumber.toString());
-          lineElement.setAttribute("covered", Boolean.toString(profiledFile.getCoveredLines().contains(lineNumber)));
+          lineElement.setAttribute("covered", Boolean.toString(profiledFile.isCovered(lineNumber)));
 
           fileElement.appendChild(lineElement);
         }
@@ -70,9 +70,11 @@ public class ProfilerSessionVisitor extends ProfilerGrammarBaseVisitor<Void> {
     for (Module m : modules) {
       session.addModule(m);
     }
-    session.initializeCallTreeMatrix();
+    session.initializeCallTree();
+    visitChildren(ctx);
+    session.getCallGraph().freeze();
 
-    return visitChildren(ctx);
+    return null;
   }
 
   @Override
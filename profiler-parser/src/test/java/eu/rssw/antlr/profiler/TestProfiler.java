@@ -19,16 +19,26 @@
  */
 package eu.rssw.antlr.profiler;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
+import eu.rssw.antlr.profiler.ProfilerReader.Section;
+
 public class TestProfiler {
 
   @Test
@@ -92,4 +102,300 @@ public class TestProfiler {
     ProfilerSession session = ProfilerUtils.getProfilerSession(new File("src/test/resources/profiler7.out"));
     Assert.assertEquals(session.getUser(), "SYSTEM");
   }
+
+  @Test
+  public void testCallGraph() throws IOException {
+    ProfilerSession session = ProfilerUtils.getProfilerSession(new File("src/test/resources/profiler1.out"));
+    CallGraph graph = session.getCallGraph();
+    Assert.assertTrue(graph.isFrozen());
+    // 88 lines in call tree section, 77 distinct pairs
+    Assert.assertEquals(graph.getEdgeCount(), 77);
+    Assert.assertEquals(graph.getCallCount(0, 1), 1);
+    Assert.assertEquals(graph.getCallCount(6, 9), 2);
+    Assert.assertEquals(graph.getCallCount(35, 38), 76);
+    Assert.assertEquals(graph.getCallCount(38, 35), 0);
+    Assert.assertEquals(graph.getIncomingCalls(38), 76);
+    Assert.assertEquals(graph.getCallerCount(38), 1);
+    Assert.assertEquals(graph.getOutgoingCalls(6), 69);
+    Assert.assertEquals(graph.getCalleeCount(6), 19);
+  }
+
+  @Test
+  public void testSparseCallGraph() {
+    CallGraph graph = new CallGraph();
+    // Would require a 60000x60000 matrix
+    graph.addCall(0, 59999, 1);
+    graph.addCall(59999, 30000, 2);
+    graph.addCall(59999, 10, 3);
+    graph.addCall(59999, 30000, 4);
+    graph.addCall(10, 30000, 5);
+    graph.freeze();
+    Assert.assertEquals(graph.getHighestModuleId(), 59999);
+    Assert.assertEquals(graph.getEdgeCount(), 4);
+    Assert.assertEquals(graph.getCallCount(59999, 30000), 6);
+    Assert.assertEquals(graph.getCallCount(70000, 1), 0);
+
+    List<Integer> callees = new ArrayList<>();
+    graph.forEachCallee(59999, (id, count) -> callees.add(id));
+    Assert.assertEquals(callees.size(), 2);
+    Assert.assertEquals(callees.get(0).intValue(), 10);
+    Assert.assertEquals(callees.get(1).intValue(), 30000);
+
+    List<Integer> callers = new ArrayList<>();
+    graph.forEachCaller(30000, (id, count) -> callers.add(id));
+    Assert.assertEquals(callers.size(), 2);
+    Assert.assertEquals(callers.get(0).intValue(), 10);
+    Assert.assertEquals(callers.get(1).intValue(), 59999);
+    Assert.assertEquals(graph.getIncomingCalls(30000), 11);
+    Assert.assertEquals(graph.getOutgoingCalls(59999), 9);
+  }
+
+  @Test(expectedExceptions = IllegalStateException.class)
+  public void testFrozenCallGraph() {
+    CallGraph graph = new CallGraph();
+    graph.freeze();
+    graph.addCall(1, 2, 1);
+  }
+
+  @Test
+  public void testReaderAgainstGrammar() throws IOException {
+    for (int zz = 1; zz <= 7; zz++) {
+      File file = new File("src/test/resources/profiler" + zz + ".out");
+      ProfilerSession expected = getAntlrProfilerSession(file);
+      ProfilerSession session = ProfilerUtils.getProfilerSession(file);
+      Assert.assertEquals(session.getUser(), expected.getUser());
+      Assert.assertEquals(session.getDescription(), expected.getDescription());
+      Assert.assertEquals(session.getTimestamp(), expected.getTimestamp());
+      Assert.assertEquals(session.getModules().size(), expected.getModules().size());
+      for (Module module : expected.getModules()) {
+        Module m2 = session.getModuleByName(module.getName());
+        Assert.assertNotNull(m2, module.getName());
+        Assert.assertEquals(m2.getId(), module.getId());
+        Assert.assertEquals(m2.getFile(), module.getFile());
+        Assert.assertEquals(m2.getCrc(), module.getCrc());
+        Assert.assertEquals(m2.getLinesToCover(), module.getLinesToCover());
+        Assert.assertEquals(m2.getCoveredLines(), module.getCoveredLines());
+        Assert.assertEquals(m2.getCumulativeTime(), module.getCumulativeTime(), 1e-6);
+      }
+      CallGraph graph = session.getCallGraph();
+      CallGraph expectedGraph = expected.getCallGraph();
+      Assert.assertEquals(graph.getEdgeCount(), expectedGraph.getEdgeCount());
+      for (int id = 0; id <= expectedGraph.getHighestModuleId(); id++) {
+        int callerId = id;
+        expectedGraph.forEachCallee(callerId,
+            (calleeId, count) -> Assert.assertEquals(graph.getCallCount(callerId, calleeId), count));
+      }
+    }
+  }
+
+  @Test
+  public void testCoverageOnly() throws IOException {
+    File file = new File("src/test/resources/profiler1.out");
+    ProfilerSession session = ProfilerUtils.getProfilerSession(file, Section.CALL_TREE_DATA, Section.TRACING_DATA,
+        Section.USER_DATA);
+    Assert.assertFalse(session.isCallTreeInitialized());
+    Assert.assertEquals(session.getModules().size(), 15);
+
+    CoverageSession expected = ProfilerUtils.getProfilerSession(file).getCoverage();
+    CoverageSession coverage = ProfilerUtils.getCoverageSession(file);
+    Assert.assertEquals(coverage.getFiles().size(), expected.getFiles().size());
+    for (FileCoverage f1 : expected.getFiles()) {
+      FileCoverage f2 = coverage.getFiles().stream().filter(f -> f.getFileName().equals(f1.getFileName())).findFirst().orElse(
+          null);
+      Assert.assertNotNull(f2);
+      Assert.assertEquals(f2.getSortedLinesToCover(), f1.getSortedLinesToCover());
+      Assert.assertEquals(f2.getSortedCoveredLines(), f1.getSortedCoveredLines());
+    }
+  }
+
+  @Test
+  public void testReaderCallbacks() throws IOException {
+    String str = "1 01/02/2019 \"Desc\" 10:11:12 \"user\"\n.\n" //
+        + "1 \"foo.p\" \"\" 123 456 \"\"\n.\n" // Module data
+        + "0 0 1 1\n.\n" // Call tree
+        + "1 10 2 0.000010 1.500000\n.\n" // Line summary
+        + "1 10 0.000004 12.250000\r\n1 11 0.5 13\r\n.\r\n" // Tracing data
+        + "1 \"\" 2\n10\n11\n.\n.\n" // Coverage
+        + "10:11:13 \"Some data\"\n.\n";
+    List<String> events = new ArrayList<>();
+    ProfilerListener listener = new ProfilerListener() {
+      @Override
+      public boolean startSection(Section section) {
+        return section != Section.CALL_TREE_DATA;
+      }
+
+      @Override
+      public void description(String description, String date, String time, String user) {
+        events.add(description + " " + date + " " + time + " " + user);
+      }
+
+      @Override
+      public void moduleData(int id, String name, String debugListingFile, int crc) {
+        events.add(id + " " + name + " " + crc);
+      }
+
+      @Override
+      public void callTreeData(int callerId, int callerLineNum, int calleeId, int callCount) {
+        Assert.fail("Section should have been skipped");
+      }
+
+      @Override
+      public void lineSummary(int moduleId, int lineNumber, int execCount, float actualTime, float cumulativeTime) {
+        events.add(moduleId + " " + lineNumber + " " + execCount + " " + actualTime + " " + cumulativeTime);
+      }
+
+      @Override
+      public void tracingData(int moduleId, int lineNumber, float execTime, float timestamp) {
+        events.add(moduleId + " " + lineNumber + " " + execTime + " " + timestamp);
+      }
+
+      @Override
+      public void coverageSection(int moduleId, String name, int lineCount) {
+        events.add(moduleId + " " + lineCount);
+      }
+
+      @Override
+      public void coverageLine(int lineNumber) {
+        events.add(Integer.toString(lineNumber));
+      }
+
+      @Override
+      public void userData(String time, String data) {
+        events.add(time + " " + data);
+      }
+    };
+    new ProfilerReader(new ByteArrayInputStream(str.getBytes(StandardCharsets.UTF_8))).read(listener);
+    Assert.assertEquals(events.size(), 9);
+    Assert.assertEquals(events.get(0), "Desc 01/02/2019 10:11:12 user");
+    Assert.assertEquals(events.get(1), "1 foo.p 123");
+    Assert.assertEquals(events.get(2), "1 10 2 1.0E-5 1.5");
+    Assert.assertEquals(events.get(3), "1 10 4.0E-6 12.25");
+    Assert.assertEquals(events.get(4), "1 11 0.5 13.0");
+    Assert.assertEquals(events.get(5), "1 2");
+    Assert.assertEquals(events.get(7), "11");
+    Assert.assertEquals(events.get(8), "10:11:13 Some data");
+  }
+
+  @Test(expectedExceptions = IOException.class)
+  public void testTruncatedFile() throws IOException {
+    String str = "1 01/02/2019 \"Desc\" 10:11:12 \"user\"\n.\n1 \"foo.p\" \"\" 123\n";
+    ProfilerUtils.getProfilerSession(new ByteArrayInputStream(str.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  @Test
+  public void testParallelCoverage() throws IOException {
+    List<File> files = new ArrayList<>();
+    CoverageSession expected = new CoverageSession();
+    for (int zz = 0; zz < 5; zz++) {
+      for (int yy = 1; yy <= 7; yy++) {
+        File file = new File("src/test/resources/profiler" + yy + ".out");
+        files.add(file);
+        expected.mergeWith(ProfilerUtils.getProfilerSession(file).getCoverage());
+      }
+    }
+    CoverageSession session = ProfilerUtils.getCoverageSession(files, 4);
+    Assert.assertEquals(session.getFiles().size(), expected.getFiles().size());
+    for (FileCoverage f1 : expected.getFiles()) {
+      FileCoverage f2 = session.getFile(f1.getFileName());
+      Assert.assertNotNull(f2, f1.getFileName());
+      Assert.assertEquals(f2.getSortedLinesToCover(), f1.getSortedLinesToCover());
+      Assert.assertEquals(f2.getSortedCoveredLines(), f1.getSortedCoveredLines());
+    }
+
+    FileCoverage file = session.getFile("Consultingwerk.Util.FileHelper");
+    Assert.assertNotNull(file);
+    Assert.assertEquals(file.getLinesToCoverCount(), file.getSortedLinesToCover().size());
+    Assert.assertEquals(file.getCoveredLinesCount(), file.getSortedCoveredLines().size());
+    for (Integer line : file.getSortedCoveredLines()) {
+      Assert.assertTrue(file.isLineToCover(line));
+      Assert.assertTrue(file.isCovered(line));
+    }
+    // Deprecated accessors return the same lines
+    Assert.assertEquals(file.getLinesToCover(), file.getSortedLinesToCover());
+    Assert.assertEquals(file.getCoveredLines(), file.getSortedCoveredLines());
+  }
+
+  @Test(expectedExceptions = IOException.class)
+  public void testParallelCoverageInvalidFile() throws IOException {
+    List<File> files = new ArrayList<>();
+    files.add(new File("src/test/resources/profiler1.out"));
+    files.add(new File("src/test/resources/doesnotexist.out"));
+    ProfilerUtils.getCoverageSession(files, 2);
+  }
+
+  @Test
+  public void testParallelCoverageSkipInvalidFile() throws IOException {
+    File truncated = File.createTempFile("profiler", ".out");
+    try {
+      Files.write(truncated.toPath(),
+          "1 01/02/2019 \"Desc\" 10:11:12 \"user\"\n.\n1 \"foo.p\" \"\" 123\n".getBytes(StandardCharsets.UTF_8));
+      File missing = new File("src/test/resources/doesnotexist.out");
+      List<File> files = new ArrayList<>();
+      files.add(new File("src/test/resources/profiler1.out"));
+      files.add(truncated);
+      files.add(missing);
+      files.add(new File("src/test/resources/profiler2.out"));
+      CoverageSession expected = new CoverageSession();
+      expected.mergeWith(ProfilerUtils.getCoverageSession(files.get(0)));
+      expected.mergeWith(ProfilerUtils.getCoverageSession(files.get(3)));
+
+      List<File> errors = new ArrayList<>();
+      CoverageSession session = ProfilerUtils.getCoverageSession(files, 2, (file, caught) -> errors.add(file));
+      // Invalid files are reported in iteration order, other files are still merged
+      Assert.assertEquals(errors.size(), 2);
+      Assert.assertEquals(errors.get(0), truncated);
+      Assert.assertEquals(errors.get(1), missing);
+      Assert.assertEquals(session.getFiles().size(), expected.getFiles().size());
+      for (FileCoverage f1 : expected.getFiles()) {
+        FileCoverage f2 = session.getFile(f1.getFileName());
+        Assert.assertNotNull(f2, f1.getFileName());
+        Assert.assertEquals(f2.getSortedCoveredLines(), f1.getSortedCoveredLines());
+      }
+    } finally {
+      Files.deleteIfExists(truncated.toPath());
+    }
+  }
+
+  @Test
+  public void testStatistics() throws IOException {
+    ProfilerStatistics stats = new ProfilerStatistics();
+    stats.addSession(new File("src/test/resources/profiler2.out"));
+    stats.addSession(new File("src/test/resources/profiler2.out"));
+    Assert.assertEquals(stats.getFiles().size(), 2);
+
+    FileStatistics file = stats.getFile("src/test.p");
+    Assert.assertNotNull(file);
+    Assert.assertEquals(file.getTotalTime(), 0.000308, 1e-9);
+    Assert.assertEquals(file.getTotalExecCount(), 12);
+    Assert.assertEquals(file.getMaxLine(), 11);
+    Assert.assertEquals(file.getExecCount(1), 2);
+    Assert.assertEquals(file.getExecCount(3), 0);
+    Assert.assertEquals(file.getExecCount(1000), 0);
+    Assert.assertEquals(file.getTime(1), 0.000122, 1e-9);
+    Assert.assertEquals(file.getHotLines(4), new int[] {1, 2, 5, 11});
+    Assert.assertEquals(file.getHotLines(100).length, 6);
+    Assert.assertEquals(file.getRoutines().size(), 1);
+    Assert.assertEquals(file.getRoutine("").getCalls(), 2);
+
+    file = stats.getFile("C:\\Users\\gquerret\\AppData\\Local\\Temp\\pctinit21726.p");
+    Assert.assertNotNull(file);
+    Assert.assertEquals(file.getHotLines(2), new int[] {12, 21});
+    Assert.assertEquals(file.getRoutines().size(), 2);
+    Assert.assertEquals(file.getRoutine("").getCalls(), 2);
+    Assert.assertEquals(file.getRoutine("returnValue").getCalls(), 2);
+    Assert.assertEquals(file.getRoutine("returnValue").getTime(), 0.00189, 1e-9);
+  }
+
+  /**
+   * Reference implementation
+   */
+  private static ProfilerSession getAntlrProfilerSession(File file) throws IOException {
+    try (InputStream input = new FileInputStream(file)) {
+      ProfilerGrammarParser parser = new ProfilerGrammarParser(
+          new CommonTokenStream(new ProfilerGrammarLexer(CharStreams.fromStream(input))));
+      ProfilerSessionVisitor visitor = new ProfilerSessionVisitor();
+      visitor.visit(parser.profiler());
+      return visitor.getSession();
+    }
+  }
 }
@@ -84,7 +84,8 @@ program: // TRANSLATED
     }
   ;
 
-code_block: // TRANSLATED
+code_block locals [ SymbolScope scope ]: // TRANSLATED
+    { $scope = support.getCurrentScope(); }
     blockorstate*
   ;
 
@@ -922,9 +923,9 @@ recordAsFormItem: // TRANSLATED
     record
   ;
 
-record: // TRANSLATED
+record locals [ SymbolScope.FieldType storeType ]: // TRANSLATED
     // RECORD can be any db table name, work/temp table name, buffer name.
-    { support.recordSemanticPredicate(_input.LT(1), _input.LT(2), _input.LT(3)) }? f=filn { support.pushRecordExpression(_localctx, $f.text); }
+    { support.recordSemanticPredicate(_input.LT(1), _input.LT(2), _input.LT(3)) }? f=filn { $storeType = support.getRecordExpression($f.text); }
   ;
 
 ////  Names  ////
@@ -2562,7 +2563,7 @@ from_pos_elem: // TRANSLATED
 functionstate: // TRANSLATED
     // You don't see it in PSC's grammar, but the compiler really does insist on a datatype.
     f=FUNCTION
-    id=identifier { support.funcBegin($id.text, _localctx); }
+    id=identifier { support.funcBegin($id.text); }
     ( RETURNS | RETURN )? ( CLASS type_name | datatype_var )
     extentphrase?
     PRIVATE?
@@ -2621,7 +2622,7 @@ function_param: // TRANSLATED
 ext_functionstate:
     // You don't see it in PSC's grammar, but the compiler really does insist on a datatype.
     f=FUNCTION
-    id=identifier { support.funcBegin($id.text, _localctx); }
+    id=identifier { support.funcBegin($id.text); }
     ( RETURNS | RETURN )? ( CLASS type_name | datatype_var )
     extentphrase?
     PRIVATE?
@@ -2929,7 +2930,7 @@ methodstate locals [ boolean abs = false ]: // TRANSLATED
     ( { $abs || support.isInterface() }? block_colon // An INTERFACE declares without defining, ditto ABSTRACT.
     | { !$abs && !support.isInterface() }?
       block_colon
-      { support.addInnerScope(_localctx); }
+      { support.addInnerScope(); }
       code_block
       method_end
       { support.dropInnerScope(); }
@@ -2971,7 +2972,7 @@ onstate: // TRANSLATED
        OVERRIDE?
        ( REVERT state_end
        | PERSISTENT runstate
-       | { support.addInnerScope(_localctx); } blockorstate { support.dropInnerScope(); }
+       | { support.addInnerScope(); } blockorstate { support.dropInnerScope(); }
        )
     |  // ON event OF database-object
       (
@@ -2987,7 +2988,7 @@ onstate: // TRANSLATED
       OVERRIDE?
       (  REVERT state_end
       |  PERSISTENT runstate
-      |  { support.addInnerScope(_localctx); } blockorstate { support.dropInnerScope(); }
+      |  { support.addInnerScope(); } blockorstate { support.dropInnerScope(); }
       )
     |  // ON key-label keyfunction.
       . . state_end
@@ -2999,7 +3000,7 @@ onstate: // TRANSLATED
       )
       (  REVERT state_end
       |  PERSISTENT RUN filenameorvalue in_expr? onstate_run_params? state_end
-      |  { support.addInnerScope(_localctx); } blockorstate { support.dropInnerScope(); }
+      |  { support.addInnerScope(); } blockorstate { support.dropInnerScope(); }
       )
     )
   ;
@@ -3113,7 +3114,7 @@ ext_procedurestate:
     PROCEDURE
     filename
     EXTERNAL constant procedure_dll_opt* block_colon
-    { support.addInnerScope(_localctx); }
+    { support.addInnerScope(); }
     code_block
     { support.dropInnerScope(); }
     procedure_end state_end
@@ -3123,7 +3124,7 @@ procedurestate: // TRANSLATED
     PROCEDURE
     filename
     procedure_opt? block_colon
-    { support.addInnerScope(_localctx); }
+    { support.addInnerScope(); }
     code_block
     { support.dropInnerScope(); }
     (  EOF
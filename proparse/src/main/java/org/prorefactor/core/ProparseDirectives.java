@@ -0,0 +1,93 @@
+/********************************************************************************
+ * Copyright (c) 2015-2018 Riverside Software
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU Lesser General Public License v3.0
+ * which is available at https://www.gnu.org/licenses/lgpl-3.0.txt
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR LGPL-3.0
+ ********************************************************************************/
+package org.prorefactor.core;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.base.Splitter;
+
+/**
+ * Index of prolint-nowarn directives of a compilation unit, keyed by position of the token following the directive.
+ * Filled by the lexer, so that {@link #hasDirective(JPNode, String)} only requires hash lookups instead of walking
+ * hidden tokens.
+ */
+public class ProparseDirectives {
+  private static final String NOWARN = "prolint-nowarn(";
+
+  private final Map<Long, Set<String>> rules = new HashMap<>();
+  private Set<String> pending;
+
+  /**
+   * Register proparse directive, attached to the next token
+   */
+  public void addDirective(String text) {
+    String str = text.trim();
+    if (str.startsWith(NOWARN) && (str.charAt(str.length() - 1) == ')')) {
+      if (pending == null)
+        pending = new HashSet<>();
+      for (String rule : Splitter.on(',').omitEmptyStrings().trimResults().split(
+          str.substring(NOWARN.length(), str.length() - 1))) {
+        pending.add(rule);
+      }
+    }
+  }
+
+  /**
+   * Register position of token on default channel. Pending directives are attached to this token.
+   */
+  public void addToken(int file, int line, int column) {
+    if (pending == null)
+      return;
+    Set<String> set = rules.putIfAbsent(key(file, line, column), pending);
+    if (set != null) {
+      set.addAll(pending);
+    }
+    pending = null;
+  }
+
+  public boolean isEmpty() {
+    return rules.isEmpty();
+  }
+
+  /**
+   * Same as {@link JPNode#hasProparseDirective(String)}
+   */
+  public boolean hasDirective(JPNode node, String rule) {
+    if (rules.isEmpty())
+      return false;
+    Set<String> set = rules.get(key(node.getFileIndex(), node.getLine(), node.getColumn()));
+    if ((set != null) && set.contains(rule))
+      return true;
+    // Synthetic nodes: directives are attached to the first child, or first grandchild for ASSIGN statements
+    if (!node.isNatural()) {
+      JPNode child = node.getFirstChild();
+      if ((child != null) && hasDirective(child, rule))
+        return true;
+      if ((child != null) && (node.getNodeType() == ABLNodeType.ASSIGN)) {
+        child = child.getFirstChild();
+        if ((child != null) && hasDirective(child, rule))
+          return true;
+      }
+    }
+    return false;
+  }
+
+  private static long key(int file, int line, int column) {
+    return ((long) file << 48) | ((long) line << 20) | column;
+  }
+}
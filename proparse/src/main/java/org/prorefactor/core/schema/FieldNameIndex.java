@@ -0,0 +1,61 @@
+/********************************************************************************
+ * Copyright (c) 2015-2018 Riverside Software
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU Lesser General Public License v3.0
+ * which is available at https://www.gnu.org/licenses/lgpl-3.0.txt
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR LGPL-3.0
+ ********************************************************************************/
+package org.prorefactor.core.schema;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Inverted index from field names to tables, used to resolve unqualified field names without visiting every table of
+ * the schema. Each distinct (lowercase) field name is associated with the first table, in the order of the source
+ * collection, which contains a field with this name.
+ */
+class FieldNameIndex {
+  private final ITable[] tables;
+  private final String[] names;
+  private final int[] firstTable;
+
+  FieldNameIndex(Collection<ITable> allTables) {
+    tables = allTables.toArray(new ITable[allTables.size()]);
+    Map<String, Integer> map = new TreeMap<>();
+    for (int zz = 0; zz < tables.length; zz++) {
+      for (String name : tables[zz].getFieldNames()) {
+        map.putIfAbsent(name.toLowerCase(), zz);
+      }
+    }
+    names = new String[map.size()];
+    firstTable = new int[map.size()];
+    int zz = 0;
+    for (Map.Entry<String, Integer> entry : map.entrySet()) {
+      names[zz] = entry.getKey();
+      firstTable[zz++] = entry.getValue();
+    }
+  }
+
+  /**
+   * Returns the first table containing a field named (or abbreviated) lowerName, or null
+   *
+   * @param lowerName Lowercase field name
+   */
+  ITable lookupTable(String lowerName) {
+    int min = Integer.MAX_VALUE;
+    for (int pos = NameIndex.lowerBound(names, lowerName); (pos < names.length)
+        && names[pos].startsWith(lowerName); pos++) {
+      min = Math.min(min, firstTable[pos]);
+    }
+    return min == Integer.MAX_VALUE ? null : tables[min];
+  }
+}
@@ -17,6 +17,7 @@ package org.prorefactor.core.schema;
 
 import java.util.List;
 import java.util.SortedSet;
+import java.util.stream.Collectors;
 
 import org.prorefactor.core.IConstants;
 
@@ -59,6 +60,14 @@ public interface ITable {
    */
   List<IField> getFieldPosOrder();
 
+  /**
+   * Get field names in field position order. Implementations creating field objects on demand should override this
+   * method, so that field names can be indexed without creating every field object.
+   */
+  default List<String> getFieldNames() {
+    return getFieldPosOrder().stream().map(IField::getName).collect(Collectors.toList());
+  }
+
   List<IIndex> getIndexes();
   
   IIndex lookupIndex(String name);
@@ -0,0 +1,111 @@
+/********************************************************************************
+ * Copyright (c) 2015-2018 Riverside Software
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU Lesser General Public License v3.0
+ * which is available at https://www.gnu.org/licenses/lgpl-3.0.txt
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR LGPL-3.0
+ ********************************************************************************/
+package org.prorefactor.core.schema;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.function.Function;
+
+/**
+ * Immutable case-insensitive index of schema objects, used to resolve names and ABL abbreviations. Names are stored
+ * lowercase in a sorted array, so that a lookup is a binary search followed by a prefix check, without any allocation
+ * besides the lowercase version of the searched name. Elements with the same name are kept in iteration order of the
+ * source collection.
+ */
+public class NameIndex<T> {
+  private final String[] names;
+  private final Object[] values;
+
+  public NameIndex(Collection<? extends T> elements, Function<T, String> nameFunction) {
+    int size = elements.size();
+    Entry[] entries = new Entry[size];
+    int zz = 0;
+    for (T element : elements) {
+      entries[zz++] = new Entry(nameFunction.apply(element).toLowerCase(), element);
+    }
+    // Stable sort, elements with the same name are kept in their original order
+    Arrays.sort(entries, (e1, e2) -> e1.name.compareTo(e2.name));
+    names = new String[size];
+    values = new Object[size];
+    for (zz = 0; zz < size; zz++) {
+      names[zz] = entries[zz].name;
+      values[zz] = entries[zz].value;
+    }
+  }
+
+  public int size() {
+    return names.length;
+  }
+
+  /**
+   * Returns exact match if available, or first element (in alphabetical order) whose name starts with lowerName. No
+   * uniqueness check.
+   *
+   * @param lowerName Lowercase name
+   */
+  public T lookup(String lowerName) {
+    int pos = lowerBound(names, lowerName);
+    if ((pos < names.length) && names[pos].startsWith(lowerName))
+      return get(pos);
+    return null;
+  }
+
+  /**
+   * Returns exact match if available, or element whose name starts with lowerName only if this abbreviation is unique.
+   * Null if not found or ambiguous.
+   *
+   * @param lowerName Lowercase name
+   */
+  public T lookupUnique(String lowerName) {
+    int pos = lowerBound(names, lowerName);
+    if ((pos >= names.length) || !names[pos].startsWith(lowerName))
+      return null;
+    if ((names[pos].length() > lowerName.length()) && (pos + 1 < names.length)
+        && names[pos + 1].startsWith(lowerName))
+      return null;
+    return get(pos);
+  }
+
+  @SuppressWarnings("unchecked")
+  private T get(int pos) {
+    return (T) values[pos];
+  }
+
+  /**
+   * Position of first element greater or equal to key
+   */
+  static int lowerBound(String[] array, String key) {
+    int low = 0;
+    int high = array.length;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (array[mid].compareTo(key) < 0)
+        low = mid + 1;
+      else
+        high = mid;
+    }
+    return low;
+  }
+
+  private static class Entry {
+    private final String name;
+    private final Object value;
+
+    Entry(String name, Object value) {
+      this.name = name;
+      this.value = value;
+    }
+  }
+}
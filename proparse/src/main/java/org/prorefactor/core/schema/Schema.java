@@ -20,8 +20,12 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
@@ -44,6 +48,7 @@ import com.google.common.io.LineProcessor;
  */
 public class Schema implements ISchema {
   private static final Logger LOGGER = LoggerFactory.getLogger(Schema.class);
+  private static List<String> metaSchemaLines;
 
   private static final Comparator<ITable> ALLTABLES_ORDER = new Comparator<ITable>() {
     @Override
@@ -59,6 +64,8 @@ public class Schema implements ISchema {
   private final Map<String, String> aliases = new HashMap<>();
   private final SortedSet<IDatabase> dbSet = new TreeSet<>(Constants.DB_NAME_ORDER);
   private final SortedSet<ITable> allTables = new TreeSet<>(ALLTABLES_ORDER);
+  // Lookup indexes, built on first use and discarded when new tables are loaded
+  private volatile Indexes indexes;
 
   public Schema(String file) throws IOException {
     this(file, false);
@@ -71,6 +78,9 @@ public class Schema implements ISchema {
     }
   }
 
+  /**
+   * Tables and fields of the databases are expected to be complete at this stage, as they're indexed on first lookup
+   */
   public Schema(IDatabase... dbs) {
     for (IDatabase db : dbs) {
       dbSet.add(db);
@@ -120,23 +130,46 @@ public class Schema implements ISchema {
   }
 
   public final void injectMetaSchema() {
+    List<String> metaSchema = getMetaSchema();
     for (IDatabase db : dbSet) {
       SchemaLineProcessor lineProcessor = new SchemaLineProcessor(db);
+      try {
+        for (String line : metaSchema) {
+          lineProcessor.processLine(line);
+        }
+      } catch (IOException caught) {
+        LOGGER.error("Invalid content in file 'meta.txt'", caught);
+      }
+    }
+    indexes = null;
+  }
+
+  /**
+   * Content of meta.txt, read only once per JVM
+   */
+  private static synchronized List<String> getMetaSchema() {
+    if (metaSchemaLines == null) {
+      List<String> lines = new ArrayList<>();
       try (BufferedReader reader = new BufferedReader(
-          new InputStreamReader(this.getClass().getResourceAsStream("/meta.txt")))) {
+          new InputStreamReader(Schema.class.getResourceAsStream("/meta.txt")))) {
         String line;
-        while (((line = reader.readLine()) != null) && lineProcessor.processLine(line)) {
+        while ((line = reader.readLine()) != null) {
+          lines.add(line);
         }
       } catch (IOException caught) {
         LOGGER.error("Unable to open file 'meta.txt'", caught);
+        return Collections.emptyList();
       }
+      metaSchemaLines = Collections.unmodifiableList(lines);
     }
+    return metaSchemaLines;
   }
 
   private final void loadSchema(File file) throws IOException {
     Database db = new Database(Files.getNameWithoutExtension(file.getName()));
     dbSet.add(db);
     Files.asCharSource(file, Charset.defaultCharset()).readLines(new SchemaLineProcessor(db));
+    indexes = null;
   }
 
   /**
@@ -176,7 +209,7 @@ public class Schema implements ISchema {
         return firstTry;
       return lookupMetaTable(inName);
     }
-    return lookupTableCheckName(allTables.tailSet(new Table(inName)), inName);
+    return getIndexes().allTables.lookupUnique(inName.toLowerCase());
   }
 
   @Override
@@ -184,18 +217,23 @@ public class Schema implements ISchema {
     IDatabase db = lookupDatabase(dbName);
     if (db == null)
       return null;
-    return lookupTableCheckName(db.getTableSet().tailSet(new Table(tableName)), tableName);
+    return lookupTableCheckName(db, tableName);
   }
 
   @Override
   public IField lookupUnqualifiedField(String name) {
-    IField field;
-    for (ITable table : allTables) {
-      field = table.lookupField(name);
-      if (field != null)
-        return field;
+    // First table (in allTables order) with a matching field
+    ITable table = getIndexes().fields.lookupTable(name.toLowerCase());
+    return table == null ? null : table.lookupField(name);
+  }
+
+  private Indexes getIndexes() {
+    Indexes idx = indexes;
+    if (idx == null) {
+      idx = new Indexes(dbSet, allTables);
+      indexes = idx;
     }
-    return null;
+    return idx;
   }
 
   /**
@@ -214,22 +252,13 @@ public class Schema implements ISchema {
   // It turns out that we *do* have to test for uniqueness - we can't just leave
   // that job to the compiler. That's because when looking up schema names for
   // a DEF..LIKE x, if x is non-unique in schema, then we move on to temp/work/buffer names.
-  private ITable lookupTableCheckName(SortedSet<ITable> set, String name) {
-    String lname = name.toLowerCase();
-    Iterator<ITable> it = set.iterator();
-    if (!it.hasNext())
-      return null;
-    ITable table = it.next();
-    // test that we got a match
-    if (!table.getName().toLowerCase().startsWith(lname))
-      return null;
-    // test that we got a unique match
-    if (lname.length() < table.getName().length() && it.hasNext()) {
-      ITable next = it.next();
-      if (next.getName().toLowerCase().startsWith(lname))
-        return null;
+  private ITable lookupTableCheckName(IDatabase db, String name) {
+    NameIndex<ITable> idx = getIndexes().dbTables.get(db);
+    if (idx == null) {
+      // Database not part of this schema
+      idx = new NameIndex<>(db.getTableSet(), ITable::getName);
     }
-    return table;
+    return idx.lookupUnique(name.toLowerCase());
   }
 
   /** Lookup a qualified table name */
@@ -254,7 +283,21 @@ public class Schema implements ISchema {
     if ((db == null) || (parts[1] == null) || (!parts[1].startsWith("_"))) {
       return null;
     }
-    return lookupTableCheckName(db.getTableSet().tailSet(new Table(parts[1])), parts[1]);
+    return lookupTableCheckName(db, parts[1]);
+  }
+
+  private static class Indexes {
+    private final NameIndex<ITable> allTables;
+    private final Map<IDatabase, NameIndex<ITable>> dbTables = new IdentityHashMap<>();
+    private final FieldNameIndex fields;
+
+    Indexes(Collection<IDatabase> dbSet, Collection<ITable> allTables) {
+      this.allTables = new NameIndex<>(allTables, ITable::getName);
+      for (IDatabase db : dbSet) {
+        dbTables.put(db, new NameIndex<>(db.getTableSet(), ITable::getName));
+      }
+      this.fields = new FieldNameIndex(allTables);
+    }
   }
 
   private class SchemaLineProcessor implements LineProcessor<Void> {
@@ -35,6 +35,8 @@ public class Table implements ITable {
   private List<IField> fieldPosOrder = new ArrayList<>();
   private List<IIndex> indexes = new ArrayList<>();
   private SortedSet<IField> fieldSet = new TreeSet<>(Constants.FIELD_NAME_ORDER);
+  // Built on first lookup, discarded when a field is added
+  private volatile NameIndex<IField> fieldIndex;
 
   /** Constructor for schema */
   public Table(String name, IDatabase database) {
@@ -62,6 +64,7 @@ public class Table implements ITable {
   public void add(IField field) {
     fieldSet.add(field);
     fieldPosOrder.add(field);
+    fieldIndex = null;
   }
 
   @Override
@@ -121,13 +124,12 @@ public class Table implements ITable {
 
   @Override
   public IField lookupField(String lookupName) {
-    SortedSet<IField> fieldTailSet = fieldSet.tailSet(new Field(lookupName));
-    if (fieldTailSet.isEmpty())
-      return null;
-    IField field = fieldTailSet.first();
-    if (field == null || !field.getName().toLowerCase().startsWith(lookupName.toLowerCase()))
-      return null;
-    return field;
+    NameIndex<IField> idx = fieldIndex;
+    if (idx == null) {
+      idx = new NameIndex<>(fieldSet, IField::getName);
+      fieldIndex = idx;
+    }
+    return idx.lookup(lookupName.toLowerCase());
   }
 
   @Override
@@ -28,11 +28,13 @@ public class ClassFinder {
   private static final Logger LOGGER = LoggerFactory.getLogger(ClassFinder.class);
 
   private RefactorSession session;
+  private final StringPool names;
   private List<String> paths = new ArrayList<>();
   private Map<String, String> namesMap = new HashMap<>();
 
   public ClassFinder(RefactorSession session) {
     this.session = session;
+    this.names = session.getTokenTextPool();
   }
 
   /**
@@ -48,7 +50,7 @@ public class ClassFinder {
     } else {
       int dotPos = dequoted.lastIndexOf('.');
       String unqualified = dotPos > 0 ? dequoted.substring(dotPos + 1) : dequoted;
-      unqualified = unqualified.toLowerCase();
+      unqualified = names.toLowerCase(unqualified);
       // First match takes precedence.
       if (!namesMap.containsKey(unqualified))
         namesMap.put(unqualified, dequoted);
@@ -101,7 +103,7 @@ public class ClassFinder {
       return dequotedName;
 
     // Check if USING class name, or if the class file has already been found.
-    String ret = namesMap.get(dequotedName.toLowerCase());
+    String ret = namesMap.get(names.toLowerCase(dequotedName));
     if (ret != null)
       return ret;
 
@@ -111,14 +113,14 @@ public class ClassFinder {
       String classFile = session.findFile(path + withExtension);
       if (classFile.length() != 0) {
         ret = path.replace('/', '.') + dequotedName;
-        namesMap.put(dequotedName.toLowerCase(), ret);
+        namesMap.put(names.toLowerCase(dequotedName), ret);
         return ret;
       }
     }
 
     // The last chance is for a "no package" name on the path.
     if (session.findFile(dequotedName + ".cls").length() > 0) {
-      namesMap.put(dequotedName.toLowerCase(), dequotedName);
+      namesMap.put(names.toLowerCase(dequotedName), dequotedName);
       return dequotedName;
     }
 
@@ -21,9 +21,6 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
-import org.antlr.v4.runtime.RuleContext;
-import org.antlr.v4.runtime.tree.ParseTreeProperty;
-import org.antlr.v4.runtime.tree.RuleNode;
 import org.prorefactor.core.ABLNodeType;
 import org.prorefactor.core.IConstants;
 import org.prorefactor.core.JPNode;
@@ -45,6 +42,7 @@ public class ParserSupport {
   private static final Logger LOG = LoggerFactory.getLogger(ParserSupport.class);
 
   private final RefactorSession session;
+  private final StringPool names;
   private final ClassFinder classFinder;
   // Scope for the compile unit or class. It might be "sub" to a super scope in a class hierarchy
   private final RootSymbolScope unitScope;
@@ -68,15 +66,12 @@ public class ParserSupport {
   // TEMP-ANTLR4
   private String lastFieldIDStr;
 
-  private ParseTreeProperty<FieldType> recordExpressions = new ParseTreeProperty<>();
-  private ParseTreeProperty<org.prorefactor.proparse.antlr4.JPNode> nodes = new ParseTreeProperty<>();
-
   // TEMP-ANTLR4
   private List<SymbolScope> innerScopes = new ArrayList<>();
-  private Map<RuleContext, SymbolScope> innerScopesMap = new HashMap<>();
 
   public ParserSupport(RefactorSession session, IntegerIndex<String> fileNameList) {
     this.session = session;
+    this.names = session.getTokenTextPool();
     this.unitScope = new RootSymbolScope(session);
     this.currentScope = unitScope;
     this.classFinder = new ClassFinder(session);
@@ -102,7 +97,7 @@ public class ParserSupport {
    * </ul>
    */
   public int abbrevDatatype(String text) {
-    String s = text.toLowerCase();
+    String s = names.toLowerCase(text);
     if ("cha".startsWith(s))
       return ProParserTokenTypes.CHARACTER;
     if ("da".equals(s) || "dat".equals(s))
@@ -123,24 +118,25 @@ public class ParserSupport {
   }
 
   // TEMP-ANTLR4
-  public void visitorResetScope(RuleContext ctx) {
-    currentScope = unitScope;
+  public SymbolScope getCurrentScope() {
+    return currentScope;
   }
 
-  // TEMP-ANTLR4
-  public void visitorEnterScope(RuleContext ctx) {
-    SymbolScope scope = innerScopesMap.get(ctx);
-    if (scope != null) {
+  /**
+   * Restore scope which was active when a code block was parsed. Scope is attached to the code block context by the
+   * parser, so no lookup table has to be kept.
+   * 
+   * @return Scope to be restored with {@link #visitorExitScope(SymbolScope)}
+   */
+  public SymbolScope visitorEnterScope(SymbolScope scope) {
+    SymbolScope previous = currentScope;
+    if (scope != null)
       currentScope = scope;
-    }
+    return previous;
   }
 
-  // TEMP-ANTLR4
-  public void visitorExitScope(RuleContext ctx) {
-    SymbolScope scope = innerScopesMap.get(ctx);
-    if (scope != null) {
-      currentScope = currentScope.getSuperScope();
-    }
+  public void visitorExitScope(SymbolScope previous) {
+    currentScope = previous;
   }
 
   public void addInnerScope() {
@@ -148,12 +144,6 @@ public class ParserSupport {
     innerScopes.add(currentScope);
   }
 
-  // TEMP-ANTLR4
-  public void addInnerScope(RuleContext ctx) {
-    addInnerScope();
-    innerScopesMap.put(ctx, currentScope);
-  }
-
   // TEMP-ANTLR4
   public RootSymbolScope getUnitScope() {
     return unitScope;
@@ -199,7 +189,7 @@ public class ParserSupport {
     // I think the compiler will only allow table defs at the class/unit scope,
     // but we don't need to enforce that here. It'll go in the right spot by the
     // nature of the code.
-    currentScope.defineTable(name.toLowerCase(), ttype);
+    currentScope.defineTable(names.toLowerCase(name), ttype);
   }
 
   public void defVar(String name) {
@@ -258,19 +248,17 @@ public class ParserSupport {
   }
 
   void funcBegin(JPNode idNode) {
-    funcBegin(idNode.getText(), null);
+    funcBegin(idNode.getText());
   }
 
-  public void funcBegin(String name, RuleContext ctx) {
-    String lowername = name.toLowerCase();
+  public void funcBegin(String name) {
+    String lowername = names.toLowerCase(name);
     SymbolScope ss = funcScopeMap.get(lowername);
     if (ss != null) {
       currentScope = ss;
     } else {
       currentScope = new SymbolScope(session, currentScope);
       innerScopes.add(currentScope);
-      if (ctx != null)
-        innerScopesMap.put(ctx, currentScope);
       funcScopeMap.put(lowername, currentScope);
       // User functions are always at the "unit" scope.
       unitScope.defFunc(lowername);
@@ -299,20 +287,16 @@ public class ParserSupport {
       recname += ".";
       recname += lt3.getText();
     }
-    return (schemaTablePriority ? isTableSchemaFirst(recname.toLowerCase()) : isTable(recname.toLowerCase())) != null;
-  }
-
-  public void pushNode(RuleNode ctx, org.prorefactor.proparse.antlr4.JPNode node) {
-    nodes.put(ctx, node);
+    String lowerName = names.toLowerCase(recname);
+    return (schemaTablePriority ? isTableSchemaFirst(lowerName) : isTable(lowerName)) != null;
   }
 
-  public void pushRecordExpression(RuleContext ctx, String recName) {
-    recordExpressions.put(ctx, schemaTablePriority ? currentScope.isTableSchemaFirst(recName.toLowerCase())
-        : currentScope.isTable(recName.toLowerCase()));
-  }
-
-  public FieldType getRecordExpression(RuleContext ctx) {
-    return recordExpressions.get(ctx);
+  /**
+   * Store type of a record reference, evaluated at parse time. Result is kept in the record context.
+   */
+  public FieldType getRecordExpression(String recName) {
+    return schemaTablePriority ? currentScope.isTableSchemaFirst(names.toLowerCase(recName))
+        : currentScope.isTable(names.toLowerCase(recName));
   }
 
   public FieldType isTable(String inName) {
@@ -336,7 +320,7 @@ public class ParserSupport {
     }
     if (isVar(name))
       return false;
-    return null != isTable(name.toLowerCase());
+    return null != isTable(names.toLowerCase(name));
   }
 
   /** Returns true if the lookahead is a table name, and not a var name. */
@@ -346,7 +330,7 @@ public class ParserSupport {
       return false;
     if (isVar(lt1.getText()))
       return false;
-    return null != isTable(lt1.getText().toLowerCase());
+    return null != isTable(names.toLowerCase(lt1.getText()));
   }
 
   public boolean isVar(String name) {
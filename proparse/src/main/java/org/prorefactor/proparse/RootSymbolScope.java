@@ -43,7 +43,7 @@ public class RootSymbolScope extends SymbolScope {
   }
 
   void defFunc(String name) {
-    functionSet.add(name.toLowerCase());
+    functionSet.add(getNames().toLowerCase(name));
   }
 
   @Override
@@ -90,7 +90,7 @@ public class RootSymbolScope extends SymbolScope {
    */
   @Override
   int isMethodOrFunction(String name) {
-    String lname = name.toLowerCase();
+    String lname = getNames().toLowerCase(name);
     // Methods take precedent over built-in functions. The compiler (10.2b)
     // does not seem to try recognize by function/method signature.
     ITypeInfo info = typeInfo;
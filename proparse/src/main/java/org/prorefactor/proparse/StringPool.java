@@ -0,0 +1,115 @@
+/********************************************************************************
+ * Copyright (c) 2015-2018 Riverside Software
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU Lesser General Public License v3.0
+ * which is available at https://www.gnu.org/licenses/lgpl-3.0.txt
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR LGPL-3.0
+ ********************************************************************************/
+package org.prorefactor.proparse;
+
+/**
+ * Pool of canonical String instances, looked up directly from a CharSequence (usually the lexer's StringBuilder), so
+ * that the text of identifiers, keywords and short tokens is only allocated the first time it's seen in a session.
+ * Open addressing, linear probing. Once {@link #MAX_ENTRIES} strings have been pooled, new text is not pooled anymore
+ * and a fresh String is returned. The pool is owned by the session, and {@link #clear()} is called when a cached
+ * session is discarded, so that pooled text doesn't outlive the analysis.
+ * 
+ * Case-folded identifiers are pooled as well, so that keys of case-insensitive symbol maps are shared.
+ *
+ * Thread-safe
+ */
+public class StringPool {
+  public static final int MAX_ENTRIES = 1 << 17;
+
+  private String[] table = new String[1024];
+  private int size;
+
+  /**
+   * Returns a String with the same content as seq, shared with any previous call with the same content
+   */
+  public synchronized String intern(CharSequence seq) {
+    int hash = hash(seq);
+    int mask = table.length - 1;
+    int pos = hash & mask;
+    String str;
+    while ((str = table[pos]) != null) {
+      if ((str.hashCode() == hash) && contentEquals(str, seq))
+        return str;
+      pos = (pos + 1) & mask;
+    }
+    str = seq.toString();
+    if (size >= MAX_ENTRIES)
+      return str;
+    table[pos] = str;
+    if (++size > (table.length >> 1))
+      rehash();
+
+    return str;
+  }
+
+  /**
+   * Returns the lowercase version of name, to be used as a key in case-insensitive maps. Name is returned as is if
+   * already in lowercase, otherwise the lowercase version is pooled.
+   */
+  public String toLowerCase(String name) {
+    String lower = name.toLowerCase();
+    // String.toLowerCase() returns the same instance when there's nothing to convert
+    return lower == name ? name : intern(lower);
+  }
+
+  public synchronized int size() {
+    return size;
+  }
+
+  /**
+   * Release all pooled strings. Strings previously returned are still valid, they're just not shared with the next
+   * ones anymore.
+   */
+  public synchronized void clear() {
+    table = new String[1024];
+    size = 0;
+  }
+
+  private void rehash() {
+    String[] newTable = new String[table.length << 1];
+    int mask = newTable.length - 1;
+    for (String str : table) {
+      if (str != null) {
+        int pos = str.hashCode() & mask;
+        while (newTable[pos] != null) {
+          pos = (pos + 1) & mask;
+        }
+        newTable[pos] = str;
+      }
+    }
+    table = newTable;
+  }
+
+  /**
+   * Same algorithm as {@link String#hashCode()}
+   */
+  private static int hash(CharSequence seq) {
+    int h = 0;
+    for (int zz = 0; zz < seq.length(); zz++) {
+      h = 31 * h + seq.charAt(zz);
+    }
+    return h;
+  }
+
+  private static boolean contentEquals(String str, CharSequence seq) {
+    if (str.length() != seq.length())
+      return false;
+    for (int zz = 0; zz < str.length(); zz++) {
+      if (str.charAt(zz) != seq.charAt(zz))
+        return false;
+    }
+    return true;
+  }
+}
@@ -28,6 +28,7 @@ import org.prorefactor.refactor.RefactorSession;
 
 public class SymbolScope {
   private final RefactorSession session;
+  private final StringPool names;
   private final SymbolScope superScope;
 
   private final Map<String, TableRef> tableMap = new HashMap<>();
@@ -40,6 +41,7 @@ public class SymbolScope {
 
   SymbolScope(RefactorSession session, SymbolScope superScope) {
     this.session = session;
+    this.names = session.getTokenTextPool();
     this.superScope = superScope;
   }
 
@@ -47,6 +49,10 @@ public class SymbolScope {
     return session;
   }
 
+  StringPool getNames() {
+    return names;
+  }
+
   SymbolScope getSuperScope() {
     return superScope;
   }
@@ -56,9 +62,9 @@ public class SymbolScope {
     // adding the new ref. This is in case they have done:
     // DEFINE BUFFER customer FOR customer. (groan)
     // ...otherwise we find ourself, with type not defined yet...
-    tableName = tableName.toLowerCase();
+    tableName = names.toLowerCase(tableName);
     FieldType bufferType = isTableSchemaFirst(tableName);
-    bufferName = bufferName.toLowerCase();
+    bufferName = names.toLowerCase(bufferName);
     TableRef newRef = new TableRef();
     newRef.bufferFor = tableName;
     newRef.tableType = bufferType;
@@ -85,16 +91,16 @@ public class SymbolScope {
   void defineTable(String name, FieldType ttype) {
     TableRef newTable = new TableRef();
     newTable.tableType = ttype;
-    tableMap.put(name.toLowerCase(), newTable);
+    tableMap.put(names.toLowerCase(name), newTable);
   }
 
   void defineVar(String name) {
-    varSet.add(name.toLowerCase());
+    varSet.add(names.toLowerCase(name));
   }
 
   void defineInlineVar(String name) {
     defineVar(name);
-    inlineVarSet.add(name.toLowerCase());
+    inlineVarSet.add(names.toLowerCase(name));
   }
 
   /** Returns null if false, else, the table type */
@@ -153,7 +159,7 @@ public class SymbolScope {
 
   boolean isVariable(String name) {
     // Variable names cannot be abbreviated.
-    if (varSet.contains(name.toLowerCase()))
+    if (varSet.contains(names.toLowerCase(name)))
       return true;
     if (superScope != null)
       return superScope.isVariable(name);
@@ -161,7 +167,7 @@ public class SymbolScope {
   }
 
   boolean isInlineVariable(String name) {
-    if (inlineVarSet.contains(name.toLowerCase()))
+    if (inlineVarSet.contains(names.toLowerCase(name)))
       return true;
 
     return false;
@@ -14,7 +14,7 @@
  ********************************************************************************/
 package org.prorefactor.proparse.antlr4;
 
-import java.util.LinkedList;
+import java.util.ArrayDeque;
 import java.util.Queue;
 
 import org.antlr.v4.runtime.CharStream;
@@ -33,7 +33,7 @@ import org.prorefactor.core.ABLNodeType;
  */
 public class FunctionKeywordTokenFilter implements TokenSource {
   private final TokenSource source;
-  private final Queue<Token> heap = new LinkedList<>();
+  private final Queue<Token> heap = new ArrayDeque<>();
 
   public FunctionKeywordTokenFilter(TokenSource source) {
     this.source = source;
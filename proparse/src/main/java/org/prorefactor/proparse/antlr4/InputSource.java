@@ -18,7 +18,14 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.StandardOpenOption;
 
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
@@ -26,8 +33,6 @@ import javax.annotation.Nonnull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.google.common.io.ByteProcessor;
-import com.google.common.io.ByteSource;
 import com.google.common.io.ByteStreams;
 
 /**
@@ -43,12 +48,16 @@ import com.google.common.io.ByteStreams;
  */
 public class InputSource {
   private static final Logger LOGGER = LoggerFactory.getLogger(InputSource.class);
+  // Files up to this size are read in a per-thread buffer, larger files in a dedicated one
+  private static final int READ_BUFFER_SIZE = 64 * 1024;
+  private static final ThreadLocal<ByteBuffer> READ_BUFFER = ThreadLocal.withInitial(() -> ByteBuffer.allocate(READ_BUFFER_SIZE));
 
   // TODO Almost sure those two fields are useless
   private final boolean primaryInput;
   private final int sourceNum;
 
-  private final String fileContent;
+  private final char[] fileContent;
+  private final int contentLength;
   private final int fileIndex;
   private final boolean macroExpansion;
 
@@ -61,7 +70,8 @@ public class InputSource {
     LOGGER.trace("New InputSource object for macro element '{}'", str);
     this.sourceNum = sourceNum;
     this.primaryInput = false;
-    this.fileContent = str;
+    this.fileContent = str.toCharArray();
+    this.contentLength = fileContent.length;
     this.fileIndex = fileIndex;
     this.macroExpansion = true;
     this.nextLine = line;
@@ -73,7 +83,17 @@ public class InputSource {
   }
 
   public InputSource(int sourceNum, File file, Charset charset, int fileIndex, boolean isPrimary, boolean skipXCode) throws IOException {
-    this(sourceNum, file.getName(), new FileInputStream(file), charset, fileIndex, isPrimary, skipXCode);
+    LOGGER.trace("New InputSource object for include file '{}'", file.getName());
+    this.sourceNum = sourceNum;
+    this.primaryInput = isPrimary;
+    this.fileIndex = fileIndex;
+    this.macroExpansion = false;
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      CharBuffer content = decode(file.getName(), read(channel), charset, skipXCode);
+      this.fileContent = content.array();
+      this.contentLength = content.limit();
+    }
+    skipBOM();
   }
 
   public InputSource(int sourceNum, String fileName, InputStream file, Charset charset, int fileIndex, boolean isPrimary, boolean skipCode) throws IOException {
@@ -82,18 +102,78 @@ public class InputSource {
     this.primaryInput = isPrimary;
     this.fileIndex = fileIndex;
     this.macroExpansion = false;
-    ByteSource src = ByteSource.wrap(ByteStreams.toByteArray(file));
-    if (src.read(new XCodedFileByteProcessor())) {
-      if (skipCode)
-        this.fileContent = " ";
+    // Stream is not closed here, so channel can't be closed either
+    ByteBuffer bytes = file instanceof FileInputStream ? read(((FileInputStream) file).getChannel())
+        : ByteBuffer.wrap(ByteStreams.toByteArray(file));
+    CharBuffer content = decode(fileName, bytes, charset, skipCode);
+    this.fileContent = content.array();
+    this.contentLength = content.limit();
+    skipBOM();
+  }
+
+  private void skipBOM() {
+    // Skip first character if it's a BOM
+    if ((contentLength > 0) && (fileContent[0] == 0xFEFF))
+      currPos++;
+  }
+
+  /**
+   * Small files are read in a buffer re-used by the current thread, returned buffer is then only valid until next call.
+   * Larger files are read in a right-sized buffer which is not kept, so that one large file doesn't pin memory for the
+   * lifetime of the thread.
+   */
+  private static ByteBuffer read(FileChannel channel) throws IOException {
+    long size = channel.size() - channel.position();
+    if (size > Integer.MAX_VALUE)
+      throw new IOException("File too large: " + size + " bytes");
+    ByteBuffer buf = size <= READ_BUFFER_SIZE ? READ_BUFFER.get() : ByteBuffer.allocate((int) size);
+    buf.clear();
+    buf.limit((int) size);
+    while (buf.hasRemaining() && (channel.read(buf) >= 0)) {
+      // Nothing
+    }
+    buf.flip();
+    return buf;
+  }
+
+  /**
+   * Decode bytes in a new array-backed CharBuffer, flipped. Malformed input and unmappable characters are replaced by
+   * 0xFFFD, as String decoding does.
+   * 
+   * @throws XCodedFileException If file is XCode'd and skipXCode is false
+   */
+  private static CharBuffer decode(String fileName, ByteBuffer bytes, Charset charset, boolean skipXCode)
+      throws IOException {
+    // XCode'd files start with byte 0x11 or 0x13
+    if (bytes.hasRemaining() && ((bytes.get(bytes.position()) == 0x11) || (bytes.get(bytes.position()) == 0x13))) {
+      if (skipXCode)
+        return CharBuffer.wrap(new char[] {' '});
       else
         throw new XCodedFileException(fileName);
-    } else {
-      this.fileContent = src.asCharSource(charset).read();
     }
-    // Skip first character if it's a BOM
-    if (!fileContent.isEmpty() && fileContent.charAt(0) == 0xFEFF)
-      currPos++;
+    CharsetDecoder decoder = charset.newDecoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(
+        CodingErrorAction.REPLACE);
+    CharBuffer out = CharBuffer.allocate((int) (bytes.remaining() * (double) decoder.averageCharsPerByte()) + 16);
+    CoderResult result = decoder.decode(bytes, out, true);
+    while (!result.isUnderflow()) {
+      if (result.isOverflow())
+        out = grow(out);
+      else
+        result.throwException();
+      result = decoder.decode(bytes, out, true);
+    }
+    while (decoder.flush(out).isOverflow()) {
+      out = grow(out);
+    }
+    out.flip();
+    return out;
+  }
+
+  private static CharBuffer grow(CharBuffer buf) {
+    CharBuffer newBuf = CharBuffer.allocate(2 * buf.capacity() + 16);
+    buf.flip();
+    newBuf.put(buf);
+    return newBuf;
   }
 
   public int get() {
@@ -101,11 +181,11 @@ public class InputSource {
     // at column 0 of the following line.
     // If this is a macro expansion, then we don't increment column or line number. Those just stay put at the file
     // position where the macro '{' was referenced.
-    if (currPos >= fileContent.length()) {
+    if (currPos >= contentLength) {
       return -1;
     }
 
-    int currChar = fileContent.charAt(currPos++);
+    int currChar = fileContent[currPos++];
     if (!macroExpansion) {
       if (currChar == '\n') {
         nextLine++;
@@ -117,6 +197,40 @@ public class InputSource {
     return currChar;
   }
 
+  /**
+   * Bulk access to the buffer. Returns the number of consecutive characters, starting at current position, which are
+   * flagged in plainChars (or which are greater than 255 if highChars is true). Position is not modified.
+   */
+  public int plainRunLength(boolean[] plainChars, boolean highChars) {
+    int pos = currPos;
+    while (pos < contentLength) {
+      char c = fileContent[pos];
+      if ((c < plainChars.length) ? !plainChars[c] : (!highChars || (c == 0xFFFD)))
+        break;
+      pos++;
+    }
+    return pos - currPos;
+  }
+
+  /**
+   * Bulk read of len characters, appended to sb. Line and column are updated the same way {@link #get()} does.
+   */
+  public void appendRun(StringBuilder sb, int len) {
+    int end = currPos + len;
+    sb.append(fileContent, currPos, len);
+    if (!macroExpansion) {
+      for (; currPos < end; currPos++) {
+        if (fileContent[currPos] == '\n') {
+          nextLine++;
+          nextCol = 1;
+        } else {
+          nextCol++;
+        }
+      }
+    }
+    currPos = end;
+  }
+
   public int getFileIndex() {
     return fileIndex;
   }
@@ -157,23 +271,4 @@ public class InputSource {
   public void setNextLine(int nextLine) {
     this.nextLine = nextLine;
   }
-
-  /**
-   * XCode'd files start with byte 0x11 or 0x13
-   */
-  private class XCodedFileByteProcessor implements ByteProcessor<Boolean> {
-    private boolean isXCoded = false;
-
-    @Override
-    public boolean processBytes(byte[] buf, int off, int len) throws IOException {
-      isXCoded = (len > 0) && ((buf[0] == 0x11) || (buf[0] == 0x13));
-      // No need to read more bytes
-      return false;
-    }
-
-    @Override
-    public Boolean getResult() {
-      return isXCoded;
-    }
-  }
 }
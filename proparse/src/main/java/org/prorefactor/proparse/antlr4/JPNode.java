@@ -20,7 +20,6 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 
-import org.antlr.v4.runtime.tree.RuleNode;
 import org.prorefactor.core.ABLNodeType;
 import org.prorefactor.core.AttributeKey;
 import org.prorefactor.core.AttributeValue;
@@ -558,6 +557,32 @@ public class JPNode implements AST {
 
 
 
+  ProToken getToken() {
+    return token;
+  }
+
+  /**
+   * Copy all attributes to the ANTLR2 version of this node. Links are not copied, as they're only set by the tree
+   * parsers.
+   */
+  void copyAttributes(org.prorefactor.core.JPNode target) {
+    if (attrMap != null) {
+      for (Map.Entry<Integer, Integer> entry : attrMap.entrySet()) {
+        target.attrSet(entry.getKey(), entry.getValue().intValue());
+      }
+    }
+    if (attrMapStrings != null) {
+      for (Map.Entry<String, String> entry : attrMapStrings.entrySet()) {
+        target.attrSetS(entry.getKey(), entry.getValue());
+      }
+    }
+    if (stringAttributes != null) {
+      for (Map.Entry<Integer, String> entry : stringAttributes.entrySet()) {
+        target.attrSet(entry.getKey().intValue(), entry.getValue());
+      }
+    }
+  }
+
   private void initAttrMap() {
     if (attrMap == null) {
       attrMap = new HashMap<>();
@@ -683,7 +708,6 @@ public class JPNode implements AST {
 
   public static class Builder {
     private ProToken tok;
-    private RuleNode ctx;
     private Builder right;
     private Builder down;
     private boolean stmt;
@@ -705,11 +729,6 @@ public class JPNode implements AST {
       this(new ProToken(type, text));
     }
 
-    public Builder setRuleNode(RuleNode ctx) {
-      this.ctx = ctx;
-      return this;
-    }
-
     public Builder setRight(Builder right) {
       this.right = right;
       return this;
@@ -734,9 +753,11 @@ public class JPNode implements AST {
     }
 
     public Builder getLast() {
-      if (right == null)
-        return this;
-      return right.getLast();
+      Builder last = this;
+      while (last.right != null) {
+        last = last.right;
+      }
+      return last;
     }
 
     public Builder setStatement() {
@@ -808,7 +829,31 @@ public class JPNode implements AST {
       return this;
     }
 
+    /**
+     * Builds this node and its siblings. Siblings are built in a loop, so that long lists of statements don't
+     * overflow the stack.
+     */
     public JPNode build(ParserSupport support) {
+      JPNode first = null;
+      JPNode prev = null;
+      for (Builder builder = this; builder != null; builder = builder.right) {
+        JPNode node = builder.createNode();
+        if (builder.down != null) {
+          node.down = builder.down.build(support);
+          node.down.up = node;
+        }
+        if (prev == null) {
+          first = node;
+        } else {
+          prev.right = node;
+          node.left = prev;
+        }
+        prev = node;
+      }
+      return first;
+    }
+
+    private JPNode createNode() {
       JPNode node;
       switch (tok.getNodeType()) {
         case FIELD_REF:
@@ -850,16 +895,6 @@ public class JPNode implements AST {
             break;
         }
       }
-      if (down != null) {
-        node.down = down.build(support);
-        node.down.up = node;
-      }
-      if (right != null) {
-        node.right = right.build(support);
-        node.right.left = node;
-      }
-      if (ctx != null)
-        support.pushNode(ctx, node);
       return node;
     }
   }
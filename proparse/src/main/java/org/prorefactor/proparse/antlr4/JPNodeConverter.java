@@ -0,0 +1,163 @@
+/********************************************************************************
+ * Copyright (c) 2015-2018 Riverside Software
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU Lesser General Public License v3.0
+ * which is available at https://www.gnu.org/licenses/lgpl-3.0.txt
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR LGPL-3.0
+ ********************************************************************************/
+package org.prorefactor.proparse.antlr4;
+
+import java.util.List;
+
+import org.antlr.v4.runtime.BufferedTokenStream;
+import org.antlr.v4.runtime.Token;
+import org.prorefactor.core.ABLNodeType;
+import org.prorefactor.core.nodetypes.BlockNode;
+import org.prorefactor.core.nodetypes.FieldRefNode;
+import org.prorefactor.core.nodetypes.ProgramRootNode;
+import org.prorefactor.core.nodetypes.ProparseDirectiveNode;
+import org.prorefactor.core.nodetypes.RecordNameNode;
+import org.prorefactor.proparse.IntegerIndex;
+
+import com.google.common.base.Strings;
+
+/**
+ * Convert the JPNode tree generated by the ANTLR4 parser into the JPNode tree generated by ProParser, so that
+ * TreeParser01 and the checks can run on the result of the ANTLR4 parser. Node classes are the same as those created by
+ * {@link org.prorefactor.proparse.NodeFactory}, and hidden tokens are linked the same way TokenStreamHiddenTokenFilter
+ * does in ANTLR2: every token outside of the default channel is hidden.
+ */
+public class JPNodeConverter {
+  private final IntegerIndex<String> fileNameList;
+  private final org.prorefactor.core.ProToken[] tokens;
+
+  /**
+   * Tokens are converted and linked immediately, so this object has to be created once JPNode tree has been built (as
+   * node types and text can be changed by {@link JPNodeVisitor}).
+   * 
+   * @param stream Token stream used by the parser
+   * @param fileNameList Include files list, from the lexer
+   */
+  public JPNodeConverter(BufferedTokenStream stream, IntegerIndex<String> fileNameList) {
+    this.fileNameList = fileNameList;
+    stream.fill();
+    List<Token> list = stream.getTokens();
+    tokens = new org.prorefactor.core.ProToken[list.size()];
+
+    org.prorefactor.core.ProToken lastVisible = null;
+    org.prorefactor.core.ProToken lastHidden = null;
+    for (int zz = 0; zz < tokens.length; zz++) {
+      Token tok = list.get(zz);
+      org.prorefactor.core.ProToken newTok = convertToken((ProToken) tok);
+      tokens[zz] = newTok;
+      if (tok.getChannel() == Token.DEFAULT_CHANNEL) {
+        newTok.setHiddenBefore(lastHidden);
+        lastVisible = newTok;
+        lastHidden = null;
+      } else {
+        if (lastHidden != null) {
+          lastHidden.setHiddenAfter(newTok);
+          newTok.setHiddenBefore(lastHidden);
+        } else if (lastVisible != null) {
+          lastVisible.setHiddenAfter(newTok);
+        }
+        lastHidden = newTok;
+      }
+    }
+  }
+
+  /**
+   * Return ANTLR2 version of the tree. Parent and previous sibling links are not set, see
+   * {@link ProgramRootNode#backLinkAndFinalize()}
+   */
+  public ProgramRootNode convert(JPNode root) {
+    return (ProgramRootNode) convertNode(root, null);
+  }
+
+  private org.prorefactor.core.JPNode convertNode(JPNode node, JPNode parent) {
+    org.prorefactor.core.JPNode newNode = createNode(getToken(node.getToken()), isBlock(node, parent));
+    node.copyAttributes(newNode);
+    // Siblings are iterated, so that recursion depth is bounded by tree depth and not by length of statement lists
+    org.prorefactor.core.JPNode lastChild = null;
+    for (JPNode child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+      org.prorefactor.core.JPNode newChild = convertNode(child, node);
+      if (lastChild == null)
+        newNode.setFirstChild(newChild);
+      else
+        lastChild.setNextSibling(newChild);
+      lastChild = newChild;
+    }
+    return newNode;
+  }
+
+  private org.prorefactor.core.ProToken getToken(ProToken tok) {
+    int index = tok.getTokenIndex();
+    if ((index >= 0) && (index < tokens.length))
+      return tokens[index];
+    // Synthetic node
+    return new org.prorefactor.core.ProToken(tok.getNodeType(), tok.getText());
+  }
+
+  private org.prorefactor.core.ProToken convertToken(ProToken tok) {
+    // Value of EOF is different in ANTLR2 and ANTLR4
+    return new org.prorefactor.core.ProToken(
+        tok.getNodeType() == ABLNodeType.EOF_ANTLR4 ? ABLNodeType.EOF : tok.getNodeType(), tok.getText(),
+        tok.getFileIndex(), Strings.nullToEmpty(fileNameList.getValue(tok.getFileIndex())), tok.getLine(),
+        tok.getCharPositionInLine(), tok.getEndFileIndex(), tok.getEndLine(), tok.getEndCharPositionInLine(),
+        tok.getMacroSourceNum(), tok.getAnalyzeSuspend(), false, tok.isMacroExpansion());
+  }
+
+  /**
+   * BlockNode objects are created by ProParser for block statements (<code>END PROCEDURE</code> or <code>FOR
+   * EACH</code> in a query are not blocks), CAN-FIND and ON triggers
+   */
+  private static boolean isBlock(JPNode node, JPNode parent) {
+    switch (node.getNodeType()) {
+      case DO:
+      case FOR:
+      case REPEAT:
+      case FUNCTION:
+      case PROCEDURE:
+      case CONSTRUCTOR:
+      case DESTRUCTOR:
+      case METHOD:
+      case CATCH:
+        return node.isStateHead();
+      case ON:
+        return node.isStateHead() || ((parent != null) && (parent.getNodeType() == ABLNodeType.TRIGGERS));
+      case CANFIND:
+      case PROPERTY_GETTER:
+      case PROPERTY_SETTER:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * Same node classes as {@link org.prorefactor.proparse.NodeFactory}
+   */
+  private static org.prorefactor.core.JPNode createNode(org.prorefactor.core.ProToken tok, boolean block) {
+    if (block)
+      return new BlockNode(tok);
+    switch (tok.getNodeType()) {
+      case FIELD_REF:
+        return new FieldRefNode(tok);
+      case PROGRAM_ROOT:
+        return new ProgramRootNode(tok);
+      case RECORD_NAME:
+        return new RecordNameNode(tok);
+      case PROPARSEDIRECTIVE:
+        return new ProparseDirectiveNode(tok);
+      default:
+        return new org.prorefactor.core.JPNode(tok);
+    }
+  }
+}
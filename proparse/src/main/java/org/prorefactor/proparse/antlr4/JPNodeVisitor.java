@@ -20,6 +20,7 @@ import org.antlr.v4.runtime.tree.RuleNode;
 import org.antlr.v4.runtime.tree.TerminalNode;
 import org.prorefactor.core.ABLNodeType;
 import org.prorefactor.proparse.ParserSupport;
+import org.prorefactor.proparse.SymbolScope;
 import org.prorefactor.proparse.antlr4.JPNode.Builder;
 import org.prorefactor.proparse.antlr4.Proparse.*;
 import org.slf4j.Logger;
@@ -43,9 +44,9 @@ public class JPNodeVisitor extends ProparseBaseVisitor<JPNode.Builder> {
 
   @Override
   public JPNode.Builder visitCode_block(Code_blockContext ctx) {
-    support.visitorEnterScope(ctx.getParent());
+    SymbolScope previous = support.visitorEnterScope(ctx.scope);
     JPNode.Builder retVal = createTree(ctx, ABLNodeType.CODE_BLOCK);
-    support.visitorExitScope(ctx.getParent());
+    support.visitorExitScope(previous);
 
     return retVal;
   }
@@ -392,7 +393,7 @@ public class JPNodeVisitor extends ProparseBaseVisitor<JPNode.Builder> {
 
   @Override
   public JPNode.Builder visitRecord(RecordContext ctx) {
-    return visitChildren(ctx).changeType(ABLNodeType.RECORD_NAME).setStoreType(support.getRecordExpression(ctx));
+    return visitChildren(ctx).changeType(ABLNodeType.RECORD_NAME).setStoreType(ctx.storeType);
   }
 
   @Override
@@ -2770,7 +2771,6 @@ public class JPNodeVisitor extends ProparseBaseVisitor<JPNode.Builder> {
       }
     }
     node.setDown(firstChild);
-    node.setRuleNode(ctx);
     return node;
   }
 
@@ -2805,7 +2805,6 @@ public class JPNodeVisitor extends ProparseBaseVisitor<JPNode.Builder> {
     for (int zz = 3; zz < ctx.getChildCount(); zz++) {
       lastNode = lastNode.setRight(visit(ctx.getChild(zz))).getLast();
     }
-    node.setRuleNode(ctx);
     return node;
   }
 
@@ -21,6 +21,7 @@ import java.util.Set;
 import org.prorefactor.core.ABLNodeType;
 import org.prorefactor.macrolevel.MacroDef;
 import org.prorefactor.proparse.ProParserTokenTypes;
+import org.prorefactor.proparse.StringPool;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -31,6 +32,38 @@ public class Lexer  {
   private static final Logger LOGGER = LoggerFactory.getLogger(Lexer.class);
 
   private static final int EOF_CHAR = -1;
+  // Longer tokens (comments, long strings, whitespace runs) are rarely identical, and are not pooled
+  private static final int MAX_POOLED_LENGTH = 32;
+
+  // Characters which can be read in bulk by the fast path (see ProgressLexer#appendRun())
+  private static final boolean[] WS_CHARS = new boolean[256];
+  private static final boolean[] ID_CHARS = new boolean[256];
+  private static final boolean[] COMMENT_CHARS = new boolean[256];
+  private static final boolean[] LINE_COMMENT_CHARS = new boolean[256];
+
+  static {
+    for (char c : " \t\n\f\r".toCharArray()) {
+      WS_CHARS[c] = true;
+    }
+    for (int c = 'a'; c <= 'z'; c++) {
+      ID_CHARS[c] = true;
+      ID_CHARS[Character.toUpperCase(c)] = true;
+    }
+    for (int c = '0'; c <= '9'; c++) {
+      ID_CHARS[c] = true;
+    }
+    for (char c : "_-$#%".toCharArray()) {
+      ID_CHARS[c] = true;
+    }
+    for (int c = 128; c <= 255; c++) {
+      ID_CHARS[c] = true;
+    }
+    // Macros are not expanded in comments, so '{' is a plain character
+    for (int c = 0; c < 256; c++) {
+      COMMENT_CHARS[c] = (c != '*') && (c != '/') && (c != '~') && (c != '\\');
+      LINE_COMMENT_CHARS[c] = (c != '\r') && (c != '\n') && (c != '~') && (c != '\\');
+    }
+  }
 
   /** Lowercase value of current character */
   private int currChar;
@@ -45,6 +78,7 @@ public class Lexer  {
   private StringBuilder currText = new StringBuilder();
 
   private final ProgressLexer prepro;
+  private final StringPool textPool;
 
   private boolean mergeNameDotInId = false;
   private boolean gettingAmpIfDefArg = false;
@@ -65,6 +99,7 @@ public class Lexer  {
 
   Lexer(ProgressLexer prepro) {
     this.prepro = prepro;
+    this.textPool = prepro.getRefactorSession().getTokenTextPool();
     getChar(); // We always assume "currChar" is available.
   }
 
@@ -356,6 +391,7 @@ public class Lexer  {
         case '\n':
         case '\r':
           append();
+          appendRun(WS_CHARS, false);
           getChar();
           break;
         default:
@@ -377,6 +413,7 @@ public class Lexer  {
     append(); // currChar=='*'
     int commentLevel = 1;
     while (commentLevel > 0) {
+      appendRun(COMMENT_CHARS, true);
       getChar();
       unEscapedAppend();
       if (currChar == '/') {
@@ -410,6 +447,7 @@ public class Lexer  {
     append(); // currChar=='/'
 
     while (true) {
+      appendRun(LINE_COMMENT_CHARS, true);
       getChar();
       if ((currInt == EOF_CHAR) || (!prepro.isEscapeCurrent() && (currChar == '\r' || currChar == '\n' ))) {
         prepro.setDoingComment(false);
@@ -803,6 +841,7 @@ public class Lexer  {
         case '^':
         case '`':
           append();
+          appendRun(ID_CHARS, false);
           getChar();
           break;
         case '\\':
@@ -830,9 +869,10 @@ public class Lexer  {
       }
     }
     // See if it's a keyword
+    String text = currentText();
     if (ttype == ABLNodeType.ID)
-      ttype = ABLNodeType.getLiteral(currText.toString(), ttype);
-    return makeToken(ttype);
+      ttype = ABLNodeType.getLiteral(text, ttype);
+    return makeToken(ttype, text);
   }
 
   ProToken ampText() {
@@ -1024,6 +1064,21 @@ public class Lexer  {
     return (currInt == EOF_CHAR || Character.isWhitespace(currChar));
   }
 
+  /**
+   * Appends in one pass all following characters which don't need any preprocessor processing. Current character is
+   * then the last appended one, so getChar() has to be called next, as if the characters were read one by one.
+   */
+  private void appendRun(boolean[] plainChars, boolean highChars) {
+    if (prepro.appendRun(currText, plainChars, highChars) > 0) {
+      currInt = currText.charAt(currText.length() - 1);
+      currChar = Character.toLowerCase(currInt);
+      currFile = prepro.getFileIndex();
+      currLine = prepro.getLine2();
+      currCol = prepro.getColumn();
+      currMacro = prepro.getMacroExpansion();
+    }
+  }
+
   void getChar() {
     currInt = prepro.getChar();
     currChar = Character.toLowerCase(currInt);
@@ -1086,13 +1141,26 @@ public class Lexer  {
   }
 
   ProToken makeToken(ABLNodeType type) {
-    return makeToken(type, currText.toString());
+    return makeToken(type, currentText());
+  }
+
+  /**
+   * Text of current token, shared through the session pool when short enough
+   */
+  private String currentText() {
+    if (currText.length() <= MAX_POOLED_LENGTH)
+      return textPool.intern(currText);
+    return currText.toString();
   }
 
   ProToken makeToken(ABLNodeType type, String text) {
     // Counting lines of code and commented lines only in the main file (textStartFile set to 0)
     if ((textStartFile == 0) && (type == ABLNodeType.COMMENT)) {
-      int numLines = currText.toString().length() - currText.toString().replace("\n", "").length();
+      int numLines = 0;
+      for (int zz = 0; zz < currText.length(); zz++) {
+        if (currText.charAt(zz) == '\n')
+          numLines++;
+      }
       for (int zz = textStartLine; zz <= textStartLine + numLines; zz++) {
         comments.add(zz);
       }
@@ -1100,7 +1168,6 @@ public class Lexer  {
       loc.add(textStartLine);
     }
     ProToken tok = new ProToken(type, text);
-    tok.setText(text);
     tok.setFileIndex(textStartFile);
     tok.setLine(textStartLine);
     tok.setCharPositionInLine(textStartCol);
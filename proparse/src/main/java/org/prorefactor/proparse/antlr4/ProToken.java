@@ -55,16 +55,6 @@ public class ProToken implements WritableToken {
    */
   private int index = -1;
 
-  /**
-   * This is the backing field for {@link #getStartIndex} and {@link #setStartIndex}.
-   */
-  private int start;
-
-  /**
-   * This is the backing field for {@link #getStopIndex} and {@link #setStopIndex}.
-   */
-  private int stop;
-
   private int fileIndex;
   private int endFileIndex;
   private int endLine;
@@ -83,17 +73,6 @@ public class ProToken implements WritableToken {
     this.charPositionInLine = 0;
   }
 
-  public ProToken(int type, int channel, int start, int stop, int line, int col) {
-    this.type = ABLNodeType.getNodeType(type);
-    if (this.type == null)
-      throw new IllegalArgumentException(INVALID_TYPE + type);
-    this.channel = channel;
-    this.start = start;
-    this.stop = stop;
-    this.line = line;
-    this.charPositionInLine = col;
-  }
-
   public int getEndFileIndex() {
     return endFileIndex;
   }
@@ -191,14 +170,20 @@ public class ProToken implements WritableToken {
     return index;
   }
 
+  /**
+   * Character offsets are not tracked (tokens can span several files through the preprocessor), always returns -1
+   */
   @Override
   public int getStartIndex() {
-    return start;
+    return -1;
   }
 
+  /**
+   * Character offsets are not tracked, always returns -1
+   */
   @Override
   public int getStopIndex() {
-    return stop;
+    return -1;
   }
 
   @Override
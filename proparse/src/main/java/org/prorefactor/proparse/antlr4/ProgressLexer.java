@@ -35,6 +35,7 @@ import org.antlr.v4.runtime.TokenSource;
 import org.prorefactor.core.ABLNodeType;
 import org.prorefactor.core.JPNodeMetrics;
 import org.prorefactor.core.ProToken;
+import org.prorefactor.core.ProparseDirectives;
 import org.prorefactor.core.ProparseRuntimeException;
 import org.prorefactor.macrolevel.IPreprocessorEventListener;
 import org.prorefactor.macrolevel.IncludeRef;
@@ -133,6 +134,7 @@ public class ProgressLexer implements TokenSource, IPreprocessor {
   private Lexer lexer;
   private final RefactorSession session;
   private TokenSource wrapper;
+  private final ProparseDirectives directives = new ProparseDirectives();
 
   /**
    * An existing reference to the input stream is required for construction. The caller is responsible for closing that
@@ -199,7 +201,28 @@ public class ProgressLexer implements TokenSource, IPreprocessor {
 
   @Override
   public Token nextToken() {
-    return wrapper.nextToken();
+    return nextIndexedToken();
+  }
+
+  /**
+   * Next token from the filter chain, also registered in the proparse directives index
+   */
+  private Token nextIndexedToken() {
+    Token tok = wrapper.nextToken();
+    if (tok.getType() == ABLNodeType.PROPARSEDIRECTIVE.getType()) {
+      directives.addDirective(tok.getText());
+    } else if (tok.getChannel() == Token.DEFAULT_CHANNEL) {
+      org.prorefactor.proparse.antlr4.ProToken tok2 = (org.prorefactor.proparse.antlr4.ProToken) tok;
+      directives.addToken(tok2.getFileIndex(), tok2.getLine(), tok2.getCharPositionInLine());
+    }
+    return tok;
+  }
+
+  /**
+   * Index of prolint-nowarn directives, complete once all tokens have been read
+   */
+  public ProparseDirectives getProparseDirectives() {
+    return directives;
   }
 
   @Override
@@ -439,6 +462,32 @@ public class ProgressLexer implements TokenSource, IPreprocessor {
     }
   }
 
+  /**
+   * Fast path for the lexer: appends to sb the following characters of the current input source flagged in plainChars
+   * (or greater than 255 if highChars is true), without going through escape, macro and include processing. So
+   * plainChars should never contain '{', '~' or '\\'. Current character, line and column are then the ones of the
+   * last appended character, exactly as if {@link #getChar()} had been called for each character.
+   * 
+   * @return Number of characters appended
+   */
+  int appendRun(StringBuilder sb, boolean[] plainChars, boolean highChars) {
+    if (gotLookahead)
+      return 0;
+    int len = currentInput.plainRunLength(plainChars, highChars);
+    if (len == 0)
+      return 0;
+    if (len > 1)
+      currentInput.appendRun(sb, len - 1);
+    currLine = currentInput.getNextLine();
+    currCol = currentInput.getNextCol();
+    currChar = currentInput.get();
+    sb.append((char) currChar);
+    wasEscape = false;
+    escapeCurrent = false;
+
+    return len;
+  }
+
   // ****************************
   // IPreprocessor implementation
   // ****************************
@@ -1015,6 +1064,10 @@ public class ProgressLexer implements TokenSource, IPreprocessor {
     return ppSettings;
   }
 
+  public RefactorSession getRefactorSession() {
+    return session;
+  }
+
   public boolean isAppBuilderCode() {
     return ((PreprocessorEventListener) lstListener).isAppBuilderCode();
   }
@@ -1108,7 +1161,7 @@ public class ProgressLexer implements TokenSource, IPreprocessor {
 
     @Override
     public antlr.Token nextToken() {
-      return convertToken((org.prorefactor.proparse.antlr4.ProToken) wrapper.nextToken());
+      return convertToken((org.prorefactor.proparse.antlr4.ProToken) nextIndexedToken());
     }
 
     private antlr.Token convertToken(org.prorefactor.proparse.antlr4.ProToken tok) {
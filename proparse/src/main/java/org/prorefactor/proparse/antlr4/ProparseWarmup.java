@@ -0,0 +1,63 @@
+/********************************************************************************
+ * Copyright (c) 2015-2018 Riverside Software
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU Lesser General Public License v3.0
+ * which is available at https://www.gnu.org/licenses/lgpl-3.0.txt
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR LGPL-3.0
+ ********************************************************************************/
+package org.prorefactor.proparse.antlr4;
+
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.prorefactor.refactor.RefactorSession;
+import org.prorefactor.treeparser.ParseUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * ANTLR4 builds the DFA used in adaptive prediction lazily, and this cache is shared by all instances of
+ * {@link Proparse} in the JVM. Parsing a few representative files (bundled in this JAR) before the first real file
+ * avoids paying the full prediction cost on the first files of an analysis.
+ */
+public final class ProparseWarmup {
+  private static final Logger LOG = LoggerFactory.getLogger(ProparseWarmup.class);
+  private static final String[] FILES = {"procedure.p", "Customer.cls", "window.w"};
+  private static final AtomicBoolean DONE = new AtomicBoolean(false);
+
+  private ProparseWarmup() {
+    // No constructor
+  }
+
+  /**
+   * Parse bundled files with ANTLR4 parser. Only executed once per JVM.
+   * 
+   * @return False if warm-up was already executed
+   */
+  public static boolean run(RefactorSession session) {
+    if (!DONE.compareAndSet(false, true))
+      return false;
+    for (String file : FILES) {
+      try (InputStream input = ProparseWarmup.class.getResourceAsStream("warmup/" + file)) {
+        ParseUnit unit = new ParseUnit(input, file, session);
+        unit.setANTLR4(true);
+        unit.parse();
+      } catch (Exception caught) {
+        // Never fails, result of the parse is not used anyway
+        LOG.debug("Unable to parse warm-up file " + file, caught);
+      }
+    }
+    return true;
+  }
+
+  public static boolean isDone() {
+    return DONE.get();
+  }
+}
@@ -14,8 +14,8 @@
  ********************************************************************************/
 package org.prorefactor.proparse.antlr4;
 
+import java.util.ArrayDeque;
 import java.util.Deque;
-import java.util.LinkedList;
 import java.util.NoSuchElementException;
 
 import org.antlr.v4.runtime.CharStream;
@@ -70,8 +70,13 @@ import org.prorefactor.core.ABLNodeType;
  */
 public class TokenList implements TokenSource {
   private final TokenSource source;
-  private final Deque<ProToken> queue = new LinkedList<>();
+  // Array-backed buffers, re-used for every OBJCOLON review
+  private final Deque<ProToken> queue = new ArrayDeque<>();
+  private final Deque<ProToken> comments = new ArrayDeque<>();
+  private final Deque<ProToken> clsName = new ArrayDeque<>();
 
+  // Number of tokens at the head of the queue which can't be modified anymore by reviewObjcolon()
+  private int safeCount;
   private int currentPosition;
   private ProToken currentToken;
 
@@ -80,22 +85,34 @@ public class TokenList implements TokenSource {
   }
 
   private void fillHeap() {
-    ProToken nxt = (ProToken) source.nextToken();
     while (true) {
+      ProToken nxt = (ProToken) source.nextToken();
+      if (!isHidden(nxt) && (nxt.getNodeType() != ABLNodeType.OBJCOLON) && !queue.isEmpty()
+          && isHidden(queue.peekLast())) {
+        // reviewObjcolon() never looks further back than this whitespace, so previous tokens can be released
+        safeCount = queue.size() - 1;
+      }
       queue.offer(nxt);
       if (nxt.getNodeType() == ABLNodeType.OBJCOLON) {
         reviewObjcolon();
       }
-      if ((nxt.getNodeType() == ABLNodeType.OBJCOLON) || (nxt.getNodeType() == ABLNodeType.EOF_ANTLR4))
+      if ((nxt.getNodeType() == ABLNodeType.OBJCOLON) || (nxt.getNodeType() == ABLNodeType.EOF_ANTLR4)) {
+        safeCount = queue.size();
+        break;
+      }
+      if (safeCount > 0)
         break;
-      nxt = (ProToken) source.nextToken();
     }
   }
 
+  private static boolean isHidden(ProToken tok) {
+    return (tok.getNodeType() == ABLNodeType.WS) || (tok.getNodeType() == ABLNodeType.COMMENT);
+  }
+
   private void reviewObjcolon() {
     ProToken objColonToken = queue.removeLast();
-    Deque<ProToken> comments = new LinkedList<>();
-    Deque<ProToken> clsName = new LinkedList<>();
+    comments.clear();
+    clsName.clear();
 
     boolean foundNamedot = false;
     ProToken tok = null;
@@ -163,11 +180,12 @@ public class TokenList implements TokenSource {
       return currentToken;
     }
 
-    if (queue.isEmpty()) {
+    if (safeCount == 0) {
       fillHeap();
     }
 
     ProToken tok = queue.poll();
+    safeCount--;
     if (tok != null) {
       currentToken = tok;
       currentToken.setTokenIndex(currentPosition++);
@@ -18,12 +18,13 @@ package org.prorefactor.refactor;
 import java.io.File;
 import java.nio.charset.Charset;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.annotation.Nullable;
 
 import org.prorefactor.core.schema.ISchema;
+import org.prorefactor.proparse.StringPool;
 import org.prorefactor.refactor.settings.IProparseSettings;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -44,8 +45,10 @@ public class RefactorSession {
   private final ISchema schema;
   private final Charset charset;
 
-  // Structure from rcode
-  private final Map<String, ITypeInfo> typeInfoMap = new HashMap<>();
+  // Structure from rcode, filled concurrently
+  private final Map<String, ITypeInfo> typeInfoMap = new ConcurrentHashMap<>();
+  // Token text shared by all lexers of this session
+  private final StringPool tokenTextPool = new StringPool();
 
   @Inject
   public RefactorSession(IProparseSettings proparseSettings, ISchema schema) {
@@ -74,6 +77,13 @@ public class RefactorSession {
     return proparseSettings;
   }
 
+  /**
+   * Pool of token text (identifiers, keywords, short tokens) shared by all ParseUnits of this session
+   */
+  public StringPool getTokenTextPool() {
+    return tokenTextPool;
+  }
+
   @Nullable
   public ITypeInfo getTypeInfo(String clz) {
     if (clz == null) {
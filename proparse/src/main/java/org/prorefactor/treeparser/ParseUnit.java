@@ -25,8 +25,16 @@ import java.util.List;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
+import org.antlr.v4.runtime.BailErrorStrategy;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.InputMismatchException;
 import org.antlr.v4.runtime.TokenSource;
+import org.antlr.v4.runtime.atn.ParseInfo;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+import org.antlr.v4.runtime.tree.ParseTree;
 import org.prorefactor.core.JPNodeMetrics;
+import org.prorefactor.core.ProparseDirectives;
 import org.prorefactor.core.nodetypes.ProgramRootNode;
 import org.prorefactor.macrolevel.IncludeRef;
 import org.prorefactor.macrolevel.MacroLevel;
@@ -36,7 +44,12 @@ import org.prorefactor.macrolevel.PreprocessorEventListener.EditableCodeSection;
 import org.prorefactor.proparse.IntegerIndex;
 import org.prorefactor.proparse.ParserSupport;
 import org.prorefactor.proparse.ProParser;
+import org.prorefactor.proparse.antlr4.JPNode;
+import org.prorefactor.proparse.antlr4.JPNodeConverter;
+import org.prorefactor.proparse.antlr4.JPNodeVisitor;
+import org.prorefactor.proparse.antlr4.ProToken;
 import org.prorefactor.proparse.antlr4.ProgressLexer;
+import org.prorefactor.proparse.antlr4.Proparse;
 import org.prorefactor.refactor.RefactorSession;
 import org.prorefactor.treeparser01.ITreeParserAction;
 import org.prorefactor.treeparser01.TP01Support;
@@ -48,6 +61,7 @@ import org.w3c.dom.Document;
 import com.google.common.base.Strings;
 
 import antlr.ANTLRException;
+import antlr.RecognitionException;
 import antlr.Token;
 import antlr.TokenStream;
 import antlr.TokenStreamException;
@@ -72,11 +86,15 @@ public class ParseUnit {
   private List<EditableCodeSection> sections;
   private TreeParserRootSymbolScope rootScope;
   private JPNodeMetrics metrics;
+  private ProparseDirectives directives;
   private Document xref = null;
   private ITypeInfo typeInfo = null;
   private List<Integer> trxBlocks;
-  // TEMP-ANTLR4
   private ParserSupport support;
+  private boolean antlr4;
+  private boolean antlr4Profiler;
+  private ParseInfo parseInfo;
+  private boolean llFallback;
 
   public ParseUnit(File file, RefactorSession session) {
     this(file, file.getPath(), session);
@@ -113,6 +131,13 @@ public class ParseUnit {
     return metrics;
   }
 
+  /**
+   * @return Null if unit has not been parsed
+   */
+  public ProparseDirectives getProparseDirectives() {
+    return directives;
+  }
+
   public String getIncludeFileName(int index) {
     if (fileNameList == null)
       return "";
@@ -188,7 +213,41 @@ public class ParseUnit {
     LOGGER.trace("Exiting ParseUnit#lex()");
   }
 
+  /**
+   * Use ANTLR4 grammar instead of ANTLR2 ProParser in {@link #parse()}. Same kind of JPNode tree is generated, although
+   * a few grammar differences remain (see JPNodeConverterTest). No fallback to ProParser in case of error.
+   */
+  public void setANTLR4(boolean antlr4) {
+    this.antlr4 = antlr4;
+  }
+
+  /**
+   * Collect ANTLR4 profiling information, see {@link #getParseInfo()}. Only used with ANTLR4 grammar.
+   */
+  public void setANTLR4Profiler(boolean profiler) {
+    this.antlr4Profiler = profiler;
+  }
+
+  /**
+   * @return Null if ANTLR4 profiler is not enabled
+   */
+  @Nullable
+  public ParseInfo getParseInfo() {
+    return parseInfo;
+  }
+
+  /**
+   * @return True if ANTLR4 parse failed in SLL prediction mode, and was executed again in LL mode
+   */
+  public boolean isLLFallback() {
+    return llFallback;
+  }
+
   public void parse() throws ANTLRException {
+    if (antlr4) {
+      parseANTLR4();
+      return;
+    }
     LOGGER.trace("Entering ParseUnit#parse()");
     
     ProgressLexer lexer = new ProgressLexer(session, getInputStream(), relativeName, false);
@@ -203,12 +262,108 @@ public class ParseUnit {
     appBuilderCode = ((PreprocessorEventListener) lexer.getLstListener()).isAppBuilderCode();
     sections = ((PreprocessorEventListener) lexer.getLstListener()).getEditableCodeSections();
     metrics = lexer.getMetrics();
+    directives = lexer.getProparseDirectives();
     topNode = (ProgramRootNode) parser.getAST();
     support = parser.support;
 
     LOGGER.trace("Exiting ParseUnit#parse()");
   }
 
+  /**
+   * Parse with ANTLR4 grammar, first in SLL mode (fast, but can fail on some valid syntax), then in LL mode. The JPNode
+   * tree is then converted to the ProParser version.
+   * 
+   * @throws RecognitionException On syntax error
+   */
+  private void parseANTLR4() throws RecognitionException {
+    LOGGER.trace("Entering ParseUnit#parseANTLR4()");
+
+    ProgressLexer lexer = new ProgressLexer(session, getInputStream(), relativeName, false);
+    lexer.setMergeNameDotInId(true);
+    CommonTokenStream tokens = new CommonTokenStream(lexer);
+    Proparse parser = new Proparse(tokens);
+    parser.initAntlr4(session, lexer.getFilenameList());
+    parser.setProfile(antlr4Profiler);
+    parser.removeErrorListeners();
+    parser.setErrorHandler(new BailErrorStrategy());
+    parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+
+    // Parse tree and builder nodes are only reachable during this call, and can be collected before conversion
+    JPNode root = buildTree(parser, tokens, lexer).build(parser.getParserSupport());
+    topNode = new JPNodeConverter(tokens, lexer.getFilenameList()).convert(root);
+    topNode.backLinkAndFinalize();
+    lexer.parseComplete();
+
+    fileNameList = lexer.getFilenameList();
+    macroGraph = lexer.getMacroGraph();
+    appBuilderCode = ((PreprocessorEventListener) lexer.getLstListener()).isAppBuilderCode();
+    sections = ((PreprocessorEventListener) lexer.getLstListener()).getEditableCodeSections();
+    metrics = lexer.getMetrics();
+    directives = lexer.getProparseDirectives();
+    support = parser.getParserSupport();
+    if (antlr4Profiler)
+      parseInfo = parser.getParseInfo();
+
+    LOGGER.trace("Exiting ParseUnit#parseANTLR4()");
+  }
+
+  /**
+   * Parse (SLL, then LL) and visit the parse tree. Scope and record information required by the visitor are attached
+   * by the parser to the rule contexts, so nothing refers to the parse tree once this method returns.
+   */
+  private JPNode.Builder buildTree(Proparse parser, CommonTokenStream tokens, ProgressLexer lexer)
+      throws RecognitionException {
+    ParseTree tree;
+    try {
+      tree = parseProgram(parser);
+    } catch (ParseCancellationException uncaught) {
+      // Not necessarily a syntax error, so parse again from the beginning in LL mode
+      LOGGER.debug("Parser switching to LL prediction mode for {}", relativeName);
+      llFallback = true;
+      tokens.seek(0);
+      parser.reset();
+      parser.initAntlr4(session, lexer.getFilenameList());
+      parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+      try {
+        tree = parseProgram(parser);
+      } catch (ParseCancellationException caught) {
+        throw convertException(caught, lexer);
+      }
+    }
+
+    return new JPNodeVisitor(parser.getParserSupport(), tokens).visit(tree);
+  }
+
+  /**
+   * Program rule doesn't fail when it stops before the end of the token stream, so it has to be checked here
+   */
+  private static ParseTree parseProgram(Proparse parser) {
+    ParseTree tree = parser.program();
+    if (parser.getCurrentToken().getType() != org.antlr.v4.runtime.Token.EOF)
+      throw new ParseCancellationException(new InputMismatchException(parser));
+    return tree;
+  }
+
+  /**
+   * Same information as ANTLR2 exceptions, so that errors are reported the same way
+   */
+  private static RecognitionException convertException(ParseCancellationException caught, ProgressLexer lexer) {
+    if (caught.getCause() instanceof org.antlr.v4.runtime.RecognitionException) {
+      org.antlr.v4.runtime.Token tok = ((org.antlr.v4.runtime.RecognitionException) caught.getCause()).getOffendingToken();
+      if (tok instanceof ProToken) {
+        ProToken proTok = (ProToken) tok;
+        RecognitionException exc = new RecognitionException("unexpected token: " + proTok.getText(),
+            Strings.nullToEmpty(lexer.getFilename(proTok.getFileIndex())), proTok.getLine(),
+            proTok.getCharPositionInLine());
+        exc.initCause(caught);
+        return exc;
+      }
+    }
+    RecognitionException exc = new RecognitionException("Syntax error");
+    exc.initCause(caught);
+    return exc;
+  }
+
   /**
    * Run any IJPTreeParser against the AST. This will call parse() if the JPNode AST has not already been built.
    */
@@ -270,7 +425,6 @@ public class ParseUnit {
     return trxBlocks;
   }
 
-  // TEMP-ANTLR4
   public ParserSupport getSupport() {
     return support;
   }
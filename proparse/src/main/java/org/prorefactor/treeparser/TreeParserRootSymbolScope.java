@@ -51,6 +51,7 @@ public class TreeParserRootSymbolScope extends TreeParserSymbolScope {
   private boolean finalClass;
 
   public TreeParserRootSymbolScope(RefactorSession session) {
+    super(session.getTokenTextPool());
     this.refSession = session;
   }
 
@@ -59,7 +60,7 @@ public class TreeParserRootSymbolScope extends TreeParserSymbolScope {
   }
 
   public void addTableDefinitionIfNew(ITable table) {
-    String lowerName = table.getName().toLowerCase();
+    String lowerName = names.toLowerCase(table.getName());
     if (tableMap.get(lowerName) == null)
       tableMap.put(lowerName, table);
   }
@@ -73,13 +74,13 @@ public class TreeParserRootSymbolScope extends TreeParserSymbolScope {
    */
   public TableBuffer defineTable(String name, int type) {
     ITable table = new Table(name, type);
-    tableMap.put(name.toLowerCase(), table);
+    tableMap.put(names.toLowerCase(name), table);
     // Pass empty string for name for default buffer.
     TableBuffer bufferSymbol = new TableBuffer("", this, table);
     // The default buffer for a temp/work table is not "unnamed" the way
     // that the default buffer for schema tables work. So, the buffer
     // goes into the regular bufferMap, rather than the unnamedBuffers map.
-    bufferMap.put(name.toLowerCase(), bufferSymbol);
+    bufferMap.put(names.toLowerCase(name), bufferSymbol);
     return bufferSymbol;
   } // defineTable()
 
@@ -147,7 +148,7 @@ public class TreeParserRootSymbolScope extends TreeParserSymbolScope {
 
   public TableBuffer getLocalTableBuffer(ITable table) {
     assert table.getStoretype() != IConstants.ST_DBTABLE;
-    return bufferMap.get(table.getName().toLowerCase());
+    return bufferMap.get(names.toLowerCase(table.getName()));
   }
 
   @Override
@@ -185,7 +186,7 @@ public class TreeParserRootSymbolScope extends TreeParserSymbolScope {
    * @return null if not found
    */
   public ITable lookupTableDefinition(String name) {
-    return tableMap.get(name.toLowerCase());
+    return tableMap.get(names.toLowerCase(name));
   }
 
   @Override
@@ -27,6 +27,7 @@ import java.util.Set;
 import org.prorefactor.core.IConstants;
 import org.prorefactor.core.schema.ITable;
 import org.prorefactor.proparse.ProParserTokenTypes;
+import org.prorefactor.proparse.StringPool;
 import org.prorefactor.treeparser.symbols.Dataset;
 import org.prorefactor.treeparser.symbols.Datasource;
 import org.prorefactor.treeparser.symbols.Query;
@@ -46,6 +47,8 @@ import org.prorefactor.treeparser.symbols.widgets.IFieldLevelWidget;
  */
 public class TreeParserSymbolScope {
   protected final TreeParserSymbolScope parentScope;
+  // Case-folded names of symbols
+  protected final StringPool names;
 
   protected List<Symbol> allSymbols = new ArrayList<>();
   protected List<Call> callList = new ArrayList<>();
@@ -59,8 +62,8 @@ public class TreeParserSymbolScope {
   protected Map<Integer, Map<String, Symbol>> typeMap = new HashMap<>();
   protected Map<String, Variable> variableMap = new HashMap<>();
 
-  protected TreeParserSymbolScope() {
-    this(null);
+  protected TreeParserSymbolScope(StringPool names) {
+    this(null, names);
   }
 
   /**
@@ -69,14 +72,15 @@ public class TreeParserSymbolScope {
    * @param parentScope null if called by the SymbolScopeRoot constructor.
    */
   @SuppressWarnings({"unchecked", "rawtypes"})
-  private TreeParserSymbolScope(TreeParserSymbolScope parentScope) {
+  private TreeParserSymbolScope(TreeParserSymbolScope parentScope, StringPool names) {
     this.parentScope = parentScope;
+    this.names = names;
     typeMap.put(ProParserTokenTypes.VARIABLE, Collections.checkedMap((Map) variableMap, String.class, Symbol.class));
   }
 
   /** Add a FieldLevelWidget for names lookup. */
   private void add(IFieldLevelWidget widget) {
-    fieldLevelWidgetMap.put(widget.getName().toLowerCase(), widget);
+    fieldLevelWidgetMap.put(names.toLowerCase(widget.getName()), widget);
   }
 
   public void setRoutine(Routine routine) {
@@ -96,7 +100,7 @@ public class TreeParserSymbolScope {
    * the *last added* is what will be found.
    */
   private void add(Routine routine) {
-    routineMap.put(routine.getName().toLowerCase(), routine);
+    routineMap.put(names.toLowerCase(routine.getName()), routine);
   }
 
   /**
@@ -111,7 +115,7 @@ public class TreeParserSymbolScope {
 
   /** Add a Variable for names lookup. */
   private void add(Variable var) {
-    variableMap.put(var.getName().toLowerCase(), var);
+    variableMap.put(names.toLowerCase(var.getName()), var);
   }
 
   /** Add a TableBuffer to the appropriate map. */
@@ -120,9 +124,9 @@ public class TreeParserSymbolScope {
       if (table.getStoretype() == IConstants.ST_DBTABLE)
         unnamedBuffers.put(table, buffer);
       else // default buffers for temp/work tables go into the "named" buffer map
-        bufferMap.put(table.getName().toLowerCase(), buffer);
+        bufferMap.put(names.toLowerCase(table.getName()), buffer);
     } else
-      bufferMap.put(name.toLowerCase(), buffer);
+      bufferMap.put(names.toLowerCase(name), buffer);
   }
 
   /** Add a Symbol for names lookup. */
@@ -141,13 +145,13 @@ public class TreeParserSymbolScope {
         map = new HashMap<>();
         typeMap.put(symbol.getProgressType(), map);
       }
-      map.put(symbol.getName().toLowerCase(), symbol);
+      map.put(names.toLowerCase(symbol.getName()), symbol);
     }
   }
 
   /** Add a new scope to this scope. */
   public TreeParserSymbolScope addScope() {
-    TreeParserSymbolScope newScope = new TreeParserSymbolScope(this);
+    TreeParserSymbolScope newScope = new TreeParserSymbolScope(this, names);
     childScopes.add(newScope);
     return newScope;
   }
@@ -296,7 +300,7 @@ public class TreeParserSymbolScope {
   }
 
   public Variable getVariable(String name) {
-    return variableMap.get(name.toLowerCase());
+    return variableMap.get(names.toLowerCase(name));
   }
 
   /**
@@ -307,7 +311,7 @@ public class TreeParserSymbolScope {
   public boolean hasRoutine(String name) {
     if (name == null)
       return false;
-    return routineMap.containsKey(name.toLowerCase());
+    return routineMap.containsKey(names.toLowerCase(name));
   }
 
   /**
@@ -343,7 +347,7 @@ public class TreeParserSymbolScope {
       dbPart = parts[0];
       bufferPart = parts[1];
     }
-    TableBuffer symbol = bufferMap.get(bufferPart.toLowerCase());
+    TableBuffer symbol = bufferMap.get(names.toLowerCase(bufferPart));
     if (symbol == null || (!dbPart.isEmpty() && !dbPart.equalsIgnoreCase(symbol.getTable().getDatabase().getName()))
         || (!dbPart.isEmpty() && (symbol.getTable().getStoretype() == IConstants.ST_TTABLE))) {
       if (parentScope != null) {
@@ -367,7 +371,7 @@ public class TreeParserSymbolScope {
 
   /** Lookup a FieldLevelWidget in this scope or an enclosing scope. */
   public IFieldLevelWidget lookupFieldLevelWidget(String inName) {
-    IFieldLevelWidget wid = fieldLevelWidgetMap.get(inName.toLowerCase());
+    IFieldLevelWidget wid = fieldLevelWidgetMap.get(names.toLowerCase(inName));
     if (wid == null && parentScope != null)
       return parentScope.lookupFieldLevelWidget(inName);
     return wid;
@@ -378,7 +382,7 @@ public class TreeParserSymbolScope {
   }
 
   public Routine lookupRoutine(String name) {
-    return routineMap.get(name.toLowerCase());
+    return routineMap.get(names.toLowerCase(name));
   }
 
   public Stream lookupStream(String name) {
@@ -398,7 +402,7 @@ public class TreeParserSymbolScope {
     Map<String, Symbol> map = typeMap.get(symbolType);
     if (map == null)
       return null;
-    return map.get(name.toLowerCase());
+    return map.get(names.toLowerCase(name));
   }
 
   /**
@@ -423,7 +427,7 @@ public class TreeParserSymbolScope {
   }
 
   public TableBuffer lookupTempTable(String name) {
-    TableBuffer buff = bufferMap.get(name.toLowerCase());
+    TableBuffer buff = bufferMap.get(names.toLowerCase(name));
     if (buff != null)
       return buff;
     if (parentScope == null)
@@ -439,7 +443,7 @@ public class TreeParserSymbolScope {
    * @return A Variable, or null if not found.
    */
   public Variable lookupVariable(String inName) {
-    Variable var = variableMap.get(inName.toLowerCase());
+    Variable var = variableMap.get(names.toLowerCase(inName));
     if (var == null && parentScope != null)
       return parentScope.lookupVariable(inName);
     return var;
@@ -0,0 +1,137 @@
+/* Representative procedure, used to populate the ANTLR4 DFA cache */
+&GLOBAL-DEFINE MAX_ITEMS 100
+&SCOPED-DEFINE LOG_PREFIX "[warmup] "
+
+DEFINE TEMP-TABLE ttCustomer NO-UNDO
+  FIELD custNum  AS INTEGER
+  FIELD custName AS CHARACTER FORMAT "x(30)" LABEL "Name"
+  FIELD balance  AS DECIMAL DECIMALS 2 INITIAL 0
+  FIELD lastDate AS DATE
+  INDEX pk IS PRIMARY UNIQUE custNum
+  INDEX byName custName.
+
+DEFINE TEMP-TABLE ttOrder NO-UNDO LIKE ttCustomer
+  FIELD orderNum AS INTEGER
+  FIELD amount   AS DECIMAL EXTENT 3.
+
+DEFINE BUFFER bCustomer FOR ttCustomer.
+DEFINE DATASET dsCustomer FOR ttCustomer, ttOrder
+  DATA-RELATION drOrder FOR ttCustomer, ttOrder RELATION-FIELDS (custNum, custNum).
+
+DEFINE VARIABLE iCount  AS INTEGER     NO-UNDO.
+DEFINE VARIABLE cName   AS CHARACTER   NO-UNDO INITIAL "".
+DEFINE VARIABLE dTotal  AS DECIMAL     NO-UNDO.
+DEFINE VARIABLE lFound  AS LOGICAL     NO-UNDO.
+DEFINE VARIABLE hQuery  AS HANDLE      NO-UNDO.
+DEFINE VARIABLE hBuffer AS HANDLE      NO-UNDO.
+DEFINE VARIABLE cList   AS CHARACTER   NO-UNDO EXTENT 5.
+DEFINE VARIABLE oObject AS Progress.Lang.Object NO-UNDO.
+DEFINE STREAM sOut.
+
+DEFINE INPUT  PARAMETER ipMode   AS CHARACTER NO-UNDO.
+DEFINE OUTPUT PARAMETER opResult AS LOGICAL   NO-UNDO.
+
+FUNCTION formatName RETURNS CHARACTER (INPUT pcName AS CHARACTER, INPUT piNum AS INTEGER) FORWARD.
+
+FUNCTION formatName RETURNS CHARACTER (INPUT pcName AS CHARACTER, INPUT piNum AS INTEGER):
+  IF pcName = ? OR TRIM(pcName) = "" THEN
+    RETURN "Customer " + STRING(piNum).
+  RETURN SUBSTITUTE("&1 (&2)", CAPS(SUBSTRING(pcName, 1, 1)) + LC(SUBSTRING(pcName, 2)), piNum).
+END FUNCTION.
+
+ON CLOSE OF THIS-PROCEDURE DO:
+  DELETE OBJECT hQuery NO-ERROR.
+END.
+
+MAIN-BLOCK:
+DO ON ERROR UNDO MAIN-BLOCK, LEAVE MAIN-BLOCK:
+  RUN fillData (INPUT {&MAX_ITEMS}, OUTPUT iCount).
+  RUN computeTotals IN THIS-PROCEDURE (INPUT-OUTPUT dTotal).
+
+  FOR EACH ttCustomer NO-LOCK WHERE ttCustomer.balance > 0 AND ttCustomer.custName BEGINS "A"
+      BY ttCustomer.custName DESCENDING:
+    ASSIGN cName  = formatName(ttCustomer.custName, ttCustomer.custNum)
+           dTotal = dTotal + ttCustomer.balance.
+    IF LENGTH(cName) > 20 THEN NEXT.
+    ELSE IF ttCustomer.balance >= 1000.5 THEN DO:
+      lFound = TRUE.
+      LEAVE.
+    END.
+  END.
+
+  FIND FIRST bCustomer WHERE bCustomer.custNum = 1 NO-LOCK NO-ERROR.
+  IF AVAILABLE bCustomer THEN
+    MESSAGE {&LOG_PREFIX} bCustomer.custName SKIP "Balance:" bCustomer.balance VIEW-AS ALERT-BOX INFORMATION.
+
+  CASE ipMode:
+    WHEN "A" OR WHEN "B" THEN
+      opResult = CAN-FIND(FIRST ttCustomer WHERE ttCustomer.custName MATCHES "*a*").
+    WHEN "C" THEN DO:
+      REPEAT iCount = 1 TO EXTENT(cList):
+        cList[iCount] = ENTRY(iCount, "a,b,c,d,e").
+      END.
+    END.
+    OTHERWISE
+      opResult = NOT lFound.
+  END CASE.
+
+  CREATE QUERY hQuery.
+  hBuffer = BUFFER ttCustomer:HANDLE.
+  hQuery:SET-BUFFERS(hBuffer).
+  hQuery:QUERY-PREPARE("FOR EACH ttCustomer NO-LOCK").
+  hQuery:QUERY-OPEN().
+  DO WHILE hQuery:GET-NEXT():
+    dTotal = dTotal + hBuffer:BUFFER-FIELD("balance"):BUFFER-VALUE.
+  END.
+  hQuery:QUERY-CLOSE().
+
+  OUTPUT STREAM sOut TO VALUE(SESSION:TEMP-DIRECTORY + "warmup.txt").
+  FOR EACH ttCustomer, EACH ttOrder OF ttCustomer WHERE ttOrder.amount[1] > 0 BREAK BY ttCustomer.custNum:
+    IF FIRST-OF(ttCustomer.custNum) THEN
+      PUT STREAM sOut UNFORMATTED ttCustomer.custName SKIP.
+    ACCUMULATE ttOrder.amount[1] (TOTAL BY ttCustomer.custNum).
+    DISPLAY STREAM sOut ttOrder.orderNum ttOrder.amount[1] FORMAT ">>>,>>9.99" WITH FRAME fOrder DOWN.
+  END.
+  OUTPUT STREAM sOut CLOSE.
+
+  oObject = NEW Progress.Lang.Object().
+  IF VALID-OBJECT(oObject) THEN
+    MESSAGE oObject:ToString().
+
+  CATCH e AS Progress.Lang.Error:
+    MESSAGE e:GetMessage(1) VIEW-AS ALERT-BOX ERROR.
+  END CATCH.
+  FINALLY:
+    IF VALID-HANDLE(hQuery) THEN DELETE OBJECT hQuery.
+  END FINALLY.
+END.
+
+PROCEDURE fillData PRIVATE:
+  DEFINE INPUT  PARAMETER piMax   AS INTEGER NO-UNDO.
+  DEFINE OUTPUT PARAMETER piCount AS INTEGER NO-UNDO.
+  DEFINE VARIABLE i AS INTEGER NO-UNDO.
+
+  DO TRANSACTION:
+    DO i = 1 TO piMax BY 1:
+      CREATE ttCustomer.
+      ASSIGN ttCustomer.custNum  = i
+             ttCustomer.custName = IF i MODULO 2 = 0 THEN "Even" ELSE "Odd"
+             ttCustomer.balance  = (i * 10.5) / 3 - 1
+             ttCustomer.lastDate = TODAY - i
+             piCount = piCount + 1.
+      RELEASE ttCustomer.
+    END.
+  END.
+END PROCEDURE.
+
+PROCEDURE computeTotals:
+  DEFINE INPUT-OUTPUT PARAMETER pdTotal AS DECIMAL NO-UNDO.
+
+  FOR EACH ttCustomer EXCLUSIVE-LOCK WHERE ttCustomer.lastDate < TODAY:
+    pdTotal = pdTotal + MAXIMUM(ttCustomer.balance, 0).
+    IF ttCustomer.balance < 0 THEN
+      DELETE ttCustomer.
+  END.
+  {&_proparse_ prolint-nowarn(noundo)}
+  RETURN STRING(pdTotal).
+END PROCEDURE.
@@ -0,0 +1,94 @@
+&ANALYZE-SUSPEND _VERSION-NUMBER AB_v10r12 GUI
+&ANALYZE-RESUME
+/* Representative AppBuilder window, used to populate the ANTLR4 DFA cache */
+&Scoped-define WINDOW-NAME wWin
+&Scoped-define FRAME-NAME fMain
+&Scoped-define ENABLED-OBJECTS fiName btnOk btnCancel
+
+DEFINE VARIABLE wWin AS WIDGET-HANDLE NO-UNDO.
+
+DEFINE BUTTON btnOk AUTO-GO LABEL "OK" SIZE 15 BY 1.14.
+DEFINE BUTTON btnCancel AUTO-END-KEY LABEL "Cancel" SIZE 15 BY 1.14.
+DEFINE VARIABLE fiName AS CHARACTER FORMAT "X(256)":U LABEL "Name" VIEW-AS FILL-IN SIZE 40 BY 1 NO-UNDO.
+DEFINE VARIABLE cbType AS CHARACTER FORMAT "X(256)":U LABEL "Type"
+  VIEW-AS COMBO-BOX INNER-LINES 5 LIST-ITEMS "A","B","C" DROP-DOWN-LIST SIZE 16 BY 1 NO-UNDO.
+DEFINE VARIABLE tgActive AS LOGICAL INITIAL NO LABEL "Active" VIEW-AS TOGGLE-BOX SIZE 12 BY .81 NO-UNDO.
+
+DEFINE FRAME fMain
+  fiName AT ROW 1.48 COL 12 COLON-ALIGNED
+  cbType AT ROW 2.67 COL 12 COLON-ALIGNED
+  tgActive AT ROW 3.86 COL 14
+  btnOk AT ROW 5.52 COL 14
+  btnCancel AT ROW 5.52 COL 31
+  WITH 1 DOWN NO-BOX KEEP-TAB-ORDER OVERLAY SIDE-LABELS NO-UNDERLINE THREE-D
+       AT COL 1 ROW 1 SIZE 60 BY 7 DEFAULT-BUTTON btnOk CANCEL-BUTTON btnCancel.
+
+&ANALYZE-SUSPEND _CREATE-WINDOW
+IF SESSION:DISPLAY-TYPE = "GUI":U THEN
+  CREATE WINDOW wWin ASSIGN
+         HIDDEN        = YES
+         TITLE         = "Warmup"
+         HEIGHT        = 7
+         WIDTH         = 60
+         RESIZE        = YES
+         SCROLL-BARS   = NO
+         STATUS-AREA   = NO
+         THREE-D       = YES
+         MESSAGE-AREA  = NO
+         SENSITIVE     = YES.
+ELSE wWin = CURRENT-WINDOW.
+&ANALYZE-RESUME
+
+&ANALYZE-SUSPEND _UIB-CODE-BLOCK _CONTROL btnOk wWin
+ON CHOOSE OF btnOk IN FRAME fMain
+DO:
+  ASSIGN fiName cbType tgActive.
+  IF fiName:SCREEN-VALUE = "" THEN DO:
+    MESSAGE "Name is mandatory" VIEW-AS ALERT-BOX WARNING BUTTONS OK.
+    APPLY "ENTRY":U TO fiName.
+    RETURN NO-APPLY.
+  END.
+END.
+&ANALYZE-RESUME
+
+&ANALYZE-SUSPEND _UIB-CODE-BLOCK _CONTROL fiName wWin
+ON LEAVE OF fiName IN FRAME fMain
+DO:
+  SELF:SCREEN-VALUE = CAPS(SELF:SCREEN-VALUE).
+END.
+&ANALYZE-RESUME
+
+&ANALYZE-SUSPEND _UIB-CODE-BLOCK _CUSTOM _MAIN-BLOCK wWin
+ASSIGN CURRENT-WINDOW = {&WINDOW-NAME}
+       THIS-PROCEDURE:CURRENT-WINDOW = {&WINDOW-NAME}.
+
+ON CLOSE OF THIS-PROCEDURE
+  RUN disable_UI.
+
+PAUSE 0 BEFORE-HIDE.
+
+MAIN-BLOCK:
+DO ON ERROR UNDO MAIN-BLOCK, LEAVE MAIN-BLOCK
+   ON END-KEY UNDO MAIN-BLOCK, LEAVE MAIN-BLOCK:
+  RUN enable_UI.
+  IF NOT THIS-PROCEDURE:PERSISTENT THEN
+    WAIT-FOR CLOSE OF THIS-PROCEDURE.
+END.
+&ANALYZE-RESUME
+
+&ANALYZE-SUSPEND _UIB-CODE-BLOCK _PROCEDURE enable_UI wWin _DEFAULT-ENABLE
+PROCEDURE enable_UI :
+  DISPLAY fiName cbType tgActive WITH FRAME fMain IN WINDOW wWin.
+  ENABLE {&ENABLED-OBJECTS} cbType tgActive WITH FRAME fMain IN WINDOW wWin.
+  VIEW FRAME fMain IN WINDOW wWin.
+  VIEW wWin.
+END PROCEDURE.
+&ANALYZE-RESUME
+
+&ANALYZE-SUSPEND _UIB-CODE-BLOCK _PROCEDURE disable_UI wWin _DEFAULT-DISABLE
+PROCEDURE disable_UI :
+  IF SESSION:DISPLAY-TYPE = "GUI":U AND VALID-HANDLE(wWin) THEN
+    DELETE WIDGET wWin.
+  IF THIS-PROCEDURE:PERSISTENT THEN DELETE PROCEDURE THIS-PROCEDURE.
+END PROCEDURE.
+&ANALYZE-RESUME
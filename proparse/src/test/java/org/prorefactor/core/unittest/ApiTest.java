@@ -126,6 +126,35 @@ public class ApiTest {
     assertNotNull(tok);
     assertEquals(tok.getNodeType(), ABLNodeType.PROPARSEDIRECTIVE);
     assertEquals(tok.getText(), "prolint-nowarn(something)");
+
+    // Same result from index
+    assertTrue(pu.getProparseDirectives().hasDirective(node1, "shared"));
+    assertTrue(pu.getProparseDirectives().hasDirective(node1, "something"));
+    assertFalse(pu.getProparseDirectives().hasDirective(node1, "other"));
+    assertFalse(pu.getProparseDirectives().hasDirective(node2, "shared"));
+  }
+
+  @Test
+  public void testProparseDirectivesIndex() throws ANTLRException {
+    String[] rules = {"abc", "def", "hij", "noundo", "shared", "something", "xxx", "xxxx", "zzz"};
+    for (String str : new String[] {
+        "data/nowarn.p", "data/no-undo.p", "data/preprocessor/preprocessor05.p",
+        "data/bugsfixed/ascending.p"}) {
+      ParseUnit pu = new ParseUnit(new File("src/test/resources/" + str), session);
+      pu.parse();
+      assertFalse(pu.getProparseDirectives().isEmpty(), str);
+      checkDirectives(pu, pu.getTopNode(), rules);
+    }
+  }
+
+  private static void checkDirectives(ParseUnit pu, JPNode node, String[] rules) {
+    for (String rule : rules) {
+      assertEquals(pu.getProparseDirectives().hasDirective(node, rule), node.hasProparseDirective(rule),
+          node + " " + rule);
+    }
+    for (JPNode child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+      checkDirectives(pu, child, rules);
+    }
   }
 
   @Test
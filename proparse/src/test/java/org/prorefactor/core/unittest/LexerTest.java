@@ -18,10 +18,13 @@ import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
 import static org.testng.Assert.assertTrue;
 
 import java.io.File;
+import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.nio.file.Files;
 
 import org.prorefactor.core.ABLNodeType;
 import org.prorefactor.core.ProToken;
@@ -37,6 +40,7 @@ import org.testng.annotations.BeforeTest;
 import org.testng.annotations.Test;
 
 import com.google.common.base.Charsets;
+import com.google.common.base.Strings;
 import com.google.inject.Guice;
 import com.google.inject.Injector;
 
@@ -856,4 +860,86 @@ public class LexerTest {
     assertEquals(tok.getNodeType(), ABLNodeType.PERIOD);
   }
 
+  @Test
+  public void testTokenTextPool() throws TokenStreamException {
+    ProToken tok1 = (ProToken) new ParseUnit(new File(SRC_DIR, "lexer15.p"), session).preprocess().nextToken();
+    ProToken tok2 = (ProToken) new ParseUnit(new File(SRC_DIR, "lexer15.p"), session).preprocess().nextToken();
+    assertEquals(tok1.getText(), "custnum");
+    // Same String instance is shared between both parse units
+    assertSame(tok1.getText(), tok2.getText());
+    assertSame(tok1.getHiddenBefore().getText(), tok2.getHiddenBefore().getText());
+    // Case-folded keys are shared as well
+    assertEquals(session.getTokenTextPool().toLowerCase("CustNum"), "custnum");
+    assertSame(session.getTokenTextPool().toLowerCase("CustNum"), tok1.getText());
+    assertSame(session.getTokenTextPool().toLowerCase("CUSTNUM"), tok1.getText());
+  }
+
+  @Test
+  public void testLexer16() throws TokenStreamException {
+    // Long runs of whitespaces, comments and identifiers are read in bulk
+    ParseUnit unit = new ParseUnit(new File(SRC_DIR, "lexer16.p"), session);
+    TokenStream stream = unit.lex();
+
+    ProToken tok = (ProToken) stream.nextToken();
+    assertEquals(tok.getNodeType(), ABLNodeType.COMMENT);
+    assertEquals(tok.getText(), "/* Multi-line\n   comment {&xx} */");
+    assertEquals(tok.getLine(), 1);
+    assertEquals(tok.getColumn(), 1);
+    assertEquals(tok.getEndLine(), 2);
+    assertEquals(tok.getEndColumn(), 19);
+    tok = (ProToken) stream.nextToken();
+    assertEquals(tok.getNodeType(), ABLNodeType.WS);
+    assertEquals(tok.getText(), "\n    \n  ");
+    assertEquals(tok.getEndLine(), 4);
+    assertEquals(tok.getEndColumn(), 2);
+    assertEquals(((ProToken) stream.nextToken()).getNodeType(), ABLNodeType.DEFINE);
+    assertEquals(((ProToken) stream.nextToken()).getNodeType(), ABLNodeType.WS);
+    assertEquals(((ProToken) stream.nextToken()).getNodeType(), ABLNodeType.VARIABLE);
+    assertEquals(((ProToken) stream.nextToken()).getNodeType(), ABLNodeType.WS);
+    tok = (ProToken) stream.nextToken();
+    assertEquals(tok.getNodeType(), ABLNodeType.ID);
+    assertEquals(tok.getText(), "myVariableName");
+    assertEquals(tok.getLine(), 4);
+    assertEquals(tok.getColumn(), 19);
+    assertEquals(tok.getEndLine(), 5);
+    assertEquals(tok.getEndColumn(), 4);
+    assertEquals(((ProToken) stream.nextToken()).getNodeType(), ABLNodeType.WS);
+    assertEquals(((ProToken) stream.nextToken()).getNodeType(), ABLNodeType.AS);
+    assertEquals(((ProToken) stream.nextToken()).getNodeType(), ABLNodeType.WS);
+    assertEquals(((ProToken) stream.nextToken()).getNodeType(), ABLNodeType.CHARACTER);
+    assertEquals(((ProToken) stream.nextToken()).getNodeType(), ABLNodeType.PERIOD);
+    assertEquals(((ProToken) stream.nextToken()).getNodeType(), ABLNodeType.WS);
+    tok = (ProToken) stream.nextToken();
+    assertEquals(tok.getNodeType(), ABLNodeType.COMMENT);
+    assertEquals(tok.getText(), "// Single line {&yy}");
+    assertEquals(tok.getLine(), 5);
+    assertEquals(tok.getColumn(), 20);
+    assertEquals(tok.getEndLine(), 5);
+    assertEquals(tok.getEndColumn(), 39);
+  }
+
+  @Test
+  public void testLargeFile() throws IOException, TokenStreamException {
+    // Files larger than the per-thread buffer are read in a dedicated buffer
+    File file = new File("target/lexer-large.p");
+    try {
+      Files.write(file.toPath(), ("/* " + Strings.repeat("x", 2 << 20) + " */\nMESSAGE \"\u00e9\".\n").getBytes(
+          session.getCharset()));
+      TokenStream stream = new ParseUnit(file, session).lex();
+      assertEquals(((ProToken) stream.nextToken()).getNodeType(), ABLNodeType.COMMENT);
+      assertEquals(((ProToken) stream.nextToken()).getNodeType(), ABLNodeType.WS);
+      ProToken tok = (ProToken) stream.nextToken();
+      assertEquals(tok.getNodeType(), ABLNodeType.MESSAGE);
+      assertEquals(tok.getLine(), 2);
+      assertEquals(((ProToken) stream.nextToken()).getNodeType(), ABLNodeType.WS);
+      assertEquals(stream.nextToken().getText(), "\"\u00e9\"");
+    } finally {
+      Files.deleteIfExists(file.toPath());
+    }
+
+    // Small files still use the per-thread buffer
+    TokenStream stream = new ParseUnit(new File(SRC_DIR, "tokenlist01.p"), session).lex();
+    assertEquals(stream.nextToken().getType(), ProParserTokenTypes.CURRENTWINDOW);
+  }
+
 }
@@ -0,0 +1,93 @@
+/********************************************************************************
+ * Copyright (c) 2015-2018 Riverside Software
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU Lesser General Public License v3.0
+ * which is available at https://www.gnu.org/licenses/lgpl-3.0.txt
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR LGPL-3.0
+ ********************************************************************************/
+package org.prorefactor.core.unittest;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+import java.io.IOException;
+import java.util.Iterator;
+
+import org.prorefactor.core.schema.IField;
+import org.prorefactor.core.schema.ITable;
+import org.prorefactor.core.schema.Schema;
+import org.prorefactor.core.unittest.util.SportsSchema;
+import org.testng.annotations.BeforeTest;
+import org.testng.annotations.Test;
+
+public class SchemaTest {
+  private Schema schema;
+
+  @BeforeTest
+  public void setUp() throws IOException {
+    schema = new SportsSchema();
+  }
+
+  @Test
+  public void testTableLookup() {
+    assertEquals(schema.lookupTable("Customer").getName(), "Customer");
+    assertEquals(schema.lookupTable("CUSTOM").getName(), "Customer");
+    assertEquals(schema.lookupTable("sports2000", "cust").getName(), "Customer");
+    assertEquals(schema.lookupTable("sports2000.cust").getName(), "Customer");
+    // Exact match wins over longer names
+    assertEquals(schema.lookupTable("order").getName(), "Order");
+    assertEquals(schema.lookupTable("sports2000", "ORDER").getName(), "Order");
+    // Ambiguous abbreviations
+    assertNull(schema.lookupTable("ord"));
+    assertNull(schema.lookupTable("sports2000", "ord"));
+    assertNull(schema.lookupTable("b"));
+    assertNull(schema.lookupTable("customers"));
+    assertNull(schema.lookupTable(""));
+    // Meta-schema
+    assertEquals(schema.lookupTable("_file").getName(), "_File");
+  }
+
+  @Test
+  public void testFieldLookup() {
+    ITable table = schema.lookupTable("customer");
+    assertNotNull(table);
+    assertEquals(table.lookupField("custnum").getName(), "CustNum");
+    assertEquals(table.lookupField("CustN").getName(), "CustNum");
+    // Exact match first, no uniqueness check for abbreviations
+    assertEquals(table.lookupField("address").getName(), "Address");
+    assertEquals(table.lookupField("addr").getName(), "Address");
+    assertNull(table.lookupField("xyz"));
+  }
+
+  @Test
+  public void testUnqualifiedFieldLookup() {
+    for (String name : new String[] {
+        "custnum", "CustNum", "cust", "name", "n", "addr", "address2", "ordernum", "_file-name", "itemnum", "zzz",
+        "x", "_"}) {
+      assertSame(schema.lookupUnqualifiedField(name), lookupUnqualifiedField(name), name);
+    }
+    assertEquals(schema.lookupUnqualifiedField("custnum").getTable().getName(), "BillTo");
+  }
+
+  /**
+   * Reference implementation: first table with a matching field
+   */
+  private IField lookupUnqualifiedField(String name) {
+    Iterator<ITable> iter = schema.getAllTablesIterator();
+    while (iter.hasNext()) {
+      IField field = iter.next().lookupField(name);
+      if (field != null)
+        return field;
+    }
+    return null;
+  }
+}
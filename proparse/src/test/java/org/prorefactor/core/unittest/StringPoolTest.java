@@ -0,0 +1,60 @@
+/********************************************************************************
+ * Copyright (c) 2015-2018 Riverside Software
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU Lesser General Public License v3.0
+ * which is available at https://www.gnu.org/licenses/lgpl-3.0.txt
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR LGPL-3.0
+ ********************************************************************************/
+package org.prorefactor.core.unittest;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+
+import org.prorefactor.proparse.StringPool;
+import org.testng.annotations.Test;
+
+public class StringPoolTest {
+
+  @Test
+  public void testIntern() {
+    StringPool pool = new StringPool();
+    String str1 = pool.intern(new StringBuilder("Foobar"));
+    assertSame(pool.intern(new StringBuilder("Foobar")), str1);
+    assertSame(pool.intern("Foobar"), str1);
+    assertEquals(pool.size(), 1);
+  }
+
+  @Test
+  public void testToLowerCase() {
+    StringPool pool = new StringPool();
+    String lower = pool.toLowerCase("Foobar");
+    assertEquals(lower, "foobar");
+    assertSame(pool.toLowerCase("FOOBAR"), lower);
+    // Already lowercase, same instance is returned and not pooled
+    String str = new String("barfoo");
+    assertSame(pool.toLowerCase(str), str);
+    assertEquals(pool.size(), 1);
+  }
+
+  @Test
+  public void testClear() {
+    StringPool pool = new StringPool();
+    String str1 = pool.intern(new StringBuilder("Foobar"));
+    assertEquals(pool.toLowerCase(str1), "foobar");
+    assertEquals(pool.size(), 2);
+    pool.clear();
+    assertEquals(pool.size(), 0);
+    String str2 = pool.intern(new StringBuilder("Foobar"));
+    assertEquals(str2, str1);
+    assertNotSame(str2, str1);
+    assertSame(pool.intern("Foobar"), str2);
+  }
+}
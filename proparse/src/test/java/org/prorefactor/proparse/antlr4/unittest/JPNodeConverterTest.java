@@ -0,0 +1,257 @@
+/********************************************************************************
+ * Copyright (c) 2015-2018 Riverside Software
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU Lesser General Public License v3.0
+ * which is available at https://www.gnu.org/licenses/lgpl-3.0.txt
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR LGPL-3.0
+ ********************************************************************************/
+package org.prorefactor.proparse.antlr4.unittest;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.prorefactor.core.ABLNodeType;
+import org.prorefactor.core.IConstants;
+import org.prorefactor.core.JPNode;
+import org.prorefactor.core.ProToken;
+import org.prorefactor.core.unittest.util.UnitTestModule;
+import org.prorefactor.refactor.RefactorSession;
+import org.prorefactor.treeparser.ParseUnit;
+import org.testng.annotations.BeforeTest;
+import org.testng.annotations.Test;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+
+import antlr.ANTLRException;
+import antlr.RecognitionException;
+
+/**
+ * Validate that the ANTLR4 parser generates the same JPNode tree as ProParser
+ */
+public class JPNodeConverterTest {
+  private static final String SRC_DIR = "src/test/resources";
+  private static final int[] ATTRIBUTES = {
+      IConstants.STATEHEAD, IConstants.STATE2, IConstants.OPERATOR, IConstants.STORETYPE, IConstants.INLINE_VAR_DEF};
+  // Syntax not yet supported (or with a different tree) in the ANTLR4 grammar
+  private static final List<String> KNOWN_DIFFERENCES = Arrays.asList("data/bugsfixed/bug39.p",
+      "data/parser/ascending02.p", "data/newsyntax/101b/Test2.cls", "data/newsyntax/102b/type_names.p",
+      "data/newsyntax/11n/ParameterHandleTo.p", "data/newsyntax/11n/tenant.p",
+      "data/newsyntax/prolint/regrtest-oo/test5.cls", "data/rssw/pct/LoadLogger.cls", "treeparser02/test35.p",
+      "treeparser02/test36.p");
+
+  private RefactorSession session;
+
+  @BeforeTest
+  public void setUp() {
+    Injector injector = Guice.createInjector(new UnitTestModule());
+    session = injector.getInstance(RefactorSession.class);
+  }
+
+  @Test
+  public void testCorpus() throws IOException {
+    List<String> errors = new ArrayList<>();
+    int numFiles = 0;
+    for (String fileName : getCorpus()) {
+      File file = new File(SRC_DIR, fileName);
+      ParseUnit unit2 = new ParseUnit(file, session);
+      try {
+        unit2.treeParser01();
+      } catch (ANTLRException | RuntimeException uncaught) {
+        // Not part of the corpus
+        continue;
+      }
+      ParseUnit unit4 = new ParseUnit(file, session);
+      unit4.setANTLR4(true);
+      try {
+        unit4.treeParser01();
+        String diff = compare(unit2.getTopNode(), unit4.getTopNode());
+        if (diff == null)
+          diff = compareSymbols(unit2, unit4);
+        if ((diff != null) && !KNOWN_DIFFERENCES.contains(fileName))
+          errors.add(fileName + " -- " + diff);
+      } catch (ANTLRException | RuntimeException caught) {
+        if (!KNOWN_DIFFERENCES.contains(fileName))
+          errors.add(fileName + " -- " + caught);
+      }
+      numFiles++;
+    }
+    assertTrue(numFiles > 150);
+    assertTrue(errors.isEmpty(), String.join("\n", errors));
+  }
+
+  @Test
+  public void testHiddenTokens() throws ANTLRException {
+    ParseUnit unit = new ParseUnit(new File(SRC_DIR, "data/bugsfixed/bug04.p"), session);
+    unit.setANTLR4(true);
+    unit.parse();
+    ParseUnit unit2 = new ParseUnit(new File(SRC_DIR, "data/bugsfixed/bug04.p"), session);
+    unit2.parse();
+    assertEquals(unit.getTopNode().toStringFulltext(), unit2.getTopNode().toStringFulltext());
+    JPNode first = unit.getTopNode().firstNaturalChild();
+    assertNotNull(first.getHiddenBefore());
+    assertEquals(first.getComments(), unit2.getTopNode().firstNaturalChild().getComments());
+  }
+
+  @Test
+  public void testOnTriggerScope() throws ANTLRException {
+    // Inline variables are defined in the scope of the trigger, which is also used by nested code blocks
+    String src = "DEFINE BUTTON b1.\n"
+        + "ON CHOOSE OF b1 DO:\n"
+        + "  MESSAGE 'x' UPDATE lVar1 AS LOGICAL.\n"
+        + "  DO:\n"
+        + "    MESSAGE 'y' UPDATE lVar2 AS LOGICAL.\n"
+        + "  END.\n"
+        + "END.\n"
+        + "PROCEDURE p1:\n"
+        + "  ON CHOOSE OF b1 DO:\n"
+        + "    REPEAT:\n"
+        + "      MESSAGE 'z' UPDATE lVar3 AS LOGICAL.\n"
+        + "    END.\n"
+        + "  END.\n"
+        + "END PROCEDURE.\n";
+    ParseUnit unit4 = new ParseUnit(new ByteArrayInputStream(src.getBytes(StandardCharsets.UTF_8)), "trigger.p",
+        session);
+    unit4.setANTLR4(true);
+    unit4.treeParser01();
+    ParseUnit unit2 = new ParseUnit(new ByteArrayInputStream(src.getBytes(StandardCharsets.UTF_8)), "trigger.p",
+        session);
+    unit2.treeParser01();
+
+    List<JPNode> fields4 = unit4.getTopNode().query(ABLNodeType.FIELD_REF).stream().filter(
+        node -> node.getFirstChild().getText().startsWith("lVar")).collect(Collectors.toList());
+    List<JPNode> fields2 = unit2.getTopNode().query(ABLNodeType.FIELD_REF).stream().filter(
+        node -> node.getFirstChild().getText().startsWith("lVar")).collect(Collectors.toList());
+    assertEquals(fields4.size(), 3);
+    assertEquals(fields2.size(), 3);
+    for (int zz = 0; zz < 3; zz++) {
+      assertEquals(fields4.get(zz).attrGet(IConstants.INLINE_VAR_DEF), IConstants.TRUE,
+          fields4.get(zz).getFirstChild().getText());
+      assertEquals(fields4.get(zz).attrGet(IConstants.INLINE_VAR_DEF),
+          fields2.get(zz).attrGet(IConstants.INLINE_VAR_DEF));
+    }
+    assertEquals(compare(unit2.getTopNode(), unit4.getTopNode()), null);
+    assertEquals(compareSymbols(unit2, unit4), null);
+  }
+
+  @Test
+  public void testLongStatementList() throws ANTLRException {
+    StringBuilder sb = new StringBuilder("DEFINE VARIABLE i AS INTEGER NO-UNDO.\n");
+    for (int zz = 0; zz < 50000; zz++) {
+      sb.append("i = ").append(zz).append(".\n");
+    }
+    ParseUnit unit = new ParseUnit(new ByteArrayInputStream(sb.toString().getBytes(StandardCharsets.UTF_8)),
+        "long.p", session);
+    unit.setANTLR4(true);
+    unit.parse();
+    int numStatements = 0;
+    for (JPNode node = unit.getTopNode().getFirstChild(); node != null; node = node.getNextSibling()) {
+      numStatements++;
+    }
+    // Plus EOF node
+    assertEquals(numStatements, 50002);
+  }
+
+  @Test
+  public void testSyntaxError() {
+    ParseUnit unit = new ParseUnit(new File(SRC_DIR, "data/parser/ascending02.p"), session);
+    unit.setANTLR4(true);
+    try {
+      unit.parse();
+      fail("SQL SELECT not supported by ANTLR4 grammar");
+    } catch (RecognitionException caught) {
+      assertEquals(caught.getLine(), 1);
+      assertTrue(caught.getFilename().endsWith("ascending02.p"));
+    } catch (ANTLRException caught) {
+      fail("Unexpected exception", caught);
+    }
+  }
+
+  /**
+   * @return Relative path of all procedures and classes of the test directories
+   */
+  private static List<String> getCorpus() throws IOException {
+    Path root = new File(SRC_DIR).toPath();
+    List<String> list = new ArrayList<>();
+    for (String dir : new String[] {
+        "data/bugsfixed", "data/parser", "data/newsyntax", "data/rssw", "data/tp01ProcessTests", "treeparser01",
+        "treeparser02", "treeparser03", "treeparser04"}) {
+      try (Stream<Path> stream = Files.walk(root.resolve(dir))) {
+        list.addAll(stream.filter(p -> p.toFile().isFile() && (p.toString().endsWith(".p")
+            || p.toString().endsWith(".w") || p.toString().endsWith(".cls"))).map(
+                p -> root.relativize(p).toString().replace('\\', '/')).sorted().collect(Collectors.toList()));
+      }
+    }
+    return list;
+  }
+
+  private static String compareSymbols(ParseUnit unit2, ParseUnit unit4) {
+    List<String> symbols2 = unit2.getRootScope().getAllSymbolsDeep().stream().map(
+        s -> s.getName() + ":" + s.getNumReads() + ":" + s.getNumWrites()).collect(Collectors.toList());
+    List<String> symbols4 = unit4.getRootScope().getAllSymbolsDeep().stream().map(
+        s -> s.getName() + ":" + s.getNumReads() + ":" + s.getNumWrites()).collect(Collectors.toList());
+    return symbols2.equals(symbols4) ? null : "Different symbols " + symbols2 + " -- " + symbols4;
+  }
+
+  /**
+   * @return Null if both trees are identical, otherwise description of first difference
+   */
+  private static String compare(JPNode node2, JPNode node4) {
+    if (node4 == null)
+      return "Missing node " + node2;
+    if ((node2.getNodeType() != node4.getNodeType()) || !node2.getText().equals(node4.getText()))
+      return "Different nodes " + node2 + " -- " + node4;
+    if ((node2.getFileIndex() != node4.getFileIndex()) || (node2.getLine() != node4.getLine())
+        || (node2.getColumn() != node4.getColumn()))
+      return "Different positions " + node2 + " -- " + node4;
+    if (node2.getClass() != node4.getClass())
+      return "Different classes " + node2 + " " + node2.getClass() + " -- " + node4.getClass();
+    for (int attr : ATTRIBUTES) {
+      if (node2.attrGet(attr) != node4.attrGet(attr))
+        return "Different attribute " + attr + " on " + node2;
+    }
+    if (!node2.attrGetS(IConstants.QUALIFIED_CLASS_INT).equals(node4.attrGetS(IConstants.QUALIFIED_CLASS_INT)))
+      return "Different class name on " + node2;
+    if (!hiddenText(node2.getHiddenBefore()).equals(hiddenText(node4.getHiddenBefore())))
+      return "Different hidden tokens before " + node2 + " [" + hiddenText(node2.getHiddenBefore()) + "] -- [" + hiddenText(node4.getHiddenBefore()) + "]";
+    JPNode ch4 = node4.getFirstChild();
+    for (JPNode ch2 = node2.getFirstChild(); ch2 != null; ch2 = ch2.getNextSibling()) {
+      String str = compare(ch2, ch4);
+      if (str != null)
+        return str;
+      ch4 = ch4.getNextSibling();
+    }
+    if (ch4 != null)
+      return "Extra node " + ch4;
+    return null;
+  }
+
+  private static String hiddenText(ProToken tok) {
+    StringBuilder sb = new StringBuilder();
+    for (ProToken t = tok; t != null; t = t.getPrev()) {
+      sb.insert(0, t.getText());
+    }
+    return sb.toString();
+  }
+}
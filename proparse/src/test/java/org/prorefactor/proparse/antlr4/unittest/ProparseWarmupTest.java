@@ -0,0 +1,71 @@
+/********************************************************************************
+ * Copyright (c) 2015-2018 Riverside Software
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU Lesser General Public License v3.0
+ * which is available at https://www.gnu.org/licenses/lgpl-3.0.txt
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR LGPL-3.0
+ ********************************************************************************/
+package org.prorefactor.proparse.antlr4.unittest;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.prorefactor.core.unittest.util.UnitTestModule;
+import org.prorefactor.proparse.antlr4.ProparseWarmup;
+import org.prorefactor.refactor.RefactorSession;
+import org.prorefactor.treeparser.ParseUnit;
+import org.testng.annotations.BeforeTest;
+import org.testng.annotations.Test;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+
+import antlr.ANTLRException;
+
+public class ProparseWarmupTest {
+  private RefactorSession session;
+
+  @BeforeTest
+  public void setUp() {
+    Injector injector = Guice.createInjector(new UnitTestModule());
+    session = injector.getInstance(RefactorSession.class);
+  }
+
+  @Test
+  public void testFiles() throws IOException, ANTLRException {
+    // Warm-up silently ignores errors, so bundled files are checked here with both parsers
+    for (String file : new String[] {"procedure.p", "Customer.cls", "window.w"}) {
+      ParseUnit unit = new ParseUnit(getResource(file), file, session);
+      unit.treeParser01();
+      ParseUnit unit4 = new ParseUnit(getResource(file), file, session);
+      unit4.setANTLR4(true);
+      unit4.parse();
+      assertEquals(unit4.getTopNode().queryStateHead().size(), unit.getTopNode().queryStateHead().size(), file);
+    }
+  }
+
+  @Test
+  public void testRunOnce() {
+    ProparseWarmup.run(session);
+    assertTrue(ProparseWarmup.isDone());
+    assertFalse(ProparseWarmup.run(session));
+  }
+
+  private static InputStream getResource(String file) {
+    InputStream input = ProparseWarmup.class.getResourceAsStream("warmup/" + file);
+    assertNotNull(input, file);
+    return input;
+  }
+}
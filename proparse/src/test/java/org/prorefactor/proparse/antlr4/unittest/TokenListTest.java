@@ -0,0 +1,189 @@
+/********************************************************************************
+ * Copyright (c) 2015-2018 Riverside Software
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU Lesser General Public License v3.0
+ * which is available at https://www.gnu.org/licenses/lgpl-3.0.txt
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR LGPL-3.0
+ ********************************************************************************/
+package org.prorefactor.proparse.antlr4.unittest;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.IntStream;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenFactory;
+import org.antlr.v4.runtime.TokenSource;
+import org.prorefactor.core.ABLNodeType;
+import org.prorefactor.proparse.antlr4.ProToken;
+import org.prorefactor.proparse.antlr4.TokenList;
+import org.testng.annotations.Test;
+
+public class TokenListTest {
+
+  @Test
+  public void testBoundedLookback() {
+    // 10000 statements without any OBJCOLON
+    List<ProToken> tokens = new ArrayList<>();
+    for (int zz = 0; zz < 10000; zz++) {
+      tokens.add(new ProToken(ABLNodeType.ID, "x"));
+      tokens.add(new ProToken(ABLNodeType.PERIOD, "."));
+      tokens.add(new ProToken(ABLNodeType.WS, " "));
+    }
+    tokens.add(new ProToken(ABLNodeType.EOF_ANTLR4, ""));
+    ListSource source = new ListSource(tokens);
+    TokenList list = new TokenList(source);
+
+    Token tok = list.nextToken();
+    assertEquals(tok.getType(), ABLNodeType.ID.getType());
+    // Only a few tokens are read ahead, not the whole stream
+    assertTrue(source.count < 10, "Too many tokens read: " + source.count);
+
+    int count = 1;
+    while (list.nextToken().getType() != Token.EOF) {
+      assertTrue(source.count - count < 10, "Too many tokens buffered: " + (source.count - count));
+      count++;
+    }
+    assertEquals(count, 30000);
+    // EOF is returned again
+    assertEquals(list.nextToken().getType(), Token.EOF);
+    assertEquals(list.nextToken().getTokenIndex(), 30000);
+  }
+
+  @Test
+  public void testObjcolonNamedot() {
+    // MESSAGE com.foo:Method.
+    List<ProToken> tokens = new ArrayList<>();
+    tokens.add(new ProToken(ABLNodeType.MESSAGE, "MESSAGE"));
+    tokens.add(new ProToken(ABLNodeType.WS, " "));
+    tokens.add(new ProToken(ABLNodeType.ID, "com"));
+    tokens.add(new ProToken(ABLNodeType.NAMEDOT, "."));
+    tokens.add(new ProToken(ABLNodeType.ID, "foo"));
+    tokens.add(new ProToken(ABLNodeType.OBJCOLON, ":"));
+    tokens.add(new ProToken(ABLNodeType.ID, "Method"));
+    tokens.add(new ProToken(ABLNodeType.PERIOD, "."));
+    tokens.add(new ProToken(ABLNodeType.EOF_ANTLR4, ""));
+    TokenList list = new TokenList(new ListSource(tokens));
+
+    assertEquals(list.nextToken().getType(), ABLNodeType.MESSAGE.getType());
+    assertEquals(list.nextToken().getType(), ABLNodeType.WS.getType());
+    Token tok = list.nextToken();
+    assertEquals(tok.getType(), ABLNodeType.ID.getType());
+    assertEquals(tok.getText(), "com.foo");
+    assertEquals(tok.getTokenIndex(), 2);
+    assertEquals(list.nextToken().getType(), ABLNodeType.OBJCOLON.getType());
+    assertEquals(list.nextToken().getType(), ABLNodeType.ID.getType());
+    assertEquals(list.nextToken().getType(), ABLNodeType.PERIOD.getType());
+    assertEquals(list.nextToken().getType(), Token.EOF);
+  }
+
+  @Test
+  public void testObjcolonReservedKeyword() {
+    // x = message /* comment */ :Method. Only the keyword before the colon becomes an ID
+    List<ProToken> tokens = new ArrayList<>();
+    tokens.add(new ProToken(ABLNodeType.ID, "x"));
+    tokens.add(new ProToken(ABLNodeType.WS, " "));
+    tokens.add(new ProToken(ABLNodeType.EQUAL, "="));
+    tokens.add(new ProToken(ABLNodeType.WS, " "));
+    tokens.add(new ProToken(ABLNodeType.MESSAGE, "message"));
+    tokens.add(new ProToken(ABLNodeType.WS, " "));
+    tokens.add(new ProToken(ABLNodeType.COMMENT, "/* comment */"));
+    tokens.add(new ProToken(ABLNodeType.OBJCOLON, ":"));
+    tokens.add(new ProToken(ABLNodeType.ID, "Method"));
+    tokens.add(new ProToken(ABLNodeType.PERIOD, "."));
+    tokens.add(new ProToken(ABLNodeType.EOF_ANTLR4, ""));
+    TokenList list = new TokenList(new ListSource(tokens));
+
+    assertEquals(list.nextToken().getType(), ABLNodeType.ID.getType());
+    assertEquals(list.nextToken().getType(), ABLNodeType.WS.getType());
+    assertEquals(list.nextToken().getType(), ABLNodeType.EQUAL.getType());
+    assertEquals(list.nextToken().getType(), ABLNodeType.WS.getType());
+    Token tok = list.nextToken();
+    assertEquals(tok.getType(), ABLNodeType.ID.getType());
+    assertEquals(tok.getText(), "message");
+    assertEquals(list.nextToken().getType(), ABLNodeType.WS.getType());
+    assertEquals(list.nextToken().getType(), ABLNodeType.COMMENT.getType());
+    assertEquals(list.nextToken().getType(), ABLNodeType.OBJCOLON.getType());
+    assertEquals(list.nextToken().getType(), ABLNodeType.ID.getType());
+    assertEquals(list.nextToken().getType(), ABLNodeType.PERIOD.getType());
+    assertEquals(list.nextToken().getType(), Token.EOF);
+  }
+
+  @Test
+  public void testObjcolonSystemHandle() {
+    // SESSION:FIRST-SERVER-SOCKET:HANDLE, system handle is not converted
+    List<ProToken> tokens = new ArrayList<>();
+    tokens.add(new ProToken(ABLNodeType.SESSION, "SESSION"));
+    tokens.add(new ProToken(ABLNodeType.OBJCOLON, ":"));
+    tokens.add(new ProToken(ABLNodeType.ID, "FIRST-SERVER-SOCKET"));
+    tokens.add(new ProToken(ABLNodeType.OBJCOLON, ":"));
+    tokens.add(new ProToken(ABLNodeType.HANDLE, "HANDLE"));
+    tokens.add(new ProToken(ABLNodeType.EOF_ANTLR4, ""));
+    TokenList list = new TokenList(new ListSource(tokens));
+
+    assertEquals(list.nextToken().getType(), ABLNodeType.SESSION.getType());
+    assertEquals(list.nextToken().getType(), ABLNodeType.OBJCOLON.getType());
+    assertEquals(list.nextToken().getType(), ABLNodeType.ID.getType());
+    assertEquals(list.nextToken().getType(), ABLNodeType.OBJCOLON.getType());
+    assertEquals(list.nextToken().getType(), ABLNodeType.HANDLE.getType());
+    assertEquals(list.nextToken().getType(), Token.EOF);
+  }
+
+  /**
+   * Returns tokens from a list, and counts how many of them were read
+   */
+  private static class ListSource implements TokenSource {
+    private final List<ProToken> tokens;
+    private int count;
+
+    ListSource(List<ProToken> tokens) {
+      this.tokens = tokens;
+    }
+
+    @Override
+    public Token nextToken() {
+      return tokens.get(Math.min(count++, tokens.size() - 1));
+    }
+
+    @Override
+    public int getLine() {
+      return 0;
+    }
+
+    @Override
+    public int getCharPositionInLine() {
+      return 0;
+    }
+
+    @Override
+    public CharStream getInputStream() {
+      return null;
+    }
+
+    @Override
+    public String getSourceName() {
+      return IntStream.UNKNOWN_SOURCE_NAME;
+    }
+
+    @Override
+    public void setTokenFactory(TokenFactory<?> factory) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public TokenFactory<?> getTokenFactory() {
+      return null;
+    }
+  }
+}
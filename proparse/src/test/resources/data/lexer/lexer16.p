@@ -0,0 +1,6 @@
+/* Multi-line
+   comment {&xx} */
+    
+  DEFINE VARIABLE myVariable~
+Name AS CHARACTER. // Single line {&yy}
+MESSAGE myVariableName.